@@ -0,0 +1,12 @@
+#!/bin/sh
+# Compiles and runs the per-frame allocation check, exiting with status 1 if
+# a steady-state frame allocates. Arguments are passed to AllocationCheck.
+#
+# Escape analysis is disabled so that allocations the Dalvik VM would make
+# are not optimized away by the desktop JVM.
+cd "$(dirname "$0")/.." || exit 1
+rm -rf benchmark/bin
+javac -d benchmark/bin -sourcepath src:benchmark/src \
+	benchmark/src/org/ruscoe/sheep/benchmark/AllocationCheck.java || exit 1
+java -XX:-DoEscapeAnalysis -cp benchmark/bin \
+	org.ruscoe.sheep.benchmark.AllocationCheck "$@"
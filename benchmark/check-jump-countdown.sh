@@ -0,0 +1,9 @@
+#!/bin/sh
+# Compiles and runs the exponential jump countdown check, exiting with
+# status 1 if the countdown's distribution differs from rolling on every
+# update. Arguments are passed to JumpCountdownCheck.
+cd "$(dirname "$0")/.." || exit 1
+rm -rf benchmark/bin
+javac -d benchmark/bin -sourcepath src:benchmark/src \
+	benchmark/src/org/ruscoe/sheep/benchmark/JumpCountdownCheck.java || exit 1
+java -cp benchmark/bin org.ruscoe.sheep.benchmark.JumpCountdownCheck "$@"
@@ -0,0 +1,17 @@
+#!/bin/sh
+# Compiles and runs the score history check against SQLite, exiting with
+# status 1 if a query is not served by its index or returns wrong results.
+# Arguments are passed to ScoreHistoryCheck.
+#
+# Needs the SQLite JDBC driver (org.xerial:sqlite-jdbc), which stands in for
+# the Android SQLite binding. Set SQLITE_JDBC to the path of its jar.
+cd "$(dirname "$0")/.." || exit 1
+if [ -z "$SQLITE_JDBC" ] || [ ! -f "$SQLITE_JDBC" ]; then
+	echo "Set SQLITE_JDBC to the path of the sqlite-jdbc jar." >&2
+	exit 1
+fi
+rm -rf benchmark/bin
+javac -d benchmark/bin -sourcepath src:benchmark/src \
+	benchmark/src/org/ruscoe/sheep/benchmark/ScoreHistoryCheck.java || exit 1
+java -cp "benchmark/bin:$SQLITE_JDBC" \
+	org.ruscoe.sheep.benchmark.ScoreHistoryCheck "$@"
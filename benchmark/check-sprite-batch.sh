@@ -0,0 +1,9 @@
+#!/bin/sh
+# Compiles and runs the sprite batch layout check, exiting with status 1 if
+# the vertex or index buffers differ from the layout GLSpriteRenderer
+# expects.
+cd "$(dirname "$0")/.." || exit 1
+rm -rf benchmark/bin
+javac -d benchmark/bin -sourcepath src:benchmark/src \
+	benchmark/src/org/ruscoe/sheep/benchmark/SpriteBatchCheck.java || exit 1
+java -cp benchmark/bin org.ruscoe.sheep.benchmark.SpriteBatchCheck "$@"
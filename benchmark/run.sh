@@ -0,0 +1,7 @@
+#!/bin/sh
+# Compiles and runs the benchmarks. Arguments are passed to BenchmarkRunner.
+cd "$(dirname "$0")/.." || exit 1
+rm -rf benchmark/bin
+javac -d benchmark/bin -sourcepath src:benchmark/src \
+	benchmark/src/org/ruscoe/sheep/benchmark/BenchmarkRunner.java || exit 1
+java -cp benchmark/bin org.ruscoe.sheep.benchmark.BenchmarkRunner "$@"
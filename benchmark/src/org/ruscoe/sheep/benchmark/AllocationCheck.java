@@ -0,0 +1,217 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.util.Locale;
+
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.profiling.FrameProfiler;
+import org.ruscoe.sheep.render.RecordingRenderer;
+import org.ruscoe.sheep.render.WorldDrawer;
+import org.ruscoe.sheep.simulation.GameWorld;
+import org.ruscoe.sheep.simulation.SnapshotBuffer;
+import org.ruscoe.sheep.simulation.WorldInput;
+import org.ruscoe.sheep.simulation.WorldSnapshot;
+import org.ruscoe.sheep.util.TextUtil;
+
+/**
+ * Checks that a steady-state frame allocates nothing.
+ *
+ * Runs the game at each difficulty for a number of warmup frames, so that
+ * buffers sized on demand reach their full size, then counts the bytes
+ * allocated over a number of measured frames. Each frame does the work
+ * GameThread does off the Canvas: a profiled world tick, a snapshot passed
+ * through a SnapshotBuffer, and the snapshot drawn by a WorldDrawer into a
+ * RecordingRenderer, followed by formatting the UI text.
+ *
+ * The measured frames are counted in windows of WINDOW_FRAMES, each long
+ * enough to include every periodic event. Steady-state allocation shows in
+ * every window. A method recompiled late in the run can show a few bytes
+ * allocated by the JIT in one window, but not in the others, so only the
+ * window allocating least is held to the budget.
+ *
+ * Exits with status 1 if every window allocates more than
+ * FRAME_BUDGET_BYTES per frame, or if allocation cannot be counted on this
+ * JVM.
+ *
+ * Usage: AllocationCheck [-w warmupFrames] [-n frames]
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class AllocationCheck
+{
+	// The default number of unmeasured warmup frames per difficulty. Long
+	// enough for every frame method to reach its final compiled form, so
+	// transient allocation while code is recompiled is not measured.
+	public static final int DEFAULT_WARMUP_FRAMES = 50000;
+	// The default number of measured frames per difficulty.
+	public static final int DEFAULT_FRAMES = 20000;
+
+	// The bytes a steady-state frame may allocate.
+	public static final long FRAME_BUDGET_BYTES = 0;
+
+	// The maximum number of sheep at each difficulty.
+	private static final int[] MAX_SHEEP = { GameSettings.MAX_SHEEP_EASY,
+			GameSettings.MAX_SHEEP_NORMAL, GameSettings.MAX_SHEEP_UNFAIR };
+
+	// The frames between every sheep being exploded, so debris is emitted
+	// in bulk as well as by sheep falling.
+	private static final int EXPLODE_INTERVAL = 2500;
+
+	// The frames between changes of bounce pad direction.
+	private static final int TILT_INTERVAL = 300;
+
+	// The frames counted together. Covers two explosions and a full cycle
+	// of bounce pad directions.
+	private static final int WINDOW_FRAMES = (EXPLODE_INTERVAL * 2);
+
+	private int mWarmupFrames = DEFAULT_WARMUP_FRAMES;
+	private int mFrames = DEFAULT_FRAMES;
+
+	private AllocationCounter mAllocationCounter = new AllocationCounter();
+
+	private GameWorld mWorld = WorldFixture.createWorld();
+	private WorldInput mInput = WorldFixture.createInput();
+	private FrameProfiler mProfiler = new FrameProfiler();
+	private SnapshotBuffer mSnapshots = new SnapshotBuffer();
+
+	// Draws each snapshot, as in GameThread, into a recording.
+	private WorldDrawer mDrawer = WorldFixture.createDrawer(mProfiler);
+	private RecordingRenderer mRecorder = new RecordingRenderer();
+
+	// Filled with the UI text, as by ScoreHud.
+	private char[] mUiText = new char[TextUtil.MAX_SCORE_TEXT_LENGTH];
+
+	// The sum of values read from each frame. Kept so that drawing
+	// cannot be optimized away.
+	private int mSink = 0;
+
+	public static void main(String[] args)
+	{
+		AllocationCheck check = new AllocationCheck();
+
+		int i;
+		for (i = 0; i <= (args.length - 1); i++)
+		{
+			if (args[i].equals("-w") && (i < (args.length - 1)))
+			{
+				check.mWarmupFrames = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-n") && (i < (args.length - 1)))
+			{
+				check.mFrames = Integer.parseInt(args[++i]);
+			}
+		}
+
+		if (!check.mAllocationCounter.isAvailable())
+		{
+			System.out.println("Allocation cannot be counted on this JVM.");
+			System.exit(1);
+		}
+
+		int failures = 0;
+
+		for (i = 0; i <= (MAX_SHEEP.length - 1); i++)
+		{
+			if (!check.run(MAX_SHEEP[i]))
+			{
+				failures++;
+			}
+		}
+
+		// Print the sink so that it is used.
+		System.out.println("(sink " + check.mSink + ")");
+
+		System.exit((failures > 0) ? 1 : 0);
+	}
+
+	/**
+	 * Runs the game at a difficulty and checks the allocation of its frames.
+	 *
+	 * @param int maxSheep - The maximum number of sheep.
+	 * @return boolean - True if the steady-state frames were within budget.
+	 */
+	public boolean run(int maxSheep)
+	{
+		mWorld.setProfiler(mProfiler);
+		mWorld.start(maxSheep, 0, WorldFixture.SEED);
+
+		int frame;
+		for (frame = 0; frame <= (mWarmupFrames - 1); frame++)
+		{
+			runFrame(frame);
+		}
+
+		int windows = Math.max(1, (mFrames / WINDOW_FRAMES));
+		int windowFrames = (mFrames / windows);
+
+		long allocated = 0;
+		long leastAllocated = Long.MAX_VALUE;
+
+		int window;
+		for (window = 0; window <= (windows - 1); window++)
+		{
+			long start = mAllocationCounter.getAllocatedBytes();
+
+			int i;
+			for (i = 0; i <= (windowFrames - 1); i++)
+			{
+				runFrame(frame);
+				frame++;
+			}
+
+			long windowAllocated = mAllocationCounter.getAllocatedSince(start);
+
+			allocated += windowAllocated;
+			leastAllocated = Math.min(leastAllocated, windowAllocated);
+		}
+
+		int measuredFrames = (windows * windowFrames);
+		double bytesPerFrame = ((double) leastAllocated / windowFrames);
+
+		boolean passed = (leastAllocated <= (FRAME_BUDGET_BYTES * windowFrames));
+
+		System.out.println(String.format(Locale.US,
+				"%-6s maxSheep=%-3d frames=%d allocated=%d bytes, least in %d windows=%d bytes (%.3f B/frame)",
+				(passed ? "PASS" : "FAIL"), maxSheep, measuredFrames, allocated,
+				windows, leastAllocated, bytesPerFrame));
+
+		return passed;
+	}
+
+	/**
+	 * Runs a single frame.
+	 *
+	 * @param int frame - The frame number.
+	 */
+	private void runFrame(int frame)
+	{
+		// Tilt left, level, then right.
+		mInput.setAccelX(((frame / TILT_INTERVAL) % 3) - 1);
+		mInput.setTime((long) frame * WorldFixture.TICK_MILLIS);
+		mInput.setExplode((frame % EXPLODE_INTERVAL) == (EXPLODE_INTERVAL - 1));
+
+		long start = mProfiler.start();
+		mWorld.tick(mInput);
+		mProfiler.mark(FrameProfiler.PHASE_UPDATE, start);
+
+		mSnapshots.getWriteSnapshot().capture(mWorld, frame);
+		mSnapshots.publish();
+
+		draw(mSnapshots.acquireLatest(), 0.5f);
+	}
+
+	/**
+	 * Draws a snapshot into the recording and formats its UI text.
+	 *
+	 * @param WorldSnapshot snapshot - The snapshot to draw.
+	 * @param float alpha - The interpolation fraction.
+	 */
+	private void draw(WorldSnapshot snapshot, float alpha)
+	{
+		mDrawer.draw(mRecorder, snapshot, alpha);
+
+		int length = TextUtil.formatScore(mUiText, snapshot.getScore(),
+				snapshot.getHighScore());
+
+		mSink += mRecorder.getLength() + mUiText[length - 1];
+	}
+}
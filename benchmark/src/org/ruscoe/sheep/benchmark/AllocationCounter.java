@@ -0,0 +1,125 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Reads the number of bytes allocated by the current thread.
+ *
+ * Uses the HotSpot extension to ThreadMXBean, looked up by reflection so the
+ * benchmarks still compile and run on JVMs without it. When unavailable,
+ * allocation is reported as unknown.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class AllocationCounter
+{
+	private ThreadMXBean mThreadBean = null;
+	private Method mGetThreadAllocatedBytes = null;
+
+	// Bytes allocated by reading the counter itself, subtracted from each
+	// reading so that a section which allocates nothing reads as 0.
+	private long mOverhead = 0;
+
+	public AllocationCounter()
+	{
+		try
+		{
+			ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+			// Looked up on the public interface; the implementing class is
+			// not accessible on newer JVMs.
+			Method method = Class.forName("com.sun.management.ThreadMXBean")
+					.getMethod("getThreadAllocatedBytes", long.class);
+
+			// Read once to make sure the counter works.
+			method.invoke(threadBean, Thread.currentThread().getId());
+
+			mThreadBean = threadBean;
+			mGetThreadAllocatedBytes = method;
+
+			calibrate();
+		} catch (Exception e)
+		{
+			mThreadBean = null;
+			mGetThreadAllocatedBytes = null;
+		}
+	}
+
+	/**
+	 * Measures the bytes allocated by a single reading of the counter.
+	 */
+	private void calibrate()
+	{
+		long overhead = Long.MAX_VALUE;
+
+		int i;
+		for (i = 0; i <= 99; i++)
+		{
+			long start = getAllocatedBytes();
+			long end = getAllocatedBytes();
+
+			overhead = Math.min(overhead, (end - start));
+		}
+
+		mOverhead = overhead;
+	}
+
+	/**
+	 * Determines if allocation can be counted on this JVM.
+	 *
+	 * @return boolean
+	 */
+	public boolean isAvailable()
+	{
+		return (mGetThreadAllocatedBytes != null);
+	}
+
+	/**
+	 * Gets the total number of bytes allocated by the current thread.
+	 *
+	 * @return long - The allocated bytes, or -1 when unavailable.
+	 */
+	public long getAllocatedBytes()
+	{
+		if (!isAvailable())
+		{
+			return -1;
+		}
+
+		try
+		{
+			return ((Long) mGetThreadAllocatedBytes.invoke(mThreadBean,
+					Thread.currentThread().getId())).longValue();
+		} catch (Exception e)
+		{
+			return -1;
+		}
+	}
+
+	/**
+	 * Gets the number of bytes allocated by the current thread since an
+	 * earlier reading, excluding the cost of reading the counter.
+	 *
+	 * @param long start - An earlier result of getAllocatedBytes().
+	 * @return long - The allocated bytes, or -1 when unavailable.
+	 */
+	public long getAllocatedSince(long start)
+	{
+		if (start < 0)
+		{
+			return -1;
+		}
+
+		long end = getAllocatedBytes();
+
+		if (end < 0)
+		{
+			return -1;
+		}
+
+		return Math.max(0, (end - start - mOverhead));
+	}
+}
@@ -0,0 +1,68 @@
+package org.ruscoe.sheep.benchmark;
+
+/**
+ * A single benchmark run by BenchmarkRunner.
+ *
+ * The runner calls prepare() before each batch of operations, then times
+ * getBatchSize() calls to run(). Work done in prepare() is not timed, so
+ * benchmarks whose state runs down (such as debris coming to rest) can
+ * rebuild it between batches.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public abstract class Benchmark
+{
+	// The default number of operations timed after each call to prepare().
+	public static final int DEFAULT_BATCH_SIZE = 10000;
+
+	// The benchmark name.
+	private String mName;
+	// The benchmark parameter, such as an item count. -1 when unused.
+	private int mParam;
+
+	/**
+	 * @param String name - The benchmark name.
+	 * @param int param - The benchmark parameter, or -1 if unused.
+	 */
+	protected Benchmark(String name, int param)
+	{
+		mName = name;
+		mParam = param;
+	}
+
+	/**
+	 * Prepares state before a batch of operations. Not timed.
+	 */
+	public void prepare()
+	{
+	}
+
+	/**
+	 * Runs a single operation.
+	 *
+	 * @return int - A value derived from the result of the operation. Summed
+	 * 	by the runner so the operation cannot be optimized away.
+	 */
+	public abstract int run();
+
+	/**
+	 * Gets the number of operations to time after each call to prepare().
+	 *
+	 * @return int
+	 */
+	public int getBatchSize()
+	{
+		return DEFAULT_BATCH_SIZE;
+	}
+
+	public String getName()
+	{
+		return mName;
+	}
+
+	public int getParam()
+	{
+		return mParam;
+	}
+}
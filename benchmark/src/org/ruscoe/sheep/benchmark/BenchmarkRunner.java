@@ -0,0 +1,351 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the benchmarks for the game rules and models on a plain JVM.
+ *
+ * Each benchmark is run for a number of warmup iterations, which are not
+ * reported, followed by a number of measured iterations. Throughput is
+ * reported in operations per second, with the standard deviation across
+ * iterations, and allocation in bytes per operation and megabytes per second.
+ *
+ * Usage: BenchmarkRunner [-w warmupIterations] [-i iterations]
+ * 	[-t iterationMillis] [filter ...]
+ *
+ * Only benchmarks whose name contains one of the filters are run.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class BenchmarkRunner
+{
+	// The default number of unreported warmup iterations.
+	public static final int DEFAULT_WARMUP_ITERATIONS = 3;
+	// The default number of measured iterations.
+	public static final int DEFAULT_ITERATIONS = 5;
+	// The default length of each iteration in milliseconds.
+	public static final int DEFAULT_ITERATION_MILLIS = 1000;
+
+	// The item counts used by benchmarks that update the game world.
+	public static final int[] ITEM_COUNTS = { 5, 40, 400, 4000, 40000 };
+
+	private static final long NANOS_PER_MILLI = 1000000L;
+	private static final double NANOS_PER_SECOND = 1000000000.0;
+	private static final double BYTES_PER_MEGABYTE = 1000000.0;
+
+	private int mWarmupIterations = DEFAULT_WARMUP_ITERATIONS;
+	private int mIterations = DEFAULT_ITERATIONS;
+	private int mIterationMillis = DEFAULT_ITERATION_MILLIS;
+
+	private AllocationCounter mAllocationCounter = new AllocationCounter();
+
+	// The sum of every value returned by a benchmark operation. Kept so that
+	// operations cannot be optimized away.
+	private int mSink = 0;
+
+	public static void main(String[] args)
+	{
+		BenchmarkRunner runner = new BenchmarkRunner();
+		List<String> filters = new ArrayList<String>();
+
+		int i;
+		for (i = 0; i <= (args.length - 1); i++)
+		{
+			if (args[i].equals("-w") && (i < (args.length - 1)))
+			{
+				runner.setWarmupIterations(Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-i") && (i < (args.length - 1)))
+			{
+				runner.setIterations(Integer.parseInt(args[++i]));
+			} else if (args[i].equals("-t") && (i < (args.length - 1)))
+			{
+				runner.setIterationMillis(Integer.parseInt(args[++i]));
+			} else
+			{
+				filters.add(args[i]);
+			}
+		}
+
+		List<Benchmark> benchmarks = createBenchmarks();
+
+		runner.printHeader();
+
+		Benchmark benchmark;
+		for (i = 0; i <= (benchmarks.size() - 1); i++)
+		{
+			benchmark = benchmarks.get(i);
+
+			if (isIncluded(benchmark, filters))
+			{
+				runner.run(benchmark);
+			}
+		}
+
+		// Print the sink so that it is used.
+		System.out.println("(sink " + runner.mSink + ")");
+	}
+
+	/**
+	 * Creates every benchmark.
+	 *
+	 * @return List<Benchmark>
+	 */
+	public static List<Benchmark> createBenchmarks()
+	{
+		List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+		int i;
+		for (i = 0; i <= (ITEM_COUNTS.length - 1); i++)
+		{
+			benchmarks.add(new SheepUpdateBenchmark(ITEM_COUNTS[i]));
+		}
+
+		for (i = 0; i <= (ITEM_COUNTS.length - 1); i++)
+		{
+			benchmarks.add(new DebrisUpdateBenchmark(ITEM_COUNTS[i]));
+		}
+
+		int mode;
+		for (mode = RemovalBenchmark.MODE_LIST; mode <= RemovalBenchmark.MODE_SWAP; mode++)
+		{
+			for (i = 0; i <= (RemovalBenchmark.ITEM_COUNTS.length - 1); i++)
+			{
+				benchmarks.add(new RemovalBenchmark(mode, RemovalBenchmark.ITEM_COUNTS[i]));
+			}
+		}
+
+		for (mode = SpatialGridBenchmark.MODE_UPDATE; mode <= SpatialGridBenchmark.MODE_RADIUS; mode++)
+		{
+			for (i = 0; i <= (SpatialGridBenchmark.ITEM_COUNTS.length - 1); i++)
+			{
+				benchmarks.add(new SpatialGridBenchmark(mode, SpatialGridBenchmark.ITEM_COUNTS[i]));
+			}
+		}
+
+		for (mode = DrawCommandBenchmark.MODE_RECORD; mode <= DrawCommandBenchmark.MODE_REPLAY; mode++)
+		{
+			for (i = 0; i <= (DrawCommandBenchmark.SHEEP_COUNTS.length - 1); i++)
+			{
+				benchmarks.add(new DrawCommandBenchmark(mode, DrawCommandBenchmark.SHEEP_COUNTS[i]));
+			}
+		}
+
+		for (i = 0; i <= (SpriteBatchBenchmark.SHEEP_COUNTS.length - 1); i++)
+		{
+			benchmarks.add(new SpriteBatchBenchmark(SpriteBatchBenchmark.SHEEP_COUNTS[i]));
+		}
+
+		benchmarks.add(new GameImageBenchmark());
+		benchmarks.add(new GameItemBenchmark(GameItemBenchmark.MODE_IS_COLLISION));
+		benchmarks.add(new GameItemBenchmark(GameItemBenchmark.MODE_GET_IMPACT));
+		benchmarks.add(new JumpingGameItemBenchmark());
+		benchmarks.add(new GameRandomBenchmark(GameRandomBenchmark.MODE_INT_IN_RANGE));
+		benchmarks.add(new GameRandomBenchmark(GameRandomBenchmark.MODE_BOOLEAN));
+		benchmarks.add(new GameRandomBenchmark(GameRandomBenchmark.MODE_GEOMETRIC));
+		benchmarks.add(new GameRandomBenchmark(GameRandomBenchmark.MODE_MATH_RANDOM));
+
+		for (mode = PrefsFileBenchmark.MODE_READ; mode <= PrefsFileBenchmark.MODE_FILE_WRITE; mode++)
+		{
+			benchmarks.add(new PrefsFileBenchmark(mode));
+		}
+
+		return benchmarks;
+	}
+
+	/**
+	 * Determines if a benchmark matches the filters given on the command line.
+	 *
+	 * @param Benchmark benchmark - The benchmark.
+	 * @param List<String> filters - The filters. All benchmarks match when empty.
+	 * @return boolean
+	 */
+	private static boolean isIncluded(Benchmark benchmark, List<String> filters)
+	{
+		if (filters.isEmpty())
+		{
+			return true;
+		}
+
+		int i;
+		for (i = 0; i <= (filters.size() - 1); i++)
+		{
+			if (benchmark.getName().contains(filters.get(i)))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Runs a benchmark and prints its result.
+	 *
+	 * @param Benchmark benchmark - The benchmark to run.
+	 */
+	public void run(Benchmark benchmark)
+	{
+		int i;
+		for (i = 0; i <= (mWarmupIterations - 1); i++)
+		{
+			runIteration(benchmark);
+		}
+
+		double[] opsPerSecond = new double[mIterations];
+		long totalOps = 0;
+		long totalNanos = 0;
+		long totalBytes = 0;
+
+		long[] result;
+		for (i = 0; i <= (mIterations - 1); i++)
+		{
+			result = runIteration(benchmark);
+
+			totalOps += result[0];
+			totalNanos += result[1];
+
+			if ((result[2] < 0) || (totalBytes < 0))
+			{
+				totalBytes = -1;
+			} else
+			{
+				totalBytes += result[2];
+			}
+
+			opsPerSecond[i] = (result[0] * NANOS_PER_SECOND / result[1]);
+		}
+
+		printResult(benchmark, opsPerSecond, totalOps, totalNanos, totalBytes);
+	}
+
+	/**
+	 * Runs batches of a benchmark until the iteration time has been spent
+	 * running operations.
+	 *
+	 * @param Benchmark benchmark - The benchmark to run.
+	 * @return long[] - The number of operations, the nanoseconds spent running
+	 * 	them and the bytes allocated by them, or -1 bytes when unknown.
+	 */
+	private long[] runIteration(Benchmark benchmark)
+	{
+		long iterationNanos = (mIterationMillis * NANOS_PER_MILLI);
+		int batchSize = benchmark.getBatchSize();
+
+		long ops = 0;
+		long nanos = 0;
+		long bytes = 0;
+		int sink = 0;
+
+		while (nanos < iterationNanos)
+		{
+			benchmark.prepare();
+
+			long startBytes = mAllocationCounter.getAllocatedBytes();
+			long startTime = System.nanoTime();
+
+			int i;
+			for (i = 0; i <= (batchSize - 1); i++)
+			{
+				sink += benchmark.run();
+			}
+
+			nanos += (System.nanoTime() - startTime);
+
+			long batchBytes = mAllocationCounter.getAllocatedSince(startBytes);
+
+			if ((batchBytes < 0) || (bytes < 0))
+			{
+				bytes = -1;
+			} else
+			{
+				bytes += batchBytes;
+			}
+
+			ops += batchSize;
+		}
+
+		mSink += sink;
+
+		long[] result = { ops, nanos, bytes };
+
+		return result;
+	}
+
+	/**
+	 * Prints the column headings of the results table.
+	 */
+	private void printHeader()
+	{
+		System.out.println(String.format(Locale.US, "%-38s %7s %16s %14s %12s %10s",
+				"Benchmark", "Param", "ops/s", "error", "B/op", "MB/s"));
+	}
+
+	/**
+	 * Prints the result of a benchmark.
+	 *
+	 * @param Benchmark benchmark - The benchmark.
+	 * @param double[] opsPerSecond - The throughput of each measured iteration.
+	 * @param long totalOps - The total operations run in measured iterations.
+	 * @param long totalNanos - The total time spent on those operations.
+	 * @param long totalBytes - The total bytes allocated by those operations,
+	 * 	or -1 when unknown.
+	 */
+	private void printResult(Benchmark benchmark, double[] opsPerSecond,
+			long totalOps, long totalNanos, long totalBytes)
+	{
+		double mean = 0;
+
+		int i;
+		for (i = 0; i <= (opsPerSecond.length - 1); i++)
+		{
+			mean += opsPerSecond[i];
+		}
+
+		mean /= opsPerSecond.length;
+
+		double variance = 0;
+
+		for (i = 0; i <= (opsPerSecond.length - 1); i++)
+		{
+			variance += ((opsPerSecond[i] - mean) * (opsPerSecond[i] - mean));
+		}
+
+		double error = (opsPerSecond.length > 1) ? Math
+				.sqrt(variance / (opsPerSecond.length - 1)) : 0;
+
+		String param = (benchmark.getParam() >= 0) ? String.valueOf(benchmark
+				.getParam()) : "-";
+
+		String bytesPerOp = "n/a";
+		String allocationRate = "n/a";
+
+		if (totalBytes >= 0)
+		{
+			bytesPerOp = String.format(Locale.US, "%.3f", ((double) totalBytes / totalOps));
+			allocationRate = String.format(Locale.US, "%.3f",
+					(totalBytes / BYTES_PER_MEGABYTE / (totalNanos / NANOS_PER_SECOND)));
+		}
+
+		System.out.println(String.format(Locale.US, "%-38s %7s %16.1f %14s %12s %10s",
+				benchmark.getName(), param, mean, String.format(Locale.US, "+- %.1f", error),
+				bytesPerOp, allocationRate));
+	}
+
+	public void setWarmupIterations(int warmupIterations)
+	{
+		this.mWarmupIterations = warmupIterations;
+	}
+
+	public void setIterations(int iterations)
+	{
+		this.mIterations = iterations;
+	}
+
+	public void setIterationMillis(int iterationMillis)
+	{
+		this.mIterationMillis = iterationMillis;
+	}
+}
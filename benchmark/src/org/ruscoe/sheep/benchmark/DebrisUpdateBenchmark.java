@@ -0,0 +1,72 @@
+package org.ruscoe.sheep.benchmark;
+
+import org.ruscoe.sheep.simulation.GameWorld;
+import org.ruscoe.sheep.simulation.WorldInput;
+
+/**
+ * Measures world ticks updating a given number of debris particles.
+ *
+ * The world's debris capacity is set to the particle count. Before each
+ * batch, sheep are exploded to fill it and then removed, leaving only debris
+ * to update. Batches are kept short so most debris is still in flight when
+ * timed.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class DebrisUpdateBenchmark extends Benchmark
+{
+	// The number of ticks between regenerating debris.
+	private static final int BATCH_SIZE = 20;
+
+	// The number of debris items generated by each exploded sheep.
+	private static final int DEBRIS_PER_SHEEP = 6;
+
+	private GameWorld mWorld = WorldFixture.createWorld();
+	private WorldInput mInput = WorldFixture.createInput();
+
+	private int mDebrisCount;
+	private long mTime = 0;
+
+	/**
+	 * @param int debrisCount - The number of debris items to update.
+	 */
+	public DebrisUpdateBenchmark(int debrisCount)
+	{
+		super("GameWorld.updateDebris", debrisCount);
+
+		mDebrisCount = debrisCount;
+
+		mWorld.setDebrisCapacity(debrisCount);
+		mWorld.setUpdateSheep(false);
+		mWorld.setUpdateBouncePad(false);
+	}
+
+	@Override
+	public void prepare()
+	{
+		// GameWorld.start() adds one sheep more than the maximum.
+		int sheepCount = ((mDebrisCount + DEBRIS_PER_SHEEP - 1) / DEBRIS_PER_SHEEP);
+		mWorld.start((sheepCount - 1), 0, WorldFixture.SEED);
+		mWorld.explode();
+
+		mWorld.getSheep().clear();
+	}
+
+	@Override
+	public int run()
+	{
+		mTime += WorldFixture.TICK_MILLIS;
+		mInput.setTime(mTime);
+
+		mWorld.tick(mInput);
+
+		return mWorld.getDebris().size();
+	}
+
+	@Override
+	public int getBatchSize()
+	{
+		return BATCH_SIZE;
+	}
+}
@@ -0,0 +1,110 @@
+package org.ruscoe.sheep.benchmark;
+
+import org.ruscoe.sheep.profiling.FrameProfiler;
+import org.ruscoe.sheep.render.RecordingRenderer;
+import org.ruscoe.sheep.render.Renderer;
+import org.ruscoe.sheep.render.WorldDrawer;
+import org.ruscoe.sheep.simulation.WorldSnapshot;
+
+/**
+ * Measures recording the draw commands for a frame of a given number of
+ * sheep, and replaying the recorded frame.
+ *
+ * The frame includes debris from sheep which have fallen.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class DrawCommandBenchmark extends Benchmark
+{
+	// Benchmark mode constants.
+
+	// Draws the snapshot into a RecordingRenderer.
+	public static final int MODE_RECORD = 1;
+	// Replays the recorded frame into a Renderer which sums its commands.
+	public static final int MODE_REPLAY = 2;
+
+	// The sheep counts.
+	public static final int[] SHEEP_COUNTS = { 40, 400, 4000 };
+
+	private int mMode;
+
+	private WorldSnapshot mSnapshot;
+	private WorldDrawer mDrawer;
+	private RecordingRenderer mRecorder = new RecordingRenderer();
+	private SummingRenderer mSummingRenderer = new SummingRenderer();
+
+	/**
+	 * @param int mode - The operation to measure. Defined as MODE_* constants.
+	 * @param int sheepCount - The number of sheep items drawn.
+	 */
+	public DrawCommandBenchmark(int mode, int sheepCount)
+	{
+		super(((mode == MODE_RECORD) ? "Renderer.record" : "Renderer.replay"),
+				sheepCount);
+
+		mMode = mode;
+
+		FrameProfiler profiler = new FrameProfiler();
+		profiler.setEnabled(false);
+
+		mDrawer = WorldFixture.createDrawer(profiler);
+		mSnapshot = WorldFixture.createSnapshot(sheepCount);
+
+		mDrawer.draw(mRecorder, mSnapshot, 0.5f);
+	}
+
+	@Override
+	public int run()
+	{
+		if (mMode == MODE_RECORD)
+		{
+			mDrawer.draw(mRecorder, mSnapshot, 0.5f);
+
+			return mRecorder.getLength();
+		}
+
+		mRecorder.replay(mSummingRenderer);
+
+		return mSummingRenderer.mSum;
+	}
+
+	@Override
+	public int getBatchSize()
+	{
+		return 100;
+	}
+
+	/**
+	 * A Renderer which sums the arguments of every command, standing in for
+	 * a backend which draws them.
+	 */
+	private static class SummingRenderer implements Renderer
+	{
+		private int mSum = 0;
+
+		public void beginFrame()
+		{
+			mSum = 0;
+		}
+
+		public void drawBackground()
+		{
+			mSum++;
+		}
+
+		public void drawSprite(int sprite, float x, float y, boolean mirrored)
+		{
+			mSum += sprite + (int) x + (int) y + (mirrored ? 1 : 0);
+		}
+
+		public void drawScore(int score, int highScore, float x, float y)
+		{
+			mSum += score + highScore + (int) x + (int) y;
+		}
+
+		public void endFrame()
+		{
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package org.ruscoe.sheep.benchmark;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.models.GameImage;
+
+/**
+ * Measures GameImage.updateAnimation() on a looping two frame animation,
+ * with time advancing by one tick per call so that a frame change is due
+ * on roughly every twelfth call, as for a sheep item in the game.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GameImageBenchmark extends Benchmark
+{
+	private GameImage mImage = new GameImage(Sprites.SHEEP_FRAME_01, 70, 40);
+
+	private long mTime = 0;
+
+	public GameImageBenchmark()
+	{
+		super("GameImage.updateAnimation", -1);
+
+		int[] animationFrames = { Sprites.SHEEP_FRAME_01,
+				Sprites.SHEEP_FRAME_02 };
+
+		mImage.setAnimationFrames(animationFrames);
+		mImage.startAnimation();
+	}
+
+	@Override
+	public int run()
+	{
+		mTime += WorldFixture.TICK_MILLIS;
+
+		mImage.updateAnimation(mTime);
+
+		return mImage.getSprite();
+	}
+}
@@ -0,0 +1,74 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.util.Random;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.models.GameItem;
+
+/**
+ * Measures the GameItem collision tests against a bounce pad sized item,
+ * using precomputed positions spread across the screen so that both hits
+ * and misses are tested.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GameItemBenchmark extends Benchmark
+{
+	// Benchmark mode constants.
+	public static final int MODE_IS_COLLISION = 1;
+	public static final int MODE_GET_IMPACT = 2;
+
+	// The number of precomputed positions. Must be a power of two.
+	private static final int POSITION_COUNT = 1024;
+
+	private GameItem mItem = new GameItem(Sprites.BOUNCE_PAD_FRAME_01, 70, 48);
+
+	private int mMode;
+
+	private int[] mX = new int[POSITION_COUNT];
+	private int[] mY = new int[POSITION_COUNT];
+	private int mIndex = 0;
+
+	/**
+	 * @param int mode - The method to measure. Defined as MODE_* constants.
+	 */
+	public GameItemBenchmark(int mode)
+	{
+		super((mode == MODE_IS_COLLISION) ? "GameItem.isCollision"
+				: "GameItem.getImpact", -1);
+
+		mMode = mode;
+
+		mItem.setX(205);
+		mItem.setY(728);
+
+		// Positions are clustered around the item so roughly a quarter hit.
+		Random random = new Random(42);
+
+		int i;
+		for (i = 0; i <= (POSITION_COUNT - 1); i++)
+		{
+			mX[i] = 205 + random.nextInt(280) - 140;
+			mY[i] = 728 + random.nextInt(192) - 96;
+		}
+	}
+
+	@Override
+	public int run()
+	{
+		mIndex = ((mIndex + 1) & (POSITION_COUNT - 1));
+
+		boolean hit;
+
+		if (mMode == MODE_IS_COLLISION)
+		{
+			hit = mItem.isCollision(mX[mIndex], mY[mIndex], 70, 40);
+		} else
+		{
+			hit = mItem.getImpact(mX[mIndex], mY[mIndex]);
+		}
+
+		return hit ? 1 : 0;
+	}
+}
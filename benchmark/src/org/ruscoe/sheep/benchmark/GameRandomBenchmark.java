@@ -0,0 +1,78 @@
+package org.ruscoe.sheep.benchmark;
+
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.util.GameRandom;
+
+/**
+ * Measures the GameRandom functions as called by the game rules, against
+ * the Math.random() roll they replaced.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GameRandomBenchmark extends Benchmark
+{
+	// Benchmark mode constants.
+	public static final int MODE_INT_IN_RANGE = 1;
+	public static final int MODE_BOOLEAN = 2;
+	public static final int MODE_MATH_RANDOM = 3;
+	public static final int MODE_GEOMETRIC = 4;
+
+	// The chance of a sheep starting to jump exponentially on each update.
+	private static final double JUMP_PROBABILITY = (1.0 / (GameSettings.SHEEP_JUMP_CHANCE + 1));
+
+	private int mMode;
+
+	// Seeded so every run measures the same sequence.
+	private GameRandom mRandom = new GameRandom(1);
+
+	/**
+	 * @param int mode - The function to measure. Defined as MODE_* constants.
+	 */
+	public GameRandomBenchmark(int mode)
+	{
+		super(getName(mode), -1);
+
+		mMode = mode;
+	}
+
+	/**
+	 * Gets the name of the function measured in a mode.
+	 *
+	 * @param int mode - The mode.
+	 * @return String
+	 */
+	private static String getName(int mode)
+	{
+		switch (mode)
+		{
+			case MODE_INT_IN_RANGE:
+				return "GameRandom.nextIntInRange";
+			case MODE_BOOLEAN:
+				return "GameRandom.nextBoolean";
+			case MODE_GEOMETRIC:
+				return "GameRandom.nextGeometric";
+			default:
+				return "Math.random";
+		}
+	}
+
+	@Override
+	public int run()
+	{
+		switch (mMode)
+		{
+			case MODE_INT_IN_RANGE:
+				// The exponential jump roll made for every sheep on every tick.
+				return mRandom.nextIntInRange(0, GameSettings.SHEEP_JUMP_CHANCE);
+			case MODE_BOOLEAN:
+				return mRandom.nextBoolean() ? 1 : 0;
+			case MODE_GEOMETRIC:
+				// The exponential jump countdown drawn for every sheep added.
+				return mRandom.nextGeometric(JUMP_PROBABILITY);
+			default:
+				// The same roll as made before the game had its own generator.
+				return (int) (Math.random() * (GameSettings.SHEEP_JUMP_CHANCE + 1));
+		}
+	}
+}
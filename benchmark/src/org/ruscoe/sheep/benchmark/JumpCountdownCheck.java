@@ -0,0 +1,263 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.util.Locale;
+
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.util.GameRandom;
+
+/**
+ * Checks that the exponential jump countdown drawn for each sheep has the
+ * same distribution as rolling for the jump on every update.
+ *
+ * Draws a number of countdowns with GameRandom.nextGeometric(), as
+ * GameWorld does when a sheep is added, and counts as many runs of
+ * per-update rolls of 0 to SHEEP_JUMP_CHANCE until one comes up
+ * SHEEP_JUMP_CHANCE, as GameWorld used to. Each sample is compared with the
+ * geometric distribution by mean, variance and a chi-square test over
+ * buckets of equal probability, and the two samples are compared with each
+ * other by a two-sample chi-square test.
+ *
+ * Exits with status 1 if any comparison fails.
+ *
+ * Usage: JumpCountdownCheck [-n samples] [-s seed]
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class JumpCountdownCheck
+{
+	// The default number of countdowns drawn by each method.
+	public static final int DEFAULT_SAMPLES = 200000;
+
+	// The number of buckets of equal probability samples are counted in.
+	private static final int BUCKETS = 20;
+
+	// The chi-square value exceeded with probability 0.001 with
+	// (BUCKETS - 1) degrees of freedom.
+	private static final double CHI_SQUARE_LIMIT = 43.82;
+
+	// The number of standard errors the sample mean may differ from the
+	// expected mean.
+	private static final double MEAN_LIMIT = 4;
+
+	// The fraction the sample variance may differ from the expected
+	// variance.
+	private static final double VARIANCE_LIMIT = 0.05;
+
+	// The chance of a roll starting an exponential jump, as in GameWorld.
+	private static final double PROBABILITY = (1.0 / (GameSettings.SHEEP_JUMP_CHANCE + 1));
+
+	private int mSamples = DEFAULT_SAMPLES;
+	private long mSeed = 1;
+
+	// The last number of updates in each bucket, ascending; the last
+	// bucket holds every larger number.
+	private long[] mBucketLimits = new long[BUCKETS];
+	// The probability of a countdown falling in each bucket.
+	private double[] mBucketProbabilities = new double[BUCKETS];
+
+	private int mFailures = 0;
+
+	public static void main(String[] args)
+	{
+		JumpCountdownCheck check = new JumpCountdownCheck();
+
+		int i;
+		for (i = 0; i <= (args.length - 1); i++)
+		{
+			if (args[i].equals("-n") && (i < (args.length - 1)))
+			{
+				check.mSamples = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-s") && (i < (args.length - 1)))
+			{
+				check.mSeed = Long.parseLong(args[++i]);
+			}
+		}
+
+		check.run();
+
+		System.exit((check.mFailures > 0) ? 1 : 0);
+	}
+
+	/**
+	 * Draws both samples and compares them.
+	 */
+	public void run()
+	{
+		setBuckets();
+
+		long[] countdownCounts = new long[BUCKETS];
+		long[] rollCounts = new long[BUCKETS];
+
+		double countdownSum = 0;
+		double countdownSquares = 0;
+		double rollSum = 0;
+		double rollSquares = 0;
+
+		GameRandom countdownRandom = new GameRandom(mSeed);
+		// Seeded differently, so the samples are independent.
+		GameRandom rollRandom = new GameRandom(mSeed + 1);
+
+		long updates;
+
+		int i;
+		for (i = 0; i <= (mSamples - 1); i++)
+		{
+			updates = countdownRandom.nextGeometric(PROBABILITY);
+			countdownSum += updates;
+			countdownSquares += ((double) updates * updates);
+			countdownCounts[getBucket(updates)]++;
+
+			updates = countRolls(rollRandom);
+			rollSum += updates;
+			rollSquares += ((double) updates * updates);
+			rollCounts[getBucket(updates)]++;
+		}
+
+		checkSample("countdown", countdownSum, countdownSquares,
+				countdownCounts);
+		checkSample("per-update rolls", rollSum, rollSquares, rollCounts);
+
+		double chiSquare = 0;
+
+		for (i = 0; i <= (BUCKETS - 1); i++)
+		{
+			double difference = (countdownCounts[i] - rollCounts[i]);
+			chiSquare += ((difference * difference)
+					/ (countdownCounts[i] + rollCounts[i]));
+		}
+
+		report((chiSquare <= CHI_SQUARE_LIMIT), String.format(Locale.US,
+				"countdown against per-update rolls: chi-square=%.2f (limit %.2f, %d dof)",
+				chiSquare, CHI_SQUARE_LIMIT, (BUCKETS - 1)));
+	}
+
+	/**
+	 * Counts the updates taken for a roll to start an exponential jump, as
+	 * GameWorld used to roll on every update.
+	 *
+	 * @param GameRandom random - Makes the rolls.
+	 * @return long - The number of updates, including the one which
+	 * 	started the jump.
+	 */
+	private static long countRolls(GameRandom random)
+	{
+		long updates = 1;
+
+		while (random.nextIntInRange(0, GameSettings.SHEEP_JUMP_CHANCE) != GameSettings.SHEEP_JUMP_CHANCE)
+		{
+			updates++;
+		}
+
+		return updates;
+	}
+
+	/**
+	 * Compares a sample with the geometric distribution.
+	 *
+	 * @param String name - The sample name, for reporting.
+	 * @param double sum - The sum of the sample.
+	 * @param double squares - The sum of the squares of the sample.
+	 * @param long[] counts - The number of the sample in each bucket.
+	 */
+	private void checkSample(String name, double sum, double squares,
+			long[] counts)
+	{
+		double expectedMean = (1 / PROBABILITY);
+		double expectedVariance = ((1 - PROBABILITY) / (PROBABILITY * PROBABILITY));
+
+		double mean = (sum / mSamples);
+		double variance = ((squares / mSamples) - (mean * mean));
+
+		double standardError = Math.sqrt(expectedVariance / mSamples);
+
+		report((Math.abs(mean - expectedMean) <= (MEAN_LIMIT * standardError)),
+				String.format(Locale.US, "%s: mean=%.2f (expected %.2f +- %.2f)",
+						name, mean, expectedMean, (MEAN_LIMIT * standardError)));
+
+		report((Math.abs(variance - expectedVariance) <= (VARIANCE_LIMIT * expectedVariance)),
+				String.format(Locale.US, "%s: variance=%.0f (expected %.0f)",
+						name, variance, expectedVariance));
+
+		double chiSquare = 0;
+
+		int i;
+		for (i = 0; i <= (BUCKETS - 1); i++)
+		{
+			double expected = (mBucketProbabilities[i] * mSamples);
+			double difference = (counts[i] - expected);
+			chiSquare += ((difference * difference) / expected);
+		}
+
+		report((chiSquare <= CHI_SQUARE_LIMIT), String.format(Locale.US,
+				"%s: chi-square=%.2f against geometric (limit %.2f, %d dof)",
+				name, chiSquare, CHI_SQUARE_LIMIT, (BUCKETS - 1)));
+	}
+
+	/**
+	 * Sets the buckets to split the geometric distribution into parts of
+	 * about equal probability.
+	 */
+	private void setBuckets()
+	{
+		double previous = 0;
+
+		int i;
+		for (i = 0; i <= (BUCKETS - 1); i++)
+		{
+			double cumulative;
+
+			if (i == (BUCKETS - 1))
+			{
+				mBucketLimits[i] = Long.MAX_VALUE;
+				cumulative = 1;
+			} else
+			{
+				// The smallest number of updates reaching this bucket's
+				// share of the distribution.
+				mBucketLimits[i] = (long) Math.ceil(Math.log(1 - ((i + 1.0) / BUCKETS))
+						/ Math.log(1 - PROBABILITY));
+				cumulative = (1 - Math.pow((1 - PROBABILITY), mBucketLimits[i]));
+			}
+
+			mBucketProbabilities[i] = (cumulative - previous);
+			previous = cumulative;
+		}
+	}
+
+	/**
+	 * Gets the bucket a number of updates is counted in.
+	 *
+	 * @param long updates - The number of updates.
+	 * @return int
+	 */
+	private int getBucket(long updates)
+	{
+		int i;
+		for (i = 0; i <= (BUCKETS - 2); i++)
+		{
+			if (updates <= mBucketLimits[i])
+			{
+				return i;
+			}
+		}
+
+		return (BUCKETS - 1);
+	}
+
+	/**
+	 * Prints the result of a check, counting failures.
+	 *
+	 * @param boolean passed - True if the check passed.
+	 * @param String description - The check.
+	 */
+	private void report(boolean passed, String description)
+	{
+		if (!passed)
+		{
+			mFailures++;
+		}
+
+		System.out.println((passed ? "PASS   " : "FAIL   ") + description);
+	}
+}
@@ -0,0 +1,47 @@
+package org.ruscoe.sheep.benchmark;
+
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.models.JumpingGameItem;
+
+/**
+ * Measures the JumpingGameItem speed calculations, with vertical energy
+ * cycling through a jump so the speed limits are exercised.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class JumpingGameItemBenchmark extends Benchmark
+{
+	private JumpingGameItem mItem = new JumpingGameItem(Sprites.SHEEP_FRAME_01, 70, 40);
+
+	public JumpingGameItemBenchmark()
+	{
+		super("JumpingGameItem.getSpeed", -1);
+
+		mItem.setMaxHorizontalEnergy(GameSettings.SHEEP_STARTING_HORIZONTAL_ENERGY);
+		mItem.setMaxVerticalEnergy(GameSettings.SHEEP_STARTING_VERTICAL_ENERGY * 10);
+		mItem.setHorizontalEnergy(mItem.getMaxHorizontalEnergy());
+		mItem.setVerticalEnergy(mItem.getMaxVerticalEnergy());
+
+		mItem.setMinHorizontalSpeed(GameSettings.MIN_SHEEP_HORIZONTAL_SPEED);
+		mItem.setMaxHorizontalSpeed(GameSettings.MAX_SHEEP_HORIZONTAL_SPEED);
+		mItem.setMinVerticalSpeed(GameSettings.MIN_SHEEP_VERTICAL_SPEED);
+		mItem.setMaxVerticalSpeed(GameSettings.MAX_SHEEP_VERTICAL_SPEED);
+	}
+
+	@Override
+	public int run()
+	{
+		int energy = (mItem.getVerticalEnergy() - GameSettings.GRAVITY);
+
+		if (energy < -mItem.getMaxVerticalEnergy())
+		{
+			energy = mItem.getMaxVerticalEnergy();
+		}
+
+		mItem.setVerticalEnergy(energy);
+
+		return (mItem.getVerticalSpeed() + mItem.getHorizontalSpeed());
+	}
+}
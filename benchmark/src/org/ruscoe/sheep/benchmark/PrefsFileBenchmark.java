@@ -0,0 +1,138 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.ruscoe.sheep.util.MappedIntFile;
+
+/**
+ * Measures reading and writing the four game preferences in a
+ * MappedIntFile, as MappedPrefsData does, in a temporary file.
+ *
+ * The SQLite engine cannot run on a plain JVM, so writes are compared with
+ * the least file work a database write does: opening the file, writing the
+ * changed bytes, syncing and closing it, with no SQL or journal.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class PrefsFileBenchmark extends Benchmark
+{
+	// Benchmark mode constants.
+	public static final int MODE_READ = 1;
+	public static final int MODE_WRITE = 2;
+	public static final int MODE_FILE_WRITE = 3;
+
+	// The number of preferences, matching GamePrefsData.PREFERENCES.
+	private static final int PREFERENCE_COUNT = 4;
+
+	private int mMode;
+
+	private File mFile;
+	private MappedIntFile mMappedFile;
+
+	private int[] mValues = { 1, 0, 0, 0 };
+
+	/**
+	 * @param int mode - The operation to measure. Defined as MODE_* constants.
+	 */
+	public PrefsFileBenchmark(int mode)
+	{
+		super(getName(mode), -1);
+
+		mMode = mode;
+
+		try
+		{
+			mFile = File.createTempFile("prefs", ".dat");
+			mFile.deleteOnExit();
+
+			if (mMode != MODE_FILE_WRITE)
+			{
+				mMappedFile = new MappedIntFile(mFile, PREFERENCE_COUNT);
+				mMappedFile.write(mValues);
+			}
+		} catch (IOException e)
+		{
+			throw new IllegalStateException("Temporary file not created: "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the benchmark name for a mode.
+	 *
+	 * @param int mode - The mode.
+	 * @return String
+	 */
+	private static String getName(int mode)
+	{
+		switch (mode)
+		{
+		case MODE_READ:
+			return "MappedIntFile.get";
+		case MODE_WRITE:
+			return "MappedIntFile.write";
+		default:
+			return "RandomAccessFile.write+sync";
+		}
+	}
+
+	@Override
+	public int run()
+	{
+		switch (mMode)
+		{
+		case MODE_READ:
+			return (mMappedFile.get(0) + mMappedFile.get(1)
+					+ mMappedFile.get(2) + mMappedFile.get(3));
+		case MODE_WRITE:
+			// A new high score.
+			mValues[2]++;
+			mMappedFile.write(mValues);
+
+			return mValues[2];
+		default:
+			mValues[2]++;
+
+			return writeFile();
+		}
+	}
+
+	/**
+	 * Opens the file, writes the changed score, syncs and closes it.
+	 *
+	 * @return int - The score written.
+	 */
+	private int writeFile()
+	{
+		try
+		{
+			RandomAccessFile randomAccessFile = new RandomAccessFile(mFile, "rw");
+
+			try
+			{
+				randomAccessFile.seek(8);
+				randomAccessFile.writeInt(mValues[2]);
+				randomAccessFile.getFD().sync();
+			} finally
+			{
+				randomAccessFile.close();
+			}
+		} catch (IOException e)
+		{
+			throw new IllegalStateException("Temporary file not written: "
+					+ e.getMessage());
+		}
+
+		return mValues[2];
+	}
+
+	@Override
+	public int getBatchSize()
+	{
+		// Each write waits for storage.
+		return (mMode == MODE_READ) ? DEFAULT_BATCH_SIZE : 20;
+	}
+}
@@ -0,0 +1,204 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.models.JumpingGameItem;
+import org.ruscoe.sheep.simulation.EntityStore;
+
+/**
+ * Measures a single pass removing every other item from a collection of
+ * items, as after sheep pop or debris comes to rest en masse.
+ *
+ * Compares removing items from an ArrayList during iteration, as the game
+ * once did, with each way of removing items from an EntityStore.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class RemovalBenchmark extends Benchmark
+{
+	// Benchmark mode constants.
+
+	// ArrayList.remove() of JumpingGameItem instances during iteration.
+	public static final int MODE_LIST = 1;
+	// EntityStore.release() during iteration.
+	public static final int MODE_ORDERED = 2;
+	// EntityStore.copy() and truncate() in a single compacting pass.
+	public static final int MODE_COMPACT = 3;
+	// EntityStore.releaseSwap() during iteration.
+	public static final int MODE_SWAP = 4;
+
+	// The item counts: Unfair mode sheep, then stress counts.
+	public static final int[] ITEM_COUNTS = { 41, 400, 4000, 40000 };
+
+	private int mMode;
+	private int mItemCount;
+
+	private List<JumpingGameItem> mList = new ArrayList<JumpingGameItem>();
+	private EntityStore mStore = new EntityStore();
+
+	/**
+	 * @param int mode - The removal method. Defined as MODE_* constants.
+	 * @param int itemCount - The number of items before removal.
+	 */
+	public RemovalBenchmark(int mode, int itemCount)
+	{
+		super(getName(mode), itemCount);
+
+		mMode = mode;
+		mItemCount = itemCount;
+	}
+
+	/**
+	 * Gets the benchmark name for a mode.
+	 *
+	 * @param int mode - The removal method. Defined as MODE_* constants.
+	 * @return String
+	 */
+	private static String getName(int mode)
+	{
+		switch (mode)
+		{
+			case MODE_LIST:
+				return "Removal.arrayList";
+			case MODE_ORDERED:
+				return "Removal.ordered";
+			case MODE_COMPACT:
+				return "Removal.compact";
+			default:
+				return "Removal.swap";
+		}
+	}
+
+	@Override
+	public void prepare()
+	{
+		int i;
+
+		if (mMode == MODE_LIST)
+		{
+			mList.clear();
+
+			JumpingGameItem item;
+			for (i = 0; i <= (mItemCount - 1); i++)
+			{
+				item = new JumpingGameItem(Sprites.DEBRIS, 20, 18);
+				if ((i % 2) == 0)
+				{
+					item.makeInactive();
+				}
+
+				mList.add(item);
+			}
+
+			return;
+		}
+
+		mStore.clear();
+
+		int index;
+		for (i = 0; i <= (mItemCount - 1); i++)
+		{
+			index = mStore.acquire(Sprites.DEBRIS, 20, 18);
+			if ((i % 2) == 0)
+			{
+				mStore.makeInactive(index);
+			}
+		}
+	}
+
+	@Override
+	public int run()
+	{
+		switch (mMode)
+		{
+			case MODE_LIST:
+				return removeFromList();
+			case MODE_ORDERED:
+				return removeOrdered();
+			case MODE_COMPACT:
+				return removeCompact();
+			default:
+				return removeSwap();
+		}
+	}
+
+	@Override
+	public int getBatchSize()
+	{
+		return 1;
+	}
+
+	private int removeFromList()
+	{
+		int i;
+		for (i = 0; i <= (mList.size() - 1); i++)
+		{
+			if (!mList.get(i).isActive())
+			{
+				mList.remove(i);
+				i--;
+			}
+		}
+
+		return mList.size();
+	}
+
+	private int removeOrdered()
+	{
+		int i;
+		for (i = 0; i <= (mStore.size() - 1); i++)
+		{
+			if (!mStore.isActive(i))
+			{
+				mStore.release(i);
+				i--;
+			}
+		}
+
+		return mStore.size();
+	}
+
+	private int removeCompact()
+	{
+		int count = mStore.size();
+		int kept = 0;
+
+		int i;
+		for (i = 0; i <= (count - 1); i++)
+		{
+			if (!mStore.isActive(i))
+			{
+				continue;
+			}
+
+			if (kept != i)
+			{
+				mStore.copy(i, kept);
+			}
+
+			kept++;
+		}
+
+		mStore.truncate(kept);
+
+		return mStore.size();
+	}
+
+	private int removeSwap()
+	{
+		int i;
+		for (i = 0; i <= (mStore.size() - 1); i++)
+		{
+			if (!mStore.isActive(i))
+			{
+				mStore.releaseSwap(i);
+				i--;
+			}
+		}
+
+		return mStore.size();
+	}
+}
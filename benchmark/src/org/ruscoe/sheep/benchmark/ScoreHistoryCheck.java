@@ -0,0 +1,520 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+import org.ruscoe.sheep.dao.ScoreHistorySchema;
+import org.ruscoe.sheep.profiling.TimingHistogram;
+import org.ruscoe.sheep.util.GameRandom;
+
+/**
+ * Checks the score history schema and queries against SQLite, and measures
+ * insert throughput and query latency with a large history.
+ *
+ * Creates the table and indexes from ScoreHistorySchema in a new database
+ * in WAL mode, as the game does, then fills it with sessions inserted as
+ * ScoreHistoryData does: a prepared statement, many sessions to each
+ * transaction. Then checks that both queries are answered from their
+ * indexes without a table scan or sort, that their results match the same
+ * queries made without indexes, and times each query.
+ *
+ * Runs on a desktop JVM with the SQLite JDBC driver (org.xerial:sqlite-jdbc)
+ * on the class path, which stands in for the Android SQLite binding; see
+ * check-score-history.sh. Exits with status 1 if a check fails.
+ *
+ * Usage: ScoreHistoryCheck [-n rows] [-b batchSize] [-q queries]
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class ScoreHistoryCheck
+{
+	// The default number of sessions in the history.
+	public static final int DEFAULT_ROWS = 100000;
+	// The default number of sessions inserted in each transaction.
+	public static final int DEFAULT_BATCH_SIZE = 100;
+	// The default number of times each query is timed.
+	public static final int DEFAULT_QUERIES = 2000;
+
+	// The number of sessions inserted one to a transaction once the
+	// history is full, as when a single session is flushed in play.
+	private static final int SINGLE_INSERTS = 500;
+
+	// The number of game modes sessions are spread over.
+	private static final int GAME_MODES = 3;
+
+	// The number of days sessions are spread over, and the number of days
+	// each daily stats query covers.
+	private static final int HISTORY_DAYS = 365;
+	private static final int QUERY_DAYS = 30;
+
+	// The number of top scores each query returns.
+	private static final int TOP_SCORES = 10;
+
+	private static final long MILLIS_PER_DAY = 86400000L;
+
+	// The time the first session started; 1 January 2012.
+	private static final long FIRST_START_TIME = 1325376000000L;
+
+	private static final String DRIVER = "org.sqlite.JDBC";
+
+	private int mRows = DEFAULT_ROWS;
+	private int mBatchSize = DEFAULT_BATCH_SIZE;
+	private int mQueries = DEFAULT_QUERIES;
+
+	// Seeded so every run builds the same history.
+	private GameRandom mRandom = new GameRandom(1);
+
+	private Connection mConnection;
+
+	private int mFailures = 0;
+
+	public static void main(String[] args) throws Exception
+	{
+		ScoreHistoryCheck check = new ScoreHistoryCheck();
+
+		int i;
+		for (i = 0; i <= (args.length - 1); i++)
+		{
+			if (args[i].equals("-n") && (i < (args.length - 1)))
+			{
+				check.mRows = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-b") && (i < (args.length - 1)))
+			{
+				check.mBatchSize = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-q") && (i < (args.length - 1)))
+			{
+				check.mQueries = Integer.parseInt(args[++i]);
+			}
+		}
+
+		try
+		{
+			Class.forName(DRIVER);
+		} catch (ClassNotFoundException e)
+		{
+			System.out.println("The SQLite JDBC driver is not on the class path.");
+			System.exit(1);
+		}
+
+		File file = File.createTempFile("scoreHistory", ".db");
+
+		try
+		{
+			check.run(file);
+		} finally
+		{
+			deleteDatabase(file);
+		}
+
+		System.exit((check.mFailures > 0) ? 1 : 0);
+	}
+
+	/**
+	 * Runs every check against a new database.
+	 *
+	 * @param File file - The database file.
+	 * @throws SQLException if the database cannot be used.
+	 */
+	public void run(File file) throws SQLException
+	{
+		mConnection = DriverManager.getConnection("jdbc:sqlite:"
+				+ file.getPath());
+
+		try
+		{
+			createSchema();
+
+			insertHistory();
+			insertSingleSessions();
+
+			checkPlan("top scores", ScoreHistorySchema.SELECT_TOP_SCORES,
+					ScoreHistorySchema.INDEX_TOP);
+			checkPlan("daily stats", ScoreHistorySchema.SELECT_DAILY_STATS,
+					ScoreHistorySchema.INDEX_DAY);
+
+			checkTopScores();
+			checkDailyStats();
+		} finally
+		{
+			mConnection.close();
+		}
+	}
+
+	/**
+	 * Creates the table and indexes in WAL mode, as on the device.
+	 *
+	 * @throws SQLException if the schema cannot be created.
+	 */
+	private void createSchema() throws SQLException
+	{
+		Statement statement = mConnection.createStatement();
+
+		try
+		{
+			statement.executeQuery("PRAGMA journal_mode=WAL").close();
+			// The synchronous mode Android uses with WAL.
+			statement.executeUpdate("PRAGMA synchronous=NORMAL");
+
+			statement.executeUpdate(ScoreHistorySchema.CREATE_TABLE);
+			statement.executeUpdate(ScoreHistorySchema.CREATE_INDEX_TOP);
+			statement.executeUpdate(ScoreHistorySchema.CREATE_INDEX_DAY);
+		} finally
+		{
+			statement.close();
+		}
+	}
+
+	/**
+	 * Fills the history, a batch of sessions to each transaction, and
+	 * reports the insert throughput.
+	 *
+	 * @throws SQLException if a session cannot be inserted.
+	 */
+	private void insertHistory() throws SQLException
+	{
+		long start = System.nanoTime();
+
+		int inserted = 0;
+		while (inserted < mRows)
+		{
+			int count = Math.min(mBatchSize, (mRows - inserted));
+
+			insertBatch(inserted, count);
+			inserted += count;
+		}
+
+		long elapsed = (System.nanoTime() - start);
+
+		System.out.println(String.format(Locale.US,
+				"INFO   insert %d rows, %d per transaction: %.0f rows/s",
+				mRows, mBatchSize, (mRows * 1e9 / elapsed)));
+	}
+
+	/**
+	 * Inserts sessions one to a transaction into the full history, and
+	 * reports the time taken by each.
+	 *
+	 * @throws SQLException if a session cannot be inserted.
+	 */
+	private void insertSingleSessions() throws SQLException
+	{
+		TimingHistogram times = new TimingHistogram();
+
+		int i;
+		for (i = 0; i <= (SINGLE_INSERTS - 1); i++)
+		{
+			long start = System.nanoTime();
+			insertBatch((mRows + i), 1);
+			times.record(System.nanoTime() - start);
+		}
+
+		mRows += SINGLE_INSERTS;
+
+		printTimes("insert 1 row per transaction", times);
+	}
+
+	/**
+	 * Inserts sessions in a single transaction through one prepared
+	 * statement, as ScoreHistoryData.flush() does.
+	 *
+	 * @param int first - The number of the first session, which sets its
+	 * 	start time.
+	 * @param int count - The number of sessions.
+	 * @throws SQLException if a session cannot be inserted.
+	 */
+	private void insertBatch(int first, int count) throws SQLException
+	{
+		mConnection.setAutoCommit(false);
+
+		PreparedStatement statement = mConnection.prepareStatement(
+				ScoreHistorySchema.INSERT_SESSION);
+
+		try
+		{
+			long startTime;
+
+			int i;
+			for (i = first; i <= (first + count - 1); i++)
+			{
+				// Spread sessions evenly over the days of the history.
+				startTime = FIRST_START_TIME
+						+ (((long) i * HISTORY_DAYS * MILLIS_PER_DAY) / mRows);
+
+				statement.setInt(1, mRandom.nextInt(GAME_MODES));
+				statement.setInt(2, mRandom.nextIntInRange(-50, 500));
+				statement.setLong(3, startTime);
+				statement.setLong(4, mRandom.nextIntInRange(5000, 600000));
+				statement.setLong(5, (startTime / MILLIS_PER_DAY));
+				statement.executeUpdate();
+			}
+
+			mConnection.commit();
+		} catch (SQLException e)
+		{
+			mConnection.rollback();
+			throw e;
+		} finally
+		{
+			statement.close();
+			mConnection.setAutoCommit(true);
+		}
+	}
+
+	/**
+	 * Checks that a query is answered by searching an index, without a
+	 * table scan or temporary sort.
+	 *
+	 * @param String name - The query name, for reporting.
+	 * @param String sql - The query.
+	 * @param String index - The index the query should use.
+	 * @throws SQLException if the query plan cannot be read.
+	 */
+	private void checkPlan(String name, String sql, String index)
+			throws SQLException
+	{
+		StringBuilder plan = new StringBuilder();
+
+		Statement statement = mConnection.createStatement();
+
+		try
+		{
+			// Parameters are left unbound; the plan does not depend on them.
+			ResultSet results = statement.executeQuery("EXPLAIN QUERY PLAN "
+					+ sql);
+
+			while (results.next())
+			{
+				if (plan.length() > 0)
+				{
+					plan.append("; ");
+				}
+				plan.append(results.getString("detail"));
+			}
+			results.close();
+		} finally
+		{
+			statement.close();
+		}
+
+		String detail = plan.toString();
+
+		boolean passed = (detail.indexOf("SEARCH") >= 0)
+				&& (detail.indexOf("INDEX " + index) >= 0)
+				&& (detail.indexOf("SCAN") < 0)
+				&& (detail.indexOf("TEMP B-TREE") < 0);
+
+		report(passed, "plan " + name + ": " + detail);
+	}
+
+	/**
+	 * Checks the top scores for every game mode against a query made
+	 * without indexes, and times the query.
+	 *
+	 * @throws SQLException if a query fails.
+	 */
+	private void checkTopScores() throws SQLException
+	{
+		PreparedStatement query = mConnection.prepareStatement(
+				ScoreHistorySchema.SELECT_TOP_SCORES);
+		PreparedStatement scan = mConnection.prepareStatement(
+				"SELECT " + ScoreHistorySchema.SCORE + " FROM "
+				+ ScoreHistorySchema.TABLE_NAME + " NOT INDEXED WHERE "
+				+ ScoreHistorySchema.GAME_MODE + " = ? ORDER BY "
+				+ ScoreHistorySchema.SCORE + " DESC LIMIT ?");
+
+		try
+		{
+			boolean matched = true;
+
+			int mode;
+			for (mode = 0; mode <= (GAME_MODES - 1); mode++)
+			{
+				String expected = readRows(scan, mode, TOP_SCORES);
+				String actual = readRows(query, mode, TOP_SCORES);
+
+				if (!actual.equals(expected))
+				{
+					matched = false;
+					System.out.println("       mode " + mode + ": " + actual
+							+ " expected " + expected);
+				}
+			}
+
+			report(matched, "top scores match a full scan");
+
+			TimingHistogram times = new TimingHistogram();
+
+			int i;
+			for (i = 0; i <= (mQueries - 1); i++)
+			{
+				long start = System.nanoTime();
+				readRows(query, mRandom.nextInt(GAME_MODES), TOP_SCORES);
+				times.record(System.nanoTime() - start);
+			}
+
+			printTimes("top " + TOP_SCORES + " scores of " + mRows + " rows",
+					times);
+		} finally
+		{
+			query.close();
+			scan.close();
+		}
+	}
+
+	/**
+	 * Checks the daily stats for a range of days against a query made
+	 * without indexes, and times the query.
+	 *
+	 * @throws SQLException if a query fails.
+	 */
+	private void checkDailyStats() throws SQLException
+	{
+		PreparedStatement query = mConnection.prepareStatement(
+				ScoreHistorySchema.SELECT_DAILY_STATS);
+		PreparedStatement scan = mConnection.prepareStatement(
+				ScoreHistorySchema.SELECT_DAILY_STATS.replace(" WHERE ",
+						" NOT INDEXED WHERE "));
+
+		int firstDay = (int) (FIRST_START_TIME / MILLIS_PER_DAY);
+
+		try
+		{
+			boolean matched = true;
+
+			int mode;
+			for (mode = 0; mode <= (GAME_MODES - 1); mode++)
+			{
+				String expected = readRows(scan, mode, firstDay,
+						(firstDay + QUERY_DAYS - 1));
+				String actual = readRows(query, mode, firstDay,
+						(firstDay + QUERY_DAYS - 1));
+
+				if (!actual.equals(expected) || (actual.length() == 0))
+				{
+					matched = false;
+					System.out.println("       mode " + mode + ": " + actual
+							+ " expected " + expected);
+				}
+			}
+
+			report(matched, "daily stats match a full scan");
+
+			TimingHistogram times = new TimingHistogram();
+
+			int day;
+
+			int i;
+			for (i = 0; i <= (mQueries - 1); i++)
+			{
+				day = (firstDay + mRandom.nextInt(HISTORY_DAYS - QUERY_DAYS));
+
+				long start = System.nanoTime();
+				readRows(query, mRandom.nextInt(GAME_MODES), day,
+						(day + QUERY_DAYS - 1));
+				times.record(System.nanoTime() - start);
+			}
+
+			printTimes("daily stats for " + QUERY_DAYS + " days of " + mRows
+					+ " rows", times);
+		} finally
+		{
+			query.close();
+			scan.close();
+		}
+	}
+
+	/**
+	 * Runs a query and reads every row into a string.
+	 *
+	 * @param PreparedStatement query - The query.
+	 * @param int... args - The query parameters.
+	 * @return String - Each row's columns, comma separated, with rows
+	 * 	separated by spaces.
+	 * @throws SQLException if the query fails.
+	 */
+	private static String readRows(PreparedStatement query, int... args)
+			throws SQLException
+	{
+		int i;
+		for (i = 0; i <= (args.length - 1); i++)
+		{
+			query.setInt((i + 1), args[i]);
+		}
+
+		StringBuilder rows = new StringBuilder();
+
+		ResultSet results = query.executeQuery();
+		int columns = results.getMetaData().getColumnCount();
+
+		while (results.next())
+		{
+			if (rows.length() > 0)
+			{
+				rows.append(' ');
+			}
+
+			for (i = 1; i <= columns; i++)
+			{
+				if (i > 1)
+				{
+					rows.append(',');
+				}
+				rows.append(results.getLong(i));
+			}
+		}
+		results.close();
+
+		return rows.toString();
+	}
+
+	/**
+	 * Prints the result of a check, counting failures.
+	 *
+	 * @param boolean passed - True if the check passed.
+	 * @param String description - The check.
+	 */
+	private void report(boolean passed, String description)
+	{
+		if (!passed)
+		{
+			mFailures++;
+		}
+
+		System.out.println((passed ? "PASS   " : "FAIL   ") + description);
+	}
+
+	/**
+	 * Prints a summary of recorded times in microseconds.
+	 *
+	 * @param String description - What was timed.
+	 * @param TimingHistogram times - The times.
+	 */
+	private static void printTimes(String description, TimingHistogram times)
+	{
+		System.out.println(String.format(Locale.US,
+				"INFO   %s: mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus",
+				description, (times.getMean() / 1000.0),
+				(times.getPercentile(0.5) / 1000.0),
+				(times.getPercentile(0.99) / 1000.0),
+				(times.getMax() / 1000.0)));
+	}
+
+	/**
+	 * Deletes a database and its WAL files.
+	 *
+	 * @param File file - The database file.
+	 */
+	private static void deleteDatabase(File file)
+	{
+		file.delete();
+		new File(file.getPath() + "-wal").delete();
+		new File(file.getPath() + "-shm").delete();
+	}
+}
@@ -0,0 +1,62 @@
+package org.ruscoe.sheep.benchmark;
+
+import org.ruscoe.sheep.simulation.GameWorld;
+import org.ruscoe.sheep.simulation.WorldInput;
+
+/**
+ * Measures world ticks updating a given number of sheep items.
+ *
+ * Debris and bounce pad updates are disabled. The world is restarted before
+ * each batch so debris from popped sheep does not build up between batches.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class SheepUpdateBenchmark extends Benchmark
+{
+	// The number of ticks between restarts; 10 seconds of game time.
+	private static final int BATCH_SIZE = 600;
+
+	private GameWorld mWorld = WorldFixture.createWorld();
+	private WorldInput mInput = WorldFixture.createInput();
+
+	private int mSheepCount;
+	private long mTime = 0;
+
+	/**
+	 * @param int sheepCount - The number of sheep items to update.
+	 */
+	public SheepUpdateBenchmark(int sheepCount)
+	{
+		super("GameWorld.updateSheep", sheepCount);
+
+		mSheepCount = sheepCount;
+
+		mWorld.setUpdateDebris(false);
+		mWorld.setUpdateBouncePad(false);
+	}
+
+	@Override
+	public void prepare()
+	{
+		// GameWorld.start() adds one sheep more than the maximum.
+		mWorld.start((mSheepCount - 1), 0, WorldFixture.SEED);
+	}
+
+	@Override
+	public int run()
+	{
+		mTime += WorldFixture.TICK_MILLIS;
+		mInput.setTime(mTime);
+
+		mWorld.tick(mInput);
+
+		return mWorld.getSheep().size();
+	}
+
+	@Override
+	public int getBatchSize()
+	{
+		return BATCH_SIZE;
+	}
+}
@@ -0,0 +1,222 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.util.Random;
+
+import org.ruscoe.sheep.models.GameItem;
+import org.ruscoe.sheep.simulation.SpatialGrid;
+
+/**
+ * Measures a SpatialGrid holding thousands of sheep-sized items, and the
+ * all-pairs test it replaces.
+ *
+ * The world is sized so items are spread as densely as 40 sheep across a
+ * single hdpi screen, however many items there are.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class SpatialGridBenchmark extends Benchmark
+{
+	// Benchmark mode constants.
+
+	// Moves every item, then updates the grid with every item.
+	public static final int MODE_UPDATE = 1;
+	// Finds the items overlapping each item using the grid.
+	public static final int MODE_OVERLAPS = 2;
+	// Finds the items overlapping each item by testing every pair.
+	public static final int MODE_ALL_PAIRS = 3;
+	// Finds the items within a radius of each item using the grid.
+	public static final int MODE_RADIUS = 4;
+
+	// The item counts.
+	public static final int[] ITEM_COUNTS = { 1000, 4000, 16000 };
+
+	// Item dimensions, matching the hdpi sheep sprite.
+	private static final int ITEM_WIDTH = 70;
+	private static final int ITEM_HEIGHT = 40;
+
+	// The number of items spread across a single screen.
+	private static final int ITEMS_PER_SCREEN = 40;
+
+	// The radius searched around each item in MODE_RADIUS.
+	private static final int RADIUS = 100;
+
+	// The largest distance an item moves in each direction per update.
+	private static final int MAX_STEP = 8;
+
+	private int mMode;
+	private int mItemCount;
+
+	// World dimensions.
+	private int mWidth;
+	private int mHeight;
+
+	// Item positions and movement per update.
+	private int[] mX;
+	private int[] mY;
+	private int[] mStepX;
+	private int[] mStepY;
+
+	private SpatialGrid mGrid;
+
+	// Receives query results.
+	private int[] mResults = new int[256];
+
+	/**
+	 * @param int mode - The operation to measure. Defined as MODE_* constants.
+	 * @param int itemCount - The number of items.
+	 */
+	public SpatialGridBenchmark(int mode, int itemCount)
+	{
+		super(getName(mode), itemCount);
+
+		mMode = mode;
+		mItemCount = itemCount;
+
+		double scale = Math.sqrt((double) itemCount / ITEMS_PER_SCREEN);
+
+		mWidth = (int) (WorldFixture.SCREEN_WIDTH * scale);
+		mHeight = (int) (WorldFixture.SCREEN_HEIGHT * scale);
+
+		mX = new int[itemCount];
+		mY = new int[itemCount];
+		mStepX = new int[itemCount];
+		mStepY = new int[itemCount];
+
+		Random random = new Random(itemCount);
+
+		int i;
+		for (i = 0; i <= (itemCount - 1); i++)
+		{
+			mX[i] = random.nextInt(mWidth - ITEM_WIDTH);
+			mY[i] = random.nextInt(mHeight - ITEM_HEIGHT);
+			mStepX[i] = (random.nextInt(MAX_STEP * 2 + 1) - MAX_STEP);
+			mStepY[i] = (random.nextInt(MAX_STEP * 2 + 1) - MAX_STEP);
+		}
+
+		mGrid = new SpatialGrid(mWidth, mHeight, ITEM_WIDTH);
+		mGrid.ensureCapacity(itemCount);
+
+		for (i = 0; i <= (itemCount - 1); i++)
+		{
+			mGrid.update(i, mX[i], mY[i], ITEM_WIDTH, ITEM_HEIGHT);
+		}
+	}
+
+	/**
+	 * Gets the benchmark name for a mode.
+	 *
+	 * @param int mode - The operation to measure. Defined as MODE_* constants.
+	 * @return String
+	 */
+	private static String getName(int mode)
+	{
+		switch (mode)
+		{
+			case MODE_UPDATE:
+				return "SpatialGrid.update";
+			case MODE_OVERLAPS:
+				return "SpatialGrid.overlaps";
+			case MODE_ALL_PAIRS:
+				return "SpatialGrid.allPairs";
+			default:
+				return "SpatialGrid.radius";
+		}
+	}
+
+	@Override
+	public int run()
+	{
+		switch (mMode)
+		{
+			case MODE_UPDATE:
+				return update();
+			case MODE_OVERLAPS:
+				return findOverlaps();
+			case MODE_ALL_PAIRS:
+				return findAllPairs();
+			default:
+				return findWithinRadius();
+		}
+	}
+
+	@Override
+	public int getBatchSize()
+	{
+		return 1;
+	}
+
+	private int update()
+	{
+		int i;
+		for (i = 0; i <= (mItemCount - 1); i++)
+		{
+			mX[i] += mStepX[i];
+			mY[i] += mStepY[i];
+
+			// Turn back at the world edges.
+			if ((mX[i] < 0) || ((mX[i] + ITEM_WIDTH) > mWidth))
+			{
+				mStepX[i] = -mStepX[i];
+			}
+			if ((mY[i] < 0) || ((mY[i] + ITEM_HEIGHT) > mHeight))
+			{
+				mStepY[i] = -mStepY[i];
+			}
+
+			mGrid.update(i, mX[i], mY[i], ITEM_WIDTH, ITEM_HEIGHT);
+		}
+
+		return mX[0];
+	}
+
+	private int findOverlaps()
+	{
+		int found = 0;
+
+		int i;
+		for (i = 0; i <= (mItemCount - 1); i++)
+		{
+			found += mGrid.queryOverlaps(i, mResults);
+		}
+
+		return found;
+	}
+
+	private int findAllPairs()
+	{
+		int found = 0;
+
+		int i;
+		int j;
+		for (i = 0; i <= (mItemCount - 1); i++)
+		{
+			for (j = 0; j <= (mItemCount - 1); j++)
+			{
+				if ((i != j)
+						&& GameItem.intersects(mX[i], mY[i], ITEM_WIDTH,
+								ITEM_HEIGHT, mX[j], mY[j], ITEM_WIDTH,
+								ITEM_HEIGHT))
+				{
+					found++;
+				}
+			}
+		}
+
+		return found;
+	}
+
+	private int findWithinRadius()
+	{
+		int found = 0;
+
+		int i;
+		for (i = 0; i <= (mItemCount - 1); i++)
+		{
+			found += mGrid.queryRadius(mX[i] + (ITEM_WIDTH / 2), mY[i]
+					+ (ITEM_HEIGHT / 2), RADIUS, mResults);
+		}
+
+		return found;
+	}
+}
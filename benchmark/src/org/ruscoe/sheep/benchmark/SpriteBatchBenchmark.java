@@ -0,0 +1,132 @@
+package org.ruscoe.sheep.benchmark;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.profiling.FrameProfiler;
+import org.ruscoe.sheep.render.RecordingRenderer;
+import org.ruscoe.sheep.render.Renderer;
+import org.ruscoe.sheep.render.SpriteBatch;
+import org.ruscoe.sheep.render.WorldDrawer;
+
+/**
+ * Measures building the sprite vertices for a frame of a given number of
+ * sheep, as GLSpriteRenderer does before each sprite draw call.
+ *
+ * The recorded frame is replayed into a Renderer which adds each sprite to
+ * a SpriteBatch and copies the batch into its vertex buffer when the batch
+ * is full or the frame ends.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class SpriteBatchBenchmark extends Benchmark
+{
+	// The sheep counts.
+	public static final int[] SHEEP_COUNTS = { 40, 400, 4000 };
+
+	// The number of sprites in each batch, matching GLSpriteRenderer.
+	private static final int BATCH_CAPACITY = 1024;
+
+	private RecordingRenderer mRecorder = new RecordingRenderer();
+	private BatchingRenderer mBatchingRenderer = new BatchingRenderer();
+
+	/**
+	 * @param int sheepCount - The number of sheep items drawn.
+	 */
+	public SpriteBatchBenchmark(int sheepCount)
+	{
+		super("SpriteBatch.build", sheepCount);
+
+		FrameProfiler profiler = new FrameProfiler();
+		profiler.setEnabled(false);
+
+		WorldDrawer drawer = WorldFixture.createDrawer(profiler);
+		drawer.draw(mRecorder, WorldFixture.createSnapshot(sheepCount), 0.5f);
+	}
+
+	@Override
+	public int run()
+	{
+		mRecorder.replay(mBatchingRenderer);
+
+		return mBatchingRenderer.mVertexCount;
+	}
+
+	@Override
+	public int getBatchSize()
+	{
+		return 100;
+	}
+
+	/**
+	 * A Renderer which builds sprite batches without drawing them. Sprites
+	 * are packed side by side in a single texture.
+	 */
+	private static class BatchingRenderer implements Renderer
+	{
+		private SpriteBatch mBatch = new SpriteBatch(BATCH_CAPACITY, Sprites.COUNT);
+
+		// The number of vertex values built by the frame.
+		private int mVertexCount = 0;
+
+		public BatchingRenderer()
+		{
+			int textureWidth = 0;
+			int textureHeight = 0;
+
+			int i;
+			for (i = 0; i <= (Sprites.COUNT - 1); i++)
+			{
+				textureWidth += WorldFixture.getSpriteWidth(i);
+				textureHeight = Math.max(textureHeight,
+						WorldFixture.getSpriteHeight(i));
+			}
+
+			int left = 0;
+
+			for (i = 0; i <= (Sprites.COUNT - 1); i++)
+			{
+				mBatch.setRegion(i, left, 0,
+						(left + WorldFixture.getSpriteWidth(i)),
+						WorldFixture.getSpriteHeight(i), textureWidth,
+						textureHeight);
+
+				left += WorldFixture.getSpriteWidth(i);
+			}
+		}
+
+		public void beginFrame()
+		{
+			mVertexCount = 0;
+			mBatch.begin();
+		}
+
+		public void drawBackground()
+		{
+		}
+
+		public void drawSprite(int sprite, float x, float y, boolean mirrored)
+		{
+			if (mBatch.isFull())
+			{
+				flush();
+			}
+
+			mBatch.add(sprite, x, y, mirrored);
+		}
+
+		public void drawScore(int score, int highScore, float x, float y)
+		{
+		}
+
+		public void endFrame()
+		{
+			flush();
+		}
+
+		private void flush()
+		{
+			mVertexCount += mBatch.getVertices().limit();
+			mBatch.begin();
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package org.ruscoe.sheep.benchmark;
+
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.util.Locale;
+
+import org.ruscoe.sheep.render.SpriteBatch;
+
+/**
+ * Checks the vertex and index layout SpriteBatch hands to OpenGL for a
+ * known sequence of sprites.
+ *
+ * Three sprite regions are set in a 256 by 128 texture, and a batch is
+ * filled with each sprite unmirrored and mirrored, and a quad added by
+ * its edges. Every value of the vertex buffer returned by getVertices() is
+ * compared with the expected X, Y, U, V of the quad's top left, top right,
+ * bottom right and bottom left vertices, mirrored quads having their U
+ * coordinates swapped. The index buffer, the buffer limits and refilling
+ * the batch after begin() are checked too.
+ *
+ * Exits with status 1 if any comparison fails.
+ *
+ * Usage: SpriteBatchCheck
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class SpriteBatchCheck
+{
+	// The texture size, in texels.
+	private static final int TEXTURE_WIDTH = 256;
+	private static final int TEXTURE_HEIGHT = 128;
+
+	// The texture region of each sprite: left, top, right, bottom.
+	private static final int[][] REGIONS = {
+		{ 0, 0, 32, 16 },
+		{ 32, 0, 96, 64 },
+		{ 128, 64, 256, 128 }
+	};
+
+	// The sequence added to the batch: sprite, X, Y and 1 if mirrored.
+	private static final int[][] SEQUENCE = {
+		{ 0, 10, 20, 0 },
+		{ 0, 10, 20, 1 },
+		{ 1, -5, 300, 0 },
+		{ 2, 400, 0, 1 },
+		{ 1, 0, 0, 1 }
+	};
+
+	// A quad added by its edges: left, top, right, bottom, u0, v0, u1, v1.
+	private static final float[] QUAD = { 1, 2, 3, 4, 0.25f, 0.5f, 0.75f, 1 };
+
+	// The batch capacity, leaving room for one more quad after the
+	// sequence.
+	private static final int CAPACITY = (SEQUENCE.length + 2);
+
+	private int mFailures = 0;
+
+	public static void main(String[] args)
+	{
+		SpriteBatchCheck check = new SpriteBatchCheck();
+
+		check.run();
+
+		System.exit((check.mFailures > 0) ? 1 : 0);
+	}
+
+	/**
+	 * Fills a batch with the sequence and checks its buffers.
+	 */
+	public void run()
+	{
+		SpriteBatch batch = new SpriteBatch(CAPACITY, REGIONS.length);
+
+		int i;
+		for (i = 0; i <= (REGIONS.length - 1); i++)
+		{
+			batch.setRegion(i, REGIONS[i][0], REGIONS[i][1], REGIONS[i][2],
+					REGIONS[i][3], TEXTURE_WIDTH, TEXTURE_HEIGHT);
+		}
+
+		report((batch.isEmpty() && (batch.getVertices().limit() == 0)),
+				"a new batch is empty");
+
+		float[] expected = fill(batch);
+
+		checkVertices(batch, expected);
+		checkIndices(batch);
+
+		report(!batch.isFull(), String.format(Locale.US,
+				"a batch of %d quads is not full at %d quads", CAPACITY,
+				batch.getSpriteCount()));
+
+		batch.add(QUAD[0], QUAD[1], QUAD[2], QUAD[3], QUAD[4], QUAD[5],
+				QUAD[6], QUAD[7]);
+
+		report(batch.isFull(), String.format(Locale.US,
+				"a batch of %d quads is full at %d quads", CAPACITY,
+				batch.getSpriteCount()));
+
+		// Refilling must overwrite the previous frame's vertices rather
+		// than append to them.
+		batch.begin();
+
+		report(batch.isEmpty(), "begin() empties the batch");
+
+		checkVertices(batch, fill(batch));
+	}
+
+	/**
+	 * Adds the sequence and the quad to a batch.
+	 *
+	 * @param SpriteBatch batch - The batch to add to.
+	 * @return float[] - The vertex values the batch should hold.
+	 */
+	private static float[] fill(SpriteBatch batch)
+	{
+		float[] expected = new float[(SEQUENCE.length + 1)
+				* SpriteBatch.VERTICES_PER_SPRITE * SpriteBatch.FLOATS_PER_VERTEX];
+
+		int offset = 0;
+
+		int i;
+		for (i = 0; i <= (SEQUENCE.length - 1); i++)
+		{
+			int[] region = REGIONS[SEQUENCE[i][0]];
+			float x = SEQUENCE[i][1];
+			float y = SEQUENCE[i][2];
+			boolean mirrored = (SEQUENCE[i][3] == 1);
+
+			batch.add(SEQUENCE[i][0], x, y, mirrored);
+
+			float u0 = ((float) region[0] / TEXTURE_WIDTH);
+			float u1 = ((float) region[2] / TEXTURE_WIDTH);
+
+			// A mirrored sprite keeps its position and samples the region
+			// from right to left.
+			if (mirrored)
+			{
+				float u = u0;
+				u0 = u1;
+				u1 = u;
+			}
+
+			offset = putQuad(expected, offset, x, y,
+					(x + (region[2] - region[0])), (y + (region[3] - region[1])),
+					u0, ((float) region[1] / TEXTURE_HEIGHT),
+					u1, ((float) region[3] / TEXTURE_HEIGHT));
+		}
+
+		batch.add(QUAD[0], QUAD[1], QUAD[2], QUAD[3], QUAD[4], QUAD[5],
+				QUAD[6], QUAD[7]);
+
+		putQuad(expected, offset, QUAD[0], QUAD[1], QUAD[2], QUAD[3], QUAD[4],
+				QUAD[5], QUAD[6], QUAD[7]);
+
+		return expected;
+	}
+
+	/**
+	 * Writes the expected vertices of a quad, in the order top left, top
+	 * right, bottom right, bottom left.
+	 *
+	 * @param float[] values - The expected vertex values.
+	 * @param int offset - The index of the quad's first value.
+	 * @param float left - The left edge of the quad.
+	 * @param float top - The top edge of the quad.
+	 * @param float right - The right edge of the quad.
+	 * @param float bottom - The bottom edge of the quad.
+	 * @param float u0 - The U coordinate of the left edge.
+	 * @param float v0 - The V coordinate of the top edge.
+	 * @param float u1 - The U coordinate of the right edge.
+	 * @param float v1 - The V coordinate of the bottom edge.
+	 * @return int - The index following the quad's last value.
+	 */
+	private static int putQuad(float[] values, int offset, float left,
+			float top, float right, float bottom, float u0, float v0,
+			float u1, float v1)
+	{
+		float[] quad = {
+			left, top, u0, v0,
+			right, top, u1, v0,
+			right, bottom, u1, v1,
+			left, bottom, u0, v1
+		};
+
+		System.arraycopy(quad, 0, values, offset, quad.length);
+
+		return (offset + quad.length);
+	}
+
+	/**
+	 * Compares the vertex buffer with the expected values.
+	 *
+	 * @param SpriteBatch batch - The filled batch.
+	 * @param float[] expected - The expected vertex values.
+	 */
+	private void checkVertices(SpriteBatch batch, float[] expected)
+	{
+		FloatBuffer vertices = batch.getVertices();
+
+		report(((vertices.position() == 0) && (vertices.limit() == expected.length)),
+				String.format(Locale.US,
+						"vertex buffer position=%d limit=%d (expected 0 and %d)",
+						vertices.position(), vertices.limit(), expected.length));
+
+		int count = Math.min(vertices.limit(), expected.length);
+		int mismatches = 0;
+
+		int i;
+		for (i = 0; i <= (count - 1); i++)
+		{
+			float value = vertices.get(i);
+
+			if (Float.floatToIntBits(value) != Float.floatToIntBits(expected[i]))
+			{
+				if (mismatches == 0)
+				{
+					int vertex = (i / SpriteBatch.FLOATS_PER_VERTEX);
+
+					System.out.println(String.format(Locale.US,
+							"INFO   quad %d vertex %d %s=%s (expected %s)",
+							(vertex / SpriteBatch.VERTICES_PER_SPRITE),
+							(vertex % SpriteBatch.VERTICES_PER_SPRITE),
+							"XYUV".substring((i % SpriteBatch.FLOATS_PER_VERTEX),
+									((i % SpriteBatch.FLOATS_PER_VERTEX) + 1)),
+							value, expected[i]));
+				}
+
+				mismatches++;
+			}
+		}
+
+		report((mismatches == 0), String.format(Locale.US,
+				"%d quads: %d of %d vertex values differ",
+				batch.getSpriteCount(), mismatches, count));
+	}
+
+	/**
+	 * Checks each quad is drawn as two triangles sharing its top left and
+	 * bottom right vertices.
+	 *
+	 * @param SpriteBatch batch - The filled batch.
+	 */
+	private void checkIndices(SpriteBatch batch)
+	{
+		ShortBuffer indices = batch.getIndices();
+
+		int[] pattern = { 0, 1, 2, 0, 2, 3 };
+
+		boolean matches = ((indices.position() == 0)
+				&& (indices.limit() == (CAPACITY * SpriteBatch.INDICES_PER_SPRITE))
+				&& (batch.getIndexCount() == (batch.getSpriteCount()
+						* SpriteBatch.INDICES_PER_SPRITE)));
+
+		int i;
+		for (i = 0; i <= (indices.limit() - 1); i++)
+		{
+			int quad = (i / SpriteBatch.INDICES_PER_SPRITE);
+			int index = ((quad * SpriteBatch.VERTICES_PER_SPRITE)
+					+ pattern[i % SpriteBatch.INDICES_PER_SPRITE]);
+
+			if (indices.get(i) != index)
+			{
+				matches = false;
+			}
+		}
+
+		report(matches, String.format(Locale.US,
+				"index buffer holds %d quads of 0, 1, 2, 0, 2, 3; %d indices used",
+				CAPACITY, batch.getIndexCount()));
+	}
+
+	/**
+	 * Prints the result of a check, counting failures.
+	 *
+	 * @param boolean passed - True if the check passed.
+	 * @param String description - The check.
+	 */
+	private void report(boolean passed, String description)
+	{
+		if (!passed)
+		{
+			mFailures++;
+		}
+
+		System.out.println((passed ? "PASS   " : "FAIL   ") + description);
+	}
+}
@@ -0,0 +1,125 @@
+package org.ruscoe.sheep.benchmark;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.profiling.FrameProfiler;
+import org.ruscoe.sheep.render.WorldDrawer;
+import org.ruscoe.sheep.simulation.GameWorld;
+import org.ruscoe.sheep.simulation.WorldInput;
+import org.ruscoe.sheep.simulation.WorldSnapshot;
+
+/**
+ * Creates game worlds matching the game running on a hdpi (480x800) screen.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class WorldFixture
+{
+	public static final int SCREEN_WIDTH = 480;
+	public static final int SCREEN_HEIGHT = 800;
+	public static final float DENSITY = 1.5f;
+
+	// The milliseconds between world ticks at 60 ticks per second.
+	public static final int TICK_MILLIS = 16;
+
+	// The seed every world is started with, so each run plays out the same.
+	public static final long SEED = 42;
+
+	// The number of ticks run before a snapshot is captured; 5 seconds of
+	// game time.
+	private static final int SNAPSHOT_TICKS = 300;
+
+	// Sprite dimensions from res/drawable-hdpi, indexed by sprite ID.
+	private static final int[] SPRITE_WIDTHS = { 70, 70, 70, 70, 20, 11 };
+	private static final int[] SPRITE_HEIGHTS = { 40, 40, 48, 48, 18, 30 };
+
+	/**
+	 * Creates a game world with every sprite size set, ready to be started.
+	 *
+	 * @return GameWorld
+	 */
+	public static GameWorld createWorld()
+	{
+		GameWorld world = new GameWorld(SCREEN_WIDTH, SCREEN_HEIGHT, DENSITY);
+
+		int i;
+		for (i = 0; i <= (Sprites.COUNT - 1); i++)
+		{
+			world.setSpriteSize(i, SPRITE_WIDTHS[i], SPRITE_HEIGHTS[i]);
+		}
+
+		return world;
+	}
+
+	/**
+	 * Creates a world drawer with every sprite size set.
+	 *
+	 * @param FrameProfiler profiler - Times each drawing phase.
+	 * @return WorldDrawer
+	 */
+	public static WorldDrawer createDrawer(FrameProfiler profiler)
+	{
+		WorldDrawer drawer = new WorldDrawer(profiler);
+
+		int i;
+		for (i = 0; i <= (Sprites.COUNT - 1); i++)
+		{
+			drawer.setSpriteHeight(i, SPRITE_HEIGHTS[i]);
+		}
+
+		return drawer;
+	}
+
+	/**
+	 * Captures a snapshot of a world with a given number of sheep. The world
+	 * is run for a few seconds first, so the snapshot includes debris from
+	 * sheep which have fallen.
+	 *
+	 * @param int sheepCount - The number of sheep.
+	 * @return WorldSnapshot
+	 */
+	public static WorldSnapshot createSnapshot(int sheepCount)
+	{
+		GameWorld world = createWorld();
+		WorldInput input = createInput();
+
+		// GameWorld.start() adds one sheep more than the maximum.
+		world.start((sheepCount - 1), 0, SEED);
+
+		int i;
+		for (i = 1; i <= SNAPSHOT_TICKS; i++)
+		{
+			input.setTime((long) i * TICK_MILLIS);
+			world.tick(input);
+		}
+
+		WorldSnapshot snapshot = new WorldSnapshot();
+		snapshot.capture(world, 0);
+
+		return snapshot;
+	}
+
+	public static int getSpriteWidth(int sprite)
+	{
+		return SPRITE_WIDTHS[sprite];
+	}
+
+	public static int getSpriteHeight(int sprite)
+	{
+		return SPRITE_HEIGHTS[sprite];
+	}
+
+	/**
+	 * Creates the input for a world tick with a level device.
+	 *
+	 * @return WorldInput
+	 */
+	public static WorldInput createInput()
+	{
+		WorldInput input = new WorldInput();
+		input.setAccelX(0);
+		input.setTime(0);
+
+		return input;
+	}
+}
@@ -0,0 +1,381 @@
+package org.ruscoe.sheep;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.ruscoe.sheep.R;
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.dao.GamePrefsRepository;
+import org.ruscoe.sheep.graphics.BitmapCache;
+import org.ruscoe.sheep.profiling.TimingHistogram;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Typeface;
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * Holds the assets used by every game for the life of the process, so a
+ * new game starts without decoding images, loading the font and sounds or
+ * opening the database again.
+ *
+ * Assets are loaded once, on a background thread, when the title screen or
+ * the first game is created, and released when the game's task finishes.
+ * A game waits for them on its game thread with awaitLoaded(), never on the
+ * UI thread, so its surface is shown while they load.
+ *
+ * Also records the time each game takes to draw its first frame,
+ * separately for games started with assets already loaded (warm) and those
+ * which had to load them (cold).
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GameAssets
+{
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	// The pixel format bitmaps are decoded to. Matches the RGBA_8888 window
+	// format set by Play, so bitmaps are drawn without conversion.
+	static final Bitmap.Config BITMAP_CONFIG = Bitmap.Config.ARGB_8888;
+
+	// The drawable resource ID of each sprite, indexed by sprite ID.
+	static final int[] SPRITE_RESOURCES = {
+			R.drawable.sheep_frame_01,
+			R.drawable.sheep_frame_02,
+			R.drawable.bounce_pad_frame_01,
+			R.drawable.bounce_pad_frame_02,
+			R.drawable.debris,
+			R.drawable.icon_danger };
+
+	// The font used for the game UI text.
+	private static final String UI_FONT_PATH = "fonts/Molot.otf";
+
+	// Held while assets are loaded or released, so they are loaded once.
+	// Never held by the getters, so the UI thread is not blocked by loading.
+	private static final Object mLoadLock = new Object();
+
+	// True once every asset is loaded.
+	private static boolean mLoaded = false;
+	// True once a background load has been started, until released.
+	private static boolean mLoadStarted = false;
+	// Released once every asset is loaded. Replaced when assets are
+	// released.
+	private static CountDownLatch mLoadedLatch = new CountDownLatch(1);
+
+	// The application Context assets are loaded with.
+	private static Context mContext = null;
+
+	// The bitmaps decoded from resources. The background and sprites are
+	// held for as long as assets are loaded, so they are never evicted.
+	private static BitmapCache mBitmapCache = null;
+
+	// The game UI font.
+	private static Typeface mUiTypeface = null;
+
+	// The user's game preferences and score data, held in memory.
+	private static GamePrefsRepository mGamePrefs = null;
+
+	// The time the last game was started, or 0 once its first frame is drawn.
+	private static long mGameStartTime = 0;
+	// True if assets were loaded when the last game was started.
+	private static boolean mGameStartWarm = false;
+
+	// The time from starting a game to drawing its first frame.
+	private static TimingHistogram mColdStartTimes = new TimingHistogram();
+	private static TimingHistogram mWarmStartTimes = new TimingHistogram();
+
+	/**
+	 * Loads every asset on a background thread, unless already loaded or
+	 * loading. Returns immediately; a game started before loading finishes
+	 * waits for it with awaitLoaded().
+	 *
+	 * @param Context context - The active Context.
+	 * @param final int displayWidth - The display width, which the
+	 * 	background is decoded for.
+	 * @param final int displayHeight - The display height.
+	 */
+	public static void preload(Context context, final int displayWidth,
+			final int displayHeight)
+	{
+		synchronized (GameAssets.class)
+		{
+			if (mLoadStarted)
+			{
+				return;
+			}
+
+			mLoadStarted = true;
+		}
+
+		final Context applicationContext = context.getApplicationContext();
+
+		Thread thread = new Thread("GameAssets")
+		{
+			@Override
+			public void run()
+			{
+				Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+				load(applicationContext, displayWidth, displayHeight);
+			}
+		};
+
+		thread.start();
+	}
+
+	/**
+	 * Loads every asset, unless already loaded. Waits for loading begun by
+	 * preload() to finish. Called on a background thread.
+	 *
+	 * @param Context context - The active Context.
+	 * @param int displayWidth - The display width, which the background is
+	 * 	decoded for.
+	 * @param int displayHeight - The display height.
+	 */
+	public static void load(Context context, int displayWidth,
+			int displayHeight)
+	{
+		synchronized (mLoadLock)
+		{
+			if (isLoaded())
+			{
+				return;
+			}
+
+			long start = System.nanoTime();
+
+			Context applicationContext = context.getApplicationContext();
+
+			BitmapCache bitmapCache = new BitmapCache(applicationContext.getResources(),
+					(Runtime.getRuntime().maxMemory() / GameSettings.BITMAP_CACHE_HEAP_DIVISOR));
+
+			// Decoded no larger than needed to fill the screen.
+			bitmapCache.acquire(R.drawable.background, displayWidth,
+					displayHeight, BITMAP_CONFIG);
+
+			int i;
+			for (i = 0; i <= (Sprites.COUNT - 1); i++)
+			{
+				bitmapCache.acquire(SPRITE_RESOURCES[i], BITMAP_CONFIG);
+			}
+
+			Typeface uiTypeface = Typeface.createFromAsset(
+					applicationContext.getAssets(), UI_FONT_PATH);
+
+			// Loads every preference on the repository's thread, while the
+			// sounds are loaded.
+			GamePrefsRepository gamePrefs = new GamePrefsRepository(
+					applicationContext, GameSettings.USE_MAPPED_PREFS_FILE);
+
+			Sound.loadSound(applicationContext);
+
+			Sound.setSoundEnabled(gamePrefs.isSoundEnabled());
+
+			synchronized (GameAssets.class)
+			{
+				mContext = applicationContext;
+				mBitmapCache = bitmapCache;
+				mUiTypeface = uiTypeface;
+				mGamePrefs = gamePrefs;
+
+				mLoaded = true;
+				mLoadStarted = true;
+				mLoadedLatch.countDown();
+			}
+
+			Log.i(GameSettings.LOG_NAME, "Game assets loaded in "
+					+ ((System.nanoTime() - start) / NANOS_PER_MILLI) + "ms");
+		}
+	}
+
+	/**
+	 * Waits for every asset to load, for up to a given time. Never called
+	 * on the UI thread.
+	 *
+	 * @param long timeoutMillis - The longest time to wait, in milliseconds.
+	 * @return boolean - True if assets are loaded.
+	 */
+	public static boolean awaitLoaded(long timeoutMillis)
+	{
+		CountDownLatch loadedLatch;
+
+		synchronized (GameAssets.class)
+		{
+			loadedLatch = mLoadedLatch;
+		}
+
+		try
+		{
+			return loadedLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e)
+		{
+			Log.e(GameSettings.LOG_NAME, e.getMessage());
+		}
+
+		return false;
+	}
+
+	/**
+	 * Determines if every asset is loaded.
+	 *
+	 * @return boolean
+	 */
+	public static synchronized boolean isLoaded()
+	{
+		return mLoaded;
+	}
+
+	/**
+	 * Releases every asset. Called when the game's task is finishing.
+	 * Waits for any load in progress to finish first.
+	 */
+	public static void release()
+	{
+		synchronized (mLoadLock)
+		{
+			BitmapCache bitmapCache;
+			GamePrefsRepository gamePrefs;
+
+			synchronized (GameAssets.class)
+			{
+				if (!mLoaded)
+				{
+					return;
+				}
+
+				bitmapCache = mBitmapCache;
+				gamePrefs = mGamePrefs;
+
+				mBitmapCache = null;
+				mGamePrefs = null;
+				mUiTypeface = null;
+				mContext = null;
+
+				mLoaded = false;
+				mLoadStarted = false;
+				mLoadedLatch = new CountDownLatch(1);
+			}
+
+			Sound.release();
+
+			bitmapCache.release(R.drawable.background);
+
+			int i;
+			for (i = 0; i <= (Sprites.COUNT - 1); i++)
+			{
+				bitmapCache.release(SPRITE_RESOURCES[i]);
+			}
+
+			bitmapCache.evictAll();
+
+			gamePrefs.release();
+		}
+	}
+
+	/**
+	 * Marks the start of a game, from which the time to its first frame is
+	 * measured. Called before the game loads assets.
+	 */
+	public static synchronized void onGameStarting()
+	{
+		mGameStartTime = System.nanoTime();
+		mGameStartWarm = mLoaded;
+	}
+
+	/**
+	 * Records the time from the start of the last game to its first frame.
+	 * Called once the first frame is posted to the surface.
+	 */
+	public static synchronized void onFirstFrame()
+	{
+		if (mGameStartTime == 0)
+		{
+			return;
+		}
+
+		long elapsed = (System.nanoTime() - mGameStartTime);
+		mGameStartTime = 0;
+
+		if (mGameStartWarm)
+		{
+			mWarmStartTimes.record(elapsed);
+		}
+		else
+		{
+			mColdStartTimes.record(elapsed);
+		}
+
+		Log.i(GameSettings.LOG_NAME, "First frame drawn in "
+				+ (elapsed / NANOS_PER_MILLI) + "ms ("
+				+ (mGameStartWarm ? "warm" : "cold") + " start)");
+	}
+
+	/**
+	 * Builds a summary of the time to first frame of cold and warm starts,
+	 * and of the bitmap cache.
+	 *
+	 * @return String
+	 */
+	public static synchronized String getSummary()
+	{
+		return "Time to first frame (ms): cold " + getStartSummary(mColdStartTimes)
+				+ ", warm " + getStartSummary(mWarmStartTimes)
+				+ "\nBitmap cache: "
+				+ ((mBitmapCache != null) ? mBitmapCache.getSummary() : "released")
+				+ "\nGame preferences: "
+				+ ((mGamePrefs != null) ? mGamePrefs.getSummary() : "released");
+	}
+
+	/**
+	 * Builds a summary of the times to first frame in a histogram.
+	 *
+	 * @param TimingHistogram histogram - The histogram.
+	 * @return String
+	 */
+	private static String getStartSummary(TimingHistogram histogram)
+	{
+		if (histogram.getCount() == 0)
+		{
+			return "none";
+		}
+
+		return "n=" + histogram.getCount()
+				+ " mean=" + (histogram.getMean() / NANOS_PER_MILLI)
+				+ " max=" + (histogram.getMax() / NANOS_PER_MILLI);
+	}
+
+	/**
+	 * Gets the bitmap cache, holding the background and every sprite.
+	 * Assets must be loaded; these getters return null until they are.
+	 *
+	 * @return BitmapCache
+	 */
+	public static synchronized BitmapCache getBitmapCache()
+	{
+		return mBitmapCache;
+	}
+
+	/**
+	 * Gets the game UI font. Assets must be loaded.
+	 *
+	 * @return Typeface - The font, or null if it could not be loaded.
+	 */
+	public static synchronized Typeface getUiTypeface()
+	{
+		return mUiTypeface;
+	}
+
+	/**
+	 * Gets the user's game preferences and score data, shared by every
+	 * game. Assets must be loaded.
+	 *
+	 * @return GamePrefsRepository
+	 */
+	public static synchronized GamePrefsRepository getGamePrefs()
+	{
+		return mGamePrefs;
+	}
+}
@@ -1,22 +1,33 @@
 package org.ruscoe.sheep;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 
 import org.ruscoe.sheep.R;
 import org.ruscoe.sheep.constants.GameSettings;
-import org.ruscoe.sheep.dao.GamePrefsData;
-import org.ruscoe.sheep.models.GameItem;
-import org.ruscoe.sheep.models.JumpingGameItem;
-import org.ruscoe.sheep.util.RandomUtil;
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.dao.GamePrefsRepository;
+import org.ruscoe.sheep.graphics.BackgroundScaler;
+import org.ruscoe.sheep.graphics.BitmapCache;
+import org.ruscoe.sheep.graphics.CanvasRenderer;
+import org.ruscoe.sheep.graphics.DirtyRegion;
+import org.ruscoe.sheep.graphics.EglWindow;
+import org.ruscoe.sheep.graphics.GLSpriteRenderer;
+import org.ruscoe.sheep.graphics.ScoreHud;
+import org.ruscoe.sheep.graphics.SpriteAtlas;
+import org.ruscoe.sheep.profiling.FrameProfiler;
+import org.ruscoe.sheep.render.WorldDrawer;
+import org.ruscoe.sheep.simulation.FixedStepClock;
+import org.ruscoe.sheep.simulation.GameWorld;
+import org.ruscoe.sheep.simulation.SnapshotBuffer;
+import org.ruscoe.sheep.simulation.WorldInput;
+import org.ruscoe.sheep.simulation.WorldListener;
+import org.ruscoe.sheep.simulation.WorldSnapshot;
 
 import android.content.Context;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.os.Handler;
 import android.os.Message;
@@ -32,7 +43,8 @@ import android.view.SurfaceView;
  * drawing of game components.
  * 
  * GameThread contains the run() function, which serves as the game loop,
- * updating each cycle while the game is running.
+ * updating each cycle while the game is running. The game rules themselves
+ * live in GameWorld, which GameThread ticks and draws.
  * 
  * @author Dan Ruscoe (ruscoe.org)
  * @version 1.0
@@ -48,22 +60,53 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 	public static final int GAME_MODE_NORMAL = 2;
 	public static final int GAME_MODE_UNFAIR = 3;
 
+	// Game loop mode constants.
+	// The variable step loop updates the game once per frame, updating
+	// additional times without drawing when running behind.
+	public static final int LOOP_MODE_VARIABLE_STEP = 1;
+	// The fixed step loop updates the game at a fixed rate independent of
+	// the display rate, interpolating drawing between updates.
+	public static final int LOOP_MODE_FIXED_STEP = 2;
+	// The pipelined loop updates the game at a fixed rate on a separate
+	// simulation thread, while the game thread draws the latest world
+	// snapshot published by it.
+	public static final int LOOP_MODE_PIPELINED = 3;
+
+	// Redraw mode constants.
+	// Every frame redraws the whole surface.
+	public static final int REDRAW_MODE_FULL = 1;
+	// Each frame locks and redraws only the region of the surface which
+	// changed since the last frame, and frames where nothing changed are
+	// not drawn. Used by the fixed step and pipelined loops.
+	public static final int REDRAW_MODE_DIRTY = 2;
+
+	// Render backend constants.
+	// Frames are drawn to the surface Canvas.
+	public static final int RENDER_BACKEND_CANVAS = 1;
+	// Frames are drawn with OpenGL ES 2.0, with every sprite drawn in a
+	// single batch. Used by the fixed step and pipelined loops, and always
+	// redraws the whole surface. Experimental; only chosen with
+	// Play.EXTRA_RENDER_BACKEND.
+	public static final int RENDER_BACKEND_GL = 2;
+
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	private static final long NANOS_PER_MILLI = 1000000L;
+
 	// The mode which the user the has chosen to play the game in.
 	private int mGameMode = GAME_MODE_NORMAL;
 	// The current state of the game.
-	private int mGameState;
+	private volatile int mGameState;
 	// True while the game is running.
-	private boolean mGameRun = true;
-
-	// True while sheep instances should be updated.
-	private boolean mUpdateSheep = true;
-	// True while debris instances should be updated.
-	private boolean mUpdateDebris = true;
-	// True while bounce pad instance should be updated.
-	private boolean mUpdateBouncePad = true;
+	private volatile boolean mGameRun = true;
+	// The game loop used by the game thread. The original variable step
+	// loop unless another is chosen with Play.EXTRA_LOOP_MODE.
+	private int mLoopMode = LOOP_MODE_VARIABLE_STEP;
+	// The way frames are redrawn by the game thread.
+	private int mRedrawMode = REDRAW_MODE_FULL;
+	// The backend frames are drawn with by the game thread.
+	private int mRenderBackend = RENDER_BACKEND_CANVAS;
 
 	// Screen dimensions.
-	private int mScreenXMin = 0;
 	private int mScreenXMax = 0;
 	private int mScreenYMax = 0;
 
@@ -78,49 +121,135 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 	private GameEnvironment mGameEnvironment = null;
 	
 	// The user's game preferences and score data.
-	private GamePrefsData mGamePrefsData = null;
+	private GamePrefsRepository mGamePrefs = null;
 	
-	// The background image used in the game.
+	// The bitmaps decoded from resources, shared by every GameView.
+	private BitmapCache mBitmapCache = null;
+
+	// The background image as decoded, held from mBitmapCache. Drawn
+	// until the background scaled for the surface is ready.
+	private Bitmap mBackgroundSource = null;
+	// Scales the background to the surface size off the UI thread. Set by
+	// the game thread once the game assets are loaded.
+	private volatile BackgroundScaler mBackgroundScaler = null;
+	// The background image drawn by the game thread.
 	private Bitmap mBackgroundImage = null;
 
 	// The acceleration rate taken from the device accelerometer.
 	// Used to allow the user to control the game's bounce pad item.
 	private float mAccelX = 0;
 
-	// The player's current score.
-	private int mScore = 0;
-	// The player's high score for the current game mode.
-	private int mHighScore = 0;
-
 	// The instance of Paint used to draw the UI text on the screen.
 	private Paint mUiTextPaint = null;
-	
-	// The Y coordinate used to represent the ground in the game.s
-	private int mGroundY = 0;
 
-	// The maximum number of sheep item instances to exist in the game.
-	private int mMaxSheep = GameSettings.MAX_SHEEP_NORMAL;
+	// Draws the player's score with glyphs rasterized from mUiTextPaint.
+	private ScoreHud mScoreHud = null;
 
-	// The bitmaps used by items in the game. Maps resource ID to an instance
-	// of Bitmap for each resource.
-	private HashMap<Integer, Bitmap> mGameBitmaps = new HashMap<Integer, Bitmap>();
+	// The sprites drawn facing either way. Sheep images face left, and are
+	// drawn mirrored when the sheep is moving to the right.
+	private static final int[] MIRRORED_SPRITES = { Sprites.SHEEP_FRAME_01,
+			Sprites.SHEEP_FRAME_02 };
 
-	// List of active sheep item instances in the game.
-	private List<JumpingGameItem> mSheep = new ArrayList<JumpingGameItem>();
-	// List of active debris item instances in the game.
-	private List<JumpingGameItem> mDebris = new ArrayList<JumpingGameItem>();
+	// Every sprite, packed into a single bitmap.
+	private SpriteAtlas mSpriteAtlas = null;
 
-	// The maximum jump height a sheep item reaches before the fall causes damage.
-	private int mMaxHeightForDamage = 0;
-	
-	// The user-controlled bounce pad item instance.
-	private GameItem mBouncePad;
+	// Draws frames to the surface Canvas from mSpriteAtlas and mScoreHud.
+	private CanvasRenderer mCanvasRenderer = null;
+
+	// The game world containing the sheep, debris and bounce pad items.
+	private GameWorld mWorld = null;
+
+	// True once the view is set up from the game assets. Guarded by
+	// mWorldLock.
+	private boolean mAssetsLoaded = false;
+
+	// The time between checks for the game thread being stopped while it
+	// waits for the game assets to load, in milliseconds.
+	private static final long ASSET_WAIT_MILLIS = 100;
+
+	// The initial number of values held for the sheep and debris drawn in
+	// a frame in REDRAW_MODE_DIRTY. Doubled when a frame needs more.
+	private static final int INITIAL_ITEM_STATE_CAPACITY = 256;
+
+	// The time the game session started, in milliseconds since the epoch.
+	private long mSessionStartTime = 0;
+
+	// True once a frame has been posted to the surface.
+	private boolean mFirstFramePosted = false;
+
+	// Times each phase of the game loop. Reset with each game session.
+	private FrameProfiler mFrameProfiler = new FrameProfiler();
+
+	// Issues the draw commands for each frame to a Renderer.
+	private WorldDrawer mWorldDrawer = new WorldDrawer(mFrameProfiler);
+
+	// Held while the game world is updated or read. Kept separate from the
+	// SurfaceHolder lock so world changes never wait on drawing.
+	private final Object mWorldLock = new Object();
 
 	/**
 	 * The main game thread.
 	 */
-	class GameThread extends Thread
+	class GameThread extends Thread implements WorldListener
 	{
+		// The input applied to the game world on each update.
+		private WorldInput mWorldInput = new WorldInput();
+
+		// True when the sheep are to be exploded on the next update. Set by
+		// the UI thread, so the world and its random numbers are only used
+		// by the thread updating it.
+		private volatile boolean mExplodeRequested = false;
+
+		// The clock used to schedule updates in the fixed step loop.
+		private FixedStepClock mClock = new FixedStepClock(
+				GameSettings.SIMULATION_RATE, GameSettings.MAX_SIMULATION_STEPS);
+
+		// The number of frames drawn per second in the fixed step loop.
+		private int mDisplayRate = GameSettings.MAX_FPS;
+
+		// The snapshot drawn by the variable and fixed step loops.
+		private WorldSnapshot mSnapshot = new WorldSnapshot();
+
+		// The snapshots passed from the simulation thread to this thread
+		// in the pipelined loop.
+		private SnapshotBuffer mSnapshots = new SnapshotBuffer();
+
+		// Dirty redraw state.
+
+		// True when the next frame must redraw the whole surface.
+		private volatile boolean mRedrawAll = true;
+		// The region to redraw in this frame.
+		private DirtyRegion mDirtyRegion = new DirtyRegion();
+		private Rect mDirtyRect = new Rect();
+		// The region covered by sheep and debris in this frame and the last.
+		private DirtyRegion mItemRegion = new DirtyRegion();
+		private DirtyRegion mLastItemRegion = new DirtyRegion();
+		// The position, sprites and facing of the sheep and the position of
+		// the debris drawn in this frame and the last, compared to find
+		// frames where none of them changed. Positions are held as float
+		// bits.
+		private int[] mItemState = new int[INITIAL_ITEM_STATE_CAPACITY];
+		private int[] mLastItemState = new int[INITIAL_ITEM_STATE_CAPACITY];
+		private int mItemStateCount = 0;
+		private int mLastItemStateCount = 0;
+		// True if any value added to mItemState differs from the last frame.
+		private boolean mItemsChanged = false;
+		// The bounce pad and score drawn in the last frame.
+		private float mLastBouncePadX = 0;
+		private float mLastBouncePadY = 0;
+		private int mLastBouncePadSprite = Sprites.NONE;
+		private int mLastScore = 0;
+		private int mLastHighScore = 0;
+
+		// OpenGL drawing state. Null unless frames are drawn with
+		// RENDER_BACKEND_GL.
+		private EglWindow mEglWindow = null;
+		private GLSpriteRenderer mGLRenderer = null;
+
+		// The surface dimensions.
+		private volatile int mSurfaceWidth = 0;
+		private volatile int mSurfaceHeight = 0;
+
 		public GameThread(SurfaceHolder surfaceHolder, Context context,
 				Handler handler)
 		{
@@ -132,25 +261,166 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 			mScreenXMax = display.getWidth();
 			mScreenYMax = display.getHeight();
 
-			mMaxHeightForDamage = (mScreenYMax / 2);
-			
-			mBackgroundImage = BitmapFactory.decodeResource(
-					mGameContext.getResources(), R.drawable.background);
+			mSurfaceWidth = mScreenXMax;
+			mSurfaceHeight = mScreenYMax;
+
+			if (display.getRefreshRate() > 0)
+			{
+				mDisplayRate = Math.round(display.getRefreshRate());
+			}
 
-			setGameStartState();
 		}
 
 		@Override
 		public void run()
+		{
+			if (!prepareGame())
+			{
+				return;
+			}
+
+			// The variable step loop draws to the Canvas while updating.
+			if ((mRenderBackend == RENDER_BACKEND_GL)
+					&& (mLoopMode != LOOP_MODE_VARIABLE_STEP))
+			{
+				startGL();
+			}
+
+			try
+			{
+				switch (mLoopMode)
+				{
+				case LOOP_MODE_FIXED_STEP:
+					runFixedStep();
+					break;
+				case LOOP_MODE_PIPELINED:
+					runPipelined();
+					break;
+				default:
+					runVariableStep();
+					break;
+				}
+			} finally
+			{
+				stopGL();
+			}
+		}
+
+		/**
+		 * Waits for the game assets to load, then sets up the view and game
+		 * world from them, unless an earlier thread already has.
+		 *
+		 * @return boolean - True if the game is ready, or false if the
+		 * 	thread was stopped while waiting.
+		 */
+		private boolean prepareGame()
+		{
+			// Waits here rather than on the UI thread, which shows the
+			// surface meanwhile.
+			while (!GameAssets.awaitLoaded(ASSET_WAIT_MILLIS))
+			{
+				if (!mGameRun)
+				{
+					return false;
+				}
+			}
+
+			synchronized (mWorldLock)
+			{
+				if (!mAssetsLoaded)
+				{
+					loadAssets(mSurfaceWidth, mSurfaceHeight);
+					mAssetsLoaded = true;
+
+					mGameActivity.runOnUiThread(new Runnable()
+					{
+						public void run()
+						{
+							mGameActivity.onAssetsLoaded();
+						}
+					});
+				}
+
+				// Continue drawing the background scaled for the last
+				// surface, if any, until the new surface size is known.
+				mBackgroundImage = mBackgroundScaler.getBackground();
+
+				if (mBackgroundImage == null)
+				{
+					mBackgroundImage = mBackgroundSource;
+				}
+
+				// A thread created after the surface is recreated continues
+				// the existing game world.
+				if (mWorld == null)
+				{
+					mWorld = new GameWorld(mScreenXMax, mScreenYMax,
+							mGameEnvironment.getDensity());
+					mWorld.setProfiler(mFrameProfiler);
+
+					loadSprites();
+					setGameStartState();
+				}
+
+				mWorld.setListener(this);
+			}
+
+			return true;
+		}
+
+		/**
+		 * Creates an OpenGL context on the surface for this thread, falling
+		 * back to drawing to the Canvas if OpenGL ES 2.0 is unavailable.
+		 */
+		private void startGL()
+		{
+			try
+			{
+				mEglWindow = new EglWindow(mGameSurfaceHolder);
+				mGLRenderer = new GLSpriteRenderer(mSpriteAtlas, mScoreHud);
+			} catch (RuntimeException e)
+			{
+				Log.e(GameSettings.LOG_NAME, "Drawing to the Canvas; OpenGL unavailable: "
+						+ e.getMessage());
+
+				stopGL();
+			}
+		}
+
+		/**
+		 * Releases the OpenGL context created by startGL(), if any.
+		 */
+		private void stopGL()
+		{
+			if (mGLRenderer != null)
+			{
+				mGLRenderer.release();
+				mGLRenderer = null;
+			}
+
+			if (mEglWindow != null)
+			{
+				mEglWindow.release();
+				mEglWindow = null;
+			}
+		}
+
+		/**
+		 * The variable step game loop. Updates and draws once per frame,
+		 * targeting MAX_FPS.
+		 */
+		private void runVariableStep()
 		{
 			long sleepTime = 0;
 
 			while (mGameRun)
 			{
+				long frameStart = mFrameProfiler.start();
+
 				Canvas c = null;
 				try
 				{
-					c = mGameSurfaceHolder.lockCanvas(null);
+					c = lockCanvas(null);
 					synchronized (mGameSurfaceHolder)
 					{
 						long beginTime = System.currentTimeMillis();
@@ -161,11 +431,13 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 						if (mGameState == STATE_RUNNING)
 						{
 							// Update the game state.
-							doUpdate();
+							doUpdate(System.currentTimeMillis());
 						}
 
 						// Draw to the screen.
-						doDraw(c);
+						captureSnapshot(mSnapshot, System.nanoTime());
+						updateBackground();
+						doDraw(c, mSnapshot, 1);
 
 						// Calculate the length of the game state update in milliseconds.
 						long timeDiff = System.currentTimeMillis() - beginTime;
@@ -178,6 +450,8 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 						// This allows the thread time to sleep before the next update.
 						if (sleepTime > 0)
 						{
+							long wakeTime = (System.nanoTime() + (sleepTime * NANOS_PER_MILLI));
+
 							try
 							{
 								Thread.sleep(sleepTime);
@@ -185,6 +459,9 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 							{
 								Log.e(GameSettings.LOG_NAME, e.getMessage());
 							}
+
+							mFrameProfiler.record(FrameProfiler.PHASE_SLEEP_OVERSHOOT,
+									(System.nanoTime() - wakeTime));
 						}
 
 						// If sleepTime less than 0, the game is running behind the
@@ -194,7 +471,7 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 						while (sleepTime < 0
 								&& framesSkipped < GameSettings.MAX_FRAME_SKIPS)
 						{
-							doUpdate();
+							doUpdate(System.currentTimeMillis());
 							// Increment sleepTime and framesSkipped until caught up
 							// on negative sleep time or max frame skips is reached.
 							sleepTime += GameSettings.FRAME_PERIOD;
@@ -206,625 +483,826 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 				{
 					if (c != null)
 					{
-						mGameSurfaceHolder.unlockCanvasAndPost(c);
+						unlockCanvasAndPost(c);
+						onFramePosted();
 					}
 				}
+
+				mFrameProfiler.mark(FrameProfiler.PHASE_FRAME, frameStart);
 			}
 
 			return;
 		}
 
 		/**
-		 * Sets the game running state.
-		 * 
-		 * @param running - The running state. True if game should run.
+		 * The fixed step game loop. Updates the game at SIMULATION_RATE and
+		 * draws at the display rate, interpolating item positions between
+		 * the last two updates.
 		 */
-		public void setRunning(boolean running)
+		private void runFixedStep()
 		{
-			mGameRun = running;
-		}
+			long framePeriod = (NANOS_PER_SECOND / mDisplayRate);
+			long nextFrameTime = System.nanoTime();
 
-		/**
-		 * Starts the game.
-		 */
-		public void doStart()
-		{
-			setState(STATE_RUNNING);
+			mClock.reset();
+
+			while (mGameRun)
+			{
+				long frameStart = mFrameProfiler.start();
+
+				if (mGameState == STATE_RUNNING)
+				{
+					mClock.advance(System.nanoTime());
+
+					// Run every update due since the last frame.
+					while (mClock.step())
+					{
+						doUpdate(mClock.getSimulationTimeMillis());
+					}
+				}
+				else
+				{
+					mClock.hold(System.nanoTime());
+				}
+
+				// Draw to the screen between the last two updates.
+				captureSnapshot(mSnapshot, System.nanoTime());
+				drawFrame(mSnapshot, mClock.getAlpha());
+
+				mFrameProfiler.mark(FrameProfiler.PHASE_FRAME, frameStart);
+
+				// Sleep until the next frame is due. The lock is not held, so
+				// the UI thread is free to pause the game meanwhile.
+				nextFrameTime = waitUntil(nextFrameTime + framePeriod, framePeriod,
+						FrameProfiler.PHASE_SLEEP_OVERSHOOT);
+			}
 		}
 
 		/**
-		 * Sets the current game state.
-		 * @param int state - The game state ID. Defined as STATE_* constants.
+		 * The pipelined game loop. Starts a simulation thread which updates
+		 * the game at SIMULATION_RATE and publishes a world snapshot after
+		 * each update, then draws the latest snapshot at the display rate.
+		 * Updating and drawing run in parallel on multi-core devices.
 		 */
-		public void setState(int state)
+		private void runPipelined()
 		{
-			mGameState = state;
+			long framePeriod = (NANOS_PER_SECOND / mDisplayRate);
+			long stepLength = mClock.getStepLength();
+			long nextFrameTime = System.nanoTime();
+
+			// Publish the current state so there is something to draw
+			// before the first update.
+			captureSnapshot(mSnapshots.getWriteSnapshot(), System.nanoTime());
+			mSnapshots.publish();
+
+			Thread simulationThread = new Thread(new Runnable()
+			{
+				public void run()
+				{
+					runSimulation();
+				}
+			}, "SimulationThread");
+			simulationThread.start();
+
+			while (mGameRun)
+			{
+				long frameStart = mFrameProfiler.start();
+
+				WorldSnapshot snapshot = mSnapshots.acquireLatest();
+
+				// Interpolate from the time passed since the snapshot was
+				// published, up to one full update.
+				float alpha = ((float) (System.nanoTime() - snapshot.getTime()) / stepLength);
+				if (alpha > 1)
+				{
+					alpha = 1;
+				}
+
+				drawFrame(snapshot, alpha);
+
+				mFrameProfiler.mark(FrameProfiler.PHASE_FRAME, frameStart);
+
+				nextFrameTime = waitUntil(nextFrameTime + framePeriod, framePeriod,
+						FrameProfiler.PHASE_SLEEP_OVERSHOOT);
+			}
+
+			boolean retry = true;
+			while (retry)
+			{
+				try
+				{
+					simulationThread.join();
+					retry = false;
+				} catch (InterruptedException e)
+				{
+					Log.e(GameSettings.LOG_NAME, e.getMessage());
+				}
+			}
 		}
 
 		/**
-		 * Pauses the game.
+		 * The simulation thread loop used by the pipelined game loop.
+		 * Updates the game at SIMULATION_RATE, publishing a world snapshot
+		 * after each batch of updates.
 		 */
-		public void pause()
+		private void runSimulation()
 		{
-			synchronized (mGameSurfaceHolder)
+			long stepLength = mClock.getStepLength();
+			long nextStepTime = System.nanoTime();
+
+			mClock.reset();
+
+			while (mGameRun)
 			{
 				if (mGameState == STATE_RUNNING)
 				{
-					setState(STATE_PAUSE);
+					mClock.advance(System.nanoTime());
+
+					boolean updated = false;
+					while (mClock.step())
+					{
+						doUpdate(mClock.getSimulationTimeMillis());
+						updated = true;
+					}
+
+					if (updated)
+					{
+						captureSnapshot(mSnapshots.getWriteSnapshot(),
+								System.nanoTime());
+						mSnapshots.publish();
+					}
 				}
+				else
+				{
+					mClock.hold(System.nanoTime());
+				}
+
+				nextStepTime = waitUntil(nextStepTime + stepLength, stepLength,
+						FrameProfiler.PHASE_SIMULATION_SLEEP_OVERSHOOT);
 			}
 		}
 
 		/**
-		 * Unpauses the game when paused.
+		 * Sleeps until a given time.
+		 * 
+		 * @param long time - The time to wake, from System.nanoTime().
+		 * @param long period - The length of the period being paced.
+		 * @param int overshootPhase - The profiler phase recording how late
+		 * 	the thread wakes.
+		 * @return long - The time to pace the next period from. Normally the
+		 * 	given time, or the current time when more than a period behind.
 		 */
-		public void unpause()
+		private long waitUntil(long time, long period, int overshootPhase)
 		{
-			synchronized (mGameSurfaceHolder)
+			long sleepTime = (time - System.nanoTime());
+
+			if (sleepTime > 0)
 			{
-				if (mGameState != STATE_RUNNING)
+				try
 				{
-					setState(STATE_RUNNING);
+					Thread.sleep((sleepTime / NANOS_PER_MILLI),
+							(int) (sleepTime % NANOS_PER_MILLI));
+				} catch (InterruptedException e)
+				{
+					Log.e(GameSettings.LOG_NAME, e.getMessage());
 				}
+
+				mFrameProfiler.record(overshootPhase, (System.nanoTime() - time));
+			}
+			else if (sleepTime < -period)
+			{
+				// More than a period behind; pace from now on rather
+				// than running periods back to back to catch up.
+				return System.nanoTime();
 			}
+
+			return time;
 		}
 
 		/**
-		 * Cleans up non-persistent changes made during a game session.
+		 * Draws a frame to the surface, locking only the region which changed
+		 * since the last frame in REDRAW_MODE_DIRTY.
+		 * 
+		 * @param WorldSnapshot snapshot - The world state to draw.
+		 * @param float alpha - The interpolation fraction.
 		 */
-		public void cleanUp()
+		private void drawFrame(WorldSnapshot snapshot, float alpha)
 		{
-			mSheep.clear();
-			mDebris.clear();
+			updateBackground();
+
+			if (mGLRenderer != null)
+			{
+				drawGLFrame(snapshot, alpha);
+				return;
+			}
+
+			Rect dirty = null;
+
+			if (mRedrawMode == REDRAW_MODE_DIRTY)
+			{
+				// Always found, so the next frame is compared with this one.
+				boolean changed = findDirtyRegion(snapshot, alpha);
+
+				if (!mRedrawAll)
+				{
+					if (!changed)
+					{
+						return;
+					}
+
+					mDirtyRect.set(mDirtyRegion.getLeft(), mDirtyRegion.getTop(),
+							mDirtyRegion.getRight(), mDirtyRegion.getBottom());
+					dirty = mDirtyRect;
+				}
+			}
+
+			mRedrawAll = false;
+
+			Canvas c = null;
+			try
+			{
+				c = lockCanvas(dirty);
+
+				if (c == null)
+				{
+					// Nothing was drawn, but the region found above is now
+					// compared with the next frame, so it redraws everything.
+					mRedrawAll = true;
+					return;
+				}
+
+				synchronized (mGameSurfaceHolder)
+				{
+					// The canvas is clipped to the locked region, which may
+					// have been grown by the surface, so everything is drawn.
+					doDraw(c, snapshot, alpha);
+				}
+			} finally
+			{
+				if (c != null)
+				{
+					unlockCanvasAndPost(c);
+					onFramePosted();
+				}
+			}
 		}
 
 		/**
-		 * Sets the state for a new game, resetting values that change
-		 * during a game session.
+		 * Swaps in the background scaled for the surface, once ready.
+		 * The whole surface is redrawn with the new background.
 		 */
-		private void setGameStartState()
+		private void updateBackground()
 		{
-			// Set game starting values based on game mode.
-			switch (mGameMode)
+			if (mBackgroundScaler.swap())
 			{
-			case GAME_MODE_EASY:
-				mMaxSheep = GameSettings.MAX_SHEEP_EASY;
-				mHighScore = mGamePrefsData.getScoreEasy();
-				break;
-			case GAME_MODE_NORMAL:
-				mMaxSheep = GameSettings.MAX_SHEEP_NORMAL;
-				mHighScore = mGamePrefsData.getScoreNormal();
-				break;
-			case GAME_MODE_UNFAIR:
-				mMaxSheep = GameSettings.MAX_SHEEP_UNFAIR;
-				mHighScore = mGamePrefsData.getScoreUnfair();
-				break;
+				mBackgroundImage = mBackgroundScaler.getBackground();
+				mRedrawAll = true;
 			}
+		}
 
-			// Create user-controlled bounce pad item.
-			addGameBitmap(R.drawable.bounce_pad_frame_01);
-			addGameBitmap(R.drawable.bounce_pad_frame_02);
+		/**
+		 * Draws a frame with OpenGL and posts it to the surface.
+		 * 
+		 * @param WorldSnapshot snapshot - The world state to draw.
+		 * @param float alpha - The interpolation fraction.
+		 */
+		private void drawGLFrame(WorldSnapshot snapshot, float alpha)
+		{
+			mGLRenderer.setSurfaceSize(mSurfaceWidth, mSurfaceHeight);
+			mGLRenderer.setBackground(mBackgroundImage);
 
-			mBouncePad = new GameItem(
-					loadGameBitmap(R.drawable.bounce_pad_frame_01));
+			mWorldDrawer.draw(mGLRenderer, snapshot, alpha);
 
-			mGroundY = (mScreenYMax - mBouncePad.getImage().getHeight());
+			long start = mFrameProfiler.start();
 
-			Bitmap[] animationFrames = {
-					loadGameBitmap(R.drawable.bounce_pad_frame_01),
-					loadGameBitmap(R.drawable.bounce_pad_frame_02) };
+			mEglWindow.swapBuffers();
 
-			mBouncePad.getImage().setAnimationFrames(animationFrames);
-			mBouncePad.getImage().setLoopAnimation(false);
+			mFrameProfiler.mark(FrameProfiler.PHASE_UNLOCK_CANVAS_AND_POST, start);
 
-			mBouncePad.setY(mGroundY - (mBouncePad.getImage().getHeight() / 2));
-			mBouncePad.setX((mScreenXMax / 2)
-					- (mBouncePad.getImage().getWidth() / 2));
+			onFramePosted();
+		}
 
-			// Add required sheep item instances.
-			int i;
-			for (i = 0; i <= mMaxSheep; i++)
+		/**
+		 * Reports the first frame posted by this view, for the time to
+		 * first frame recorded by GameAssets.
+		 */
+		private void onFramePosted()
+		{
+			if (!mFirstFramePosted)
 			{
-				addSheep();
+				mFirstFramePosted = true;
+				GameAssets.onFirstFrame();
 			}
 		}
 
 		/**
-		 * Updates the game state.
+		 * Finds the region of the surface to redraw for a snapshot.
+		 * 
+		 * The region covers the sheep and debris as drawn in the last frame
+		 * and this one, unless none of them changed, and the bounce pad and
+		 * UI text when they changed. Anything else drawn is unchanged.
+		 * 
+		 * @param WorldSnapshot snapshot - The world state to draw.
+		 * @param float alpha - The interpolation fraction.
+		 * @return boolean - True if any part of the surface must be redrawn.
 		 */
-		private void doUpdate()
+		private boolean findDirtyRegion(WorldSnapshot snapshot, float alpha)
 		{
-			if (mUpdateSheep)
+			SpriteAtlas atlas = mSpriteAtlas;
+			WorldDrawer drawer = mWorldDrawer;
+			DirtyRegion items = mItemRegion;
+
+			items.setEmpty();
+
+			mItemStateCount = 0;
+			mItemsChanged = false;
+
+			float x;
+			float y;
+			int sprite;
+			int iconSprite;
+
+			int i;
+			for (i = 0; i <= (snapshot.getSheepCount() - 1); i++)
 			{
-				updateSheep();
+				x = snapshot.getSheepX(i, alpha);
+				y = snapshot.getSheepY(i, alpha);
+				sprite = snapshot.getSheepSprite(i);
+				iconSprite = snapshot.getSheepIconSprite(i);
+
+				addBounds(items, x, y, atlas.getWidth(sprite), atlas.getHeight(sprite));
+
+				if (iconSprite != Sprites.NONE)
+				{
+					addBounds(items, drawer.getIconX(snapshot, i, x),
+							drawer.getIconY(iconSprite, y),
+							atlas.getWidth(iconSprite), atlas.getHeight(iconSprite));
+				}
+
+				addItemState(Float.floatToIntBits(x));
+				addItemState(Float.floatToIntBits(y));
+				addItemState(sprite);
+				addItemState(iconSprite);
+				addItemState(snapshot.isSheepFacingRight(i) ? 1 : 0);
 			}
 
-			if (mUpdateDebris)
+			int debrisSprite = snapshot.getDebrisSprite();
+			int debrisWidth = atlas.getWidth(debrisSprite);
+			int debrisHeight = atlas.getHeight(debrisSprite);
+
+			int count = drawer.fillDebrisPositions(snapshot, alpha);
+			float[] positions = drawer.getDebrisPositions();
+
+			for (i = 0; i <= ((count * 2) - 1); i += 2)
 			{
-				updateDebris();
+				addBounds(items, positions[i], positions[i + 1], debrisWidth,
+						debrisHeight);
+
+				addItemState(Float.floatToIntBits(positions[i]));
+				addItemState(Float.floatToIntBits(positions[i + 1]));
 			}
 
-			if (mUpdateBouncePad)
+			// The sheep and debris counts, so the values of one are never
+			// mistaken for the other.
+			addItemState(snapshot.getSheepCount());
+			addItemState(count);
+
+			if (mItemStateCount != mLastItemStateCount)
+			{
+				mItemsChanged = true;
+			}
+
+			mDirtyRegion.setEmpty();
+
+			// Erase the sheep and debris where they were last drawn, and
+			// draw them where they are now.
+			if (mItemsChanged)
+			{
+				mDirtyRegion.union(mLastItemRegion);
+				mDirtyRegion.union(items);
+			}
+
+			mLastItemRegion.set(items);
+
+			int[] state = mLastItemState;
+			mLastItemState = mItemState;
+			mLastItemStateCount = mItemStateCount;
+			mItemState = state;
+
+			x = snapshot.getBouncePadX(alpha);
+			y = snapshot.getBouncePadY(alpha);
+			sprite = snapshot.getBouncePadSprite();
+
+			if ((x != mLastBouncePadX) || (y != mLastBouncePadY)
+					|| (sprite != mLastBouncePadSprite))
+			{
+				if (mLastBouncePadSprite != Sprites.NONE)
+				{
+					addBounds(mDirtyRegion, mLastBouncePadX, mLastBouncePadY,
+							atlas.getWidth(mLastBouncePadSprite),
+							atlas.getHeight(mLastBouncePadSprite));
+				}
+
+				addBounds(mDirtyRegion, x, y, atlas.getWidth(sprite),
+						atlas.getHeight(sprite));
+
+				mLastBouncePadX = x;
+				mLastBouncePadY = y;
+				mLastBouncePadSprite = sprite;
+			}
+
+			if ((snapshot.getScore() != mLastScore)
+					|| (snapshot.getHighScore() != mLastHighScore))
 			{
-				updateBouncePad();
+				addBounds(mDirtyRegion,
+						mScoreHud.getLeft(WorldDrawer.UI_TEXT_X),
+						mScoreHud.getTop(WorldDrawer.UI_TEXT_Y), mScoreHud.getWidth(),
+						mScoreHud.getHeight());
+
+				mLastScore = snapshot.getScore();
+				mLastHighScore = snapshot.getHighScore();
 			}
+
+			mDirtyRegion.clip(mSurfaceWidth, mSurfaceHeight);
+
+			return !mDirtyRegion.isEmpty();
 		}
 
 		/**
-		 * Updates the state of the sheep items in the game.
+		 * Adds a value to the state of the sheep and debris in this frame,
+		 * noting whether it differs from the same value in the last frame.
+		 * 
+		 * @param int value - The value.
 		 */
-		private void updateSheep()
+		private void addItemState(int value)
 		{
-			JumpingGameItem currentSheep;
+			int index = mItemStateCount;
 
-			int i;
-			for (i = 0; i <= (mSheep.size() - 1); i++)
+			if (index >= mItemState.length)
 			{
-				currentSheep = mSheep.get(i);
+				int[] state = new int[mItemState.length * 2];
+				System.arraycopy(mItemState, 0, state, 0, index);
+				mItemState = state;
+			}
 
-				if (!currentSheep.isActive())
-				{
-					mSheep.remove(i);
-					continue;
-				}
+			mItemState[index] = value;
+			mItemStateCount++;
 
-				// Update animation.
-				currentSheep.getImage().updateAnimation(
-						System.currentTimeMillis());
+			if (!mItemsChanged && ((index >= mLastItemStateCount)
+					|| (mLastItemState[index] != value)))
+			{
+				mItemsChanged = true;
+			}
+		}
 
-				// Update horizontal position.
-				currentSheep.setX(currentSheep.getX()
-						+ (int) (currentSheep.getHorizontalSpeed() * mGameEnvironment.getDensity()));
+		/**
+		 * Grows a region to cover an item drawn at a position, with a pixel
+		 * to spare on each side for positions between pixels.
+		 * 
+		 * @param DirtyRegion region - The region to grow.
+		 * @param float x - The X coordinate of the item.
+		 * @param float y - The Y coordinate of the item.
+		 * @param int width - The item width.
+		 * @param int height - The item height.
+		 */
+		private void addBounds(DirtyRegion region, float x, float y, int width,
+				int height)
+		{
+			region.union(((int) x - 1), ((int) y - 1), ((int) (x + width) + 2),
+					((int) (y + height) + 2));
+		}
 
-				if ((currentSheep.getDirection() == JumpingGameItem.DIRECTION_LEFT)
-						&& (currentSheep.getX() <= mScreenXMin)
-						|| (currentSheep.getDirection() == JumpingGameItem.DIRECTION_RIGHT)
-						&& ((currentSheep.getX() + currentSheep.getImage()
-								.getWidth()) >= mScreenXMax))
-				{
-					currentSheep.reverseDirection();
-				}
+		/**
+		 * Locks the surface canvas for drawing, timing the wait.
+		 * 
+		 * @param Rect dirty - The region to lock, or null to lock the whole
+		 * 	surface.
+		 * @return Canvas - The locked canvas, or null if the surface is
+		 * 	not available.
+		 */
+		private Canvas lockCanvas(Rect dirty)
+		{
+			long start = mFrameProfiler.start();
 
-				// Update vertical position.
-				currentSheep.setY(currentSheep.getY()
-						- (int) (currentSheep.getVerticalSpeed() * mGameEnvironment.getDensity()));
+			Canvas canvas = mGameSurfaceHolder.lockCanvas(dirty);
 
-				currentSheep.setVerticalEnergy(currentSheep.getVerticalEnergy()
-						- GameSettings.GRAVITY);
+			mFrameProfiler.mark(FrameProfiler.PHASE_LOCK_CANVAS, start);
 
-				if (currentSheep.getY() > (mGroundY - currentSheep.getImage()
-						.getHeight()))
-				{
-					currentSheep.setY(mGroundY
-							- currentSheep.getImage().getHeight());
+			return canvas;
+		}
 
-					// Handle fall damage.
-					if (currentSheep.getLastHeight() >= (mMaxHeightForDamage * mGameEnvironment.getDensity()))
-					{
-						// Handle bounce pad impact.
-						if (mBouncePad.isCollision(currentSheep.getX(),
-								currentSheep.getY(), currentSheep.getImage()
-										.getWidth(), currentSheep.getImage()
-										.getHeight()))
-						{
-							currentSheep.setLastHeight(0);
-							currentSheep
-									.setMaxVerticalEnergy((int) (GameSettings.SHEEP_STARTING_VERTICAL_ENERGY * GameSettings.SHEEP_BOUNCE_ENERGY_MULTIPLIER));
-							currentSheep.setVerticalEnergy(currentSheep
-									.getMaxVerticalEnergy());
-							currentSheep.setIcon(null);
+		/**
+		 * Posts a drawn canvas to the surface, timing the call.
+		 * 
+		 * @param Canvas canvas - The canvas returned by lockCanvas(Rect).
+		 */
+		private void unlockCanvasAndPost(Canvas canvas)
+		{
+			long start = mFrameProfiler.start();
 
-							// Increment score.
-							updateScore(GameSettings.POINTS_PER_SHEEP);
+			mGameSurfaceHolder.unlockCanvasAndPost(canvas);
 
-							mBouncePad.getImage().startAnimation();
+			mFrameProfiler.mark(FrameProfiler.PHASE_UNLOCK_CANVAS_AND_POST, start);
+		}
 
-							Sound.playBounce();
+		/**
+		 * Sets the game running state.
+		 * 
+		 * @param running - The running state. True if game should run.
+		 */
+		public void setRunning(boolean running)
+		{
+			mGameRun = running;
+		}
 
-							continue;
-						} else
-						{
-							currentSheep.makeInactive();
-							generateDebris(currentSheep.getX(),
-									currentSheep.getY());
+		/**
+		 * Starts the game.
+		 */
+		public void doStart()
+		{
+			setState(STATE_RUNNING);
+		}
 
-							// Decrement score.
-							updateScore(-GameSettings.POINTS_PER_SHEEP);
+		/**
+		 * Sets the current game state.
+		 * @param int state - The game state ID. Defined as STATE_* constants.
+		 */
+		public void setState(int state)
+		{
+			mGameState = state;
+		}
 
-							Sound.playPop();
+		/**
+		 * Sets the game loop used when the thread is started.
+		 * 
+		 * @param int loopMode - The loop mode. Defined as LOOP_MODE_* constants.
+		 */
+		public void setLoopMode(int loopMode)
+		{
+			mLoopMode = loopMode;
+		}
 
-							continue;
-						}
-					}
+		/**
+		 * Sets the backend frames are drawn with when the thread is started.
+		 * 
+		 * @param int renderBackend - The render backend. Defined as
+		 * 	RENDER_BACKEND_* constants.
+		 */
+		public void setRenderBackend(int renderBackend)
+		{
+			mRenderBackend = renderBackend;
+		}
 
-					if (currentSheep.isJumpExponentially())
-					{
-						currentSheep
-								.setMaxVerticalEnergy((int) (currentSheep
-										.getMaxVerticalEnergy() * GameSettings.SHEEP_JUMP_ENERGY_MULTIPLIER));
-					}
+		/**
+		 * Sets the way frames are redrawn. REDRAW_MODE_DIRTY is used by the
+		 * fixed step and pipelined loops on the Canvas; the variable step
+		 * loop and OpenGL always redraw the whole surface.
+		 * 
+		 * @param int redrawMode - The redraw mode. Defined as REDRAW_MODE_*
+		 * 	constants.
+		 */
+		public void setRedrawMode(int redrawMode)
+		{
+			mRedrawMode = redrawMode;
+			mRedrawAll = true;
+		}
 
-					currentSheep.setVerticalEnergy(currentSheep
-							.getMaxVerticalEnergy());
-				}
+		/**
+		 * Sets the number of game updates per second in the fixed step loop.
+		 * 
+		 * @param int rate - The update rate.
+		 */
+		public void setSimulationRate(int rate)
+		{
+			mClock.setRate(rate);
+		}
 
-				// Update last height reached.
-				if ((mGroundY - currentSheep.getY()) > currentSheep
-						.getLastHeight())
-				{
-					currentSheep.setLastHeight(mGroundY - currentSheep.getY());
-					if ((currentSheep.getLastHeight() >= (mMaxHeightForDamage * mGameEnvironment.getDensity()))
-							&& (currentSheep.getIcon() == null))
-					{
-						currentSheep
-								.setIcon(loadGameBitmap(R.drawable.icon_danger));
-					}
-				}
+		/**
+		 * Sets the number of frames drawn per second in the fixed step loop.
+		 * Defaults to the refresh rate of the display.
+		 * 
+		 * @param int rate - The display rate.
+		 */
+		public void setDisplayRate(int rate)
+		{
+			mDisplayRate = rate;
+		}
 
-				// Update exponential jumping.
-				if (!currentSheep.isJumpExponentially())
+		/**
+		 * Pauses the game.
+		 */
+		public void pause()
+		{
+			synchronized (mWorldLock)
+			{
+				if (mGameState == STATE_RUNNING)
 				{
-					if (RandomUtil.getRandomNumberWithinRange(0,
-							GameSettings.SHEEP_JUMP_CHANCE) == GameSettings.SHEEP_JUMP_CHANCE)
-					{
-						currentSheep.setJumpExponentially(true);
-					}
+					setState(STATE_PAUSE);
 				}
 			}
+		}
 
-			// Replenish sheep supply.
-			if (mSheep.size() < mMaxSheep)
+		/**
+		 * Unpauses the game when paused.
+		 */
+		public void unpause()
+		{
+			synchronized (mWorldLock)
 			{
-				for (i = mSheep.size(); i <= mMaxSheep; i++)
+				if (mGameState != STATE_RUNNING)
 				{
-					addSheep();
+					setState(STATE_RUNNING);
 				}
 			}
 		}
 
 		/**
-		 * Updates the state of the debris items in the game.
+		 * Cleans up non-persistent changes made during a game session.
 		 */
-		private void updateDebris()
+		public void cleanUp()
 		{
-			int removeCount = 0;
-
-			if (mDebris.size() > GameSettings.MAX_DISPLAYED_DEBRIS)
-			{
-				removeCount = (mDebris.size() - GameSettings.MAX_DISPLAYED_DEBRIS);
-			}
-
-			int i;
-			JumpingGameItem currentDebris;
-
-			for (i = 0; i <= (mDebris.size() - 1); i++)
+			synchronized (mWorldLock)
 			{
-				currentDebris = mDebris.get(i);
-
-				if (!currentDebris.isActive())
-				{
-					if (i <= (removeCount - 1))
-					{
-						mDebris.remove(i);
-						continue;
-					}
-					continue;
-				}
-
-				// Update horizontal position.
-				currentDebris
-						.setX(currentDebris.getX()
-								+ (int) (currentDebris.getHorizontalSpeed() * mGameEnvironment.getDensity()));
-
-				// Update vertical position.
-				currentDebris.setY(currentDebris.getY()
-						- (int) (currentDebris.getVerticalSpeed() * mGameEnvironment.getDensity()));
-
-				currentDebris.setVerticalEnergy(currentDebris
-						.getVerticalEnergy() - GameSettings.GRAVITY);
-
-				if (currentDebris.getY() > (mGroundY - currentDebris.getImage()
-						.getHeight()))
-				{
-					currentDebris.setY(mGroundY
-							- currentDebris.getImage().getHeight());
-
-					currentDebris.makeInactive();
-				}
+				mWorld.clear();
 			}
 		}
 
 		/**
-		 * Updates the state of the user-controlled bounce pad item in the game.
+		 * Loads the bitmap of every sprite, packs them into the sprite atlas
+		 * and passes the sprite dimensions to the game world and drawer.
 		 */
-		private void updateBouncePad()
+		private void loadSprites()
 		{
-			mBouncePad.getImage().updateAnimation(System.currentTimeMillis());
+			Bitmap[] sprites = new Bitmap[Sprites.COUNT];
 
-			if ((mAccelX > GameSettings.ACCEL_SENSOR_BUFFER)
-					|| (mAccelX < -GameSettings.ACCEL_SENSOR_BUFFER))
+			int i;
+			for (i = 0; i <= (Sprites.COUNT - 1); i++)
 			{
-				// Restrict movement with screen boundaries.
-				if ((mAccelX < -GameSettings.ACCEL_SENSOR_BUFFER)
-						&& (mBouncePad.getX() + mBouncePad.getImage()
-								.getWidth()) > mScreenXMax)
-				{
-					return;
-				}
-				if ((mAccelX > GameSettings.ACCEL_SENSOR_BUFFER)
-						&& (mBouncePad.getX() < mScreenXMin))
-				{
-					return;
-				}
+				sprites[i] = mBitmapCache.acquire(GameAssets.SPRITE_RESOURCES[i],
+						GameAssets.BITMAP_CONFIG);
 
-				// Update position on screen.
-				int playerMovementDistance = (int) ((mAccelX * GameSettings.ACCEL_MULTIPLIER) * mGameEnvironment.getDensity());
+				mWorld.setSpriteSize(i, sprites[i].getWidth(),
+						sprites[i].getHeight());
+				mWorldDrawer.setSpriteHeight(i, sprites[i].getHeight());
+			}
 
-				if (mAccelX > GameSettings.MAX_PAD_MOVEMENT_DISTANCE)
-				{
-					playerMovementDistance = GameSettings.MAX_PAD_MOVEMENT_DISTANCE;
-				} else if (mAccelX < -GameSettings.MAX_PAD_MOVEMENT_DISTANCE)
-				{
-					playerMovementDistance = -GameSettings.MAX_PAD_MOVEMENT_DISTANCE;
-				}
+			mSpriteAtlas = new SpriteAtlas(sprites, MIRRORED_SPRITES,
+					SpriteAtlas.DEFAULT_PADDING);
+			mCanvasRenderer = new CanvasRenderer(mSpriteAtlas, mScoreHud);
 
-				mBouncePad.setX(mBouncePad.getX() - playerMovementDistance);
+			// The sprites are only drawn from the atlas. GameAssets holds
+			// them for the next game.
+			for (i = 0; i <= (Sprites.COUNT - 1); i++)
+			{
+				mBitmapCache.release(GameAssets.SPRITE_RESOURCES[i]);
 			}
 		}
 
 		/**
-		 * Updates the player's score.
-		 * 
-		 * @param int change - The change in score, either positive or negative.
+		 * Sets the state for a new game, resetting values that change
+		 * during a game session.
 		 */
-		private void updateScore(int change)
+		private void setGameStartState()
 		{
-			mScore += change;
+			int maxSheep = GameSettings.MAX_SHEEP_NORMAL;
+			int highScore = 0;
 
-			if (mScore > mHighScore)
+			// Set game starting values based on game mode.
+			switch (mGameMode)
 			{
-				mHighScore = mScore;
-
-				switch (mGameMode)
-				{
-				case GAME_MODE_EASY:
-					mGamePrefsData.setScoreEasy(mHighScore);
-					break;
-				case GAME_MODE_NORMAL:
-					mGamePrefsData.setScoreNormal(mHighScore);
-					break;
-				case GAME_MODE_UNFAIR:
-					mGamePrefsData.setScoreUnfair(mHighScore);
-					break;
-				}
+			case GAME_MODE_EASY:
+				maxSheep = GameSettings.MAX_SHEEP_EASY;
+				highScore = mGamePrefs.getScoreEasy();
+				break;
+			case GAME_MODE_NORMAL:
+				maxSheep = GameSettings.MAX_SHEEP_NORMAL;
+				highScore = mGamePrefs.getScoreNormal();
+				break;
+			case GAME_MODE_UNFAIR:
+				maxSheep = GameSettings.MAX_SHEEP_UNFAIR;
+				highScore = mGamePrefs.getScoreUnfair();
+				break;
 			}
-		}
 
-		/**
-		 * Draws the game items to the Canvas.
-		 * 
-		 * @param Canvas canvas - The active Canvas.
-		 */
-		private void doDraw(Canvas canvas)
-		{
-			canvas.drawBitmap(mBackgroundImage, 0, 0, null);
+			mWorld.start(maxSheep, highScore);
 
-			drawSheep(canvas);
-			drawDebris(canvas);
-			drawBouncePad(canvas);
-			drawUi(canvas);
+			// Logged so a game can be replayed with the same random choices.
+			Log.d(GameSettings.LOG_NAME, "Game seed: " + mWorld.getSeed());
+
+			mSessionStartTime = System.currentTimeMillis();
+
+			mFrameProfiler.reset();
 		}
 
 		/**
-		 * Draws the sheep game items to the Canvas.
+		 * Updates the game state.
 		 * 
-		 * @param Canvas canvas - The active Canvas.
+		 * @param long time - The time of the update in milliseconds.
 		 */
-		private void drawSheep(Canvas canvas)
+		private void doUpdate(long time)
 		{
-			int i;
-			JumpingGameItem currentSheep;
+			long start = mFrameProfiler.start();
+
+			mWorldInput.setAccelX(mAccelX);
+			mWorldInput.setTime(time);
 
-			int sheepCenterX;
-			
-			int iconX;
-			int iconY;
+			// Requests made before this update are applied once.
+			boolean explode = mExplodeRequested;
 
-			for (i = 0; i <= (mSheep.size() - 1); i++)
+			if (explode)
 			{
-				currentSheep = mSheep.get(i);
+				mExplodeRequested = false;
+			}
 
-				if (currentSheep.isVisible())
-				{
-					// Sheep images default to face left. The images are reversed if the
-					// sheep is moving to the right.
-					if (currentSheep.getDirection() == JumpingGameItem.DIRECTION_RIGHT)
-					{
-						sheepCenterX = (currentSheep.getX() + (currentSheep.getImage().getWidth() / 2));
-						
-						canvas.save();
-						canvas.scale(-1, 1, sheepCenterX, currentSheep.getY());
-						
-						canvas.drawBitmap(currentSheep.getImage().getBitmap(),
-								currentSheep.getX(), currentSheep.getY(), null);
-						
-						canvas.restore();
-					}
-					else
-					{
-						canvas.drawBitmap(currentSheep.getImage().getBitmap(),
-							currentSheep.getX(), currentSheep.getY(), null);
-					}
-					
-					if (currentSheep.getIcon() != null)
-					{
-						iconX = (currentSheep.getX() + (currentSheep.getImage()
-								.getWidth() / 2));
-						iconY = (currentSheep.getY() - currentSheep.getIcon()
-								.getHeight());
-						
-						canvas.drawBitmap(currentSheep.getIcon().getBitmap(),
-								iconX, iconY, null);
-					}
-				}
+			mWorldInput.setExplode(explode);
+
+			synchronized (mWorldLock)
+			{
+				mWorld.tick(mWorldInput);
 			}
+
+			mFrameProfiler.mark(FrameProfiler.PHASE_UPDATE, start);
 		}
 
 		/**
-		 * Draws the debris game items to the Canvas.
+		 * Copies the current state of the game world into a snapshot.
 		 * 
-		 * @param Canvas canvas - The active Canvas.
+		 * @param WorldSnapshot snapshot - The snapshot to fill.
+		 * @param long time - The capture time in nanoseconds.
 		 */
-		private void drawDebris(Canvas canvas)
+		private void captureSnapshot(WorldSnapshot snapshot, long time)
 		{
-			int i;
-			JumpingGameItem currentDebris;
-
-			for (i = 0; i <= (mDebris.size() - 1); i++)
+			synchronized (mWorldLock)
 			{
-				currentDebris = mDebris.get(i);
-
-				canvas.drawBitmap(currentDebris.getImage().getBitmap(),
-						currentDebris.getX(), currentDebris.getY(), null);
+				snapshot.capture(mWorld, time);
 			}
 		}
 
 		/**
-		 * Draws the bounce pad item to the Canvas.
-		 * 
-		 * @param Canvas canvas - The active Canvas.
+		 * Plays the bounce sound when a sheep lands on the bounce pad.
 		 */
-		private void drawBouncePad(Canvas canvas)
+		public void onSheepBounced()
 		{
-			canvas.drawBitmap(mBouncePad.getImage().getBitmap(),
-					mBouncePad.getX(), mBouncePad.getY(), null);
+			Sound.playBounce();
 		}
 
 		/**
-		 * Draws the player's UI to the Canvas.
-		 * Currently only draws the player's score.
-		 * 
-		 * @param Canvas canvas - The active Canvas.
+		 * Plays the pop sound when a sheep is destroyed.
 		 */
-		private void drawUi(Canvas canvas)
+		public void onSheepPopped()
 		{
-			canvas.drawText(
-					Integer.toString(mScore) + " / "
-							+ Integer.toString(mHighScore), 30, 50,
-					mUiTextPaint);
+			Sound.playPop();
 		}
 
 		/**
-		 * Adds a new sheep instance to the game state.
+		 * Stores the player's new high score for the current game mode.
+		 * 
+		 * @param int highScore - The new high score.
 		 */
-		private void addSheep()
+		public void onHighScore(int highScore)
 		{
-			JumpingGameItem newSheep = new JumpingGameItem(
-					loadGameBitmap(R.drawable.sheep_frame_01));
-
-			newSheep.setMaxHorizontalEnergy(GameSettings.SHEEP_STARTING_HORIZONTAL_ENERGY);
-			newSheep.setMaxVerticalEnergy(GameSettings.SHEEP_STARTING_VERTICAL_ENERGY);
-
-			newSheep.setHorizontalEnergy(newSheep.getMaxHorizontalEnergy());
-			newSheep.setVerticalEnergy(newSheep.getMaxVerticalEnergy());
-
-			newSheep.setMinHorizontalSpeed(GameSettings.MIN_SHEEP_HORIZONTAL_SPEED);
-			newSheep.setMaxHorizontalSpeed(GameSettings.MAX_SHEEP_HORIZONTAL_SPEED);
-
-			newSheep.setMinVerticalSpeed(GameSettings.MIN_SHEEP_VERTICAL_SPEED);
-			newSheep.setMaxVerticalSpeed(GameSettings.MAX_SHEEP_VERTICAL_SPEED);
-
-			newSheep.setX(RandomUtil.getRandomNumberWithinRange(mScreenXMin,
-					mScreenXMax));
-
-			if (RandomUtil.getRandomBoolean())
+			switch (mGameMode)
 			{
-				newSheep.setDirection(JumpingGameItem.DIRECTION_RIGHT);
+			case GAME_MODE_EASY:
+				mGamePrefs.setScoreEasy(highScore);
+				break;
+			case GAME_MODE_NORMAL:
+				mGamePrefs.setScoreNormal(highScore);
+				break;
+			case GAME_MODE_UNFAIR:
+				mGamePrefs.setScoreUnfair(highScore);
+				break;
 			}
-
-			newSheep.setY(mGroundY - newSheep.getImage().getHeight());
-
-			Bitmap[] animationFrames = {
-					loadGameBitmap(R.drawable.sheep_frame_01),
-					loadGameBitmap(R.drawable.sheep_frame_02) };
-
-			newSheep.getImage().setAnimationFrames(animationFrames);
-			newSheep.getImage().startAnimation();
-
-			mSheep.add(newSheep);
 		}
 
 		/**
-		 * Generates debris instances at a given X and Y coordinate.
-		 * Debris moves outward from a central location.
+		 * Draws the game items to the Canvas.
 		 * 
-		 * @param int x - The X coordinate to generate debris at.
-		 * @param int y - The Y coordinate to generate debris at.
+		 * @param Canvas canvas - The active Canvas.
+		 * @param WorldSnapshot snapshot - The world state to draw.
+		 * @param float alpha - The fraction of an update elapsed since the
+		 * 	last update, used to interpolate item positions. 1 draws items at
+		 * 	their current positions.
 		 */
-		private void generateDebris(int x, int y)
+		private void doDraw(Canvas canvas, WorldSnapshot snapshot, float alpha)
 		{
-			int i;
-			for (i = GameSettings.MIN_DEBRIS_ITEMS; i <= GameSettings.MAX_DEBRIS_ITEMS; i++)
-			{
-				JumpingGameItem newDebris = new JumpingGameItem(
-						loadGameBitmap(R.drawable.debris));
-
-				newDebris
-						.setMaxHorizontalEnergy(RandomUtil
-								.getRandomNumberWithinRange(
-										GameSettings.MIN_DEBRIS_STARTING_HORIZONTAL_ENERGY,
-										GameSettings.MAX_DEBRIS_STARTING_HORIZONTAL_ENERGY));
-
-				newDebris
-						.setMaxVerticalEnergy(RandomUtil
-								.getRandomNumberWithinRange(
-										GameSettings.MIN_DEBRIS_STARTING_VERTICAL_ENERGY,
-										GameSettings.MAX_DEBRIS_STARTING_VERTICAL_ENERGY));
-
-				newDebris.setHorizontalEnergy(newDebris.getMaxHorizontalEnergy());
-				newDebris.setVerticalEnergy(newDebris.getMaxVerticalEnergy());
-
-				newDebris.setMinHorizontalSpeed(GameSettings.MIN_DEBRIS_HORIZONTAL_SPEED);
-				newDebris.setMaxHorizontalSpeed(GameSettings.MAX_DEBRIS_HORIZONTAL_SPEED);
+			mCanvasRenderer.setCanvas(canvas);
+			mCanvasRenderer.setBackground(mBackgroundImage);
 
-				newDebris.setMinVerticalSpeed(GameSettings.MIN_DEBRIS_VERTICAL_SPEED);
-				newDebris.setMaxVerticalSpeed(GameSettings.MAX_DEBRIS_VERTICAL_SPEED);
-
-				if (RandomUtil.getRandomBoolean())
-				{
-					newDebris.setDirection(JumpingGameItem.DIRECTION_RIGHT);
-				}
-
-				newDebris.setX(x);
-				newDebris.setY(y);
-
-				mDebris.add(newDebris);
-			}
+			mWorldDrawer.draw(mCanvasRenderer, snapshot, alpha);
 		}
 
 		/**
 		 * Causes every active sheep item instance to explode, as though taking
 		 * fall damage. This serves no real function other than testing
 		 * debris generation.
+		 * 
+		 * Called on the UI thread; the sheep are exploded by the next
+		 * update, on the thread updating the world.
 		 */
 		public void explode()
 		{
-			mUpdateSheep = false;
-
-			JumpingGameItem currentSheep;
-
-			int i;
-			for (i = 0; i <= (mSheep.size() - 1); i++)
-			{
-				currentSheep = mSheep.get(i);
-
-				currentSheep.makeInactive();
-				generateDebris(currentSheep.getX(), currentSheep.getY());
-
-				Sound.playPop();
-			}
-
-			mUpdateSheep = true;
+			mExplodeRequested = true;
 		}
 
 		/**
@@ -835,12 +1313,20 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 		 */
 		public void setSurfaceSize(int width, int height)
 		{
-			// Synchronized to make sure changes occur atomically.
-			synchronized (mGameSurfaceHolder)
+			mSurfaceWidth = width;
+			mSurfaceHeight = height;
+
+			// Scaled on the scaler thread; the game thread keeps drawing
+			// the current background until the new one is ready. Before
+			// the assets load, the size is requested by loadAssets().
+			BackgroundScaler backgroundScaler = mBackgroundScaler;
+
+			if (backgroundScaler != null)
 			{
-				mBackgroundImage = Bitmap.createScaledBitmap(mBackgroundImage,
-						width, height, true);
+				backgroundScaler.request(width, height);
 			}
+
+			mRedrawAll = true;
 		}
 
 	}
@@ -865,25 +1351,8 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 
 		mGameEnvironment = gameEnvironment;
 		
-		mGamePrefsData = new GamePrefsData(context);
-
 		mGameMode = gameMode;
 
-		// Set up game UI font.
-		Typeface typeface = Typeface.createFromAsset(mGameActivity.getAssets(),
-				"fonts/Molot.otf");
-
-		mUiTextPaint = new Paint();
-		mUiTextPaint.setStyle(Paint.Style.FILL);
-		mUiTextPaint.setColor(Color.BLACK);
-		mUiTextPaint.setAntiAlias(true);
-		if (typeface != null)
-		{
-			mUiTextPaint.setTypeface(typeface);
-		}
-		mUiTextPaint.setTextSize(mGameContext.getApplicationContext()
-				.getResources().getDimensionPixelSize(R.dimen.ui_text_size));
-
 		SurfaceHolder holder = getHolder();
 		holder.addCallback(this);
 
@@ -908,6 +1377,49 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 		mGameActivity.showDialog(m.getData().getInt("id"));
 	}
 
+	/**
+	 * Sets up the view from the game assets. Called on the game thread once
+	 * they are loaded, holding mWorldLock.
+	 *
+	 * @param int surfaceWidth - The surface width, which the background is
+	 * 	scaled to.
+	 * @param int surfaceHeight - The surface height.
+	 */
+	private void loadAssets(int surfaceWidth, int surfaceHeight)
+	{
+		mGamePrefs = GameAssets.getGamePrefs();
+
+		// Set up game UI font.
+		Typeface typeface = GameAssets.getUiTypeface();
+
+		mUiTextPaint = new Paint();
+		mUiTextPaint.setStyle(Paint.Style.FILL);
+		mUiTextPaint.setColor(Color.BLACK);
+		mUiTextPaint.setAntiAlias(true);
+		if (typeface != null)
+		{
+			mUiTextPaint.setTypeface(typeface);
+		}
+		mUiTextPaint.setTextSize(mGameContext.getApplicationContext()
+				.getResources().getDimensionPixelSize(R.dimen.ui_text_size));
+
+		// Rasterize the score glyphs once, rather than drawing the text
+		// with the font every frame.
+		mScoreHud = new ScoreHud(mUiTextPaint);
+
+		// Decoded no larger than needed to fill the screen when the game
+		// assets were loaded.
+		mBitmapCache = GameAssets.getBitmapCache();
+
+		Display display = mGameActivity.getWindowManager().getDefaultDisplay();
+		mBackgroundSource = mBitmapCache.acquire(R.drawable.background,
+				display.getWidth(), display.getHeight(), GameAssets.BITMAP_CONFIG);
+		mBackgroundScaler = new BackgroundScaler(mBitmapCache,
+				R.drawable.background, GameAssets.BITMAP_CONFIG);
+
+		mBackgroundScaler.request(surfaceWidth, surfaceHeight);
+	}
+
 	/**
 	 * Fetches the game thread associated with this GameView.
 	 * 
@@ -918,6 +1430,35 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 		return thread;
 	}
 
+	/**
+	 * Builds a summary of the game world's sheep and debris pool metrics.
+	 * 
+	 * @return String - The summary, or an empty string before the game
+	 * 	world is created.
+	 */
+	public String getPoolSummary()
+	{
+		synchronized (mWorldLock)
+		{
+			if (mWorld == null)
+			{
+				return "";
+			}
+
+			return mWorld.getPoolSummary();
+		}
+	}
+
+	/**
+	 * Fetches the profiler timing each phase of the game loop.
+	 * 
+	 * @return FrameProfiler - The frame profiler.
+	 */
+	public FrameProfiler getFrameProfiler()
+	{
+		return mFrameProfiler;
+	}
+
 	/**
 	 * Standard window-focus override. Notice focus lost so we can pause on
 	 * focus lost. e.g. user switches to take a call.
@@ -986,60 +1527,56 @@ public class GameView extends SurfaceView implements SurfaceHolder.Callback
 	}
 
 	/**
-	 * Loads, caches and returns a game bitmap from a resource ID.
-	 * 
-	 * @param int resourceId - The resource ID of the bitmap to load.
-	 * @return Bitmap
+	 * Records the game session and releases the bitmaps held by this view.
+	 * The view cannot be drawn afterwards. Called when the game activity
+	 * is destroyed.
 	 */
-	public Bitmap loadGameBitmap(int resourceId)
+	public void release()
 	{
-		addGameBitmap(resourceId);
-		return getGameBitmap(resourceId);
-	}
+		recordSession();
 
-	/**
-	 * Loads and caches multiple game bitmaps from resource IDs.
-	 * 
-	 * @param int[] resourceIds - An array of resource IDs to load.
-	 */
-	public void addMultipleGameBitmaps(int[] resourceIds)
-	{
-		for (int i = 0; i <= resourceIds.length - 1; i++)
+		synchronized (mWorldLock)
 		{
-			addGameBitmap(resourceIds[i]);
-		}
-	}
+			// Nothing is held until the game assets are loaded.
+			if (!mAssetsLoaded)
+			{
+				return;
+			}
 
-	/**
-	 * Loads and caches a game bitmap from a resource ID.
-	 * 
-	 * @param int resourceId - The resource ID of the bitmap to load.
-	 */
-	public void addGameBitmap(int resourceId)
-	{
-		if (!mGameBitmaps.containsKey(resourceId))
-		{
-			BitmapFactory.Options opts = new BitmapFactory.Options();
-			opts.inJustDecodeBounds = true;
-			Bitmap bitmap = BitmapFactory.decodeResource(
-					mGameContext.getResources(), resourceId);
+			mBackgroundScaler.release();
+
+			if (mBackgroundSource != null)
+			{
+				mBitmapCache.release(R.drawable.background);
+				mBackgroundSource = null;
+			}
 
-			if (bitmap != null)
+			if (mSpriteAtlas != null)
 			{
-				mGameBitmaps.put(resourceId, bitmap);
+				mSpriteAtlas.recycle();
+				mSpriteAtlas = null;
 			}
+
+			mScoreHud.recycle();
 		}
 	}
 
 	/**
-	 * Gets a cached bitmap by resource ID.
-	 * 
-	 * @param int resourceId - The bitmap resource ID.
-	 * @return Bitmap
+	 * Records the game session ending with this view in the score history.
 	 */
-	public Bitmap getGameBitmap(int resourceId)
+	private void recordSession()
 	{
-		return mGameBitmaps.get(resourceId);
+		synchronized (mWorldLock)
+		{
+			if (mWorld == null)
+			{
+				return;
+			}
+
+			mGamePrefs.addSession(mGameMode, mWorld.getScore(),
+					mSessionStartTime,
+					(System.currentTimeMillis() - mSessionStartTime));
+		}
 	}
 
 	/**
@@ -3,6 +3,7 @@ package org.ruscoe.sheep;
 import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
+import android.view.Display;
 import android.view.View;
 
 /**
@@ -20,6 +21,24 @@ public class Main extends Activity
     {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.main);
+        
+        // Load the game assets while the menu is shown, so the first game
+        // starts without loading them.
+        Display display = getWindowManager().getDefaultDisplay();
+        GameAssets.preload(this, display.getWidth(), display.getHeight());
+    }
+    
+    @Override
+    public void onDestroy()
+    {
+        super.onDestroy();
+        
+        // Leaving the game entirely, rather than returning to the title
+        // screen from a game.
+        if (isFinishing() && isTaskRoot())
+        {
+            GameAssets.release();
+        }
     }
     
 	public void buttonClick(View v)
@@ -31,18 +50,47 @@ public class Main extends Activity
 			case R.id.playEasyButton:
 				i = new Intent(this, Play.class);
 				i.putExtra("gameMode", GameView.GAME_MODE_EASY);
+				putDebugOptions(i);
 				startActivity(i);
 				break;
 			case R.id.playNormalButton:
 				i = new Intent(this, Play.class);
 				i.putExtra("gameMode", GameView.GAME_MODE_NORMAL);
+				putDebugOptions(i);
 				startActivity(i);
 				break;
 			case R.id.playUnfairButton:
 				i = new Intent(this, Play.class);
 				i.putExtra("gameMode", GameView.GAME_MODE_UNFAIR);
+				putDebugOptions(i);
 				startActivity(i);
 				break;
     	}
 	}
+	
+	/**
+	 * Passes on the debug options this activity was started with, if any,
+	 * to a game. See Play.DEBUG_OPTIONS.
+	 * 
+	 * @param Intent i - The intent starting the game.
+	 */
+	private void putDebugOptions(Intent i)
+	{
+		Bundle extras = getIntent().getExtras();
+		
+		if (extras == null)
+		{
+			return;
+		}
+		
+		int k;
+		for (k = 0; k <= (Play.DEBUG_OPTIONS.length - 1); k++)
+		{
+			if (extras.containsKey(Play.DEBUG_OPTIONS[k]))
+			{
+				i.putExtra(Play.DEBUG_OPTIONS[k],
+						extras.getInt(Play.DEBUG_OPTIONS[k]));
+			}
+		}
+	}
 }
\ No newline at end of file
@@ -2,7 +2,7 @@ package org.ruscoe.sheep;
 
 import org.ruscoe.sheep.R;
 import org.ruscoe.sheep.constants.GameSettings;
-import org.ruscoe.sheep.dao.GamePrefsData;
+import org.ruscoe.sheep.dao.GamePrefsRepository;
 
 import android.app.Activity;
 import android.content.Context;
@@ -33,14 +33,32 @@ import android.view.WindowManager;
  */
 public class Play extends Activity implements SensorEventListener
 {
+	// Intent extras choosing how the game thread runs, for testing. Passed
+	// on by Main from the intent it was started with, as in:
+	// adb shell am start -n org.ruscoe.sheep/.Main --ei loopMode 2
+	// The game loop. Defined as GameView.LOOP_MODE_* constants.
+	public static final String EXTRA_LOOP_MODE = "loopMode";
+	// The redraw mode. Defined as GameView.REDRAW_MODE_* constants.
+	public static final String EXTRA_REDRAW_MODE = "redrawMode";
+	// The render backend. Defined as GameView.RENDER_BACKEND_* constants.
+	public static final String EXTRA_RENDER_BACKEND = "renderBackend";
+	
+	// Every debug option extra, all ints.
+	static final String[] DEBUG_OPTIONS = { EXTRA_LOOP_MODE, EXTRA_REDRAW_MODE,
+			EXTRA_RENDER_BACKEND };
+	
 	// The GameView instance used by this activity.
 	private GameView mGameView = null;
 	
 	// The current Context instance.
 	private Context mContext = null;
 	
-	// The GamePrefsData instance containing the user's game settings and score data.
-	private GamePrefsData mGamePrefsData = null;
+	// The GamePrefsRepository instance containing the user's game settings and score data.
+	// Null until the game assets are loaded.
+	private GamePrefsRepository mGamePrefs = null;
+	
+	// True while the activity is between onResume() and onPause().
+	private boolean mResumed = false;
 	
 	// The GameEnvironment instance containing information about the current device.
 	private GameEnvironment mGameEnvironment = null;
@@ -56,6 +74,8 @@ public class Play extends Activity implements SensorEventListener
 	{
 		super.onCreate(savedInstanceState);
 
+		GameAssets.onGameStarting();
+
 		mGameEnvironment = new GameEnvironment();
 		
 		mSensorManager = (SensorManager) getSystemService(SENSOR_SERVICE);
@@ -80,15 +100,64 @@ public class Play extends Activity implements SensorEventListener
 		
 		mGameMode = getIntent().getExtras().getInt("gameMode");
 		
+		// Does nothing if preloaded by Main, otherwise loads the images,
+		// font, sounds and preferences in the background. The game thread
+		// waits for them, so the game surface is shown meanwhile.
+		GameAssets.preload(mContext, displayMetrics.widthPixels,
+				displayMetrics.heightPixels);
+		
 		mGameView = new GameView(mContext, this, mGameEnvironment, mGameMode);
 		
+		applyDebugOptions(getIntent().getExtras());
+		
 		setContentView(mGameView);
 		
-		mGamePrefsData = new GamePrefsData(this);
+		setVolumeControlStream(AudioManager.STREAM_MUSIC);
+	}
+	
+	/**
+	 * Applies any debug options to the game thread before it is started.
+	 * 
+	 * @param Bundle extras - The extras the activity was started with.
+	 */
+	private void applyDebugOptions(Bundle extras)
+	{
+		GameView.GameThread thread = mGameView.getThread();
+		
+		if (extras.containsKey(EXTRA_LOOP_MODE))
+		{
+			thread.setLoopMode(extras.getInt(EXTRA_LOOP_MODE));
+			
+			Log.i(GameSettings.LOG_NAME, "Loop mode: "
+					+ extras.getInt(EXTRA_LOOP_MODE));
+		}
+		
+		if (extras.containsKey(EXTRA_REDRAW_MODE))
+		{
+			thread.setRedrawMode(extras.getInt(EXTRA_REDRAW_MODE));
+			
+			Log.i(GameSettings.LOG_NAME, "Redraw mode: "
+					+ extras.getInt(EXTRA_REDRAW_MODE));
+		}
 		
-		Sound.setSoundEnabled(mGamePrefsData.isSoundEnabled());
+		if (extras.containsKey(EXTRA_RENDER_BACKEND))
+		{
+			thread.setRenderBackend(extras.getInt(EXTRA_RENDER_BACKEND));
+			
+			Log.i(GameSettings.LOG_NAME, "Render backend: "
+					+ extras.getInt(EXTRA_RENDER_BACKEND));
+		}
+	}
+	
+	/**
+	 * Invoked on the UI thread once the game view is set up from the game
+	 * assets, after which the preferences and sounds can be used.
+	 */
+	void onAssetsLoaded()
+	{
+		mGamePrefs = GameAssets.getGamePrefs();
 		
-		if (mGamePrefsData.isSoundEnabled())
+		if (mGamePrefs.isSoundEnabled())
 		{
 			Log.i(GameSettings.LOG_NAME, "Sound is enabled");
 		}
@@ -97,18 +166,24 @@ public class Play extends Activity implements SensorEventListener
 			Log.i(GameSettings.LOG_NAME, "Sound is disabled");
 		}
 		
-		Sound.loadSound(mContext);
-		Sound.playMusic();
-		
-		setVolumeControlStream(AudioManager.STREAM_MUSIC);
+		if (mResumed)
+		{
+			Sound.playMusic();
+		}
 	}
 	
 	@Override
 	public boolean onPrepareOptionsMenu(Menu menu)
 	{
+		// The menu is shown once the game is loaded.
+		if (mGamePrefs == null)
+		{
+			return false;
+		}
+		
 		String soundMenuTitle = "";
 		
-		if (mGamePrefsData.isSoundEnabled())
+		if (mGamePrefs.isSoundEnabled())
 		{
 			soundMenuTitle = mContext.getString(R.string.sound_off_label);
 		}
@@ -139,13 +214,13 @@ public class Play extends Activity implements SensorEventListener
 		switch (item.getItemId())
 		{
 			case R.id.menuSound:
-				boolean mSoundEnabled = mGamePrefsData.isSoundEnabled();
+				boolean mSoundEnabled = mGamePrefs.isSoundEnabled();
 				
 				// Update sound preferences.
     			if (mSoundEnabled)
     			{
     				Log.i(GameSettings.LOG_NAME, "Disabling sound.");
-    				mGamePrefsData.setSoundEnabled(false);
+    				mGamePrefs.setSoundEnabled(false);
     				Sound.pauseMusic();
     				Sound.setSoundEnabled(false);
     				mSoundEnabled = false;
@@ -154,7 +229,7 @@ public class Play extends Activity implements SensorEventListener
     			else
     			{
     				Log.i(GameSettings.LOG_NAME, "Enabling sound.");
-    				mGamePrefsData.setSoundEnabled(true);
+    				mGamePrefs.setSoundEnabled(true);
     				Sound.setSoundEnabled(true);
     				Sound.playMusic();
     				mSoundEnabled = true;
@@ -178,7 +253,8 @@ public class Play extends Activity implements SensorEventListener
 	{
 		super.onDestroy();
 
-		Sound.release();
+		// The sounds stay loaded by GameAssets for the next game.
+		mGameView.release();
 	}
 
 	/**
@@ -189,10 +265,28 @@ public class Play extends Activity implements SensorEventListener
 	{
 		super.onPause();
 		
+		mResumed = false;
+		
 		mSensorManager.unregisterListener(this);
 		
-		Sound.pauseMusic();
 		mGameView.getThread().setState(GameView.STATE_PAUSE); // pause game when Activity pauses
+		
+		if (mGamePrefs != null)
+		{
+			Sound.pauseMusic();
+			
+			// Store any new high score now, as the process may be killed
+			// once paused. Best-effort: flush() gives up waiting after
+			// GamePrefsRepository.FLUSH_TIMEOUT_MILLIS, logging a warning,
+			// rather than block the UI thread on slow storage.
+			mGamePrefs.flush();
+		}
+		
+		Log.i(GameSettings.LOG_NAME, "Frame timings (ms):\n"
+				+ mGameView.getFrameProfiler().getSummary());
+		Log.i(GameSettings.LOG_NAME, "Item pools:\n"
+				+ mGameView.getPoolSummary());
+		Log.i(GameSettings.LOG_NAME, GameAssets.getSummary());
 	}
 	
 	@Override
@@ -203,9 +297,15 @@ public class Play extends Activity implements SensorEventListener
 	{
 		super.onResume();
 		
+		mResumed = true;
+		
 		mSensorManager.registerListener(this, mSensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER), SensorManager.SENSOR_DELAY_GAME);
 		
-		Sound.playMusic();
+		// Otherwise started once the game is loaded.
+		if (mGamePrefs != null)
+		{
+			Sound.playMusic();
+		}
 	}
 	
 	@Override
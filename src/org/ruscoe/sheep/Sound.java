@@ -155,13 +155,14 @@ public class Sound
 	
 	/**
 	 * Cleanly disables sound and stops music playing.
-	 * Should be called in onDestroy method of the active activity.
+	 * Called by GameAssets once the game's sounds are no longer needed.
 	 */
 	public static final void release()
 	{
-		if (mSoundEnabled)
+		if (mSounds != null)
 		{
 			mSounds.release();
+			mSounds = null;
 		}
 		
 		if (mMusic != null)
@@ -169,8 +170,10 @@ public class Sound
 			if (mMusic.isPlaying())
 			{
 				mMusic.stop();
-				mMusic.release();
 			}
+			
+			mMusic.release();
+			mMusic = null;
 		}
 	}
 	
@@ -14,6 +14,12 @@ public class GameSettings
 	public static final int MAX_FRAME_SKIPS = 5;
 	public static final int FRAME_PERIOD = 1000 / MAX_FPS;
 
+	// The number of game world updates per second in the fixed step game loop.
+	public static final int SIMULATION_RATE = 60;
+	// The maximum number of game world updates run before drawing a frame
+	// when the fixed step game loop is catching up.
+	public static final int MAX_SIMULATION_STEPS = 6;
+
 	public static final int MAX_SHEEP_EASY = 5;
 	public static final int MAX_SHEEP_NORMAL = 10;
 	public static final int MAX_SHEEP_UNFAIR = 40;
@@ -51,6 +57,15 @@ public class GameSettings
 	
 	public static final int MAX_DISPLAYED_DEBRIS = 70;
 
+	// The share of the heap kept for decoded bitmaps once released, as
+	// 1 / BITMAP_CACHE_HEAP_DIVISOR.
+	public static final int BITMAP_CACHE_HEAP_DIVISOR = 8;
+
+	// True to store the game preferences in a memory-mapped file rather
+	// than the game database. Preferences are copied from the database
+	// when the file is first created.
+	public static final boolean USE_MAPPED_PREFS_FILE = false;
+
 	public static final double ACCEL_MULTIPLIER = 1.5;
 	public static final double ACCEL_SENSOR_BUFFER = 0.3;
 
@@ -0,0 +1,27 @@
+package org.ruscoe.sheep.constants;
+
+/**
+ * Constants used to identify the sprites drawn by the game.
+ *
+ * Game items refer to their images by sprite ID rather than by Bitmap, so the
+ * game rules can run without the Android graphics classes. GameView maps each
+ * sprite ID to the drawable resource it is loaded from.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class Sprites
+{
+	// Used when an image has no sprite, e.g. a sheep without an icon.
+	public static final int NONE = -1;
+
+	public static final int SHEEP_FRAME_01 = 0;
+	public static final int SHEEP_FRAME_02 = 1;
+	public static final int BOUNCE_PAD_FRAME_01 = 2;
+	public static final int BOUNCE_PAD_FRAME_02 = 3;
+	public static final int DEBRIS = 4;
+	public static final int ICON_DANGER = 5;
+
+	// The number of sprites. Sprite IDs run from 0 to COUNT - 1.
+	public static final int COUNT = 6;
+}
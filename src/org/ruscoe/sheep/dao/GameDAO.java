@@ -5,6 +5,7 @@ import static android.provider.BaseColumns._ID;
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
 import android.util.Log;
 
 /**
@@ -17,8 +18,18 @@ import android.util.Log;
  */
 public class GameDAO extends SQLiteOpenHelper
 {
-	private static final String DATABASE_NAME = "sheep.db";
-	private static final int DATABASE_VERSION = 1;
+	static final String DATABASE_NAME = "sheep.db";
+
+	// Version 1: gamePrefsData.
+	// Version 2: scoreHistory.
+	private static final int DATABASE_VERSION = 2;
+
+	// The API levels adding SQLiteDatabase.enableWriteAheadLogging() and
+	// SQLiteOpenHelper.setWriteAheadLoggingEnabled(). The game is built
+	// against API level 8, which names neither, so both are called by
+	// reflection.
+	private static final int SDK_HONEYCOMB = 11;
+	private static final int SDK_JELLY_BEAN = 16;
 	
 	// Create table statement.
 	private static final String CREATE_TABLE_GAME_PREFS = "CREATE TABLE "
@@ -29,10 +40,19 @@ public class GameDAO extends SQLiteOpenHelper
 	+ GamePrefsData.SCORE_NORMAL + " INTEGER DEFAULT 0,"
 	+ GamePrefsData.SCORE_UNFAIR + " INTEGER DEFAULT 0"
 	+ ");";
-		
+
 	public GameDAO(Context ctx)
 	{
 		super(ctx, DATABASE_NAME, null, DATABASE_VERSION);
+
+		// Write-ahead logging lets the score history be read while it is
+		// written, and commits each transaction without rewriting pages.
+		// Every helper for the database enables it, so connections never
+		// switch the journal mode back and forth.
+		if (Build.VERSION.SDK_INT >= SDK_JELLY_BEAN)
+		{
+			invoke(this, "setWriteAheadLoggingEnabled", true);
+		}
 	}
 	
 	@Override
@@ -41,12 +61,84 @@ public class GameDAO extends SQLiteOpenHelper
 		Log.d("Sheep", "Creating DB tables");
 		
 		db.execSQL(CREATE_TABLE_GAME_PREFS);
+
+		createScoreHistory(db);
 	}
 	
 	@Override
 	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion)
 	{
-		onCreate(db);
+		Log.d("Sheep", "Upgrading DB from version " + oldVersion + " to " + newVersion);
+
+		if (oldVersion < 2)
+		{
+			createScoreHistory(db);
+		}
+	}
+
+	@Override
+	public void onOpen(SQLiteDatabase db)
+	{
+		super.onOpen(db);
+
+		// From Jelly Bean the framework sets the journal mode of each
+		// connection as it opens, following setWriteAheadLoggingEnabled().
+		if ((Build.VERSION.SDK_INT >= SDK_HONEYCOMB)
+				&& (Build.VERSION.SDK_INT < SDK_JELLY_BEAN) && !db.isReadOnly())
+		{
+			invoke(db, "enableWriteAheadLogging");
+		}
+	}
+
+	/**
+	 * Calls a method which takes no arguments by name, for methods added
+	 * after the API level the game is built against. Logs a warning if the
+	 * method cannot be called.
+	 *
+	 * @param Object target - The object to call the method on.
+	 * @param String name - The method name.
+	 */
+	private static void invoke(Object target, String name)
+	{
+		try
+		{
+			target.getClass().getMethod(name).invoke(target);
+		} catch (Exception e)
+		{
+			Log.w("Sheep", "Could not call " + name + ": " + e);
+		}
+	}
+
+	/**
+	 * Calls a method which takes a single boolean by name, as for
+	 * invoke(Object, String).
+	 *
+	 * @param Object target - The object to call the method on.
+	 * @param String name - The method name.
+	 * @param boolean value - The argument.
+	 */
+	private static void invoke(Object target, String name, boolean value)
+	{
+		try
+		{
+			target.getClass().getMethod(name, boolean.class).invoke(target,
+					Boolean.valueOf(value));
+		} catch (Exception e)
+		{
+			Log.w("Sheep", "Could not call " + name + ": " + e);
+		}
+	}
+
+	/**
+	 * Creates the score history table and its indexes.
+	 *
+	 * @param SQLiteDatabase db - The database.
+	 */
+	private void createScoreHistory(SQLiteDatabase db)
+	{
+		db.execSQL(ScoreHistorySchema.CREATE_TABLE);
+		db.execSQL(ScoreHistorySchema.CREATE_INDEX_TOP);
+		db.execSQL(ScoreHistorySchema.CREATE_INDEX_DAY);
 	}
 
 }
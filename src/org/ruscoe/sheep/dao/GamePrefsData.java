@@ -11,12 +11,14 @@ import android.database.sqlite.SQLiteDatabase;
  * preferences data.
  * 
  * Contains the user's sound preference and high score values for
- * each game mode.
+ * each game mode. Used as the PrefsEngine of GamePrefsRepository, which
+ * makes every access on its own thread; the game and UI threads read and
+ * change preferences through the repository, never through this class.
  * 
  * @author Dan Ruscoe (ruscoe.org)
  * @version 1.0
  */
-public class GamePrefsData extends GameDAO
+public class GamePrefsData extends GameDAO implements PrefsEngine
 {
 	public static final String TABLE_NAME = "gamePrefsData";
 	
@@ -25,6 +27,14 @@ public class GamePrefsData extends GameDAO
 	public static final String SCORE_NORMAL = "scoreNormal";
 	public static final String SCORE_UNFAIR = "scoreUnfair";
 	
+	// Every preference, in the order stored by MappedPrefsData.
+	static final String[] PREFERENCES = { SOUND, SCORE_EASY, SCORE_NORMAL,
+			SCORE_UNFAIR };
+	
+	// The value of each preference before any are stored, by index in
+	// PREFERENCES. Matches the column defaults in GameDAO.
+	static final int[] DEFAULT_VALUES = { 1, 0, 0, 0 };
+	
 	// Only ever one row in prefs table.
 	private static final int ROW_ID = 1;
 	
@@ -106,6 +116,68 @@ public class GamePrefsData extends GameDAO
 		setValue(SCORE_UNFAIR, score);
 	}
 	
+	/**
+	 * Gets the values of several game preferences by name with a single
+	 * query. Values are left unchanged if no preferences are stored.
+	 * 
+	 * @param String[] preferences - The preference names.
+	 * 	Defined as constants in this class.
+	 * @param int[] values - Receives the value of each preference, by
+	 * 	index. Holds the default values when called.
+	 */
+	public synchronized void getValues(String[] preferences, int[] values)
+	{
+    	SQLiteDatabase db = this.getReadableDatabase();
+    	
+    	Cursor cursor = db.query(TABLE_NAME, preferences, _ID + "=" + ROW_ID, null, null, null, null);
+    	
+    	if (cursor != null)
+    	{
+    		if (cursor.moveToFirst())
+    		{
+    			int i;
+    			for (i = 0; i <= (preferences.length - 1); i++)
+    			{
+    				values[i] = cursor.getInt(i);
+    			}
+    		}
+    		cursor.close();
+    	}
+    	
+    	db.close();
+	}
+	
+	/**
+	 * Sets the values of several game preferences by name with a single
+	 * update.
+	 * 
+	 * @param String[] preferences - The preference names.
+	 * 	Defined as constants in this class.
+	 * @param int[] values - The value of each preference, by index.
+	 */
+	public synchronized void setValues(String[] preferences, int[] values)
+    {
+    	SQLiteDatabase db = this.getWritableDatabase();
+    	
+    	ContentValues contentValues = new ContentValues();
+    	
+    	int i;
+    	for (i = 0; i <= (preferences.length - 1); i++)
+    	{
+    		contentValues.put(preferences[i], values[i]);
+    	}
+    	
+    	int affectedRows = db.update(TABLE_NAME, contentValues, _ID + "=" + ROW_ID, null);
+    	
+    	if (affectedRows < 1)
+    	{
+    		contentValues.put(_ID, ROW_ID);
+    		db.insertOrThrow(TABLE_NAME, null, contentValues);
+    	}
+    	
+    	db.close();
+    }
+	
 	/**
 	 * Determines if a game preference is enabled by name.
 	 * 
@@ -113,7 +185,7 @@ public class GamePrefsData extends GameDAO
 	 * 	Defined as constants in this class.
 	 * @return boolean
 	 */
-	public boolean isEnabled(String preference)
+	public synchronized boolean isEnabled(String preference)
 	{
     	SQLiteDatabase db = this.getReadableDatabase();
     	
@@ -143,7 +215,7 @@ public class GamePrefsData extends GameDAO
 	 * 	Defined as constants in this class.
 	 * @param boolean enabled
 	 */
-	public void setEnabled(String preference, boolean enabled)
+	public synchronized void setEnabled(String preference, boolean enabled)
     {
     	SQLiteDatabase db = this.getWritableDatabase();
     	
@@ -170,7 +242,7 @@ public class GamePrefsData extends GameDAO
 	 * 	Defined as constants in this class.
 	 * @return int
 	 */
-	public int getValue(String preference)
+	public synchronized int getValue(String preference)
 	{
     	SQLiteDatabase db = this.getReadableDatabase();
     	
@@ -199,7 +271,7 @@ public class GamePrefsData extends GameDAO
 	 * 	Defined as constants in this class.
 	 * @param int value - The value to set.
 	 */
-	public void setValue(String preference, int value)
+	public synchronized void setValue(String preference, int value)
     {
     	SQLiteDatabase db = this.getWritableDatabase();
     	
@@ -0,0 +1,517 @@
+package org.ruscoe.sheep.dao;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.ruscoe.sheep.constants.GameSettings;
+
+import android.content.Context;
+import android.database.SQLException;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * Holds the user's sound preference and high score values in memory, so
+ * they can be read and changed without touching the database.
+ *
+ * Values are stored by a PrefsEngine: the game database, or optionally a
+ * memory-mapped file. They are loaded once, on a background thread, when
+ * the repository is created; reads made before loading finishes wait for
+ * it. Changes are written on the same thread FLUSH_DELAY_MILLIS after the
+ * first change since the last write, so a run of changes, such as a new
+ * high score rising a point at a time, is written once. flush() writes any
+ * changes immediately, still on the repository thread, and is called when
+ * the game activity is paused so changes survive the process being killed.
+ * That is best-effort: flush() waits no longer than FLUSH_TIMEOUT_MILLIS,
+ * so on storage slow enough to exceed it, changes made just before the
+ * pause are lost if the process is killed before the write completes.
+ *
+ * Also records each game session in the score history, inserting sessions
+ * on the same thread as soon as they are added. Every database and file
+ * access is made on the repository thread, which release() stops once the
+ * engine and score history are closed.
+ *
+ * Thread safe.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GamePrefsRepository
+{
+	// The delay from a change to the write which includes it, in
+	// milliseconds.
+	public static final long FLUSH_DELAY_MILLIS = 2000;
+
+	// The longest flush() waits for changes to be written, in
+	// milliseconds. Well short of the time after which Android reports an
+	// unresponsive UI thread.
+	public static final long FLUSH_TIMEOUT_MILLIS = 1000;
+
+	// The index of each preference in mValues and
+	// GamePrefsData.PREFERENCES.
+	private static final int SOUND = 0;
+	private static final int SCORE_EASY = 1;
+	private static final int SCORE_NORMAL = 2;
+	private static final int SCORE_UNFAIR = 3;
+
+	private static final String[] PREFERENCES = GamePrefsData.PREFERENCES;
+
+	// The application Context, used to open the engine.
+	private Context mContext;
+	// True to store values in a memory-mapped file rather than the game
+	// database.
+	private boolean mUseMappedFile;
+	// Stores the values. Opened by load(), on the repository thread.
+	private PrefsEngine mEngine = null;
+
+	private ScoreHistoryData mScoreHistory;
+
+	// Loads and writes values in order, off the calling threads.
+	private HandlerThread mThread;
+	private Handler mHandler;
+
+	// The value of each preference, by index. Guarded by this.
+	private final int[] mValues = new int[PREFERENCES.length];
+	// True once values are loaded. Guarded by this.
+	private boolean mLoaded = false;
+	// True while a write is scheduled. Guarded by this.
+	private boolean mFlushScheduled = false;
+	// True once released. Guarded by this.
+	private boolean mReleased = false;
+
+	// The number of changes made, and the number included in the last
+	// write. Guarded by this.
+	private long mChangeCount = 0;
+	private long mWrittenChangeCount = 0;
+	// The number of writes made. Guarded by this.
+	private long mWriteCount = 0;
+
+	// Held while values are written, so writes reach the database in the
+	// order their values were copied.
+	private final Object mWriteLock = new Object();
+	// The values being written. Guarded by mWriteLock.
+	private final int[] mWriteValues = new int[PREFERENCES.length];
+
+	private final Runnable mLoadRunnable = new Runnable()
+	{
+		public void run()
+		{
+			load();
+		}
+	};
+
+	private final Runnable mFlushRunnable = new Runnable()
+	{
+		public void run()
+		{
+			write();
+		}
+	};
+
+	// Posted by release() as the last message handled by the repository
+	// thread.
+	private final Runnable mReleaseRunnable = new Runnable()
+	{
+		public void run()
+		{
+			write();
+
+			mEngine.close();
+			mScoreHistory.close();
+
+			mThread.quit();
+		}
+	};
+
+	/**
+	 * Creates the repository and begins loading values in the background.
+	 *
+	 * @param Context context - The application Context.
+	 * @param boolean useMappedFile - True to store values in a
+	 * 	memory-mapped file, created from the game database if needed,
+	 * 	rather than in the game database.
+	 */
+	public GamePrefsRepository(Context context, boolean useMappedFile)
+	{
+		mContext = context;
+		mUseMappedFile = useMappedFile;
+
+		mScoreHistory = new ScoreHistoryData(context);
+
+		mThread = new HandlerThread("GamePrefs",
+				Process.THREAD_PRIORITY_BACKGROUND);
+		mThread.start();
+
+		mHandler = new Handler(mThread.getLooper());
+		mHandler.post(mLoadRunnable);
+	}
+
+	/**
+	 * Determines if sound is enabled.
+	 * @return boolean
+	 */
+	public boolean isSoundEnabled()
+	{
+		return (getValue(SOUND) == 1);
+	}
+
+	/**
+	 * Sets the sound enabled preference.
+	 * @param boolean enabled - The sound enabled preference.
+	 * 	True to enable sound.
+	 */
+	public void setSoundEnabled(boolean enabled)
+	{
+		setValue(SOUND, (enabled) ? 1 : 0);
+	}
+
+	/**
+	 * Gets the user's high score for the Easy game mode.
+	 * @return int - The user's high score.
+	 */
+	public int getScoreEasy()
+	{
+		return getValue(SCORE_EASY);
+	}
+
+	/**
+	 * Sets the user's high score for the Easy game mode.
+	 * @param int score - The user's high score to set.
+	 */
+	public void setScoreEasy(int score)
+	{
+		setValue(SCORE_EASY, score);
+	}
+
+	/**
+	 * Gets the user's high score for the Normal game mode.
+	 * @return int - The user's high score.
+	 */
+	public int getScoreNormal()
+	{
+		return getValue(SCORE_NORMAL);
+	}
+
+	/**
+	 * Sets the user's high score for the Normal game mode.
+	 * @param int score - The user's high score to set.
+	 */
+	public void setScoreNormal(int score)
+	{
+		setValue(SCORE_NORMAL, score);
+	}
+
+	/**
+	 * Gets the user's high score for the Unfair game mode.
+	 * @return int - The user's high score.
+	 */
+	public int getScoreUnfair()
+	{
+		return getValue(SCORE_UNFAIR);
+	}
+
+	/**
+	 * Sets the user's high score for the Unfair game mode.
+	 * @param int score - The user's high score to set.
+	 */
+	public void setScoreUnfair(int score)
+	{
+		setValue(SCORE_UNFAIR, score);
+	}
+
+	/**
+	 * Records a game session in the score history. The session is inserted
+	 * in the background. Ignored once the repository is released.
+	 *
+	 * @param int gameMode - The game mode played.
+	 * @param int score - The final score.
+	 * @param long startTime - The time the session started, in
+	 * 	milliseconds since the epoch.
+	 * @param long duration - The length of the session in milliseconds.
+	 */
+	public void addSession(int gameMode, int score, long startTime,
+			long duration)
+	{
+		synchronized (this)
+		{
+			// Checked and posted holding the lock, so nothing is posted
+			// after release() posts its last message.
+			if (mReleased)
+			{
+				return;
+			}
+
+			mScoreHistory.addSession(gameMode, score, startTime, duration);
+
+			mHandler.post(mFlushRunnable);
+		}
+	}
+
+	/**
+	 * Gets the score history, for top scores and daily statistics. Queries
+	 * read the database, so should not be made on the game thread, nor once
+	 * the repository is released.
+	 *
+	 * @return ScoreHistoryData
+	 */
+	public ScoreHistoryData getScoreHistory()
+	{
+		return mScoreHistory;
+	}
+
+	/**
+	 * Gets the value of a preference, waiting for values to load.
+	 *
+	 * @param int index - The preference index.
+	 * @return int
+	 */
+	private synchronized int getValue(int index)
+	{
+		awaitLoaded();
+
+		return mValues[index];
+	}
+
+	/**
+	 * Sets the value of a preference, scheduling a write unless one is
+	 * already scheduled.
+	 *
+	 * @param int index - The preference index.
+	 * @param int value - The value to set.
+	 */
+	private synchronized void setValue(int index, int value)
+	{
+		// Set after loading, so the change is not overwritten by it.
+		awaitLoaded();
+
+		if (mValues[index] == value)
+		{
+			return;
+		}
+
+		mValues[index] = value;
+		mChangeCount++;
+
+		if (mFlushScheduled || mReleased)
+		{
+			return;
+		}
+
+		mFlushScheduled = true;
+
+		mHandler.postDelayed(mFlushRunnable, FLUSH_DELAY_MILLIS);
+	}
+
+	/**
+	 * Waits for values to load. Called holding the lock on this.
+	 */
+	private void awaitLoaded()
+	{
+		while (!mLoaded)
+		{
+			try
+			{
+				wait();
+			} catch (InterruptedException e)
+			{
+				Log.e(GameSettings.LOG_NAME, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Opens the engine and loads every value. Runs on the repository
+	 * thread. Defaults are used for any values which cannot be read.
+	 */
+	private void load()
+	{
+		mEngine = openEngine();
+
+		int[] values = new int[PREFERENCES.length];
+		System.arraycopy(GamePrefsData.DEFAULT_VALUES, 0, values, 0,
+				values.length);
+
+		try
+		{
+			mEngine.getValues(PREFERENCES, values);
+		} catch (SQLException e)
+		{
+			Log.e(GameSettings.LOG_NAME, "Game preferences not loaded: "
+					+ e.getMessage());
+		}
+
+		synchronized (this)
+		{
+			System.arraycopy(values, 0, mValues, 0, values.length);
+			mLoaded = true;
+
+			notifyAll();
+		}
+	}
+
+	/**
+	 * Opens the engine values are stored with, falling back to the game
+	 * database if the memory-mapped file cannot be opened.
+	 *
+	 * @return PrefsEngine
+	 */
+	private PrefsEngine openEngine()
+	{
+		if (mUseMappedFile)
+		{
+			try
+			{
+				return new MappedPrefsData(mContext);
+			} catch (IOException e)
+			{
+				Log.e(GameSettings.LOG_NAME, "Game preferences file not opened: "
+						+ e.getMessage());
+			}
+		}
+
+		return new GamePrefsData(mContext);
+	}
+
+	/**
+	 * Writes every value to the database, if any changed since the last
+	 * write, and inserts any sessions added to the score history.
+	 */
+	private void write()
+	{
+		writeValues();
+
+		mScoreHistory.flush();
+	}
+
+	/**
+	 * Writes every value to the database, if any changed since the last
+	 * write. Changes which fail to be written are retried by the next.
+	 */
+	private void writeValues()
+	{
+		synchronized (mWriteLock)
+		{
+			long changeCount;
+
+			synchronized (this)
+			{
+				mFlushScheduled = false;
+
+				if (!mLoaded || (mWrittenChangeCount == mChangeCount))
+				{
+					return;
+				}
+
+				System.arraycopy(mValues, 0, mWriteValues, 0, mValues.length);
+				changeCount = mChangeCount;
+			}
+
+			try
+			{
+				mEngine.setValues(PREFERENCES, mWriteValues);
+			} catch (SQLException e)
+			{
+				Log.e(GameSettings.LOG_NAME, "Game preferences not written: "
+						+ e.getMessage());
+				return;
+			}
+
+			synchronized (this)
+			{
+				mWrittenChangeCount = changeCount;
+				mWriteCount++;
+			}
+		}
+	}
+
+	/**
+	 * Writes any changes immediately on the repository thread, waiting up
+	 * to FLUSH_TIMEOUT_MILLIS for them to be stored. Changes not stored in
+	 * time are still written, after flush() returns, but are lost if the
+	 * process is killed first; a warning is logged when that can happen.
+	 * Called when the game activity is paused.
+	 *
+	 * @return boolean - True if the changes were stored before returning.
+	 */
+	public boolean flush()
+	{
+		final CountDownLatch written = new CountDownLatch(1);
+
+		synchronized (this)
+		{
+			if (mReleased)
+			{
+				return false;
+			}
+
+			// Written by the flush posted here instead.
+			mHandler.removeCallbacks(mFlushRunnable);
+
+			mHandler.post(new Runnable()
+			{
+				public void run()
+				{
+					write();
+					written.countDown();
+				}
+			});
+		}
+
+		try
+		{
+			if (written.await(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+			{
+				return true;
+			}
+		} catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+
+		Log.w(GameSettings.LOG_NAME, "Game preferences not stored within "
+				+ FLUSH_TIMEOUT_MILLIS + "ms of flush; changes are lost if "
+				+ "the process is killed before the write completes");
+
+		return false;
+	}
+
+	/**
+	 * Writes any changes, closes the engine and score history and stops
+	 * the repository thread, all after any writes already posted. Returns
+	 * without waiting. Values can still be read and changed afterwards,
+	 * but changes are no longer written.
+	 */
+	public void release()
+	{
+		synchronized (this)
+		{
+			if (mReleased)
+			{
+				return;
+			}
+
+			mReleased = true;
+
+			// Changes are written by the release instead.
+			mHandler.removeCallbacks(mFlushRunnable);
+
+			// Posted holding the lock, so it is the last message posted.
+			mHandler.post(mReleaseRunnable);
+		}
+	}
+
+	/**
+	 * Builds a summary of the number of changes made and writes made.
+	 *
+	 * @return String
+	 */
+	public synchronized String getSummary()
+	{
+		return "changes=" + mChangeCount + " writes=" + mWriteCount
+				+ " unwritten=" + (mChangeCount - mWrittenChangeCount)
+				+ "; score history " + mScoreHistory.getSummary();
+	}
+}
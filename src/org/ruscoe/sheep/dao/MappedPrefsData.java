@@ -0,0 +1,144 @@
+package org.ruscoe.sheep.dao;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.util.MappedIntFile;
+
+import android.content.Context;
+import android.database.SQLException;
+import android.util.Log;
+
+/**
+ * Stores the game preferences in a memory-mapped file, as an alternative to
+ * the game database.
+ *
+ * Reads are loads from the mapped file, and writes store the few bytes of
+ * the preferences and sync them, with no SQL, cursors or journal. The file
+ * keeps the last complete write if a write is interrupted; see
+ * MappedIntFile.
+ *
+ * The first time the file is opened, the preferences are copied from the
+ * game database if it exists, so switching engine keeps the user's sound
+ * preference and high scores.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class MappedPrefsData implements PrefsEngine
+{
+	// The file name, in the application's files directory.
+	public static final String FILE_NAME = "gamePrefs.dat";
+
+	private MappedIntFile mFile;
+
+	// The values being written, by index in GamePrefsData.PREFERENCES.
+	private int[] mWriteValues = new int[GamePrefsData.PREFERENCES.length];
+
+	/**
+	 * Opens the preferences file, creating it from the game database if it
+	 * holds no preferences.
+	 *
+	 * @param Context context - The application Context.
+	 * @throws IOException if the file cannot be opened.
+	 */
+	public MappedPrefsData(Context context) throws IOException
+	{
+		mFile = new MappedIntFile(new File(context.getFilesDir(), FILE_NAME),
+				GamePrefsData.PREFERENCES.length);
+
+		if (!mFile.hasValues())
+		{
+			migrate(context);
+		}
+	}
+
+	/**
+	 * Writes the preferences stored in the game database to the file, or
+	 * the default preferences if there are none.
+	 *
+	 * @param Context context - The application Context.
+	 */
+	private void migrate(Context context)
+	{
+		int[] values = new int[GamePrefsData.PREFERENCES.length];
+		System.arraycopy(GamePrefsData.DEFAULT_VALUES, 0, values, 0,
+				values.length);
+
+		// Checked first, as opening the database would create it.
+		if (context.getDatabasePath(GameDAO.DATABASE_NAME).exists())
+		{
+			GamePrefsData gamePrefsData = new GamePrefsData(context);
+
+			try
+			{
+				gamePrefsData.getValues(GamePrefsData.PREFERENCES, values);
+			} catch (SQLException e)
+			{
+				Log.e(GameSettings.LOG_NAME, "Game preferences not migrated: "
+						+ e.getMessage());
+			} finally
+			{
+				gamePrefsData.close();
+			}
+		}
+
+		mFile.write(values);
+
+		Log.i(GameSettings.LOG_NAME, "Game preferences file created");
+	}
+
+	public synchronized void getValues(String[] preferences, int[] values)
+	{
+		int i;
+		for (i = 0; i <= (preferences.length - 1); i++)
+		{
+			values[i] = mFile.get(getIndex(preferences[i]));
+		}
+	}
+
+	public synchronized void setValues(String[] preferences, int[] values)
+	{
+		// Preferences not being set keep their stored values.
+		int i;
+		for (i = 0; i <= (mWriteValues.length - 1); i++)
+		{
+			mWriteValues[i] = mFile.get(i);
+		}
+
+		for (i = 0; i <= (preferences.length - 1); i++)
+		{
+			mWriteValues[getIndex(preferences[i])] = values[i];
+		}
+
+		mFile.write(mWriteValues);
+	}
+
+	public synchronized void close()
+	{
+		// The mapping is released once no longer referenced.
+		mFile = null;
+	}
+
+	/**
+	 * Gets the index of a preference in the file.
+	 *
+	 * @param String preference - The preference name.
+	 * 	Defined as constants in GamePrefsData.
+	 * @return int
+	 */
+	private static int getIndex(String preference)
+	{
+		int i;
+		for (i = 0; i <= (GamePrefsData.PREFERENCES.length - 1); i++)
+		{
+			if (GamePrefsData.PREFERENCES[i].equals(preference))
+			{
+				return i;
+			}
+		}
+
+		throw new IllegalArgumentException("Unknown preference: " + preference);
+	}
+}
@@ -0,0 +1,39 @@
+package org.ruscoe.sheep.dao;
+
+/**
+ * Stores the values of the game preferences, by name.
+ *
+ * Implemented by GamePrefsData, which stores them in the game database,
+ * and MappedPrefsData, which stores them in a memory-mapped file.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public interface PrefsEngine
+{
+	/**
+	 * Gets the values of several game preferences by name. Values are left
+	 * unchanged if no preferences are stored.
+	 * 
+	 * @param String[] preferences - The preference names.
+	 * 	Defined as constants in GamePrefsData.
+	 * @param int[] values - Receives the value of each preference, by
+	 * 	index. Holds the default values when called.
+	 */
+	public void getValues(String[] preferences, int[] values);
+
+	/**
+	 * Sets the values of several game preferences by name, returning once
+	 * they are stored.
+	 * 
+	 * @param String[] preferences - The preference names.
+	 * 	Defined as constants in GamePrefsData.
+	 * @param int[] values - The value of each preference, by index.
+	 */
+	public void setValues(String[] preferences, int[] values);
+
+	/**
+	 * Releases the storage. The engine cannot be used afterwards.
+	 */
+	public void close();
+}
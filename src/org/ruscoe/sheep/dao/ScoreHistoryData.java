@@ -0,0 +1,362 @@
+package org.ruscoe.sheep.dao;
+
+import java.util.TimeZone;
+
+import org.ruscoe.sheep.constants.GameSettings;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+/**
+ * Extends the game Data Access Object to provide access to the score
+ * history.
+ *
+ * Contains a row for each game session played, holding the game mode,
+ * final score, start time and duration, as defined by ScoreHistorySchema.
+ * Sessions are queued in memory by addSession() and inserted in batches by
+ * flush(), each batch in a single transaction through one prepared
+ * statement.
+ *
+ * The database is kept open between batches, rather than opened for each,
+ * as it is reconfigured each time it is opened. Thread safe.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class ScoreHistoryData extends GameDAO
+{
+	private static final long MILLIS_PER_DAY = 86400000L;
+
+	// The number of sessions which can be queued before the queue grows.
+	private static final int INITIAL_CAPACITY = 16;
+
+	// Sessions queued for the next batch, by index. Guarded by this.
+	private int[] mGameModes = new int[INITIAL_CAPACITY];
+	private int[] mScores = new int[INITIAL_CAPACITY];
+	private long[] mStartTimes = new long[INITIAL_CAPACITY];
+	private long[] mDurations = new long[INITIAL_CAPACITY];
+	private int mPendingCount = 0;
+
+	// Held while a batch is inserted, so batches are inserted in order.
+	private final Object mWriteLock = new Object();
+	// The batch being inserted, swapped with the queue when a batch begins.
+	// Guarded by mWriteLock.
+	private int[] mWriteGameModes = new int[INITIAL_CAPACITY];
+	private int[] mWriteScores = new int[INITIAL_CAPACITY];
+	private long[] mWriteStartTimes = new long[INITIAL_CAPACITY];
+	private long[] mWriteDurations = new long[INITIAL_CAPACITY];
+
+	// The number of sessions and batches inserted. Guarded by this.
+	private long mInsertCount = 0;
+	private long mBatchCount = 0;
+
+	public ScoreHistoryData(Context ctx)
+	{
+		super(ctx);
+	}
+
+	/**
+	 * Queues a game session to be inserted by the next flush().
+	 *
+	 * @param int gameMode - The game mode played.
+	 * @param int score - The final score.
+	 * @param long startTime - The time the session started, in
+	 * 	milliseconds since the epoch.
+	 * @param long duration - The length of the session in milliseconds.
+	 */
+	public synchronized void addSession(int gameMode, int score,
+			long startTime, long duration)
+	{
+		ensurePendingCapacity(mPendingCount + 1);
+
+		mGameModes[mPendingCount] = gameMode;
+		mScores[mPendingCount] = score;
+		mStartTimes[mPendingCount] = startTime;
+		mDurations[mPendingCount] = duration;
+		mPendingCount++;
+	}
+
+	/**
+	 * Grows the queue, if needed, so that it holds a given number of
+	 * sessions. Called holding the instance lock.
+	 *
+	 * @param int count - The number of sessions.
+	 */
+	private void ensurePendingCapacity(int count)
+	{
+		if (count <= mGameModes.length)
+		{
+			return;
+		}
+
+		int capacity = (mGameModes.length * 2);
+
+		while (capacity < count)
+		{
+			capacity *= 2;
+		}
+
+		mGameModes = grow(mGameModes, capacity);
+		mScores = grow(mScores, capacity);
+		mStartTimes = grow(mStartTimes, capacity);
+		mDurations = grow(mDurations, capacity);
+	}
+
+	/**
+	 * Inserts every queued session in a single transaction. Sessions which
+	 * fail to be inserted are queued again for the next flush().
+	 *
+	 * @return int - The number of sessions inserted.
+	 */
+	public int flush()
+	{
+		synchronized (mWriteLock)
+		{
+			int count = swapBatch();
+
+			if (count == 0)
+			{
+				return 0;
+			}
+
+			try
+			{
+				insertBatch(count);
+			} catch (SQLException e)
+			{
+				Log.e(GameSettings.LOG_NAME, "Score history not written: "
+						+ e.getMessage());
+
+				requeueBatch(count);
+
+				return 0;
+			}
+
+			synchronized (this)
+			{
+				mInsertCount += count;
+				mBatchCount++;
+			}
+
+			return count;
+		}
+	}
+
+	/**
+	 * Swaps the queued sessions into the batch being inserted, leaving the
+	 * queue empty. Called holding mWriteLock.
+	 *
+	 * @return int - The number of sessions in the batch.
+	 */
+	private synchronized int swapBatch()
+	{
+		int count = mPendingCount;
+
+		int[] gameModes = mWriteGameModes;
+		int[] scores = mWriteScores;
+		long[] startTimes = mWriteStartTimes;
+		long[] durations = mWriteDurations;
+
+		mWriteGameModes = mGameModes;
+		mWriteScores = mScores;
+		mWriteStartTimes = mStartTimes;
+		mWriteDurations = mDurations;
+
+		mGameModes = gameModes;
+		mScores = scores;
+		mStartTimes = startTimes;
+		mDurations = durations;
+
+		mPendingCount = 0;
+
+		return count;
+	}
+
+	/**
+	 * Inserts the sessions in the batch with a prepared statement, in a
+	 * single transaction. Called holding mWriteLock.
+	 *
+	 * @param int count - The number of sessions in the batch.
+	 */
+	private void insertBatch(int count)
+	{
+		SQLiteDatabase db = this.getWritableDatabase();
+
+		SQLiteStatement statement = db.compileStatement(ScoreHistorySchema.INSERT_SESSION);
+
+		db.beginTransaction();
+
+		try
+		{
+			int i;
+			for (i = 0; i <= (count - 1); i++)
+			{
+				statement.bindLong(1, mWriteGameModes[i]);
+				statement.bindLong(2, mWriteScores[i]);
+				statement.bindLong(3, mWriteStartTimes[i]);
+				statement.bindLong(4, mWriteDurations[i]);
+				statement.bindLong(5, getDay(mWriteStartTimes[i]));
+				statement.executeInsert();
+			}
+
+			db.setTransactionSuccessful();
+		} finally
+		{
+			db.endTransaction();
+			statement.close();
+		}
+	}
+
+	/**
+	 * Queues the sessions in a batch which failed to be inserted again,
+	 * ahead of any sessions queued since, so sessions are still inserted
+	 * in the order they were added. Called holding mWriteLock.
+	 *
+	 * @param int count - The number of sessions in the batch.
+	 */
+	private synchronized void requeueBatch(int count)
+	{
+		ensurePendingCapacity(mPendingCount + count);
+
+		System.arraycopy(mGameModes, 0, mGameModes, count, mPendingCount);
+		System.arraycopy(mScores, 0, mScores, count, mPendingCount);
+		System.arraycopy(mStartTimes, 0, mStartTimes, count, mPendingCount);
+		System.arraycopy(mDurations, 0, mDurations, count, mPendingCount);
+
+		System.arraycopy(mWriteGameModes, 0, mGameModes, 0, count);
+		System.arraycopy(mWriteScores, 0, mScores, 0, count);
+		System.arraycopy(mWriteStartTimes, 0, mStartTimes, 0, count);
+		System.arraycopy(mWriteDurations, 0, mDurations, 0, count);
+
+		mPendingCount += count;
+	}
+
+	/**
+	 * Gets the highest scores for a game mode, highest first.
+	 *
+	 * @param int gameMode - The game mode.
+	 * @param int[] scores - Receives the scores. Its length is the largest
+	 * 	number of scores returned.
+	 * @return int - The number of scores returned.
+	 */
+	public int getTopScores(int gameMode, int[] scores)
+	{
+		SQLiteDatabase db = this.getReadableDatabase();
+
+		String[] args = { Integer.toString(gameMode),
+				Integer.toString(scores.length) };
+		Cursor cursor = db.rawQuery(ScoreHistorySchema.SELECT_TOP_SCORES, args);
+
+		int count = 0;
+
+		if (cursor != null)
+		{
+			while (cursor.moveToNext() && (count < scores.length))
+			{
+				scores[count] = cursor.getInt(0);
+				count++;
+			}
+			cursor.close();
+		}
+
+		return count;
+	}
+
+	/**
+	 * Gets the number of sessions played and best score for each day
+	 * sessions of a game mode were played on, in a range of days.
+	 *
+	 * @param int gameMode - The game mode.
+	 * @param int firstDay - The first day, as returned by getDay().
+	 * @param int lastDay - The last day, inclusive.
+	 * @param int[] days - Receives each day sessions were played on, in
+	 * 	order. Its length is the largest number of days returned.
+	 * @param int[] sessionCounts - Receives the number of sessions played
+	 * 	on each day.
+	 * @param int[] bestScores - Receives the best score on each day.
+	 * @return int - The number of days returned.
+	 */
+	public int getDailyStats(int gameMode, int firstDay, int lastDay,
+			int[] days, int[] sessionCounts, int[] bestScores)
+	{
+		SQLiteDatabase db = this.getReadableDatabase();
+
+		String[] args = { Integer.toString(gameMode),
+				Integer.toString(firstDay), Integer.toString(lastDay) };
+		Cursor cursor = db.rawQuery(ScoreHistorySchema.SELECT_DAILY_STATS, args);
+
+		int count = 0;
+
+		if (cursor != null)
+		{
+			while (cursor.moveToNext() && (count < days.length))
+			{
+				days[count] = cursor.getInt(0);
+				sessionCounts[count] = cursor.getInt(1);
+				bestScores[count] = cursor.getInt(2);
+				count++;
+			}
+			cursor.close();
+		}
+
+		return count;
+	}
+
+	/**
+	 * Gets the local day a time falls on.
+	 *
+	 * @param long timeMillis - The time in milliseconds since the epoch.
+	 * @return int - The day, in days since the epoch.
+	 */
+	public static int getDay(long timeMillis)
+	{
+		long localTime = (timeMillis + TimeZone.getDefault().getOffset(timeMillis));
+
+		return (int) (localTime / MILLIS_PER_DAY);
+	}
+
+	/**
+	 * Copies an array into a larger array.
+	 *
+	 * @param int[] array - The array.
+	 * @param int capacity - The length of the new array.
+	 * @return int[]
+	 */
+	private static int[] grow(int[] array, int capacity)
+	{
+		int[] grown = new int[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+
+		return grown;
+	}
+
+	/**
+	 * Copies an array into a larger array.
+	 *
+	 * @param long[] array - The array.
+	 * @param int capacity - The length of the new array.
+	 * @return long[]
+	 */
+	private static long[] grow(long[] array, int capacity)
+	{
+		long[] grown = new long[capacity];
+		System.arraycopy(array, 0, grown, 0, array.length);
+
+		return grown;
+	}
+
+	/**
+	 * Builds a summary of the sessions inserted and queued.
+	 *
+	 * @return String
+	 */
+	public synchronized String getSummary()
+	{
+		return "sessions=" + mInsertCount + " batches=" + mBatchCount
+				+ " queued=" + mPendingCount;
+	}
+}
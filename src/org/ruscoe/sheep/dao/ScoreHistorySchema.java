@@ -0,0 +1,72 @@
+package org.ruscoe.sheep.dao;
+
+/**
+ * The SQL defining and querying the score history table.
+ *
+ * Has no dependency on the Android framework, so the schema and queries
+ * can be checked against SQLite on a desktop JVM.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class ScoreHistorySchema
+{
+	public static final String TABLE_NAME = "scoreHistory";
+
+	// Matches android.provider.BaseColumns._ID.
+	public static final String ID = "_id";
+	public static final String GAME_MODE = "gameMode";
+	public static final String SCORE = "score";
+	public static final String START_TIME = "startTime";
+	public static final String DURATION = "duration";
+	// The local day the session started on, in days since the epoch.
+	public static final String DAY = "day";
+
+	// The names of the indexes.
+	public static final String INDEX_TOP = TABLE_NAME + "Top";
+	public static final String INDEX_DAY = TABLE_NAME + "Day";
+
+	// Create table statement.
+	public static final String CREATE_TABLE = "CREATE TABLE "
+			+ TABLE_NAME + " ("
+			+ ID + " INTEGER PRIMARY KEY, "
+			+ GAME_MODE + " INTEGER NOT NULL, "
+			+ SCORE + " INTEGER NOT NULL, "
+			+ START_TIME + " INTEGER NOT NULL, "
+			+ DURATION + " INTEGER NOT NULL, "
+			+ DAY + " INTEGER NOT NULL"
+			+ ");";
+
+	// Serves the top scores for a game mode in order, without sorting.
+	public static final String CREATE_INDEX_TOP = "CREATE INDEX "
+			+ INDEX_TOP + " ON " + TABLE_NAME + " ("
+			+ GAME_MODE + ", "
+			+ SCORE + " DESC"
+			+ ");";
+
+	// Covers per day aggregates for a game mode, so they are computed
+	// from the index alone.
+	public static final String CREATE_INDEX_DAY = "CREATE INDEX "
+			+ INDEX_DAY + " ON " + TABLE_NAME + " ("
+			+ GAME_MODE + ", "
+			+ DAY + ", "
+			+ SCORE
+			+ ");";
+
+	public static final String INSERT_SESSION = "INSERT INTO " + TABLE_NAME
+			+ " (" + GAME_MODE + ", " + SCORE + ", " + START_TIME + ", "
+			+ DURATION + ", " + DAY + ") VALUES (?, ?, ?, ?, ?)";
+
+	// Uses the top scores index, so only the rows returned are read. Takes
+	// the game mode and number of scores.
+	public static final String SELECT_TOP_SCORES = "SELECT " + SCORE
+			+ " FROM " + TABLE_NAME + " WHERE " + GAME_MODE + " = ?"
+			+ " ORDER BY " + SCORE + " DESC LIMIT ?";
+
+	// Uses the day index, so only the index entries for the days requested
+	// are read. Takes the game mode, first day and last day.
+	public static final String SELECT_DAILY_STATS = "SELECT " + DAY
+			+ ", COUNT(*), MAX(" + SCORE + ") FROM " + TABLE_NAME
+			+ " WHERE " + GAME_MODE + " = ? AND " + DAY + " BETWEEN ? AND ?"
+			+ " GROUP BY " + DAY + " ORDER BY " + DAY;
+}
@@ -0,0 +1,158 @@
+package org.ruscoe.sheep.graphics;
+
+/**
+ * Positions a set of rectangles within a single atlas, packing them onto
+ * shelves from tallest to shortest, with padding around each rectangle.
+ *
+ * The atlas dimensions are powers of two, as required for textures by some
+ * OpenGL ES implementations. The width is doubled until the atlas is no
+ * taller than it is wide.
+ *
+ * Has no dependency on the Android framework.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class AtlasLayout
+{
+	// Atlas dimensions.
+	private int mWidth = 0;
+	private int mHeight = 0;
+
+	// The position of each rectangle, excluding padding.
+	private int[] mX;
+	private int[] mY;
+
+	/**
+	 * @param int[] widths - The width of each rectangle.
+	 * @param int[] heights - The height of each rectangle.
+	 * @param int padding - The empty pixels kept around each rectangle.
+	 */
+	public AtlasLayout(int[] widths, int[] heights, int padding)
+	{
+		int count = widths.length;
+
+		mX = new int[count];
+		mY = new int[count];
+
+		// Order the rectangles from tallest to shortest, so each shelf
+		// wastes little height.
+		int[] order = new int[count];
+		int area = 0;
+		int maxWidth = 0;
+
+		int i;
+		int j;
+		int index;
+		for (i = 0; i <= (count - 1); i++)
+		{
+			index = i;
+
+			for (j = i; (j > 0) && (heights[order[j - 1]] < heights[index]); j--)
+			{
+				order[j] = order[j - 1];
+			}
+
+			order[j] = index;
+
+			area += ((widths[i] + (padding * 2)) * (heights[i] + (padding * 2)));
+			maxWidth = Math.max(maxWidth, (widths[i] + (padding * 2)));
+		}
+
+		int width = nextPowerOfTwo(Math.max(maxWidth,
+				(int) Math.ceil(Math.sqrt(area))));
+
+		while (pack(order, widths, heights, padding, width) > width)
+		{
+			width *= 2;
+		}
+	}
+
+	/**
+	 * Packs the rectangles onto shelves within a given width.
+	 *
+	 * @param int[] order - The order in which to place the rectangles.
+	 * @param int[] widths - The width of each rectangle.
+	 * @param int[] heights - The height of each rectangle.
+	 * @param int padding - The empty pixels kept around each rectangle.
+	 * @param int width - The atlas width.
+	 * @return int - The atlas height.
+	 */
+	private int pack(int[] order, int[] widths, int[] heights, int padding,
+			int width)
+	{
+		int shelfX = 0;
+		int shelfY = 0;
+		int shelfHeight = 0;
+
+		int cellWidth;
+		int cellHeight;
+		int index;
+
+		int i;
+		for (i = 0; i <= (order.length - 1); i++)
+		{
+			index = order[i];
+
+			cellWidth = (widths[index] + (padding * 2));
+			cellHeight = (heights[index] + (padding * 2));
+
+			// Start a new shelf when this shelf is full.
+			if ((shelfX + cellWidth) > width)
+			{
+				shelfX = 0;
+				shelfY += shelfHeight;
+				shelfHeight = 0;
+			}
+
+			mX[index] = (shelfX + padding);
+			mY[index] = (shelfY + padding);
+
+			shelfX += cellWidth;
+			shelfHeight = Math.max(shelfHeight, cellHeight);
+		}
+
+		mWidth = width;
+		mHeight = nextPowerOfTwo(shelfY + shelfHeight);
+
+		return mHeight;
+	}
+
+	/**
+	 * Gets the smallest power of two greater than or equal to a value.
+	 *
+	 * @param int value - The value.
+	 * @return int
+	 */
+	private static int nextPowerOfTwo(int value)
+	{
+		int power = 1;
+
+		while (power < value)
+		{
+			power *= 2;
+		}
+
+		return power;
+	}
+
+	public int getWidth()
+	{
+		return mWidth;
+	}
+
+	public int getHeight()
+	{
+		return mHeight;
+	}
+
+	public int getX(int index)
+	{
+		return mX[index];
+	}
+
+	public int getY(int index)
+	{
+		return mY[index];
+	}
+}
@@ -0,0 +1,293 @@
+package org.ruscoe.sheep.graphics;
+
+import org.ruscoe.sheep.util.IntLruCache;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+/**
+ * Prepares the background image for each surface size on a background
+ * thread, so resizing the surface never stalls the UI or game threads.
+ *
+ * Each image is scaled once from the original resource, rather than from
+ * the last scaled image, and kept for each surface size and pixel format
+ * so returning to an earlier size is immediate. The game thread swaps to
+ * the latest image with swap() before drawing; until the first image is
+ * ready, getBackground() returns null.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class BackgroundScaler
+{
+	private static final int NONE = -1;
+
+	// The number of scaled images kept once no longer drawn, such as
+	// the image for the other orientation.
+	private static final int RELEASED_IMAGES_KEPT = 2;
+
+	private BitmapCache mBitmapCache;
+	private int mResourceId;
+	private Bitmap.Config mConfig;
+
+	// Scaled images, keyed by size. Every image has the pixel format
+	// mConfig, so it is not part of the key. Guarded by this.
+	private IntLruCache<Bitmap> mScaledImages;
+
+	// Runs scale requests in order, off the UI thread.
+	private HandlerThread mThread;
+	private Handler mHandler;
+
+	// The number of the latest scale request. Older requests are skipped.
+	private volatile int mRequestNumber = 0;
+
+	// The latest scaled image, not yet swapped in. Guarded by this.
+	private int mPendingKey = NONE;
+	private Bitmap mPending = null;
+	// True while mPending holds an image.
+	private volatile boolean mHasPending = false;
+
+	// The image drawn by the game thread. Only changed by swap().
+	private int mCurrentKey = NONE;
+	private Bitmap mCurrent = null;
+
+	// True once released. Guarded by this.
+	private boolean mReleased = false;
+
+	/**
+	 * @param BitmapCache bitmapCache - Decodes the original image.
+	 * @param int resourceId - The drawable resource ID of the image.
+	 * @param Bitmap.Config config - The pixel format of scaled images.
+	 */
+	public BackgroundScaler(BitmapCache bitmapCache, int resourceId,
+			Bitmap.Config config)
+	{
+		mBitmapCache = bitmapCache;
+		mResourceId = resourceId;
+		mConfig = config;
+
+		mScaledImages = new IntLruCache<Bitmap>(RELEASED_IMAGES_KEPT)
+		{
+			@Override
+			protected void onEvicted(int key, Bitmap bitmap)
+			{
+				bitmap.recycle();
+			}
+		};
+
+		mThread = new HandlerThread("BackgroundScaler",
+				Process.THREAD_PRIORITY_BACKGROUND);
+		mThread.start();
+
+		mHandler = new Handler(mThread.getLooper());
+	}
+
+	/**
+	 * Requests the image for a surface size. Returns immediately; the image
+	 * is swapped in by swap() once ready. Replaces any earlier request not
+	 * yet started.
+	 *
+	 * @param final int width - The surface width.
+	 * @param final int height - The surface height.
+	 */
+	public void request(final int width, final int height)
+	{
+		final int requestNumber = ++mRequestNumber;
+
+		mHandler.post(new Runnable()
+		{
+			public void run()
+			{
+				// Superseded while waiting to run.
+				if (requestNumber == mRequestNumber)
+				{
+					prepare(width, height);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Gets the image for a surface size, scaling it if not kept, and
+	 * publishes it to be swapped in. Runs on the scaler thread.
+	 *
+	 * @param int width - The surface width.
+	 * @param int height - The surface height.
+	 */
+	private void prepare(int width, int height)
+	{
+		int key = getKey(width, height);
+
+		Bitmap scaled;
+
+		synchronized (this)
+		{
+			if (mReleased)
+			{
+				return;
+			}
+
+			scaled = mScaledImages.acquire(key);
+		}
+
+		if (scaled == null)
+		{
+			scaled = scale(width, height);
+
+			if (scaled == null)
+			{
+				return;
+			}
+
+			synchronized (this)
+			{
+				if (mReleased)
+				{
+					scaled.recycle();
+					return;
+				}
+
+				mScaledImages.put(key, scaled);
+			}
+		}
+
+		synchronized (this)
+		{
+			// An image published but never swapped in is replaced.
+			if (mPendingKey != NONE)
+			{
+				mScaledImages.release(mPendingKey);
+			}
+
+			mPendingKey = key;
+			mPending = scaled;
+			mHasPending = true;
+		}
+	}
+
+	/**
+	 * Scales the original image to a surface size.
+	 *
+	 * @param int width - The surface width.
+	 * @param int height - The surface height.
+	 * @return Bitmap - The scaled image, or null if the original image
+	 * 	cannot be decoded.
+	 */
+	private Bitmap scale(int width, int height)
+	{
+		// Decoded no smaller than the surface, so it is only scaled down.
+		Bitmap source = mBitmapCache.acquire(mResourceId, width, height, mConfig);
+
+		if (source == null)
+		{
+			return null;
+		}
+
+		Bitmap scaled = Bitmap.createScaledBitmap(source, width, height, true);
+
+		// Already the surface size. Copied, as the original belongs to
+		// the bitmap cache.
+		if (scaled == source)
+		{
+			scaled = source.copy(mConfig, false);
+		}
+
+		mBitmapCache.release(mResourceId);
+
+		return scaled;
+	}
+
+	/**
+	 * Swaps in the latest image, if one has been published since the last
+	 * swap, releasing the image it replaces. Called by the game thread
+	 * before drawing, as the replaced image may be recycled.
+	 *
+	 * @return boolean - True if the image changed.
+	 */
+	public boolean swap()
+	{
+		if (!mHasPending)
+		{
+			return false;
+		}
+
+		synchronized (this)
+		{
+			if (mCurrentKey != NONE)
+			{
+				mScaledImages.release(mCurrentKey);
+			}
+
+			mCurrentKey = mPendingKey;
+			mCurrent = mPending;
+
+			mPendingKey = NONE;
+			mPending = null;
+			mHasPending = false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets the image swapped in by the last call to swap().
+	 *
+	 * @return Bitmap - The image, or null if none is ready yet.
+	 */
+	public Bitmap getBackground()
+	{
+		return mCurrent;
+	}
+
+	/**
+	 * Gets the key of an image in the scaled image cache.
+	 *
+	 * @param int width - The image width, less than 32768.
+	 * @param int height - The image height, less than 65536.
+	 * @return int - The key, never NONE.
+	 */
+	private static int getKey(int width, int height)
+	{
+		return ((width << 16) | height);
+	}
+
+	/**
+	 * Stops the scaler thread and recycles every scaled image. Called once
+	 * the game thread has stopped drawing.
+	 */
+	public synchronized void release()
+	{
+		mThread.quit();
+
+		if (mPendingKey != NONE)
+		{
+			mScaledImages.release(mPendingKey);
+			mPendingKey = NONE;
+			mPending = null;
+			mHasPending = false;
+		}
+
+		if (mCurrentKey != NONE)
+		{
+			mScaledImages.release(mCurrentKey);
+			mCurrentKey = NONE;
+			mCurrent = null;
+		}
+
+		mScaledImages.evictAll();
+
+		mReleased = true;
+	}
+
+	/**
+	 * Builds a summary of the scaled image cache.
+	 *
+	 * @return String
+	 */
+	public synchronized String getSummary()
+	{
+		return mScaledImages.getSummary();
+	}
+}
@@ -0,0 +1,188 @@
+package org.ruscoe.sheep.graphics;
+
+import org.ruscoe.sheep.util.IntLruCache;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+/**
+ * A memory-budgeted cache of bitmaps decoded from drawable resources,
+ * keyed by resource ID.
+ *
+ * Bitmaps are acquired and released, and recycled once evicted. Released
+ * bitmaps are kept, least recently released evicted first, while the
+ * cache is within its byte budget, so a bitmap released by one GameView
+ * can be acquired by the next without being decoded again.
+ *
+ * Bitmaps are decoded for a target size, subsampling resources much larger
+ * than needed, in a given pixel format. A resource is cached as first
+ * decoded, whatever target later acquires ask for.
+ *
+ * Thread safe, so bitmaps can be decoded off the game thread.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class BitmapCache
+{
+	// Passed as a target dimension to decode at full size.
+	public static final int FULL_SIZE = 0;
+
+	private Resources mResources;
+
+	private IntLruCache<Bitmap> mCache;
+
+	/**
+	 * @param Resources resources - The resources to decode from.
+	 * @param long maxBytes - The largest total size of bitmaps kept once
+	 * 	released, in bytes.
+	 */
+	public BitmapCache(Resources resources, long maxBytes)
+	{
+		mResources = resources;
+
+		mCache = new IntLruCache<Bitmap>(maxBytes)
+		{
+			@Override
+			protected long sizeOf(Bitmap bitmap)
+			{
+				return ((long) bitmap.getRowBytes() * bitmap.getHeight());
+			}
+
+			@Override
+			protected void onEvicted(int resourceId, Bitmap bitmap)
+			{
+				bitmap.recycle();
+			}
+		};
+	}
+
+	/**
+	 * Acquires the bitmap for a resource at full size, decoding it if not
+	 * cached. Must be released with release().
+	 *
+	 * @param int resourceId - The drawable resource ID.
+	 * @param Bitmap.Config config - The pixel format to decode to.
+	 * @return Bitmap - The bitmap, or null if it cannot be decoded.
+	 */
+	public Bitmap acquire(int resourceId, Bitmap.Config config)
+	{
+		return acquire(resourceId, FULL_SIZE, FULL_SIZE, config);
+	}
+
+	/**
+	 * Acquires the bitmap for a resource, decoding it if not cached. Must
+	 * be released with release() unless null.
+	 *
+	 * @param int resourceId - The drawable resource ID.
+	 * @param int targetWidth - The width the bitmap is drawn at, or
+	 * 	FULL_SIZE.
+	 * @param int targetHeight - The height the bitmap is drawn at, or
+	 * 	FULL_SIZE.
+	 * @param Bitmap.Config config - The pixel format to decode to.
+	 * @return Bitmap - The bitmap, or null if it cannot be decoded.
+	 */
+	public synchronized Bitmap acquire(int resourceId, int targetWidth,
+			int targetHeight, Bitmap.Config config)
+	{
+		Bitmap bitmap = mCache.acquire(resourceId);
+
+		if (bitmap != null)
+		{
+			return bitmap;
+		}
+
+		BitmapFactory.Options options = new BitmapFactory.Options();
+
+		if ((targetWidth != FULL_SIZE) && (targetHeight != FULL_SIZE))
+		{
+			// Read the dimensions first, without decoding pixels.
+			options.inJustDecodeBounds = true;
+			BitmapFactory.decodeResource(mResources, resourceId, options);
+
+			options.inSampleSize = getSampleSize(options.outWidth,
+					options.outHeight, targetWidth, targetHeight);
+			options.inJustDecodeBounds = false;
+		}
+
+		options.inPreferredConfig = config;
+
+		bitmap = BitmapFactory.decodeResource(mResources, resourceId, options);
+
+		if (bitmap != null)
+		{
+			mCache.put(resourceId, bitmap);
+		}
+
+		return bitmap;
+	}
+
+	/**
+	 * Releases a bitmap acquired by acquire(). The bitmap must not be used
+	 * afterwards, as it may be evicted and recycled.
+	 *
+	 * @param int resourceId - The drawable resource ID.
+	 */
+	public synchronized void release(int resourceId)
+	{
+		mCache.release(resourceId);
+	}
+
+	/**
+	 * Evicts and recycles every released bitmap.
+	 */
+	public synchronized void evictAll()
+	{
+		mCache.evictAll();
+	}
+
+	/**
+	 * Gets the largest power of two sample size which decodes an image to
+	 * at least a target size.
+	 *
+	 * @param int width - The image width.
+	 * @param int height - The image height.
+	 * @param int targetWidth - The target width.
+	 * @param int targetHeight - The target height.
+	 * @return int
+	 */
+	public static int getSampleSize(int width, int height, int targetWidth,
+			int targetHeight)
+	{
+		int sampleSize = 1;
+
+		while (((width / (sampleSize * 2)) >= targetWidth)
+				&& ((height / (sampleSize * 2)) >= targetHeight))
+		{
+			sampleSize *= 2;
+		}
+
+		return sampleSize;
+	}
+
+	/**
+	 * Builds a summary of the cache hits, misses and memory use.
+	 *
+	 * @return String
+	 */
+	public synchronized String getSummary()
+	{
+		return mCache.getSummary() + " (bytes)";
+	}
+
+	public synchronized long getSizeBytes()
+	{
+		return mCache.getSize();
+	}
+
+	public synchronized long getHitCount()
+	{
+		return mCache.getHitCount();
+	}
+
+	public synchronized long getMissCount()
+	{
+		return mCache.getMissCount();
+	}
+}
@@ -0,0 +1,87 @@
+package org.ruscoe.sheep.graphics;
+
+import org.ruscoe.sheep.render.Renderer;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+/**
+ * A Renderer which draws to an Android Canvas, with sprites drawn from a
+ * SpriteAtlas and the score drawn by a ScoreHud.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class CanvasRenderer implements Renderer
+{
+	private SpriteAtlas mSpriteAtlas;
+	private ScoreHud mScoreHud;
+
+	// The background image, sized to the surface.
+	private Bitmap mBackground = null;
+
+	// The Canvas drawn to by the current frame.
+	private Canvas mCanvas = null;
+
+	/**
+	 * @param SpriteAtlas spriteAtlas - The atlas holding every sprite.
+	 * @param ScoreHud scoreHud - Draws the score text.
+	 */
+	public CanvasRenderer(SpriteAtlas spriteAtlas, ScoreHud scoreHud)
+	{
+		mSpriteAtlas = spriteAtlas;
+		mScoreHud = scoreHud;
+	}
+
+	/**
+	 * Sets the Canvas to draw the next frame to.
+	 *
+	 * @param Canvas canvas - The active Canvas.
+	 */
+	public void setCanvas(Canvas canvas)
+	{
+		mCanvas = canvas;
+	}
+
+	/**
+	 * Sets the background image drawn by drawBackground().
+	 *
+	 * @param Bitmap background - The background image.
+	 */
+	public void setBackground(Bitmap background)
+	{
+		mBackground = background;
+	}
+
+	public void beginFrame()
+	{
+	}
+
+	public void drawBackground()
+	{
+		mCanvas.drawBitmap(mBackground, 0, 0, null);
+	}
+
+	public void drawSprite(int sprite, float x, float y, boolean mirrored)
+	{
+		if (mirrored)
+		{
+			mSpriteAtlas.drawMirrored(mCanvas, sprite, x, y, null);
+		}
+		else
+		{
+			mSpriteAtlas.draw(mCanvas, sprite, x, y, null);
+		}
+	}
+
+	public void drawScore(int score, int highScore, float x, float y)
+	{
+		mScoreHud.draw(mCanvas, score, highScore, x, y);
+	}
+
+	public void endFrame()
+	{
+		// The Canvas is only valid until it is posted.
+		mCanvas = null;
+	}
+}
@@ -0,0 +1,129 @@
+package org.ruscoe.sheep.graphics;
+
+/**
+ * A rectangular region of the screen needing to be redrawn, grown to cover
+ * each area added to it.
+ *
+ * Has no dependency on the Android framework.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class DirtyRegion
+{
+	// Region bounds. The region is empty when mLeft >= mRight or
+	// mTop >= mBottom.
+	private int mLeft = 0;
+	private int mTop = 0;
+	private int mRight = 0;
+	private int mBottom = 0;
+
+	/**
+	 * Empties the region.
+	 */
+	public void setEmpty()
+	{
+		mLeft = 0;
+		mTop = 0;
+		mRight = 0;
+		mBottom = 0;
+	}
+
+	/**
+	 * Determines if the region is empty.
+	 *
+	 * @return boolean - True if the region covers no area.
+	 */
+	public boolean isEmpty()
+	{
+		return (mLeft >= mRight) || (mTop >= mBottom);
+	}
+
+	/**
+	 * Grows the region to cover a rectangle. Empty rectangles are ignored.
+	 *
+	 * @param int left - The left edge of the rectangle.
+	 * @param int top - The top edge of the rectangle.
+	 * @param int right - The right edge of the rectangle.
+	 * @param int bottom - The bottom edge of the rectangle.
+	 */
+	public void union(int left, int top, int right, int bottom)
+	{
+		if ((left >= right) || (top >= bottom))
+		{
+			return;
+		}
+
+		if (isEmpty())
+		{
+			mLeft = left;
+			mTop = top;
+			mRight = right;
+			mBottom = bottom;
+
+			return;
+		}
+
+		mLeft = Math.min(mLeft, left);
+		mTop = Math.min(mTop, top);
+		mRight = Math.max(mRight, right);
+		mBottom = Math.max(mBottom, bottom);
+	}
+
+	/**
+	 * Grows the region to cover another region.
+	 *
+	 * @param DirtyRegion region - The region to cover.
+	 */
+	public void union(DirtyRegion region)
+	{
+		union(region.mLeft, region.mTop, region.mRight, region.mBottom);
+	}
+
+	/**
+	 * Sets the region to match another region.
+	 *
+	 * @param DirtyRegion region - The region to copy.
+	 */
+	public void set(DirtyRegion region)
+	{
+		mLeft = region.mLeft;
+		mTop = region.mTop;
+		mRight = region.mRight;
+		mBottom = region.mBottom;
+	}
+
+	/**
+	 * Shrinks the region to lie within a screen of a given size.
+	 *
+	 * @param int width - The screen width.
+	 * @param int height - The screen height.
+	 */
+	public void clip(int width, int height)
+	{
+		mLeft = Math.max(mLeft, 0);
+		mTop = Math.max(mTop, 0);
+		mRight = Math.min(mRight, width);
+		mBottom = Math.min(mBottom, height);
+	}
+
+	public int getLeft()
+	{
+		return mLeft;
+	}
+
+	public int getTop()
+	{
+		return mTop;
+	}
+
+	public int getRight()
+	{
+		return mRight;
+	}
+
+	public int getBottom()
+	{
+		return mBottom;
+	}
+}
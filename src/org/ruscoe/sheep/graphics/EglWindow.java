@@ -0,0 +1,147 @@
+package org.ruscoe.sheep.graphics;
+
+import javax.microedition.khronos.egl.EGL10;
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.egl.EGLContext;
+import javax.microedition.khronos.egl.EGLDisplay;
+import javax.microedition.khronos.egl.EGLSurface;
+
+import android.view.SurfaceHolder;
+
+/**
+ * An OpenGL ES 2.0 context drawing to the surface of a SurfaceView, as
+ * GLSurfaceView sets up for its render thread.
+ *
+ * Lets the game thread draw with OpenGL without handing the surface to a
+ * GLSurfaceView. The context is current on the thread which created it,
+ * and must be released on that thread.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class EglWindow
+{
+	// EGL constants added after EGL 1.0.
+	private static final int EGL_CONTEXT_CLIENT_VERSION = 0x3098;
+	private static final int EGL_OPENGL_ES2_BIT = 4;
+
+	private EGL10 mEgl;
+	private EGLDisplay mDisplay = EGL10.EGL_NO_DISPLAY;
+	private EGLContext mContext = EGL10.EGL_NO_CONTEXT;
+	private EGLSurface mSurface = EGL10.EGL_NO_SURFACE;
+
+	/**
+	 * Creates a context drawing to a surface and makes it current on the
+	 * calling thread. Throws a RuntimeException if it cannot be created,
+	 * having released anything created.
+	 *
+	 * @param SurfaceHolder holder - The holder of the surface to draw to.
+	 */
+	public EglWindow(SurfaceHolder holder)
+	{
+		mEgl = (EGL10) EGLContext.getEGL();
+
+		try
+		{
+			mDisplay = mEgl.eglGetDisplay(EGL10.EGL_DEFAULT_DISPLAY);
+
+			if ((mDisplay == EGL10.EGL_NO_DISPLAY)
+					|| !mEgl.eglInitialize(mDisplay, new int[2]))
+			{
+				throw new RuntimeException("EGL display unavailable: "
+						+ mEgl.eglGetError());
+			}
+
+			// Matches the RGBA_8888 window format set by Play.
+			int[] configAttributes = {
+					EGL10.EGL_RED_SIZE, 8,
+					EGL10.EGL_GREEN_SIZE, 8,
+					EGL10.EGL_BLUE_SIZE, 8,
+					EGL10.EGL_ALPHA_SIZE, 8,
+					EGL10.EGL_RENDERABLE_TYPE, EGL_OPENGL_ES2_BIT,
+					EGL10.EGL_NONE };
+
+			EGLConfig[] configs = new EGLConfig[1];
+			int[] configCount = new int[1];
+
+			if (!mEgl.eglChooseConfig(mDisplay, configAttributes, configs, 1,
+					configCount) || (configCount[0] == 0))
+			{
+				throw new RuntimeException("No OpenGL ES 2.0 EGL config: "
+						+ mEgl.eglGetError());
+			}
+
+			int[] contextAttributes = { EGL_CONTEXT_CLIENT_VERSION, 2,
+					EGL10.EGL_NONE };
+
+			mContext = mEgl.eglCreateContext(mDisplay, configs[0],
+					EGL10.EGL_NO_CONTEXT, contextAttributes);
+
+			if (mContext == EGL10.EGL_NO_CONTEXT)
+			{
+				throw new RuntimeException("EGL context not created: "
+						+ mEgl.eglGetError());
+			}
+
+			mSurface = mEgl.eglCreateWindowSurface(mDisplay, configs[0],
+					holder, null);
+
+			if (mSurface == EGL10.EGL_NO_SURFACE)
+			{
+				throw new RuntimeException("EGL surface not created: "
+						+ mEgl.eglGetError());
+			}
+
+			if (!mEgl.eglMakeCurrent(mDisplay, mSurface, mSurface, mContext))
+			{
+				throw new RuntimeException("EGL context not made current: "
+						+ mEgl.eglGetError());
+			}
+		} catch (RuntimeException e)
+		{
+			release();
+
+			throw e;
+		}
+	}
+
+	/**
+	 * Posts the frame drawn to the surface.
+	 *
+	 * @return boolean - False if the surface is no longer available.
+	 */
+	public boolean swapBuffers()
+	{
+		return mEgl.eglSwapBuffers(mDisplay, mSurface);
+	}
+
+	/**
+	 * Releases the context and surface. The window cannot be drawn to
+	 * afterwards.
+	 */
+	public void release()
+	{
+		if (mDisplay == EGL10.EGL_NO_DISPLAY)
+		{
+			return;
+		}
+
+		mEgl.eglMakeCurrent(mDisplay, EGL10.EGL_NO_SURFACE,
+				EGL10.EGL_NO_SURFACE, EGL10.EGL_NO_CONTEXT);
+
+		if (mSurface != EGL10.EGL_NO_SURFACE)
+		{
+			mEgl.eglDestroySurface(mDisplay, mSurface);
+			mSurface = EGL10.EGL_NO_SURFACE;
+		}
+
+		if (mContext != EGL10.EGL_NO_CONTEXT)
+		{
+			mEgl.eglDestroyContext(mDisplay, mContext);
+			mContext = EGL10.EGL_NO_CONTEXT;
+		}
+
+		mEgl.eglTerminate(mDisplay);
+		mDisplay = EGL10.EGL_NO_DISPLAY;
+	}
+}
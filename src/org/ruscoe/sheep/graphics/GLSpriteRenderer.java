@@ -0,0 +1,377 @@
+package org.ruscoe.sheep.graphics;
+
+import java.nio.FloatBuffer;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.render.Renderer;
+import org.ruscoe.sheep.render.SpriteBatch;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+import android.opengl.GLES20;
+import android.opengl.GLUtils;
+
+/**
+ * A Renderer which draws with OpenGL ES 2.0.
+ *
+ * Sprites are drawn from the SpriteAtlas bitmap as a single texture, so
+ * every sprite in a frame is added to one SpriteBatch and drawn with a
+ * single draw call, however many sheep and debris particles there are. The
+ * background and score text are drawn from their own textures, making a
+ * frame three draw calls.
+ *
+ * Must only be used on the thread holding the OpenGL context it was
+ * created with.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GLSpriteRenderer implements Renderer
+{
+	// The number of sprites drawn by each sprite draw call, at most.
+	public static final int BATCH_CAPACITY = 1024;
+
+	// Converts pixel positions to clip space with the origin at the top
+	// left, as on the Canvas.
+	private static final String VERTEX_SHADER =
+			"uniform vec2 uScale;\n"
+			+ "attribute vec2 aPosition;\n"
+			+ "attribute vec2 aTexCoord;\n"
+			+ "varying vec2 vTexCoord;\n"
+			+ "void main() {\n"
+			+ "  gl_Position = vec4((aPosition * uScale) + vec2(-1.0, 1.0), 0.0, 1.0);\n"
+			+ "  vTexCoord = aTexCoord;\n"
+			+ "}\n";
+
+	private static final String FRAGMENT_SHADER =
+			"precision mediump float;\n"
+			+ "uniform sampler2D uTexture;\n"
+			+ "varying vec2 vTexCoord;\n"
+			+ "void main() {\n"
+			+ "  gl_FragColor = texture2D(uTexture, vTexCoord);\n"
+			+ "}\n";
+
+	// Texture index constants.
+	private static final int TEXTURE_ATLAS = 0;
+	private static final int TEXTURE_BACKGROUND = 1;
+	private static final int TEXTURE_HUD = 2;
+	private static final int TEXTURE_COUNT = 3;
+
+	private ScoreHud mScoreHud;
+
+	// Shader program and variable handles.
+	private int mProgram;
+	private int mPositionHandle;
+	private int mTexCoordHandle;
+	private int mScaleHandle;
+	private int mTextureHandle;
+
+	private int[] mTextures = new int[TEXTURE_COUNT];
+
+	// The sprites drawn since the last sprite draw call.
+	private SpriteBatch mSpriteBatch = new SpriteBatch(BATCH_CAPACITY, Sprites.COUNT);
+	// Holds the background or score text quad.
+	private SpriteBatch mQuadBatch = new SpriteBatch(1, 0);
+
+	// The background image held by the background texture.
+	private Bitmap mBackground = null;
+	// True once the HUD texture holds the HUD bitmap.
+	private boolean mHudUploaded = false;
+
+	// The surface dimensions.
+	private int mWidth = 1;
+	private int mHeight = 1;
+
+	// The number of draw calls made by the current or last frame.
+	private int mDrawCallCount = 0;
+
+	/**
+	 * Compiles the shaders and uploads the sprite atlas to a texture.
+	 * Throws a RuntimeException if the shaders cannot be compiled.
+	 *
+	 * @param SpriteAtlas spriteAtlas - The atlas holding every sprite.
+	 * @param ScoreHud scoreHud - Renders the score text.
+	 */
+	public GLSpriteRenderer(SpriteAtlas spriteAtlas, ScoreHud scoreHud)
+	{
+		mScoreHud = scoreHud;
+
+		mProgram = createProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+
+		mPositionHandle = GLES20.glGetAttribLocation(mProgram, "aPosition");
+		mTexCoordHandle = GLES20.glGetAttribLocation(mProgram, "aTexCoord");
+		mScaleHandle = GLES20.glGetUniformLocation(mProgram, "uScale");
+		mTextureHandle = GLES20.glGetUniformLocation(mProgram, "uTexture");
+
+		GLES20.glGenTextures(TEXTURE_COUNT, mTextures, 0);
+
+		int i;
+		for (i = 0; i <= (TEXTURE_COUNT - 1); i++)
+		{
+			// Drawn at their original size, as on the Canvas, so
+			// filtering is not needed.
+			GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[i]);
+			GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+					GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_NEAREST);
+			GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+					GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_NEAREST);
+			GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+					GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+			GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D,
+					GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+		}
+
+		Bitmap atlas = spriteAtlas.getBitmap();
+
+		GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[TEXTURE_ATLAS]);
+		GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, atlas, 0);
+
+		Rect region;
+
+		for (i = 0; i <= (Sprites.COUNT - 1); i++)
+		{
+			region = spriteAtlas.getRegion(i);
+
+			mSpriteBatch.setRegion(i, region.left, region.top, region.right,
+					region.bottom, atlas.getWidth(), atlas.getHeight());
+		}
+	}
+
+	/**
+	 * Sets the dimensions of the surface drawn to.
+	 *
+	 * @param int width - The surface width.
+	 * @param int height - The surface height.
+	 */
+	public void setSurfaceSize(int width, int height)
+	{
+		mWidth = Math.max(1, width);
+		mHeight = Math.max(1, height);
+	}
+
+	/**
+	 * Sets the background image drawn by drawBackground(), uploading it to
+	 * the background texture if it has changed.
+	 *
+	 * @param Bitmap background - The background image.
+	 */
+	public void setBackground(Bitmap background)
+	{
+		if (background == mBackground)
+		{
+			return;
+		}
+
+		GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[TEXTURE_BACKGROUND]);
+		GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, background, 0);
+
+		mBackground = background;
+	}
+
+	public void beginFrame()
+	{
+		mDrawCallCount = 0;
+
+		GLES20.glViewport(0, 0, mWidth, mHeight);
+
+		// Bitmaps are uploaded with premultiplied alpha.
+		GLES20.glEnable(GLES20.GL_BLEND);
+		GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+
+		GLES20.glUseProgram(mProgram);
+		GLES20.glUniform2f(mScaleHandle, (2f / mWidth), (-2f / mHeight));
+		GLES20.glUniform1i(mTextureHandle, 0);
+		GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+
+		GLES20.glEnableVertexAttribArray(mPositionHandle);
+		GLES20.glEnableVertexAttribArray(mTexCoordHandle);
+
+		mSpriteBatch.begin();
+	}
+
+	public void drawBackground()
+	{
+		flushSprites();
+
+		mQuadBatch.begin();
+		mQuadBatch.add(0, 0, mBackground.getWidth(), mBackground.getHeight(),
+				0, 0, 1, 1);
+
+		drawBatch(mQuadBatch, mTextures[TEXTURE_BACKGROUND]);
+	}
+
+	public void drawSprite(int sprite, float x, float y, boolean mirrored)
+	{
+		if (mSpriteBatch.isFull())
+		{
+			flushSprites();
+		}
+
+		mSpriteBatch.add(sprite, x, y, mirrored);
+	}
+
+	public void drawScore(int score, int highScore, float x, float y)
+	{
+		flushSprites();
+
+		GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, mTextures[TEXTURE_HUD]);
+
+		Bitmap hud = mScoreHud.getBitmap();
+
+		if (!mHudUploaded)
+		{
+			mScoreHud.update(score, highScore);
+			GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, hud, 0);
+
+			mHudUploaded = true;
+		}
+		else if (mScoreHud.update(score, highScore))
+		{
+			// The HUD bitmap keeps its size, so only its pixels change.
+			GLUtils.texSubImage2D(GLES20.GL_TEXTURE_2D, 0, 0, 0, hud);
+		}
+
+		float left = mScoreHud.getLeft(x);
+		float top = mScoreHud.getTop(y);
+
+		mQuadBatch.begin();
+		mQuadBatch.add(left, top, (left + hud.getWidth()),
+				(top + hud.getHeight()), 0, 0, 1, 1);
+
+		drawBatch(mQuadBatch, mTextures[TEXTURE_HUD]);
+	}
+
+	public void endFrame()
+	{
+		flushSprites();
+
+		GLES20.glDisableVertexAttribArray(mPositionHandle);
+		GLES20.glDisableVertexAttribArray(mTexCoordHandle);
+	}
+
+	/**
+	 * Draws the sprites added since the last sprite draw call.
+	 */
+	private void flushSprites()
+	{
+		if (mSpriteBatch.isEmpty())
+		{
+			return;
+		}
+
+		drawBatch(mSpriteBatch, mTextures[TEXTURE_ATLAS]);
+
+		mSpriteBatch.begin();
+	}
+
+	/**
+	 * Draws every quad in a batch with a single draw call.
+	 *
+	 * @param SpriteBatch batch - The batch to draw.
+	 * @param int texture - The texture to draw the quads from.
+	 */
+	private void drawBatch(SpriteBatch batch, int texture)
+	{
+		FloatBuffer vertices = batch.getVertices();
+
+		GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
+
+		vertices.position(SpriteBatch.POSITION_OFFSET);
+		GLES20.glVertexAttribPointer(mPositionHandle, 2, GLES20.GL_FLOAT,
+				false, SpriteBatch.VERTEX_STRIDE, vertices);
+
+		vertices.position(SpriteBatch.TEXTURE_OFFSET);
+		GLES20.glVertexAttribPointer(mTexCoordHandle, 2, GLES20.GL_FLOAT,
+				false, SpriteBatch.VERTEX_STRIDE, vertices);
+
+		vertices.position(0);
+
+		GLES20.glDrawElements(GLES20.GL_TRIANGLES, batch.getIndexCount(),
+				GLES20.GL_UNSIGNED_SHORT, batch.getIndices());
+
+		mDrawCallCount++;
+	}
+
+	/**
+	 * Compiles and links a shader program. Throws a RuntimeException if
+	 * either shader fails to compile or the program fails to link.
+	 *
+	 * @param String vertexSource - The vertex shader source.
+	 * @param String fragmentSource - The fragment shader source.
+	 * @return int - The program handle.
+	 */
+	private static int createProgram(String vertexSource, String fragmentSource)
+	{
+		int vertexShader = compileShader(GLES20.GL_VERTEX_SHADER, vertexSource);
+		int fragmentShader = compileShader(GLES20.GL_FRAGMENT_SHADER, fragmentSource);
+
+		int program = GLES20.glCreateProgram();
+		GLES20.glAttachShader(program, vertexShader);
+		GLES20.glAttachShader(program, fragmentShader);
+		GLES20.glLinkProgram(program);
+
+		// Flagged for deletion once the program is deleted.
+		GLES20.glDeleteShader(vertexShader);
+		GLES20.glDeleteShader(fragmentShader);
+
+		int[] status = new int[1];
+		GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, status, 0);
+
+		if (status[0] != GLES20.GL_TRUE)
+		{
+			String log = GLES20.glGetProgramInfoLog(program);
+			GLES20.glDeleteProgram(program);
+
+			throw new RuntimeException("Shader program failed to link: " + log);
+		}
+
+		return program;
+	}
+
+	/**
+	 * Compiles a shader. Throws a RuntimeException if it fails to compile.
+	 *
+	 * @param int type - The shader type.
+	 * @param String source - The shader source.
+	 * @return int - The shader handle.
+	 */
+	private static int compileShader(int type, String source)
+	{
+		int shader = GLES20.glCreateShader(type);
+		GLES20.glShaderSource(shader, source);
+		GLES20.glCompileShader(shader);
+
+		int[] status = new int[1];
+		GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, status, 0);
+
+		if (status[0] != GLES20.GL_TRUE)
+		{
+			String log = GLES20.glGetShaderInfoLog(shader);
+			GLES20.glDeleteShader(shader);
+
+			throw new RuntimeException("Shader failed to compile: " + log);
+		}
+
+		return shader;
+	}
+
+	/**
+	 * Deletes the textures and shader program. The renderer cannot draw
+	 * afterwards.
+	 */
+	public void release()
+	{
+		GLES20.glDeleteTextures(TEXTURE_COUNT, mTextures, 0);
+		GLES20.glDeleteProgram(mProgram);
+	}
+
+	/**
+	 * Gets the number of draw calls made by the current or last frame.
+	 *
+	 * @return int
+	 */
+	public int getDrawCallCount()
+	{
+		return mDrawCallCount;
+	}
+}
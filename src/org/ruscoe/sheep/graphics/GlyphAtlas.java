@@ -0,0 +1,213 @@
+package org.ruscoe.sheep.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * A set of text glyphs rasterized once into a single bitmap, then drawn by
+ * copying regions of that bitmap. Drawing text this way avoids shaping and
+ * rasterizing the text with the Paint's Typeface each time it is drawn.
+ *
+ * Only the glyphs given when the atlas is created can be drawn; other
+ * characters are skipped.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GlyphAtlas
+{
+	// Transparent pixels either side of each glyph, so glyphs which reach
+	// beyond their advance are not clipped.
+	public static final int GLYPH_PADDING = 1;
+
+	// The number of characters covered by the glyph lookup table.
+	private static final int CHARACTER_COUNT = 128;
+
+	// The bitmap holding every glyph, side by side.
+	private Bitmap mBitmap;
+
+	// The glyph index of each character, or -1 if not in the atlas.
+	private int[] mGlyphIndex = new int[CHARACTER_COUNT];
+
+	// The left edge of each glyph in the bitmap, including padding.
+	private int[] mGlyphLeft;
+	// The width of each glyph in the bitmap, including padding.
+	private int[] mGlyphWidth;
+	// The distance the pen moves after drawing each glyph.
+	private float[] mGlyphAdvance;
+
+	// The distance from the top of a glyph to its baseline.
+	private int mAscent;
+	// The height of every glyph.
+	private int mHeight;
+	// The widest glyph, including padding.
+	private int mMaxGlyphWidth = 0;
+
+	// Reused when drawing, so drawing does not allocate.
+	private Rect mSource = new Rect();
+	private Rect mDestination = new Rect();
+
+	/**
+	 * Rasterizes a set of glyphs.
+	 *
+	 * @param Paint paint - The paint used to draw the glyphs, including the
+	 * 	Typeface, text size and color.
+	 * @param String glyphs - The characters to rasterize. Each must be below
+	 * 	character code 128.
+	 */
+	public GlyphAtlas(Paint paint, String glyphs)
+	{
+		int count = glyphs.length();
+
+		mGlyphLeft = new int[count];
+		mGlyphWidth = new int[count];
+		mGlyphAdvance = new float[count];
+
+		mAscent = (int) Math.ceil(-paint.ascent());
+		mHeight = (mAscent + (int) Math.ceil(paint.descent()));
+
+		paint.getTextWidths(glyphs, mGlyphAdvance);
+
+		int i;
+		for (i = 0; i <= (CHARACTER_COUNT - 1); i++)
+		{
+			mGlyphIndex[i] = -1;
+		}
+
+		// Lay the glyphs out left to right.
+		int width = 0;
+		for (i = 0; i <= (count - 1); i++)
+		{
+			mGlyphIndex[glyphs.charAt(i)] = i;
+
+			mGlyphLeft[i] = width;
+			mGlyphWidth[i] = ((int) Math.ceil(mGlyphAdvance[i]) + (GLYPH_PADDING * 2));
+
+			if (mGlyphWidth[i] > mMaxGlyphWidth)
+			{
+				mMaxGlyphWidth = mGlyphWidth[i];
+			}
+
+			width += mGlyphWidth[i];
+		}
+
+		mBitmap = Bitmap.createBitmap(Math.max(1, width), Math.max(1, mHeight),
+				Bitmap.Config.ARGB_8888);
+
+		Canvas canvas = new Canvas(mBitmap);
+
+		for (i = 0; i <= (count - 1); i++)
+		{
+			canvas.drawText(glyphs, i, (i + 1), (mGlyphLeft[i] + GLYPH_PADDING),
+					mAscent, paint);
+		}
+	}
+
+	/**
+	 * Draws text. Characters not in the atlas are skipped.
+	 *
+	 * @param Canvas canvas - The Canvas to draw to.
+	 * @param char[] text - The text to draw.
+	 * @param int start - The index of the first character to draw.
+	 * @param int count - The number of characters to draw.
+	 * @param float x - The X coordinate of the start of the text.
+	 * @param float y - The Y coordinate of the text baseline.
+	 * @return float - The X coordinate of the end of the text.
+	 */
+	public float drawText(Canvas canvas, char[] text, int start, int count,
+			float x, float y)
+	{
+		int top = ((int) y - mAscent);
+
+		float penX = x;
+		int left;
+		int glyph;
+
+		int i;
+		for (i = start; i <= (start + count - 1); i++)
+		{
+			glyph = getGlyph(text[i]);
+
+			if (glyph == -1)
+			{
+				continue;
+			}
+
+			left = ((int) penX - GLYPH_PADDING);
+
+			mSource.set(mGlyphLeft[glyph], 0,
+					(mGlyphLeft[glyph] + mGlyphWidth[glyph]), mHeight);
+			mDestination.set(left, top, (left + mGlyphWidth[glyph]),
+					(top + mHeight));
+
+			canvas.drawBitmap(mBitmap, mSource, mDestination, null);
+
+			penX += mGlyphAdvance[glyph];
+		}
+
+		return penX;
+	}
+
+	/**
+	 * Measures the width of text as drawn by drawText().
+	 *
+	 * @param char[] text - The text to measure.
+	 * @param int start - The index of the first character to measure.
+	 * @param int count - The number of characters to measure.
+	 * @return float - The width of the text.
+	 */
+	public float measureText(char[] text, int start, int count)
+	{
+		float width = 0;
+		int glyph;
+
+		int i;
+		for (i = start; i <= (start + count - 1); i++)
+		{
+			glyph = getGlyph(text[i]);
+
+			if (glyph != -1)
+			{
+				width += mGlyphAdvance[glyph];
+			}
+		}
+
+		return width;
+	}
+
+	/**
+	 * Gets the glyph index of a character.
+	 *
+	 * @param char character - The character.
+	 * @return int - The glyph index, or -1 if not in the atlas.
+	 */
+	private int getGlyph(char character)
+	{
+		return (character < CHARACTER_COUNT) ? mGlyphIndex[character] : -1;
+	}
+
+	/**
+	 * Frees the atlas bitmap. The atlas cannot be drawn afterwards.
+	 */
+	public void recycle()
+	{
+		mBitmap.recycle();
+	}
+
+	public int getAscent()
+	{
+		return mAscent;
+	}
+
+	public int getHeight()
+	{
+		return mHeight;
+	}
+
+	public int getMaxGlyphWidth()
+	{
+		return mMaxGlyphWidth;
+	}
+}
@@ -0,0 +1,175 @@
+package org.ruscoe.sheep.graphics;
+
+import org.ruscoe.sheep.util.TextUtil;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * Draws the player's score and high score, as "score / highScore".
+ *
+ * The text is drawn from a GlyphAtlas into a HUD bitmap only when the score
+ * or high score changes; every other frame draws the HUD bitmap as it is.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class ScoreHud
+{
+	// The characters used by the score text.
+	private static final String GLYPHS = "0123456789-/ ";
+
+	private GlyphAtlas mAtlas;
+
+	// The rendered score text, and a Canvas drawing into it.
+	private Bitmap mBitmap;
+	private Canvas mCanvas;
+
+	// The score text.
+	private char[] mText = new char[TextUtil.MAX_SCORE_TEXT_LENGTH];
+
+	// The score and high score last rendered.
+	private int mScore = 0;
+	private int mHighScore = 0;
+	// True once the HUD bitmap holds the text for mScore and mHighScore.
+	private boolean mRendered = false;
+
+	// The number of times the text has been rendered.
+	private int mRenderCount = 0;
+
+	/**
+	 * @param Paint paint - The paint used to draw the text, including the
+	 * 	Typeface, text size and color.
+	 */
+	public ScoreHud(Paint paint)
+	{
+		mAtlas = new GlyphAtlas(paint, GLYPHS);
+
+		// Wide enough for the longest text in the widest glyphs.
+		int width = (mAtlas.getMaxGlyphWidth() * TextUtil.MAX_SCORE_TEXT_LENGTH);
+
+		mBitmap = Bitmap.createBitmap(Math.max(1, width),
+				Math.max(1, mAtlas.getHeight()), Bitmap.Config.ARGB_8888);
+		mCanvas = new Canvas(mBitmap);
+	}
+
+	/**
+	 * Draws the score text, first rendering it if the score or high score
+	 * has changed.
+	 *
+	 * @param Canvas canvas - The Canvas to draw to.
+	 * @param int score - The player's score.
+	 * @param int highScore - The player's high score.
+	 * @param float x - The X coordinate of the start of the text.
+	 * @param float y - The Y coordinate of the text baseline.
+	 */
+	public void draw(Canvas canvas, int score, int highScore, float x, float y)
+	{
+		update(score, highScore);
+
+		// The text is rendered inset by the glyph padding.
+		canvas.drawBitmap(mBitmap, (x - GlyphAtlas.GLYPH_PADDING),
+				(y - mAtlas.getAscent()), null);
+	}
+
+	/**
+	 * Renders the score text into the HUD bitmap if the score or high score
+	 * has changed.
+	 *
+	 * @param int score - The player's score.
+	 * @param int highScore - The player's high score.
+	 * @return boolean - True if the HUD bitmap was rendered.
+	 */
+	public boolean update(int score, int highScore)
+	{
+		if (mRendered && (score == mScore) && (highScore == mHighScore))
+		{
+			return false;
+		}
+
+		render(score, highScore);
+
+		return true;
+	}
+
+	/**
+	 * Renders the score text into the HUD bitmap.
+	 *
+	 * @param int score - The player's score.
+	 * @param int highScore - The player's high score.
+	 */
+	private void render(int score, int highScore)
+	{
+		int length = TextUtil.formatScore(mText, score, highScore);
+
+		mBitmap.eraseColor(Color.TRANSPARENT);
+		mAtlas.drawText(mCanvas, mText, 0, length, GlyphAtlas.GLYPH_PADDING,
+				mAtlas.getAscent());
+
+		mScore = score;
+		mHighScore = highScore;
+		mRendered = true;
+
+		mRenderCount++;
+	}
+
+	/**
+	 * Frees the HUD and atlas bitmaps. The HUD cannot be drawn afterwards.
+	 */
+	public void recycle()
+	{
+		mBitmap.recycle();
+		mAtlas.recycle();
+	}
+
+	/**
+	 * Gets the X coordinate of the left edge of the HUD, when drawn at a
+	 * given X coordinate.
+	 *
+	 * @param float x - The X coordinate the text is drawn at.
+	 * @return int
+	 */
+	public int getLeft(float x)
+	{
+		return ((int) x - GlyphAtlas.GLYPH_PADDING);
+	}
+
+	/**
+	 * Gets the Y coordinate of the top edge of the HUD, when drawn at a
+	 * given baseline.
+	 *
+	 * @param float y - The Y coordinate of the text baseline.
+	 * @return int
+	 */
+	public int getTop(float y)
+	{
+		return ((int) y - mAtlas.getAscent());
+	}
+
+	/**
+	 * Gets the HUD bitmap, holding the text last rendered by update().
+	 *
+	 * @return Bitmap
+	 */
+	public Bitmap getBitmap()
+	{
+		return mBitmap;
+	}
+
+	public int getWidth()
+	{
+		return mBitmap.getWidth();
+	}
+
+	public int getHeight()
+	{
+		return mBitmap.getHeight();
+	}
+
+	public int getRenderCount()
+	{
+		return mRenderCount;
+	}
+}
@@ -0,0 +1,209 @@
+package org.ruscoe.sheep.graphics;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Every sprite packed into a single bitmap at load time.
+ *
+ * Sprites are drawn as regions of the atlas bitmap, so every sprite drawn
+ * comes from the same bitmap and texture, and only one bitmap is held.
+ *
+ * Sprites which are drawn facing either way can also be packed mirrored
+ * horizontally, so they are drawn mirrored without transforming the Canvas.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class SpriteAtlas
+{
+	// The default transparent pixels kept around each sprite, so filtered
+	// or mirrored draws do not sample neighbouring sprites.
+	public static final int DEFAULT_PADDING = 1;
+
+	// The bitmap holding every sprite.
+	private Bitmap mBitmap;
+
+	// The region of each sprite, indexed by sprite ID.
+	private Rect[] mRegions;
+	// The region of the mirrored variant of each sprite, indexed by
+	// sprite ID. Null for sprites not mirrored.
+	private Rect[] mMirroredRegions;
+
+	// Reused when drawing, so drawing does not allocate.
+	private RectF mDestination = new RectF();
+
+	/**
+	 * Packs a set of sprite bitmaps into an atlas. The sprite bitmaps are
+	 * not recycled.
+	 *
+	 * @param Bitmap[] sprites - The bitmap of each sprite, indexed by
+	 * 	sprite ID.
+	 * @param int[] mirroredSprites - The IDs of the sprites to also pack
+	 * 	mirrored horizontally.
+	 * @param int padding - The transparent pixels kept around each sprite.
+	 */
+	public SpriteAtlas(Bitmap[] sprites, int[] mirroredSprites, int padding)
+	{
+		int count = sprites.length;
+		int mirroredCount = mirroredSprites.length;
+
+		// Each mirrored variant is packed after every sprite.
+		int[] widths = new int[count + mirroredCount];
+		int[] heights = new int[count + mirroredCount];
+
+		int i;
+		for (i = 0; i <= (count - 1); i++)
+		{
+			widths[i] = sprites[i].getWidth();
+			heights[i] = sprites[i].getHeight();
+		}
+
+		for (i = 0; i <= (mirroredCount - 1); i++)
+		{
+			widths[count + i] = widths[mirroredSprites[i]];
+			heights[count + i] = heights[mirroredSprites[i]];
+		}
+
+		AtlasLayout layout = new AtlasLayout(widths, heights, padding);
+
+		mBitmap = Bitmap.createBitmap(layout.getWidth(), layout.getHeight(),
+				Bitmap.Config.ARGB_8888);
+
+		Canvas canvas = new Canvas(mBitmap);
+
+		mRegions = new Rect[count];
+		mMirroredRegions = new Rect[count];
+
+		int x;
+		int y;
+
+		for (i = 0; i <= (count - 1); i++)
+		{
+			x = layout.getX(i);
+			y = layout.getY(i);
+
+			mRegions[i] = new Rect(x, y, (x + widths[i]), (y + heights[i]));
+
+			canvas.drawBitmap(sprites[i], x, y, null);
+		}
+
+		int sprite;
+
+		for (i = 0; i <= (mirroredCount - 1); i++)
+		{
+			sprite = mirroredSprites[i];
+
+			x = layout.getX(count + i);
+			y = layout.getY(count + i);
+
+			mMirroredRegions[sprite] = new Rect(x, y, (x + widths[sprite]),
+					(y + heights[sprite]));
+
+			// Mirror around the center of the region, so the mirrored
+			// variant fills the region.
+			canvas.save();
+			canvas.scale(-1, 1, (x + (widths[sprite] / 2f)), y);
+			canvas.drawBitmap(sprites[sprite], x, y, null);
+			canvas.restore();
+		}
+	}
+
+	/**
+	 * Draws a sprite.
+	 *
+	 * @param Canvas canvas - The Canvas to draw to.
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param float x - The X coordinate of the sprite.
+	 * @param float y - The Y coordinate of the sprite.
+	 * @param Paint paint - The paint to draw with. May be null.
+	 */
+	public void draw(Canvas canvas, int sprite, float x, float y, Paint paint)
+	{
+		drawRegion(canvas, mRegions[sprite], x, y, paint);
+	}
+
+	/**
+	 * Draws a sprite mirrored horizontally. The sprite must have been
+	 * packed mirrored.
+	 *
+	 * @param Canvas canvas - The Canvas to draw to.
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param float x - The X coordinate of the sprite.
+	 * @param float y - The Y coordinate of the sprite.
+	 * @param Paint paint - The paint to draw with. May be null.
+	 */
+	public void drawMirrored(Canvas canvas, int sprite, float x, float y,
+			Paint paint)
+	{
+		drawRegion(canvas, mMirroredRegions[sprite], x, y, paint);
+	}
+
+	/**
+	 * Draws a region of the atlas bitmap at its original size.
+	 *
+	 * @param Canvas canvas - The Canvas to draw to.
+	 * @param Rect region - The region to draw.
+	 * @param float x - The X coordinate to draw at.
+	 * @param float y - The Y coordinate to draw at.
+	 * @param Paint paint - The paint to draw with. May be null.
+	 */
+	private void drawRegion(Canvas canvas, Rect region, float x, float y,
+			Paint paint)
+	{
+		mDestination.set(x, y, (x + (region.right - region.left)),
+				(y + (region.bottom - region.top)));
+
+		canvas.drawBitmap(mBitmap, region, mDestination, paint);
+	}
+
+	/**
+	 * Gets the region of the atlas bitmap holding a sprite.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @return Rect - The region. Must not be modified.
+	 */
+	public Rect getRegion(int sprite)
+	{
+		return mRegions[sprite];
+	}
+
+	/**
+	 * Gets the region of the atlas bitmap holding the mirrored variant of
+	 * a sprite.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @return Rect - The region, or null if the sprite was not packed
+	 * 	mirrored. Must not be modified.
+	 */
+	public Rect getMirroredRegion(int sprite)
+	{
+		return mMirroredRegions[sprite];
+	}
+
+	public int getWidth(int sprite)
+	{
+		return (mRegions[sprite].right - mRegions[sprite].left);
+	}
+
+	public int getHeight(int sprite)
+	{
+		return (mRegions[sprite].bottom - mRegions[sprite].top);
+	}
+
+	public Bitmap getBitmap()
+	{
+		return mBitmap;
+	}
+
+	/**
+	 * Frees the atlas bitmap. Sprites cannot be drawn afterwards.
+	 */
+	public void recycle()
+	{
+		mBitmap.recycle();
+	}
+}
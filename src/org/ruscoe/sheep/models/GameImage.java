@@ -1,11 +1,14 @@
 package org.ruscoe.sheep.models;
 
-import android.graphics.Bitmap;
+import org.ruscoe.sheep.constants.Sprites;
 
 /**
  * An image used by game items.
  * May be a static image or an animation.
  * 
+ * Images refer to sprites by ID (defined in Sprites) rather than holding
+ * Bitmap instances, so they can be updated without the Android framework.
+ * 
  * @author Dan Ruscoe (ruscoe.org)
  * @version 1.0
  */
@@ -14,8 +17,8 @@ public class GameImage
 	// The default length of an animation frame in milliseconds.
 	public static final int DEFAULT_ANIMATION_FRAME_LENGTH = 200;
 	
-	// The Bitmap instance of the image.
-	protected Bitmap mBitmap = null;
+	// The sprite ID of the image.
+	protected int mSprite = Sprites.NONE;
 	// The image width.
 	protected int mWidth = 0;
 	// The image height.
@@ -26,8 +29,8 @@ public class GameImage
 	
 	// Animation properties.
 	
-	// An array of animation frame Bitmap instances.
-	private Bitmap[] mAnimationFrames;
+	// An array of animation frame sprite IDs.
+	private int[] mAnimationFrames;
 	// The length of each animation frame in milliseconds.
 	private int mAnimationFrameLength = DEFAULT_ANIMATION_FRAME_LENGTH;
 	// The animation running status. True when running.
@@ -45,6 +48,11 @@ public class GameImage
 	{
 	}
 	
+	public GameImage(int sprite, int width, int height)
+	{
+		setSprite(sprite, width, height);
+	}
+	
 	public void updateAnimation(long currentTime)
 	{
 		if (!mAnimationRunning)
@@ -102,9 +110,10 @@ public class GameImage
 		mLastAnimationFrame = frame;
 		mLastAnimationTime = currentTime;
 		
-		if (mAnimationFrames[frame] != null)
+		// Animation frames share the dimensions of the first frame.
+		if (mAnimationFrames[frame] != Sprites.NONE)
 		{
-			setBitmap(mAnimationFrames[frame]);
+			mSprite = mAnimationFrames[frame];
 		}
 	}
 	
@@ -129,19 +138,19 @@ public class GameImage
 		return false;
 	}
 	
-	public void setBitmap(Bitmap bitmap)
+	public void setSprite(int sprite, int width, int height)
 	{
-		if (bitmap != null)
+		if (sprite != Sprites.NONE)
 		{
-			this.mBitmap = bitmap;
-			this.mWidth = bitmap.getWidth();
-			this.mHeight = bitmap.getHeight();
+			this.mSprite = sprite;
+			this.mWidth = width;
+			this.mHeight = height;
 		}
 	}
 	
-	public Bitmap getBitmap()
+	public int getSprite()
 	{
-		return mBitmap;
+		return mSprite;
 	}
 		
 	public int getWidth()
@@ -164,12 +173,12 @@ public class GameImage
 		this.mVisible = visible;
 	}
 	
-	public Bitmap[] getAnimationFrames()
+	public int[] getAnimationFrames()
 	{
 		return mAnimationFrames;
 	}
 	
-	public void setAnimationFrames(Bitmap[] animationFrames)
+	public void setAnimationFrames(int[] animationFrames)
 	{
 		this.mAnimationFrames = animationFrames;
 	}
@@ -1,7 +1,6 @@
 package org.ruscoe.sheep.models;
 
-import android.graphics.Bitmap;
-import android.graphics.Rect;
+import org.ruscoe.sheep.constants.Sprites;
 
 /**
  * An item used in the game.
@@ -17,6 +16,11 @@ public class GameItem
 	// The Y coordinate of the item.
 	protected int mY;
 	
+	// The X / Y coordinates of the item before the last update.
+	// Used to interpolate drawing between updates.
+	protected int mPreviousX;
+	protected int mPreviousY;
+	
 	// Determines whether the item is visible or not.
 	protected boolean mVisible = true;
 	
@@ -26,15 +30,11 @@ public class GameItem
 	// The GameImage instance used to display an icon over the item.
 	protected GameImage mIcon;
 	
-	// The Rect instance used in collision detection.
-	Rect mRect = null;
-	
-	public GameItem(Bitmap bitmap)
+	public GameItem(int sprite, int width, int height)
 	{
-		if (bitmap != null)
+		if (sprite != Sprites.NONE)
 		{
-			this.mImage = new GameImage();
-			this.mImage.setBitmap(bitmap);
+			this.mImage = new GameImage(sprite, width, height);
 		}
 		else
 		{
@@ -42,12 +42,20 @@ public class GameItem
 		}
 	}
 	
-	public void setIcon(Bitmap bitmap)
+	public void setIcon(int sprite, int width, int height)
 	{
-		if (bitmap != null)
+		if (sprite != Sprites.NONE)
 		{
-			this.mIcon = new GameImage();
-			this.mIcon.setBitmap(bitmap);
+			// Reuse the existing icon image, so icons can be shown and
+			// cleared every update without allocating.
+			if (this.mIcon != null)
+			{
+				this.mIcon.setSprite(sprite, width, height);
+			}
+			else
+			{
+				this.mIcon = new GameImage(sprite, width, height);
+			}
 		}
 		else
 		{
@@ -58,7 +66,12 @@ public class GameItem
 	/**
 	 * Determines if a rectangle of a given width and height at a given
 	 * X / Y coordinate collides with this item.
-	 * 
+	 *
+	 * Tests this item alone. Collisions with the sheep or bounce pads of a
+	 * GameWorld are found with its SpatialGrid queries, such as
+	 * GameWorld.findSheepColliding() and isBouncePadCollision(), which use
+	 * the same test.
+	 *
 	 * @param int x - The X coordinate of the item to test.
 	 * @param int y - The Y coordinate of the item to test.
 	 * @param int width - The width of the item to test.
@@ -67,8 +80,24 @@ public class GameItem
 	 */
 	public boolean isCollision(int x, int y, int width, int height)
 	{
-		mRect = new Rect(x, y, (x + width), (y + height));
-		return (mRect.intersects(this.mX, this.mY, (this.mX + this.getImage().getWidth()), (this.mY + this.getImage().getHeight())));
+		return intersects(x, y, width, height, this.mX, this.mY,
+				this.getImage().getWidth(), this.getImage().getHeight());
+	}
+	
+	/**
+	 * Determines if two rectangles overlap. The collision test used for
+	 * every item, including queries on a SpatialGrid.
+	 * 
+	 * Same test as android.graphics.Rect.intersects(); edges that only
+	 * touch do not collide.
+	 * 
+	 * @return boolean - True if the rectangles overlap.
+	 */
+	public static boolean intersects(int x1, int y1, int width1, int height1,
+			int x2, int y2, int width2, int height2)
+	{
+		return (x1 < (x2 + width2)) && (x2 < (x1 + width1))
+				&& (y1 < (y2 + height2)) && (y2 < (y1 + height1));
 	}
 	
 	/**
@@ -91,6 +120,25 @@ public class GameItem
 		return false;
 	}
 	
+	/**
+	 * Stores the current position as the position before the next update.
+	 */
+	public void savePosition()
+	{
+		mPreviousX = mX;
+		mPreviousY = mY;
+	}
+	
+	public int getPreviousX()
+	{
+		return mPreviousX;
+	}
+	
+	public int getPreviousY()
+	{
+		return mPreviousY;
+	}
+	
 	public int getX()
 	{
 		return mX;
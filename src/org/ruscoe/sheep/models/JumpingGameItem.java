@@ -1,7 +1,5 @@
 package org.ruscoe.sheep.models;
 
-import android.graphics.Bitmap;
-
 /**
  * A game item capable of moving horizontally and vertically and speeds
  * calculated from energy values.
@@ -53,12 +51,15 @@ public class JumpingGameItem extends GameItem
 	private boolean mActive = true;
 	
 	/**
-	 * Instantiates a new JumpingGameItem with an exiting Bitmap.
-	 * @param bitmap
+	 * Instantiates a new JumpingGameItem with an existing sprite.
+	 * 
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param int width - The sprite width.
+	 * @param int height - The sprite height.
 	 */
-	public JumpingGameItem(Bitmap bitmap)
+	public JumpingGameItem(int sprite, int width, int height)
 	{
-		super(bitmap);
+		super(sprite, width, height);
 	}
 	
 	/**
@@ -84,18 +85,7 @@ public class JumpingGameItem extends GameItem
 	 */
 	public int getVerticalSpeed()
 	{
-		int speed = (int) (SPEED_PER_ENERGY_UNIT * mVerticalEnergy);
-		
-		if (speed > mMaxVerticalSpeed)
-		{
-			speed = mMaxVerticalSpeed;
-		}
-		else if (speed < mMinVerticalSpeed)
-		{
-			speed = mMinVerticalSpeed;
-		}
-		
-		return speed;
+		return getSpeed(mVerticalEnergy, mMinVerticalSpeed, mMaxVerticalSpeed);
 	}
 	
 	/**
@@ -106,25 +96,42 @@ public class JumpingGameItem extends GameItem
 	 */
 	public int getHorizontalSpeed()
 	{
-		int speed = (int) (SPEED_PER_ENERGY_UNIT * mHorizontalEnergy);
+		int speed = getSpeed(mHorizontalEnergy, mMinHorizontalSpeed, mMaxHorizontalSpeed);
 		
-		if (speed > mMaxHorizontalSpeed)
+		if (mDirection == DIRECTION_LEFT)
 		{
-			speed = mMaxHorizontalSpeed;
+			return -speed;
 		}
-		else if (speed < mMinHorizontalSpeed)
+		else
 		{
-			speed = mMinHorizontalSpeed;
+			return speed;
 		}
+	}
+	
+	/**
+	 * Calculates a speed from an energy value, capped within given
+	 * boundaries. Shared with EntityStore, which stores jumping items
+	 * as arrays of values rather than JumpingGameItem instances.
+	 * 
+	 * @param int energy - The energy value.
+	 * @param int minSpeed - The minimum speed. May be negative.
+	 * @param int maxSpeed - The maximum speed.
+	 * @return int - The speed.
+	 */
+	public static int getSpeed(int energy, int minSpeed, int maxSpeed)
+	{
+		int speed = (int) (SPEED_PER_ENERGY_UNIT * energy);
 		
-		if (mDirection == DIRECTION_LEFT)
+		if (speed > maxSpeed)
 		{
-			return -speed;
+			speed = maxSpeed;
 		}
-		else
+		else if (speed < minSpeed)
 		{
-			return speed;
+			speed = minSpeed;
 		}
+		
+		return speed;
 	}
 	
 	/**
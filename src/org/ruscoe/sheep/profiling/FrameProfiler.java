@@ -0,0 +1,211 @@
+package org.ruscoe.sheep.profiling;
+
+/**
+ * Records how long each phase of a frame takes.
+ *
+ * Each phase has its own TimingHistogram. Phases are timed by passing the
+ * start time of the phase to mark(), which records the duration and returns
+ * the current time as the start of the next phase, so consecutive phases
+ * cost a single System.nanoTime() call each.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class FrameProfiler
+{
+	// Frame phase constants.
+	public static final int PHASE_FRAME = 0;
+	public static final int PHASE_LOCK_CANVAS = 1;
+	public static final int PHASE_UPDATE = 2;
+	public static final int PHASE_UPDATE_SHEEP = 3;
+	public static final int PHASE_UPDATE_DEBRIS = 4;
+	public static final int PHASE_UPDATE_BOUNCE_PAD = 5;
+	public static final int PHASE_DRAW = 6;
+	public static final int PHASE_DRAW_BACKGROUND = 7;
+	public static final int PHASE_DRAW_SHEEP = 8;
+	public static final int PHASE_DRAW_DEBRIS = 9;
+	public static final int PHASE_DRAW_BOUNCE_PAD = 10;
+	public static final int PHASE_DRAW_UI = 11;
+	public static final int PHASE_UNLOCK_CANVAS_AND_POST = 12;
+	public static final int PHASE_SLEEP_OVERSHOOT = 13;
+	// Time the simulation thread of the pipelined loop wakes late.
+	public static final int PHASE_SIMULATION_SLEEP_OVERSHOOT = 14;
+
+	public static final int PHASE_COUNT = 15;
+
+	// Phase names, indexed by phase.
+	private static final String[] PHASE_NAMES = {
+			"frame",
+			"lockCanvas",
+			"update",
+			"updateSheep",
+			"updateDebris",
+			"updateBouncePad",
+			"draw",
+			"drawBackground",
+			"drawSheep",
+			"drawDebris",
+			"drawBouncePad",
+			"drawUi",
+			"unlockCanvasAndPost",
+			"sleepOvershoot",
+			"simulationSleepOvershoot" };
+
+	private static final double NANOS_PER_MILLI = 1000000.0;
+
+	// The histogram of each phase, indexed by phase.
+	private final TimingHistogram[] mHistograms = new TimingHistogram[PHASE_COUNT];
+
+	// True while phases should be timed.
+	private volatile boolean mEnabled = true;
+
+	public FrameProfiler()
+	{
+		int i;
+		for (i = 0; i <= (PHASE_COUNT - 1); i++)
+		{
+			mHistograms[i] = new TimingHistogram();
+		}
+	}
+
+	/**
+	 * Gets the start time of a phase.
+	 *
+	 * @return long - The current time in nanoseconds, or 0 when disabled.
+	 */
+	public long start()
+	{
+		return mEnabled ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Records the duration of a phase which started at a given time.
+	 *
+	 * @param int phase - The phase. Defined as PHASE_* constants.
+	 * @param long start - The phase start time, from start() or mark().
+	 * @return long - The current time, to be used as the start of the
+	 * 	next phase, or 0 when disabled.
+	 */
+	public long mark(int phase, long start)
+	{
+		if (!mEnabled)
+		{
+			return 0;
+		}
+
+		long now = System.nanoTime();
+
+		// A start time of 0 was taken while disabled.
+		if (start != 0)
+		{
+			mHistograms[phase].record(now - start);
+		}
+
+		return now;
+	}
+
+	/**
+	 * Records a duration directly.
+	 *
+	 * @param int phase - The phase. Defined as PHASE_* constants.
+	 * @param long nanos - The duration in nanoseconds.
+	 */
+	public void record(int phase, long nanos)
+	{
+		if (mEnabled)
+		{
+			mHistograms[phase].record(nanos);
+		}
+	}
+
+	/**
+	 * Discards all recorded timings. Called at the start of each game
+	 * session.
+	 */
+	public void reset()
+	{
+		int i;
+		for (i = 0; i <= (PHASE_COUNT - 1); i++)
+		{
+			mHistograms[i].reset();
+		}
+	}
+
+	/**
+	 * Gets the histogram of a phase.
+	 *
+	 * @param int phase - The phase. Defined as PHASE_* constants.
+	 * @return TimingHistogram
+	 */
+	public TimingHistogram getHistogram(int phase)
+	{
+		return mHistograms[phase];
+	}
+
+	/**
+	 * Gets the name of a phase.
+	 *
+	 * @param int phase - The phase. Defined as PHASE_* constants.
+	 * @return String
+	 */
+	public static String getPhaseName(int phase)
+	{
+		return PHASE_NAMES[phase];
+	}
+
+	/**
+	 * Builds a summary of every phase with recorded timings, one line
+	 * per phase, giving the count and the p50, p95, p99 and max durations
+	 * in milliseconds.
+	 *
+	 * @return String
+	 */
+	public String getSummary()
+	{
+		StringBuilder summary = new StringBuilder();
+
+		TimingHistogram histogram;
+
+		int i;
+		for (i = 0; i <= (PHASE_COUNT - 1); i++)
+		{
+			histogram = mHistograms[i];
+
+			if (histogram.getCount() == 0)
+			{
+				continue;
+			}
+
+			summary.append(PHASE_NAMES[i])
+					.append(": n=").append(histogram.getCount())
+					.append(" p50=").append(toMillis(histogram.getPercentile(0.50)))
+					.append(" p95=").append(toMillis(histogram.getPercentile(0.95)))
+					.append(" p99=").append(toMillis(histogram.getPercentile(0.99)))
+					.append(" max=").append(toMillis(histogram.getMax()))
+					.append('\n');
+		}
+
+		return summary.toString();
+	}
+
+	/**
+	 * Converts nanoseconds to milliseconds, rounded to 3 decimal places.
+	 *
+	 * @param long nanos - The duration in nanoseconds.
+	 * @return double
+	 */
+	private static double toMillis(long nanos)
+	{
+		return (Math.round(nanos / NANOS_PER_MILLI * 1000) / 1000.0);
+	}
+
+	public boolean isEnabled()
+	{
+		return mEnabled;
+	}
+
+	public void setEnabled(boolean enabled)
+	{
+		this.mEnabled = enabled;
+	}
+}
@@ -0,0 +1,204 @@
+package org.ruscoe.sheep.profiling;
+
+/**
+ * A histogram of durations in nanoseconds.
+ *
+ * Durations are counted in log-linear buckets: each power of two is split
+ * into 16 buckets, so recorded values are accurate to about 6% from 16ns up
+ * to several minutes. Recording is a few arithmetic operations and an array
+ * increment, and never allocates.
+ *
+ * A histogram is written by a single thread. It may be read from another
+ * thread, in which case results reflect a recent, not necessarily exact,
+ * state.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class TimingHistogram
+{
+	// The number of buckets each power of two is split into, as a power of two.
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKET_COUNT = (1 << SUB_BUCKET_BITS);
+
+	// The largest power of two counted. Larger values are counted in the
+	// last bucket.
+	private static final int MAX_MAGNITUDE = 40;
+
+	private static final int BUCKET_COUNT = ((MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT);
+
+	// The number of values recorded in each bucket.
+	private final long[] mCounts = new long[BUCKET_COUNT];
+
+	// The number of values recorded.
+	private long mCount = 0;
+	// The sum of all values recorded, in nanoseconds.
+	private long mTotal = 0;
+	// The largest value recorded, in nanoseconds.
+	private long mMax = 0;
+
+	// Set by reset() and applied by the recording thread on its next record,
+	// so a reset from another thread does not race with recording.
+	private volatile boolean mResetRequested = false;
+
+	/**
+	 * Records a duration.
+	 *
+	 * @param long nanos - The duration in nanoseconds. Negative values are
+	 * 	recorded as 0.
+	 */
+	public void record(long nanos)
+	{
+		if (mResetRequested)
+		{
+			clear();
+			mResetRequested = false;
+		}
+
+		if (nanos < 0)
+		{
+			nanos = 0;
+		}
+
+		mCounts[getBucket(nanos)]++;
+		mCount++;
+		mTotal += nanos;
+
+		if (nanos > mMax)
+		{
+			mMax = nanos;
+		}
+	}
+
+	/**
+	 * Requests that all recorded values are discarded. Takes effect
+	 * immediately for reads and before the next value is recorded.
+	 */
+	public void reset()
+	{
+		mResetRequested = true;
+	}
+
+	/**
+	 * Gets the duration below which a given fraction of recorded values fall.
+	 *
+	 * @param double fraction - The fraction, e.g. 0.95 for the 95th percentile.
+	 * @return long - The duration in nanoseconds, or 0 if nothing is recorded.
+	 */
+	public long getPercentile(double fraction)
+	{
+		if (mResetRequested || (mCount == 0))
+		{
+			return 0;
+		}
+
+		long target = (long) Math.ceil(fraction * mCount);
+		if (target < 1)
+		{
+			target = 1;
+		}
+
+		long seen = 0;
+
+		int i;
+		for (i = 0; i <= (BUCKET_COUNT - 1); i++)
+		{
+			seen += mCounts[i];
+
+			if (seen >= target)
+			{
+				// Report the top of the bucket, but never more than the
+				// largest value actually recorded.
+				return Math.min(getBucketUpperBound(i), mMax);
+			}
+		}
+
+		return mMax;
+	}
+
+	public long getCount()
+	{
+		return mResetRequested ? 0 : mCount;
+	}
+
+	public long getMax()
+	{
+		return mResetRequested ? 0 : mMax;
+	}
+
+	/**
+	 * Gets the mean of all recorded values.
+	 *
+	 * @return long - The mean in nanoseconds, or 0 if nothing is recorded.
+	 */
+	public long getMean()
+	{
+		if (mResetRequested || (mCount == 0))
+		{
+			return 0;
+		}
+
+		return (mTotal / mCount);
+	}
+
+	/**
+	 * Discards all recorded values.
+	 */
+	private void clear()
+	{
+		int i;
+		for (i = 0; i <= (BUCKET_COUNT - 1); i++)
+		{
+			mCounts[i] = 0;
+		}
+
+		mCount = 0;
+		mTotal = 0;
+		mMax = 0;
+	}
+
+	/**
+	 * Gets the index of the bucket a value is counted in.
+	 *
+	 * @param long value - The value, 0 or greater.
+	 * @return int
+	 */
+	private static int getBucket(long value)
+	{
+		if (value < SUB_BUCKET_COUNT)
+		{
+			return (int) value;
+		}
+
+		int magnitude = (63 - Long.numberOfLeadingZeros(value));
+
+		if (magnitude > MAX_MAGNITUDE)
+		{
+			return (BUCKET_COUNT - 1);
+		}
+
+		int shift = (magnitude - SUB_BUCKET_BITS);
+		int subBucket = (int) ((value >> shift) - SUB_BUCKET_COUNT);
+
+		return (((shift + 1) * SUB_BUCKET_COUNT) + subBucket);
+	}
+
+	/**
+	 * Gets the largest value counted in a bucket.
+	 *
+	 * @param int bucket - The bucket index.
+	 * @return long
+	 */
+	private static long getBucketUpperBound(int bucket)
+	{
+		if (bucket < SUB_BUCKET_COUNT)
+		{
+			return bucket;
+		}
+
+		int shift = ((bucket / SUB_BUCKET_COUNT) - 1);
+		long subBucket = (bucket % SUB_BUCKET_COUNT);
+
+		return (((SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1);
+	}
+}
@@ -0,0 +1,222 @@
+package org.ruscoe.sheep.render;
+
+/**
+ * A Renderer which records the draw commands of a frame into a single
+ * primitive buffer, to count draw calls or replay the frame into another
+ * Renderer.
+ *
+ * Each command is stored as an opcode followed by its arguments, with float
+ * arguments stored as their int bits. The buffer is cleared by beginFrame()
+ * and only reallocated when a frame holds more commands than any before it,
+ * so recording does not allocate once warmed up.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class RecordingRenderer implements Renderer
+{
+	// Command opcode constants.
+	public static final int COMMAND_BACKGROUND = 0;
+	// Followed by the sprite ID, X and Y coordinates and mirrored flag.
+	public static final int COMMAND_SPRITE = 1;
+	// Followed by the score, high score and X and Y coordinates.
+	public static final int COMMAND_SCORE = 2;
+
+	// The number of command opcodes.
+	public static final int COMMAND_COUNT = 3;
+
+	// The initial size of the command buffer, in ints.
+	private static final int INITIAL_CAPACITY = 1024;
+
+	// The recorded commands.
+	private int[] mBuffer = new int[INITIAL_CAPACITY];
+	// The number of ints recorded.
+	private int mLength = 0;
+
+	// The number of commands recorded of each opcode.
+	private int[] mCommandCounts = new int[COMMAND_COUNT];
+
+	// The number of frames recorded, including the current frame.
+	private long mFrameCount = 0;
+
+	public void beginFrame()
+	{
+		mLength = 0;
+
+		int i;
+		for (i = 0; i <= (COMMAND_COUNT - 1); i++)
+		{
+			mCommandCounts[i] = 0;
+		}
+
+		mFrameCount++;
+	}
+
+	public void drawBackground()
+	{
+		ensureCapacity(1);
+
+		mBuffer[mLength++] = COMMAND_BACKGROUND;
+
+		mCommandCounts[COMMAND_BACKGROUND]++;
+	}
+
+	public void drawSprite(int sprite, float x, float y, boolean mirrored)
+	{
+		ensureCapacity(5);
+
+		int[] buffer = mBuffer;
+		int length = mLength;
+
+		buffer[length] = COMMAND_SPRITE;
+		buffer[length + 1] = sprite;
+		buffer[length + 2] = Float.floatToRawIntBits(x);
+		buffer[length + 3] = Float.floatToRawIntBits(y);
+		buffer[length + 4] = mirrored ? 1 : 0;
+
+		mLength = (length + 5);
+
+		mCommandCounts[COMMAND_SPRITE]++;
+	}
+
+	public void drawScore(int score, int highScore, float x, float y)
+	{
+		ensureCapacity(5);
+
+		int[] buffer = mBuffer;
+		int length = mLength;
+
+		buffer[length] = COMMAND_SCORE;
+		buffer[length + 1] = score;
+		buffer[length + 2] = highScore;
+		buffer[length + 3] = Float.floatToRawIntBits(x);
+		buffer[length + 4] = Float.floatToRawIntBits(y);
+
+		mLength = (length + 5);
+
+		mCommandCounts[COMMAND_SCORE]++;
+	}
+
+	public void endFrame()
+	{
+	}
+
+	/**
+	 * Issues the recorded commands of the frame to another Renderer,
+	 * including beginFrame() and endFrame().
+	 *
+	 * @param Renderer renderer - The Renderer to replay the frame into.
+	 */
+	public void replay(Renderer renderer)
+	{
+		int[] buffer = mBuffer;
+		int position = 0;
+
+		renderer.beginFrame();
+
+		while (position < mLength)
+		{
+			switch (buffer[position])
+			{
+				case COMMAND_BACKGROUND:
+					renderer.drawBackground();
+					position += 1;
+					break;
+				case COMMAND_SPRITE:
+					renderer.drawSprite(buffer[position + 1],
+							Float.intBitsToFloat(buffer[position + 2]),
+							Float.intBitsToFloat(buffer[position + 3]),
+							(buffer[position + 4] != 0));
+					position += 5;
+					break;
+				default:
+					renderer.drawScore(buffer[position + 1],
+							buffer[position + 2],
+							Float.intBitsToFloat(buffer[position + 3]),
+							Float.intBitsToFloat(buffer[position + 4]));
+					position += 5;
+					break;
+			}
+		}
+
+		renderer.endFrame();
+	}
+
+	/**
+	 * Grows the buffer, if needed, to hold a number more ints.
+	 *
+	 * @param int count - The number of ints to be recorded.
+	 */
+	private void ensureCapacity(int count)
+	{
+		if ((mLength + count) <= mBuffer.length)
+		{
+			return;
+		}
+
+		int[] buffer = new int[Math.max((mLength + count), (mBuffer.length * 2))];
+		System.arraycopy(mBuffer, 0, buffer, 0, mLength);
+
+		mBuffer = buffer;
+	}
+
+	/**
+	 * Builds a summary of the recorded frame.
+	 *
+	 * @return String
+	 */
+	public String getSummary()
+	{
+		return "drawCalls=" + getDrawCallCount() + " sprites="
+				+ mCommandCounts[COMMAND_SPRITE] + " bytes=" + (mLength * 4);
+	}
+
+	/**
+	 * Gets the number of draw commands recorded in the frame.
+	 *
+	 * @return int
+	 */
+	public int getDrawCallCount()
+	{
+		int count = 0;
+
+		int i;
+		for (i = 0; i <= (COMMAND_COUNT - 1); i++)
+		{
+			count += mCommandCounts[i];
+		}
+
+		return count;
+	}
+
+	/**
+	 * Gets the number of commands of an opcode recorded in the frame.
+	 *
+	 * @param int command - The opcode. Defined as COMMAND_* constants.
+	 * @return int
+	 */
+	public int getCommandCount(int command)
+	{
+		return mCommandCounts[command];
+	}
+
+	/**
+	 * Gets the recorded commands. Only the first getLength() ints are valid.
+	 *
+	 * @return int[]
+	 */
+	public int[] getBuffer()
+	{
+		return mBuffer;
+	}
+
+	public int getLength()
+	{
+		return mLength;
+	}
+
+	public long getFrameCount()
+	{
+		return mFrameCount;
+	}
+}
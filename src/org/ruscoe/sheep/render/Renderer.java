@@ -0,0 +1,52 @@
+package org.ruscoe.sheep.render;
+
+/**
+ * A backend which draws a frame of the game from a small set of commands.
+ *
+ * WorldDrawer issues the commands for each frame in drawing order, so a
+ * Renderer only needs to know how to draw each one: the background, a
+ * sprite and the score text. Renderers have no knowledge of the game world.
+ *
+ * Has no dependency on the Android framework, so frames can be recorded
+ * and replayed on a plain JVM.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public interface Renderer
+{
+	/**
+	 * Starts a frame. Called before any other command for the frame.
+	 */
+	public void beginFrame();
+
+	/**
+	 * Draws the background, covering the whole frame.
+	 */
+	public void drawBackground();
+
+	/**
+	 * Draws a sprite at its original size.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param float x - The X coordinate of the sprite.
+	 * @param float y - The Y coordinate of the sprite.
+	 * @param boolean mirrored - True to draw the sprite mirrored horizontally.
+	 */
+	public void drawSprite(int sprite, float x, float y, boolean mirrored);
+
+	/**
+	 * Draws the player's score text, as "score / highScore".
+	 *
+	 * @param int score - The player's score.
+	 * @param int highScore - The player's high score.
+	 * @param float x - The X coordinate of the start of the text.
+	 * @param float y - The Y coordinate of the text baseline.
+	 */
+	public void drawScore(int score, int highScore, float x, float y);
+
+	/**
+	 * Ends a frame. Called after every other command for the frame.
+	 */
+	public void endFrame();
+}
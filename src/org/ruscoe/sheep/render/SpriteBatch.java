@@ -0,0 +1,262 @@
+package org.ruscoe.sheep.render;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Builds the vertices for a batch of textured quads drawn from a single
+ * texture, so the whole batch is drawn with one indexed draw call.
+ *
+ * Each quad has four interleaved vertices of X, Y, U, V, in the order top
+ * left, top right, bottom right, bottom left. Positions are in pixels and
+ * texture coordinates are from 0 to 1. Mirrored quads swap their U
+ * coordinates, so flipping needs no separate vertex attribute.
+ *
+ * The vertex and index buffers are direct buffers in native byte order,
+ * ready to be passed to OpenGL. Has no dependency on the Android framework.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class SpriteBatch
+{
+	// The values per vertex: X, Y, U, V.
+	public static final int FLOATS_PER_VERTEX = 4;
+	public static final int VERTICES_PER_SPRITE = 4;
+	// Two triangles per quad.
+	public static final int INDICES_PER_SPRITE = 6;
+
+	// The bytes between consecutive vertices.
+	public static final int VERTEX_STRIDE = (FLOATS_PER_VERTEX * 4);
+	// The offsets of the position and texture coordinates in a vertex,
+	// in floats.
+	public static final int POSITION_OFFSET = 0;
+	public static final int TEXTURE_OFFSET = 2;
+
+	// The largest batch whose vertices can be indexed by unsigned shorts.
+	public static final int MAX_CAPACITY = (65536 / VERTICES_PER_SPRITE);
+
+	private static final int FLOATS_PER_SPRITE = (FLOATS_PER_VERTEX * VERTICES_PER_SPRITE);
+
+	// The number of quads the batch can hold.
+	private int mCapacity;
+
+	// The vertices added since begin(), copied into mVertexBuffer in bulk
+	// by getVertices().
+	private float[] mVertices;
+	private FloatBuffer mVertexBuffer;
+
+	// The indices of every quad the batch can hold. Built once.
+	private ShortBuffer mIndexBuffer;
+
+	// The number of quads added since begin().
+	private int mSpriteCount = 0;
+
+	// The texture region and size of each sprite, indexed by sprite ID.
+	private float[] mRegionU0;
+	private float[] mRegionV0;
+	private float[] mRegionU1;
+	private float[] mRegionV1;
+	private int[] mRegionWidth;
+	private int[] mRegionHeight;
+
+	/**
+	 * @param int capacity - The number of quads the batch can hold, up to
+	 * 	MAX_CAPACITY.
+	 * @param int spriteCount - The number of sprite regions, indexed by
+	 * 	sprite ID.
+	 */
+	public SpriteBatch(int capacity, int spriteCount)
+	{
+		if ((capacity < 1) || (capacity > MAX_CAPACITY))
+		{
+			throw new IllegalArgumentException("Batch capacity must be from 1 to "
+					+ MAX_CAPACITY + ": " + capacity);
+		}
+
+		mCapacity = capacity;
+
+		mVertices = new float[capacity * FLOATS_PER_SPRITE];
+		mVertexBuffer = ByteBuffer.allocateDirect(mVertices.length * 4)
+				.order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+		mIndexBuffer = ByteBuffer.allocateDirect(capacity * INDICES_PER_SPRITE * 2)
+				.order(ByteOrder.nativeOrder()).asShortBuffer();
+
+		int vertex;
+
+		int i;
+		for (i = 0; i <= (capacity - 1); i++)
+		{
+			vertex = (i * VERTICES_PER_SPRITE);
+
+			mIndexBuffer.put((short) vertex);
+			mIndexBuffer.put((short) (vertex + 1));
+			mIndexBuffer.put((short) (vertex + 2));
+			mIndexBuffer.put((short) vertex);
+			mIndexBuffer.put((short) (vertex + 2));
+			mIndexBuffer.put((short) (vertex + 3));
+		}
+
+		mIndexBuffer.flip();
+
+		mRegionU0 = new float[spriteCount];
+		mRegionV0 = new float[spriteCount];
+		mRegionU1 = new float[spriteCount];
+		mRegionV1 = new float[spriteCount];
+		mRegionWidth = new int[spriteCount];
+		mRegionHeight = new int[spriteCount];
+	}
+
+	/**
+	 * Sets the region of the texture holding a sprite.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param int left - The left edge of the region, in texels.
+	 * @param int top - The top edge of the region, in texels.
+	 * @param int right - The right edge of the region, in texels.
+	 * @param int bottom - The bottom edge of the region, in texels.
+	 * @param int textureWidth - The texture width, in texels.
+	 * @param int textureHeight - The texture height, in texels.
+	 */
+	public void setRegion(int sprite, int left, int top, int right,
+			int bottom, int textureWidth, int textureHeight)
+	{
+		mRegionU0[sprite] = ((float) left / textureWidth);
+		mRegionV0[sprite] = ((float) top / textureHeight);
+		mRegionU1[sprite] = ((float) right / textureWidth);
+		mRegionV1[sprite] = ((float) bottom / textureHeight);
+		mRegionWidth[sprite] = (right - left);
+		mRegionHeight[sprite] = (bottom - top);
+	}
+
+	/**
+	 * Empties the batch.
+	 */
+	public void begin()
+	{
+		mSpriteCount = 0;
+	}
+
+	/**
+	 * Adds a sprite at its original size. The batch must not be full.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param float x - The X coordinate of the sprite.
+	 * @param float y - The Y coordinate of the sprite.
+	 * @param boolean mirrored - True to mirror the sprite horizontally.
+	 */
+	public void add(int sprite, float x, float y, boolean mirrored)
+	{
+		float u0 = mRegionU0[sprite];
+		float u1 = mRegionU1[sprite];
+
+		if (mirrored)
+		{
+			u0 = mRegionU1[sprite];
+			u1 = mRegionU0[sprite];
+		}
+
+		add(x, y, (x + mRegionWidth[sprite]), (y + mRegionHeight[sprite]),
+				u0, mRegionV0[sprite], u1, mRegionV1[sprite]);
+	}
+
+	/**
+	 * Adds a quad. The batch must not be full.
+	 *
+	 * @param float left - The left edge of the quad.
+	 * @param float top - The top edge of the quad.
+	 * @param float right - The right edge of the quad.
+	 * @param float bottom - The bottom edge of the quad.
+	 * @param float u0 - The U coordinate of the left edge.
+	 * @param float v0 - The V coordinate of the top edge.
+	 * @param float u1 - The U coordinate of the right edge.
+	 * @param float v1 - The V coordinate of the bottom edge.
+	 */
+	public void add(float left, float top, float right, float bottom,
+			float u0, float v0, float u1, float v1)
+	{
+		float[] vertices = mVertices;
+		int i = (mSpriteCount * FLOATS_PER_SPRITE);
+
+		vertices[i] = left;
+		vertices[i + 1] = top;
+		vertices[i + 2] = u0;
+		vertices[i + 3] = v0;
+
+		vertices[i + 4] = right;
+		vertices[i + 5] = top;
+		vertices[i + 6] = u1;
+		vertices[i + 7] = v0;
+
+		vertices[i + 8] = right;
+		vertices[i + 9] = bottom;
+		vertices[i + 10] = u1;
+		vertices[i + 11] = v1;
+
+		vertices[i + 12] = left;
+		vertices[i + 13] = bottom;
+		vertices[i + 14] = u0;
+		vertices[i + 15] = v1;
+
+		mSpriteCount++;
+	}
+
+	/**
+	 * Determines if the batch is full.
+	 *
+	 * @return boolean - True if no more quads can be added.
+	 */
+	public boolean isFull()
+	{
+		return (mSpriteCount >= mCapacity);
+	}
+
+	public boolean isEmpty()
+	{
+		return (mSpriteCount == 0);
+	}
+
+	/**
+	 * Copies the vertices added since begin() into the vertex buffer.
+	 *
+	 * @return FloatBuffer - The vertex buffer, positioned at 0 with its
+	 * 	limit at the end of the last vertex.
+	 */
+	public FloatBuffer getVertices()
+	{
+		mVertexBuffer.clear();
+		mVertexBuffer.put(mVertices, 0, (mSpriteCount * FLOATS_PER_SPRITE));
+		mVertexBuffer.flip();
+
+		return mVertexBuffer;
+	}
+
+	/**
+	 * Gets the index buffer, holding the indices of every quad the batch
+	 * can hold. Only the first getIndexCount() indices are used.
+	 *
+	 * @return ShortBuffer
+	 */
+	public ShortBuffer getIndices()
+	{
+		return mIndexBuffer;
+	}
+
+	public int getIndexCount()
+	{
+		return (mSpriteCount * INDICES_PER_SPRITE);
+	}
+
+	public int getSpriteCount()
+	{
+		return mSpriteCount;
+	}
+
+	public int getCapacity()
+	{
+		return mCapacity;
+	}
+}
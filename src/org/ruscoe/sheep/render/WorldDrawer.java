@@ -0,0 +1,226 @@
+package org.ruscoe.sheep.render;
+
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.profiling.FrameProfiler;
+import org.ruscoe.sheep.simulation.WorldSnapshot;
+
+/**
+ * Issues the draw commands for a world snapshot to a Renderer.
+ *
+ * Holds the drawing order and placement of every item, so the game logic
+ * is drawn the same way whichever Renderer draws it.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class WorldDrawer
+{
+	// The position of the player's score text.
+	public static final int UI_TEXT_X = 30;
+	public static final int UI_TEXT_Y = 50;
+
+	// The height of each sprite, indexed by sprite ID. Used to place the
+	// sheep icons.
+	private int[] mSpriteHeights = new int[Sprites.COUNT];
+
+	// Times each drawing phase.
+	private FrameProfiler mFrameProfiler;
+
+	// Receives the interpolated debris positions as x, y pairs.
+	private float[] mDebrisPositions = new float[GameSettings.MAX_DISPLAYED_DEBRIS * 2];
+
+	/**
+	 * @param FrameProfiler frameProfiler - Times each drawing phase.
+	 */
+	public WorldDrawer(FrameProfiler frameProfiler)
+	{
+		mFrameProfiler = frameProfiler;
+	}
+
+	/**
+	 * Sets the height of a sprite.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param int height - The sprite height.
+	 */
+	public void setSpriteHeight(int sprite, int height)
+	{
+		mSpriteHeights[sprite] = height;
+	}
+
+	/**
+	 * Draws a frame of the game world.
+	 *
+	 * @param Renderer renderer - The Renderer to draw with.
+	 * @param WorldSnapshot snapshot - The world state to draw.
+	 * @param float alpha - The fraction of an update elapsed since the
+	 * 	last update, used to interpolate item positions. 1 draws items at
+	 * 	their current positions.
+	 */
+	public void draw(Renderer renderer, WorldSnapshot snapshot, float alpha)
+	{
+		long drawStart = mFrameProfiler.start();
+		long phaseStart = drawStart;
+
+		renderer.beginFrame();
+
+		renderer.drawBackground();
+		phaseStart = mFrameProfiler.mark(FrameProfiler.PHASE_DRAW_BACKGROUND, phaseStart);
+
+		drawSheep(renderer, snapshot, alpha);
+		phaseStart = mFrameProfiler.mark(FrameProfiler.PHASE_DRAW_SHEEP, phaseStart);
+
+		drawDebris(renderer, snapshot, alpha);
+		phaseStart = mFrameProfiler.mark(FrameProfiler.PHASE_DRAW_DEBRIS, phaseStart);
+
+		drawBouncePad(renderer, snapshot, alpha);
+		phaseStart = mFrameProfiler.mark(FrameProfiler.PHASE_DRAW_BOUNCE_PAD, phaseStart);
+
+		drawUi(renderer, snapshot);
+		mFrameProfiler.mark(FrameProfiler.PHASE_DRAW_UI, phaseStart);
+
+		renderer.endFrame();
+
+		mFrameProfiler.mark(FrameProfiler.PHASE_DRAW, drawStart);
+	}
+
+	/**
+	 * Draws the sheep game items, each followed by its icon.
+	 *
+	 * @param Renderer renderer - The Renderer to draw with.
+	 * @param WorldSnapshot snapshot - The world state to draw.
+	 * @param float alpha - The interpolation fraction.
+	 */
+	private void drawSheep(Renderer renderer, WorldSnapshot snapshot, float alpha)
+	{
+		int i;
+
+		float sheepX;
+		float sheepY;
+
+		int iconSprite;
+
+		for (i = 0; i <= (snapshot.getSheepCount() - 1); i++)
+		{
+			sheepX = snapshot.getSheepX(i, alpha);
+			sheepY = snapshot.getSheepY(i, alpha);
+
+			// Sheep images default to face left. The mirrored images are
+			// drawn if the sheep is moving to the right.
+			renderer.drawSprite(snapshot.getSheepSprite(i), sheepX, sheepY,
+					snapshot.isSheepFacingRight(i));
+
+			iconSprite = snapshot.getSheepIconSprite(i);
+
+			if (iconSprite != Sprites.NONE)
+			{
+				renderer.drawSprite(iconSprite, getIconX(snapshot, i, sheepX),
+						getIconY(iconSprite, sheepY), false);
+			}
+		}
+	}
+
+	/**
+	 * Draws the debris game items.
+	 *
+	 * @param Renderer renderer - The Renderer to draw with.
+	 * @param WorldSnapshot snapshot - The world state to draw.
+	 * @param float alpha - The interpolation fraction.
+	 */
+	private void drawDebris(Renderer renderer, WorldSnapshot snapshot, float alpha)
+	{
+		int count = fillDebrisPositions(snapshot, alpha);
+
+		// Every particle shares a single sprite.
+		int debrisSprite = snapshot.getDebrisSprite();
+		float[] positions = mDebrisPositions;
+
+		int i;
+		for (i = 0; i <= ((count * 2) - 1); i += 2)
+		{
+			renderer.drawSprite(debrisSprite, positions[i], positions[i + 1], false);
+		}
+	}
+
+	/**
+	 * Draws the bounce pad item.
+	 *
+	 * @param Renderer renderer - The Renderer to draw with.
+	 * @param WorldSnapshot snapshot - The world state to draw.
+	 * @param float alpha - The interpolation fraction.
+	 */
+	private void drawBouncePad(Renderer renderer, WorldSnapshot snapshot, float alpha)
+	{
+		renderer.drawSprite(snapshot.getBouncePadSprite(),
+				snapshot.getBouncePadX(alpha), snapshot.getBouncePadY(alpha),
+				false);
+	}
+
+	/**
+	 * Draws the player's UI.
+	 * Currently only draws the player's score.
+	 *
+	 * @param Renderer renderer - The Renderer to draw with.
+	 * @param WorldSnapshot snapshot - The world state to draw.
+	 */
+	private void drawUi(Renderer renderer, WorldSnapshot snapshot)
+	{
+		renderer.drawScore(snapshot.getScore(), snapshot.getHighScore(),
+				UI_TEXT_X, UI_TEXT_Y);
+	}
+
+	/**
+	 * Fills the debris positions buffer with the interpolated debris
+	 * positions.
+	 *
+	 * @param WorldSnapshot snapshot - The world state to draw.
+	 * @param float alpha - The interpolation fraction.
+	 * @return int - The number of debris positions filled.
+	 */
+	public int fillDebrisPositions(WorldSnapshot snapshot, float alpha)
+	{
+		if ((snapshot.getDebrisCount() * 2) > mDebrisPositions.length)
+		{
+			mDebrisPositions = new float[snapshot.getDebrisCount() * 2];
+		}
+
+		return snapshot.getDebrisPositions(mDebrisPositions, alpha);
+	}
+
+	/**
+	 * Gets the X coordinate a sheep's icon is drawn at.
+	 *
+	 * @param WorldSnapshot snapshot - The world state to draw.
+	 * @param int index - The index of the sheep in the snapshot.
+	 * @param float sheepX - The X coordinate the sheep is drawn at.
+	 * @return float
+	 */
+	public float getIconX(WorldSnapshot snapshot, int index, float sheepX)
+	{
+		return (sheepX + (snapshot.getSheepWidth(index) / 2));
+	}
+
+	/**
+	 * Gets the Y coordinate a sheep's icon is drawn at, above the sheep.
+	 *
+	 * @param int iconSprite - The icon sprite ID.
+	 * @param float sheepY - The Y coordinate the sheep is drawn at.
+	 * @return float
+	 */
+	public float getIconY(int iconSprite, float sheepY)
+	{
+		return (sheepY - mSpriteHeights[iconSprite]);
+	}
+
+	/**
+	 * Gets the debris positions filled by the last call to
+	 * fillDebrisPositions(), as x, y pairs.
+	 *
+	 * @return float[]
+	 */
+	public float[] getDebrisPositions()
+	{
+		return mDebrisPositions;
+	}
+}
@@ -0,0 +1,316 @@
+package org.ruscoe.sheep.simulation;
+
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.models.JumpingGameItem;
+
+/**
+ * A fixed number of debris particles, held in a ring buffer of primitive
+ * arrays.
+ *
+ * Emitting a particle with the buffer full overwrites the oldest particle,
+ * so memory use and the cost of each update and draw are bounded by the
+ * capacity however many sheep pop. Particles move as debris items always
+ * have, then come to rest on the ground, where they remain until
+ * overwritten.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class DebrisSystem
+{
+	// The number of particles the buffer holds.
+	private int mCapacity;
+
+	// The index of the oldest particle.
+	private int mHead = 0;
+	// The number of particles in the buffer.
+	private int mCount = 0;
+
+	// Particle state, indexed by buffer position.
+	private int[] mX;
+	private int[] mY;
+	private int[] mPreviousX;
+	private int[] mPreviousY;
+	// Horizontal speed, signed by direction. Constant, as debris never
+	// loses horizontal energy.
+	private int[] mHorizontalSpeed;
+	private int[] mVerticalEnergy;
+	// True once a particle has come to rest on the ground.
+	private boolean[] mResting;
+
+	// The particle sprite dimensions.
+	private int mWidth = 0;
+	private int mHeight = 0;
+
+	// Metrics.
+
+	// The number of particles emitted.
+	private long mEmitCount = 0;
+	// The number of particles overwritten before coming to rest.
+	private long mOverwriteCount = 0;
+
+	/**
+	 * @param int capacity - The number of particles to hold.
+	 */
+	public DebrisSystem(int capacity)
+	{
+		mCapacity = capacity;
+
+		mX = new int[capacity];
+		mY = new int[capacity];
+		mPreviousX = new int[capacity];
+		mPreviousY = new int[capacity];
+		mHorizontalSpeed = new int[capacity];
+		mVerticalEnergy = new int[capacity];
+		mResting = new boolean[capacity];
+	}
+
+	/**
+	 * Emits a particle, overwriting the oldest particle if the buffer is full.
+	 *
+	 * @param int x - The X coordinate of the particle.
+	 * @param int y - The Y coordinate of the particle.
+	 * @param int horizontalEnergy - The horizontal energy of the particle.
+	 * @param int verticalEnergy - The initial vertical energy of the particle.
+	 * @param int direction - The horizontal direction. Defined as DIRECTION_*
+	 * 	constants in JumpingGameItem.
+	 */
+	public void emit(int x, int y, int horizontalEnergy, int verticalEnergy,
+			int direction)
+	{
+		int index;
+
+		if (mCount < mCapacity)
+		{
+			index = (mHead + mCount);
+			if (index >= mCapacity)
+			{
+				index -= mCapacity;
+			}
+
+			mCount++;
+		} else
+		{
+			// Overwrite the oldest particle.
+			index = mHead;
+
+			mHead++;
+			if (mHead == mCapacity)
+			{
+				mHead = 0;
+			}
+
+			if (!mResting[index])
+			{
+				mOverwriteCount++;
+			}
+		}
+
+		int speed = JumpingGameItem.getSpeed(horizontalEnergy,
+				GameSettings.MIN_DEBRIS_HORIZONTAL_SPEED,
+				GameSettings.MAX_DEBRIS_HORIZONTAL_SPEED);
+
+		mX[index] = x;
+		mY[index] = y;
+		mPreviousX[index] = x;
+		mPreviousY[index] = y;
+		mHorizontalSpeed[index] = (direction == JumpingGameItem.DIRECTION_LEFT) ? -speed
+				: speed;
+		mVerticalEnergy[index] = verticalEnergy;
+		mResting[index] = false;
+
+		mEmitCount++;
+	}
+
+	/**
+	 * Moves every particle not at rest by one tick.
+	 *
+	 * @param int groundY - The Y coordinate of the ground.
+	 * @param float density - The screen density, used to scale movement.
+	 */
+	public void update(int groundY, float density)
+	{
+		int restY = (groundY - mHeight);
+
+		int index = mHead;
+
+		int i;
+		for (i = 0; i <= (mCount - 1); i++)
+		{
+			if (!mResting[index])
+			{
+				// Update horizontal position.
+				mX[index] += (int) (mHorizontalSpeed[index] * density);
+
+				// Update vertical position.
+				mY[index] -= (int) (JumpingGameItem.getSpeed(
+						mVerticalEnergy[index],
+						GameSettings.MIN_DEBRIS_VERTICAL_SPEED,
+						GameSettings.MAX_DEBRIS_VERTICAL_SPEED) * density);
+
+				mVerticalEnergy[index] -= GameSettings.GRAVITY;
+
+				if (mY[index] > restY)
+				{
+					mY[index] = restY;
+					mResting[index] = true;
+				}
+			}
+
+			index++;
+			if (index == mCapacity)
+			{
+				index = 0;
+			}
+		}
+	}
+
+	/**
+	 * Stores the position of every particle as its position before the
+	 * next update.
+	 */
+	public void savePositions()
+	{
+		System.arraycopy(mX, 0, mPreviousX, 0, mCapacity);
+		System.arraycopy(mY, 0, mPreviousY, 0, mCapacity);
+	}
+
+	/**
+	 * Removes every particle.
+	 */
+	public void clear()
+	{
+		mHead = 0;
+		mCount = 0;
+	}
+
+	/**
+	 * Resets the metrics.
+	 */
+	public void resetMetrics()
+	{
+		mEmitCount = 0;
+		mOverwriteCount = 0;
+	}
+
+	/**
+	 * Builds a summary of the metrics.
+	 *
+	 * @return String
+	 */
+	public String getSummary()
+	{
+		return "size=" + mCount + " capacity=" + mCapacity + " emitted="
+				+ mEmitCount + " overwritten=" + mOverwriteCount;
+	}
+
+	/**
+	 * Copies the current and previous position of every particle, oldest
+	 * first, into arrays of at least size() elements.
+	 *
+	 * @param int[] previousX - Receives the X coordinates before the last update.
+	 * @param int[] previousY - Receives the Y coordinates before the last update.
+	 * @param int[] x - Receives the X coordinates.
+	 * @param int[] y - Receives the Y coordinates.
+	 */
+	public void copyPositions(int[] previousX, int[] previousY, int[] x, int[] y)
+	{
+		// The particles run from the head to the end of the buffer, then
+		// wrap around to the start.
+		int first = Math.min(mCount, (mCapacity - mHead));
+		int second = (mCount - first);
+
+		System.arraycopy(mPreviousX, mHead, previousX, 0, first);
+		System.arraycopy(mPreviousY, mHead, previousY, 0, first);
+		System.arraycopy(mX, mHead, x, 0, first);
+		System.arraycopy(mY, mHead, y, 0, first);
+
+		if (second > 0)
+		{
+			System.arraycopy(mPreviousX, 0, previousX, first, second);
+			System.arraycopy(mPreviousY, 0, previousY, first, second);
+			System.arraycopy(mX, 0, x, first, second);
+			System.arraycopy(mY, 0, y, first, second);
+		}
+	}
+
+	/**
+	 * Gets the buffer index of a particle.
+	 *
+	 * @param int particle - The particle, from 0 (the oldest) to size() - 1.
+	 * @return int - The buffer index.
+	 */
+	private int getIndex(int particle)
+	{
+		int index = (mHead + particle);
+
+		return (index >= mCapacity) ? (index - mCapacity) : index;
+	}
+
+	/**
+	 * Sets the dimensions of the particle sprite.
+	 *
+	 * @param int width - The sprite width.
+	 * @param int height - The sprite height.
+	 */
+	public void setSize(int width, int height)
+	{
+		mWidth = width;
+		mHeight = height;
+	}
+
+	public int size()
+	{
+		return mCount;
+	}
+
+	public int getWidth()
+	{
+		return mWidth;
+	}
+
+	public int getHeight()
+	{
+		return mHeight;
+	}
+
+	public int getCapacity()
+	{
+		return mCapacity;
+	}
+
+	public long getEmitCount()
+	{
+		return mEmitCount;
+	}
+
+	public long getOverwriteCount()
+	{
+		return mOverwriteCount;
+	}
+
+	public int getX(int particle)
+	{
+		return mX[getIndex(particle)];
+	}
+
+	public int getY(int particle)
+	{
+		return mY[getIndex(particle)];
+	}
+
+	public int getPreviousX(int particle)
+	{
+		return mPreviousX[getIndex(particle)];
+	}
+
+	public int getPreviousY(int particle)
+	{
+		return mPreviousY[getIndex(particle)];
+	}
+
+	public boolean isResting(int particle)
+	{
+		return mResting[getIndex(particle)];
+	}
+}
@@ -0,0 +1,757 @@
+package org.ruscoe.sheep.simulation;
+
+import java.util.Arrays;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.models.GameImage;
+import org.ruscoe.sheep.models.JumpingGameItem;
+
+/**
+ * Stores the state of jumping items (sheep or debris) as parallel arrays of
+ * primitive values, one array per property, indexed by item.
+ *
+ * The update loops in GameWorld iterate the arrays in order, touching only the
+ * properties they need, rather than following references from item to image
+ * for each value. Items behave as JumpingGameItem instances with a GameImage;
+ * EntityView provides that interface over a single item where needed.
+ *
+ * Animations always play forward with the default frame length, as every
+ * jumping item in the game does.
+ *
+ * The store is also the pool for its items. Slots are acquired and released
+ * rather than allocated, and their arrays are only reallocated when more items
+ * are live than ever before; sizing the store with ensureCapacity() at the
+ * start of a game means none are allocated while it is played.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class EntityStore
+{
+	// Item flag constants.
+	public static final int FLAG_ACTIVE = 1;
+	public static final int FLAG_VISIBLE = 2;
+	public static final int FLAG_JUMP_EXPONENTIALLY = 4;
+	public static final int FLAG_ANIMATION_RUNNING = 8;
+	public static final int FLAG_ANIMATION_LOOP = 16;
+
+	// The initial capacity of the item arrays.
+	private static final int INITIAL_CAPACITY = 64;
+
+	// The number of items in the store.
+	private int mCount = 0;
+
+	// Pool metrics.
+
+	// The largest number of items held at once.
+	private int mPeakCount = 0;
+	// The number of slots acquired and released.
+	private long mAcquireCount = 0;
+	private long mReleaseCount = 0;
+	// The number of times a slot was acquired with the store full, causing
+	// every array to be reallocated.
+	private int mGrowCount = 0;
+
+	// Position and size.
+	private int[] mX = new int[INITIAL_CAPACITY];
+	private int[] mY = new int[INITIAL_CAPACITY];
+	private int[] mPreviousX = new int[INITIAL_CAPACITY];
+	private int[] mPreviousY = new int[INITIAL_CAPACITY];
+	private int[] mWidth = new int[INITIAL_CAPACITY];
+	private int[] mHeight = new int[INITIAL_CAPACITY];
+
+	// Displayed sprite IDs. Icon sprite is Sprites.NONE when no icon is shown.
+	private int[] mSprite = new int[INITIAL_CAPACITY];
+	private int[] mIconSprite = new int[INITIAL_CAPACITY];
+
+	// Energy values, from which speeds are calculated.
+	private int[] mHorizontalEnergy = new int[INITIAL_CAPACITY];
+	private int[] mVerticalEnergy = new int[INITIAL_CAPACITY];
+	private int[] mMaxHorizontalEnergy = new int[INITIAL_CAPACITY];
+	private int[] mMaxVerticalEnergy = new int[INITIAL_CAPACITY];
+
+	// Speed boundaries.
+	private int[] mMinHorizontalSpeed = new int[INITIAL_CAPACITY];
+	private int[] mMaxHorizontalSpeed = new int[INITIAL_CAPACITY];
+	private int[] mMinVerticalSpeed = new int[INITIAL_CAPACITY];
+	private int[] mMaxVerticalSpeed = new int[INITIAL_CAPACITY];
+
+	// Movement direction. Defined as DIRECTION_* constants in JumpingGameItem.
+	private int[] mDirection = new int[INITIAL_CAPACITY];
+	// The last height in pixels reached.
+	private int[] mLastHeight = new int[INITIAL_CAPACITY];
+
+	// Item flags. Defined as FLAG_* constants.
+	private int[] mFlags = new int[INITIAL_CAPACITY];
+
+	// Animation state. Frame arrays are shared between items and not copied.
+	private int[][] mAnimationFrames = new int[INITIAL_CAPACITY][];
+	private int[] mLastAnimationFrame = new int[INITIAL_CAPACITY];
+	private long[] mLastAnimationTime = new long[INITIAL_CAPACITY];
+
+	// The update on which an item starts jumping exponentially, counted by
+	// the owner of the store. Only used for sheep.
+	private long[] mJumpTick = new long[INITIAL_CAPACITY];
+
+	/**
+	 * Acquires a slot for an item displaying a sprite, resetting it to the
+	 * initial state of a new JumpingGameItem: active, visible, facing left
+	 * and with no energy.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param int width - The sprite width.
+	 * @param int height - The sprite height.
+	 * @return int - The index of the new item.
+	 */
+	public int acquire(int sprite, int width, int height)
+	{
+		if (mCount == mX.length)
+		{
+			grow(mX.length * 2);
+			mGrowCount++;
+		}
+
+		int index = mCount;
+		mCount++;
+
+		mAcquireCount++;
+		if (mCount > mPeakCount)
+		{
+			mPeakCount = mCount;
+		}
+
+		mX[index] = 0;
+		mY[index] = 0;
+		mPreviousX[index] = 0;
+		mPreviousY[index] = 0;
+		mWidth[index] = width;
+		mHeight[index] = height;
+
+		mSprite[index] = sprite;
+		mIconSprite[index] = Sprites.NONE;
+
+		mHorizontalEnergy[index] = 0;
+		mVerticalEnergy[index] = 0;
+		mMaxHorizontalEnergy[index] = 0;
+		mMaxVerticalEnergy[index] = 0;
+
+		mMinHorizontalSpeed[index] = 0;
+		mMaxHorizontalSpeed[index] = 0;
+		mMinVerticalSpeed[index] = 0;
+		mMaxVerticalSpeed[index] = 0;
+
+		mDirection[index] = JumpingGameItem.DIRECTION_LEFT;
+		mLastHeight[index] = 0;
+
+		mFlags[index] = (FLAG_ACTIVE | FLAG_VISIBLE | FLAG_ANIMATION_LOOP);
+
+		mAnimationFrames[index] = null;
+		mLastAnimationFrame[index] = 0;
+		mLastAnimationTime[index] = 0;
+
+		mJumpTick[index] = 0;
+
+		return index;
+	}
+
+	/**
+	 * Releases the slot of an item. Items after it move down one index,
+	 * keeping their order, so the cost grows with the number of items after
+	 * it. Use releaseSwap() where order does not matter, or compact the store
+	 * with copy() and truncate() when removing many items in one pass.
+	 *
+	 * @param int index - The index of the item to release.
+	 */
+	public void release(int index)
+	{
+		int moved = (mCount - index - 1);
+
+		if (moved > 0)
+		{
+			int from = (index + 1);
+
+			System.arraycopy(mX, from, mX, index, moved);
+			System.arraycopy(mY, from, mY, index, moved);
+			System.arraycopy(mPreviousX, from, mPreviousX, index, moved);
+			System.arraycopy(mPreviousY, from, mPreviousY, index, moved);
+			System.arraycopy(mWidth, from, mWidth, index, moved);
+			System.arraycopy(mHeight, from, mHeight, index, moved);
+			System.arraycopy(mSprite, from, mSprite, index, moved);
+			System.arraycopy(mIconSprite, from, mIconSprite, index, moved);
+			System.arraycopy(mHorizontalEnergy, from, mHorizontalEnergy, index, moved);
+			System.arraycopy(mVerticalEnergy, from, mVerticalEnergy, index, moved);
+			System.arraycopy(mMaxHorizontalEnergy, from, mMaxHorizontalEnergy, index, moved);
+			System.arraycopy(mMaxVerticalEnergy, from, mMaxVerticalEnergy, index, moved);
+			System.arraycopy(mMinHorizontalSpeed, from, mMinHorizontalSpeed, index, moved);
+			System.arraycopy(mMaxHorizontalSpeed, from, mMaxHorizontalSpeed, index, moved);
+			System.arraycopy(mMinVerticalSpeed, from, mMinVerticalSpeed, index, moved);
+			System.arraycopy(mMaxVerticalSpeed, from, mMaxVerticalSpeed, index, moved);
+			System.arraycopy(mDirection, from, mDirection, index, moved);
+			System.arraycopy(mLastHeight, from, mLastHeight, index, moved);
+			System.arraycopy(mFlags, from, mFlags, index, moved);
+			System.arraycopy(mAnimationFrames, from, mAnimationFrames, index, moved);
+			System.arraycopy(mLastAnimationFrame, from, mLastAnimationFrame, index, moved);
+			System.arraycopy(mLastAnimationTime, from, mLastAnimationTime, index, moved);
+			System.arraycopy(mJumpTick, from, mJumpTick, index, moved);
+		}
+
+		mCount--;
+		mReleaseCount++;
+
+		// Release the reference held by the vacated slot.
+		mAnimationFrames[mCount] = null;
+	}
+
+	/**
+	 * Releases the slot of an item by moving the last item into it. Does not
+	 * keep the order of items, but takes the same time whatever the number of
+	 * items.
+	 *
+	 * When called while iterating forward, the item at the index has changed
+	 * and must be visited again.
+	 *
+	 * @param int index - The index of the item to release.
+	 */
+	public void releaseSwap(int index)
+	{
+		int last = (mCount - 1);
+
+		if (index != last)
+		{
+			copy(last, index);
+		}
+
+		mAnimationFrames[last] = null;
+
+		mCount--;
+		mReleaseCount++;
+	}
+
+	/**
+	 * Copies every property of one item over another. Used to compact the
+	 * store in a single pass when removing many items.
+	 *
+	 * @param int from - The index of the item to copy.
+	 * @param int to - The index of the item to overwrite.
+	 */
+	public void copy(int from, int to)
+	{
+		mX[to] = mX[from];
+		mY[to] = mY[from];
+		mPreviousX[to] = mPreviousX[from];
+		mPreviousY[to] = mPreviousY[from];
+		mWidth[to] = mWidth[from];
+		mHeight[to] = mHeight[from];
+		mSprite[to] = mSprite[from];
+		mIconSprite[to] = mIconSprite[from];
+		mHorizontalEnergy[to] = mHorizontalEnergy[from];
+		mVerticalEnergy[to] = mVerticalEnergy[from];
+		mMaxHorizontalEnergy[to] = mMaxHorizontalEnergy[from];
+		mMaxVerticalEnergy[to] = mMaxVerticalEnergy[from];
+		mMinHorizontalSpeed[to] = mMinHorizontalSpeed[from];
+		mMaxHorizontalSpeed[to] = mMaxHorizontalSpeed[from];
+		mMinVerticalSpeed[to] = mMinVerticalSpeed[from];
+		mMaxVerticalSpeed[to] = mMaxVerticalSpeed[from];
+		mDirection[to] = mDirection[from];
+		mLastHeight[to] = mLastHeight[from];
+		mFlags[to] = mFlags[from];
+		mAnimationFrames[to] = mAnimationFrames[from];
+		mLastAnimationFrame[to] = mLastAnimationFrame[from];
+		mLastAnimationTime[to] = mLastAnimationTime[from];
+		mJumpTick[to] = mJumpTick[from];
+	}
+
+	/**
+	 * Releases the slot of every item from a given index onward.
+	 *
+	 * @param int count - The number of items to keep.
+	 */
+	public void truncate(int count)
+	{
+		if (count >= mCount)
+		{
+			return;
+		}
+
+		Arrays.fill(mAnimationFrames, count, mCount, null);
+
+		mReleaseCount += (mCount - count);
+		mCount = count;
+	}
+
+	/**
+	 * Releases the slot of every item.
+	 */
+	public void clear()
+	{
+		truncate(0);
+	}
+
+	/**
+	 * Grows the store, if needed, so that a given number of items can be
+	 * held without reallocating its arrays.
+	 *
+	 * @param int capacity - The number of items.
+	 */
+	public void ensureCapacity(int capacity)
+	{
+		if (capacity > mX.length)
+		{
+			grow(capacity);
+		}
+	}
+
+	/**
+	 * Resets the pool metrics, other than capacity.
+	 */
+	public void resetMetrics()
+	{
+		mPeakCount = mCount;
+		mAcquireCount = 0;
+		mReleaseCount = 0;
+		mGrowCount = 0;
+	}
+
+	/**
+	 * Builds a summary of the pool metrics.
+	 *
+	 * @return String
+	 */
+	public String getSummary()
+	{
+		return "size=" + mCount + " peak=" + mPeakCount + " capacity="
+				+ mX.length + " acquired=" + mAcquireCount + " released="
+				+ mReleaseCount + " grown=" + mGrowCount;
+	}
+
+	/**
+	 * Reallocates the item arrays with a larger capacity, keeping their
+	 * contents.
+	 *
+	 * @param int capacity - The new capacity.
+	 */
+	private void grow(int capacity)
+	{
+		mX = copyOf(mX, capacity);
+		mY = copyOf(mY, capacity);
+		mPreviousX = copyOf(mPreviousX, capacity);
+		mPreviousY = copyOf(mPreviousY, capacity);
+		mWidth = copyOf(mWidth, capacity);
+		mHeight = copyOf(mHeight, capacity);
+		mSprite = copyOf(mSprite, capacity);
+		mIconSprite = copyOf(mIconSprite, capacity);
+		mHorizontalEnergy = copyOf(mHorizontalEnergy, capacity);
+		mVerticalEnergy = copyOf(mVerticalEnergy, capacity);
+		mMaxHorizontalEnergy = copyOf(mMaxHorizontalEnergy, capacity);
+		mMaxVerticalEnergy = copyOf(mMaxVerticalEnergy, capacity);
+		mMinHorizontalSpeed = copyOf(mMinHorizontalSpeed, capacity);
+		mMaxHorizontalSpeed = copyOf(mMaxHorizontalSpeed, capacity);
+		mMinVerticalSpeed = copyOf(mMinVerticalSpeed, capacity);
+		mMaxVerticalSpeed = copyOf(mMaxVerticalSpeed, capacity);
+		mDirection = copyOf(mDirection, capacity);
+		mLastHeight = copyOf(mLastHeight, capacity);
+		mFlags = copyOf(mFlags, capacity);
+		mAnimationFrames = copyOf(mAnimationFrames, capacity);
+		mLastAnimationFrame = copyOf(mLastAnimationFrame, capacity);
+		mLastAnimationTime = copyOf(mLastAnimationTime, capacity);
+		mJumpTick = copyOf(mJumpTick, capacity);
+	}
+
+	/**
+	 * Copies an array into a new array of a larger capacity. Used in place
+	 * of Arrays.copyOf(), which is not available before API level 9.
+	 *
+	 * @param int[] array - The array to copy.
+	 * @param int capacity - The capacity of the new array.
+	 * @return int[]
+	 */
+	private static int[] copyOf(int[] array, int capacity)
+	{
+		int[] copy = new int[capacity];
+		System.arraycopy(array, 0, copy, 0, array.length);
+
+		return copy;
+	}
+
+	private static long[] copyOf(long[] array, int capacity)
+	{
+		long[] copy = new long[capacity];
+		System.arraycopy(array, 0, copy, 0, array.length);
+
+		return copy;
+	}
+
+	private static int[][] copyOf(int[][] array, int capacity)
+	{
+		int[][] copy = new int[capacity][];
+		System.arraycopy(array, 0, copy, 0, array.length);
+
+		return copy;
+	}
+
+	/**
+	 * Stores the position of every item as its position before the next
+	 * update.
+	 */
+	public void savePositions()
+	{
+		System.arraycopy(mX, 0, mPreviousX, 0, mCount);
+		System.arraycopy(mY, 0, mPreviousY, 0, mCount);
+	}
+
+	/**
+	 * Stores the position of an item as its position before the next update.
+	 *
+	 * @param int index - The item index.
+	 */
+	public void savePosition(int index)
+	{
+		mPreviousX[index] = mX[index];
+		mPreviousY[index] = mY[index];
+	}
+
+	/**
+	 * Makes an item inactive in the game. Matches
+	 * JumpingGameItem.makeInactive().
+	 *
+	 * @param int index - The item index.
+	 */
+	public void makeInactive(int index)
+	{
+		mMaxHorizontalEnergy[index] = 0;
+		mMaxVerticalEnergy[index] = 0;
+		mHorizontalEnergy[index] = 0;
+		mVerticalEnergy[index] = 0;
+
+		mFlags[index] &= ~(FLAG_JUMP_EXPONENTIALLY | FLAG_ACTIVE | FLAG_VISIBLE);
+	}
+
+	/**
+	 * Gets the vertical speed of an item, calculated from its vertical
+	 * energy and capped within its speed boundaries.
+	 *
+	 * @param int index - The item index.
+	 * @return int - The vertical speed.
+	 */
+	public int getVerticalSpeed(int index)
+	{
+		return JumpingGameItem.getSpeed(mVerticalEnergy[index],
+				mMinVerticalSpeed[index], mMaxVerticalSpeed[index]);
+	}
+
+	/**
+	 * Gets the horizontal speed of an item, calculated from its horizontal
+	 * energy, capped within its speed boundaries and signed by direction.
+	 *
+	 * @param int index - The item index.
+	 * @return int - The horizontal speed.
+	 */
+	public int getHorizontalSpeed(int index)
+	{
+		int speed = JumpingGameItem.getSpeed(mHorizontalEnergy[index],
+				mMinHorizontalSpeed[index], mMaxHorizontalSpeed[index]);
+
+		return (mDirection[index] == JumpingGameItem.DIRECTION_LEFT) ? -speed
+				: speed;
+	}
+
+	/**
+	 * Reverses the horizontal direction of an item.
+	 *
+	 * @param int index - The item index.
+	 */
+	public void reverseDirection(int index)
+	{
+		mDirection[index] = (mDirection[index] == JumpingGameItem.DIRECTION_LEFT) ? JumpingGameItem.DIRECTION_RIGHT
+				: JumpingGameItem.DIRECTION_LEFT;
+	}
+
+	/**
+	 * Starts the animation of an item, if it has animation frames.
+	 *
+	 * @param int index - The item index.
+	 */
+	public void startAnimation(int index)
+	{
+		if ((mAnimationFrames[index] != null)
+				&& (mAnimationFrames[index].length > 0))
+		{
+			mFlags[index] |= FLAG_ANIMATION_RUNNING;
+		}
+	}
+
+	/**
+	 * Advances the animation of an item. Matches GameImage.updateAnimation()
+	 * for a forward animation.
+	 *
+	 * @param int index - The item index.
+	 * @param long currentTime - The current time in milliseconds.
+	 */
+	public void updateAnimation(int index, long currentTime)
+	{
+		int flags = mFlags[index];
+
+		if ((flags & FLAG_ANIMATION_RUNNING) == 0)
+		{
+			return;
+		}
+
+		if (currentTime < (mLastAnimationTime[index] + GameImage.DEFAULT_ANIMATION_FRAME_LENGTH))
+		{
+			return;
+		}
+
+		int[] frames = mAnimationFrames[index];
+		int frame = 0;
+
+		// Reached end of animation frames.
+		if ((mLastAnimationFrame[index] + 1) > (frames.length - 1))
+		{
+			if ((flags & FLAG_ANIMATION_LOOP) == 0)
+			{
+				mFlags[index] = (flags & ~FLAG_ANIMATION_RUNNING);
+			}
+		} else
+		{
+			frame = (mLastAnimationFrame[index] + 1);
+		}
+
+		mLastAnimationFrame[index] = frame;
+		mLastAnimationTime[index] = currentTime;
+
+		if (frames[frame] != Sprites.NONE)
+		{
+			mSprite[index] = frames[frame];
+		}
+	}
+
+	/**
+	 * Gets a GameItem-style view of an item, for code written against
+	 * JumpingGameItem. The view refers to the item by index, so it is only
+	 * valid until an item is next removed.
+	 *
+	 * @param int index - The item index.
+	 * @return EntityView
+	 */
+	public EntityView getView(int index)
+	{
+		return new EntityView(this, index);
+	}
+
+	public int size()
+	{
+		return mCount;
+	}
+
+	public boolean isEmpty()
+	{
+		return (mCount == 0);
+	}
+
+	public int getCapacity()
+	{
+		return mX.length;
+	}
+
+	public int getPeakCount()
+	{
+		return mPeakCount;
+	}
+
+	public long getAcquireCount()
+	{
+		return mAcquireCount;
+	}
+
+	public long getReleaseCount()
+	{
+		return mReleaseCount;
+	}
+
+	public int getGrowCount()
+	{
+		return mGrowCount;
+	}
+
+	public int getX(int index)
+	{
+		return mX[index];
+	}
+
+	public void setX(int index, int x)
+	{
+		mX[index] = x;
+	}
+
+	public int getY(int index)
+	{
+		return mY[index];
+	}
+
+	public void setY(int index, int y)
+	{
+		mY[index] = y;
+	}
+
+	public int getPreviousX(int index)
+	{
+		return mPreviousX[index];
+	}
+
+	public int getPreviousY(int index)
+	{
+		return mPreviousY[index];
+	}
+
+	public int getWidth(int index)
+	{
+		return mWidth[index];
+	}
+
+	public int getHeight(int index)
+	{
+		return mHeight[index];
+	}
+
+	public int getSprite(int index)
+	{
+		return mSprite[index];
+	}
+
+	public int getIconSprite(int index)
+	{
+		return mIconSprite[index];
+	}
+
+	public void setIconSprite(int index, int iconSprite)
+	{
+		mIconSprite[index] = iconSprite;
+	}
+
+	public int getHorizontalEnergy(int index)
+	{
+		return mHorizontalEnergy[index];
+	}
+
+	public void setHorizontalEnergy(int index, int horizontalEnergy)
+	{
+		mHorizontalEnergy[index] = horizontalEnergy;
+	}
+
+	public int getVerticalEnergy(int index)
+	{
+		return mVerticalEnergy[index];
+	}
+
+	public void setVerticalEnergy(int index, int verticalEnergy)
+	{
+		mVerticalEnergy[index] = verticalEnergy;
+	}
+
+	public int getMaxHorizontalEnergy(int index)
+	{
+		return mMaxHorizontalEnergy[index];
+	}
+
+	public void setMaxHorizontalEnergy(int index, int maxHorizontalEnergy)
+	{
+		mMaxHorizontalEnergy[index] = maxHorizontalEnergy;
+	}
+
+	public int getMaxVerticalEnergy(int index)
+	{
+		return mMaxVerticalEnergy[index];
+	}
+
+	public void setMaxVerticalEnergy(int index, int maxVerticalEnergy)
+	{
+		mMaxVerticalEnergy[index] = maxVerticalEnergy;
+	}
+
+	/**
+	 * Sets the horizontal speed boundaries of an item.
+	 *
+	 * @param int index - The item index.
+	 * @param int minSpeed - The minimum speed. May be negative.
+	 * @param int maxSpeed - The maximum speed.
+	 */
+	public void setHorizontalSpeedRange(int index, int minSpeed, int maxSpeed)
+	{
+		mMinHorizontalSpeed[index] = minSpeed;
+		mMaxHorizontalSpeed[index] = maxSpeed;
+	}
+
+	/**
+	 * Sets the vertical speed boundaries of an item.
+	 *
+	 * @param int index - The item index.
+	 * @param int minSpeed - The minimum speed. May be negative.
+	 * @param int maxSpeed - The maximum speed.
+	 */
+	public void setVerticalSpeedRange(int index, int minSpeed, int maxSpeed)
+	{
+		mMinVerticalSpeed[index] = minSpeed;
+		mMaxVerticalSpeed[index] = maxSpeed;
+	}
+
+	public int getDirection(int index)
+	{
+		return mDirection[index];
+	}
+
+	public void setDirection(int index, int direction)
+	{
+		mDirection[index] = direction;
+	}
+
+	public int getLastHeight(int index)
+	{
+		return mLastHeight[index];
+	}
+
+	public void setLastHeight(int index, int lastHeight)
+	{
+		mLastHeight[index] = lastHeight;
+	}
+
+	public boolean isActive(int index)
+	{
+		return ((mFlags[index] & FLAG_ACTIVE) != 0);
+	}
+
+	public boolean isVisible(int index)
+	{
+		return ((mFlags[index] & FLAG_VISIBLE) != 0);
+	}
+
+	public boolean isJumpExponentially(int index)
+	{
+		return ((mFlags[index] & FLAG_JUMP_EXPONENTIALLY) != 0);
+	}
+
+	public void setJumpExponentially(int index, boolean jumpExponentially)
+	{
+		if (jumpExponentially)
+		{
+			mFlags[index] |= FLAG_JUMP_EXPONENTIALLY;
+		} else
+		{
+			mFlags[index] &= ~FLAG_JUMP_EXPONENTIALLY;
+		}
+	}
+
+	public long getJumpTick(int index)
+	{
+		return mJumpTick[index];
+	}
+
+	public void setJumpTick(int index, long jumpTick)
+	{
+		mJumpTick[index] = jumpTick;
+	}
+
+	public void setAnimationFrames(int index, int[] animationFrames)
+	{
+		mAnimationFrames[index] = animationFrames;
+	}
+}
@@ -0,0 +1,174 @@
+package org.ruscoe.sheep.simulation;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.models.GameItem;
+
+/**
+ * A view of a single item in an EntityStore, with the accessors of
+ * JumpingGameItem. Reads and writes go straight to the store.
+ *
+ * Kept for code written against the item classes; the update loops use the
+ * store directly.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class EntityView
+{
+	// The store holding the item.
+	private EntityStore mStore;
+	// The index of the item in the store.
+	private int mIndex;
+
+	/**
+	 * @param EntityStore store - The store holding the item.
+	 * @param int index - The index of the item in the store.
+	 */
+	public EntityView(EntityStore store, int index)
+	{
+		mStore = store;
+		mIndex = index;
+	}
+
+	/**
+	 * Determines if a rectangle of a given width and height at a given
+	 * X / Y coordinate collides with this item. Matches GameItem.isCollision().
+	 *
+	 * @param int x - The X coordinate of the item to test.
+	 * @param int y - The Y coordinate of the item to test.
+	 * @param int width - The width of the item to test.
+	 * @param int height - The height of the item to test.
+	 * @return boolean - True if a collision is detected.
+	 */
+	public boolean isCollision(int x, int y, int width, int height)
+	{
+		return GameItem.intersects(x, y, width, height, mStore.getX(mIndex),
+				mStore.getY(mIndex), mStore.getWidth(mIndex),
+				mStore.getHeight(mIndex));
+	}
+
+	public void makeInactive()
+	{
+		mStore.makeInactive(mIndex);
+	}
+
+	public int getVerticalSpeed()
+	{
+		return mStore.getVerticalSpeed(mIndex);
+	}
+
+	public int getHorizontalSpeed()
+	{
+		return mStore.getHorizontalSpeed(mIndex);
+	}
+
+	public void reverseDirection()
+	{
+		mStore.reverseDirection(mIndex);
+	}
+
+	public int getIndex()
+	{
+		return mIndex;
+	}
+
+	public int getX()
+	{
+		return mStore.getX(mIndex);
+	}
+
+	public void setX(int x)
+	{
+		mStore.setX(mIndex, x);
+	}
+
+	public int getY()
+	{
+		return mStore.getY(mIndex);
+	}
+
+	public void setY(int y)
+	{
+		mStore.setY(mIndex, y);
+	}
+
+	public int getPreviousX()
+	{
+		return mStore.getPreviousX(mIndex);
+	}
+
+	public int getPreviousY()
+	{
+		return mStore.getPreviousY(mIndex);
+	}
+
+	public int getWidth()
+	{
+		return mStore.getWidth(mIndex);
+	}
+
+	public int getHeight()
+	{
+		return mStore.getHeight(mIndex);
+	}
+
+	public int getSprite()
+	{
+		return mStore.getSprite(mIndex);
+	}
+
+	public boolean hasIcon()
+	{
+		return (mStore.getIconSprite(mIndex) != Sprites.NONE);
+	}
+
+	public int getIconSprite()
+	{
+		return mStore.getIconSprite(mIndex);
+	}
+
+	public int getHorizontalEnergy()
+	{
+		return mStore.getHorizontalEnergy(mIndex);
+	}
+
+	public int getVerticalEnergy()
+	{
+		return mStore.getVerticalEnergy(mIndex);
+	}
+
+	public int getMaxHorizontalEnergy()
+	{
+		return mStore.getMaxHorizontalEnergy(mIndex);
+	}
+
+	public int getMaxVerticalEnergy()
+	{
+		return mStore.getMaxVerticalEnergy(mIndex);
+	}
+
+	public int getDirection()
+	{
+		return mStore.getDirection(mIndex);
+	}
+
+	public int getLastHeight()
+	{
+		return mStore.getLastHeight(mIndex);
+	}
+
+	public boolean isActive()
+	{
+		return mStore.isActive(mIndex);
+	}
+
+	public boolean isVisible()
+	{
+		return mStore.isVisible(mIndex);
+	}
+
+	public boolean isJumpExponentially()
+	{
+		return mStore.isJumpExponentially(mIndex);
+	}
+}
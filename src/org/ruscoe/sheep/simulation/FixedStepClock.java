@@ -0,0 +1,142 @@
+package org.ruscoe.sheep.simulation;
+
+/**
+ * Decides how many fixed-length world updates to run for each drawn frame.
+ *
+ * Elapsed time is measured in nanoseconds and added to an accumulator. Each
+ * whole update period in the accumulator is one world update; the remainder
+ * is the fraction of an update that has passed since the last one, used to
+ * interpolate drawing between the last two world states.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class FixedStepClock
+{
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	private static final long NANOS_PER_MILLI = 1000000L;
+
+	// The length of a single update in nanoseconds.
+	private long mStepLength;
+	// The maximum number of updates due after a single call to advance().
+	private int mMaxSteps;
+
+	// The time passed to the last call to advance(), or -1 before the first call.
+	private long mLastTime = -1;
+	// Elapsed time not yet consumed by an update, in nanoseconds.
+	private long mAccumulator = 0;
+	// The total time simulated by all updates, in nanoseconds.
+	private long mSimulationTime = 0;
+
+	/**
+	 * @param int rate - The number of updates per second.
+	 * @param int maxSteps - The maximum number of updates to run per frame
+	 * 	when catching up. Time beyond this is dropped.
+	 */
+	public FixedStepClock(int rate, int maxSteps)
+	{
+		setRate(rate);
+		mMaxSteps = maxSteps;
+	}
+
+	/**
+	 * Sets the number of updates per second.
+	 *
+	 * @param int rate - The update rate.
+	 */
+	public void setRate(int rate)
+	{
+		mStepLength = (NANOS_PER_SECOND / rate);
+	}
+
+	/**
+	 * Adds the time elapsed since the last call to the time waiting to be
+	 * simulated.
+	 *
+	 * @param long now - The current time in nanoseconds, from System.nanoTime().
+	 */
+	public void advance(long now)
+	{
+		if (mLastTime < 0)
+		{
+			mLastTime = now;
+			return;
+		}
+
+		mAccumulator += (now - mLastTime);
+		mLastTime = now;
+
+		// Drop time that cannot be caught up on, rather than falling
+		// further behind with each frame.
+		long maxAccumulator = (mStepLength * mMaxSteps);
+		if (mAccumulator > maxAccumulator)
+		{
+			mAccumulator = maxAccumulator;
+		}
+	}
+
+	/**
+	 * Consumes a single update from the time waiting to be simulated.
+	 * Call repeatedly after advance(), running one update each time
+	 * true is returned.
+	 *
+	 * @return boolean - True if an update is due.
+	 */
+	public boolean step()
+	{
+		if (mAccumulator < mStepLength)
+		{
+			return false;
+		}
+
+		mAccumulator -= mStepLength;
+		mSimulationTime += mStepLength;
+
+		return true;
+	}
+
+	/**
+	 * Moves the clock to the current time without adding any elapsed time.
+	 * Used while the game is paused so no updates are due on resume.
+	 *
+	 * @param long now - The current time in nanoseconds.
+	 */
+	public void hold(long now)
+	{
+		mLastTime = now;
+	}
+
+	/**
+	 * Resets the clock. The next call to advance() starts timing afresh.
+	 */
+	public void reset()
+	{
+		mLastTime = -1;
+		mAccumulator = 0;
+	}
+
+	/**
+	 * Gets the fraction of an update elapsed since the last update.
+	 *
+	 * @return float - A value from 0 to 1.
+	 */
+	public float getAlpha()
+	{
+		return ((float) mAccumulator / mStepLength);
+	}
+
+	/**
+	 * Gets the total time simulated by all updates.
+	 *
+	 * @return long - The simulated time in milliseconds.
+	 */
+	public long getSimulationTimeMillis()
+	{
+		return (mSimulationTime / NANOS_PER_MILLI);
+	}
+
+	public long getStepLength()
+	{
+		return mStepLength;
+	}
+}
@@ -0,0 +1,859 @@
+package org.ruscoe.sheep.simulation;
+
+import org.ruscoe.sheep.constants.GameSettings;
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.models.GameItem;
+import org.ruscoe.sheep.models.JumpingGameItem;
+import org.ruscoe.sheep.profiling.FrameProfiler;
+import org.ruscoe.sheep.util.GameRandom;
+
+/**
+ * The game world, containing the sheep, debris and bounce pad items and the
+ * rules used to update them.
+ *
+ * GameWorld has no dependency on the Android framework. GameView's GameThread
+ * drives it one tick at a time and draws the resulting state, but the world
+ * can equally be ticked on a plain JVM to profile or benchmark the game rules.
+ *
+ * Every random choice is made by the world's own GameRandom, seeded when the
+ * world is started, so a game started with the same seed and ticked with
+ * the same input plays out the same way.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GameWorld
+{
+	// True while sheep instances should be updated.
+	private boolean mUpdateSheep = true;
+	// True while debris instances should be updated.
+	private boolean mUpdateDebris = true;
+	// True while bounce pad instance should be updated.
+	private boolean mUpdateBouncePad = true;
+
+	// World dimensions, matching the screen dimensions.
+	private int mScreenXMin = 0;
+	private int mScreenXMax = 0;
+	private int mScreenYMax = 0;
+
+	// The screen density. Used to scale item movement distance values.
+	private float mDensity = 1;
+
+	// The Y coordinate used to represent the ground in the game.
+	private int mGroundY = 0;
+
+	// The maximum jump height a sheep item reaches before the fall causes damage.
+	private int mMaxHeightForDamage = 0;
+
+	// The maximum number of sheep item instances to exist in the game.
+	private int mMaxSheep = GameSettings.MAX_SHEEP_NORMAL;
+
+	// The player's current score.
+	private int mScore = 0;
+	// The player's high score for the current game mode.
+	private int mHighScore = 0;
+
+	// The width and height of each sprite, indexed by sprite ID.
+	private int[] mSpriteWidths = new int[Sprites.COUNT];
+	private int[] mSpriteHeights = new int[Sprites.COUNT];
+
+	// The sprite IDs of the sheep item animation frames.
+	private static final int[] SHEEP_ANIMATION_FRAMES = {
+			Sprites.SHEEP_FRAME_01, Sprites.SHEEP_FRAME_02 };
+
+	// The sprite IDs of the bounce pad item animation frames.
+	private static final int[] BOUNCE_PAD_ANIMATION_FRAMES = {
+			Sprites.BOUNCE_PAD_FRAME_01, Sprites.BOUNCE_PAD_FRAME_02 };
+
+	// Active sheep items in the game.
+	private EntityStore mSheep = new EntityStore();
+	// Debris particles in the game.
+	private DebrisSystem mDebris = new DebrisSystem(GameSettings.MAX_DISPLAYED_DEBRIS);
+
+	// The user-controlled bounce pad item instance.
+	private GameItem mBouncePad = null;
+
+	// The ID of the bounce pad in the bounce pad grid.
+	private static final int BOUNCE_PAD_ID = 0;
+
+	// Spatial indexes of the sheep, by index in the sheep store, and of the
+	// bounce pads, by ID. Created when the world is started. Collisions
+	// with either are found by querying these rather than testing every
+	// item.
+	private SpatialGrid mSheepGrid = null;
+	private SpatialGrid mBouncePadGrid = null;
+
+	// Receives the bounce pad IDs found by a collision query.
+	private int[] mBouncePadResults = new int[1];
+
+	// The listener notified of world events. May be null.
+	private WorldListener mListener = null;
+
+	// The profiler used to time each part of an update. May be null.
+	private FrameProfiler mProfiler = null;
+
+	// The time of the tick being processed, in milliseconds.
+	private long mTime = 0;
+
+	// The number of times the sheep have been updated this game. Each sheep
+	// starts jumping exponentially on a given update.
+	private long mSheepUpdateCount = 0;
+
+	// The chance of a sheep starting to jump exponentially on each update;
+	// one roll of 0 to SHEEP_JUMP_CHANCE, inclusive, coming up
+	// SHEEP_JUMP_CHANCE.
+	private static final double SHEEP_JUMP_PROBABILITY = (1.0 / (GameSettings.SHEEP_JUMP_CHANCE + 1));
+
+	// Makes every random choice in the world. Confined to the thread
+	// updating the world.
+	private GameRandom mRandom = new GameRandom(0);
+
+	// The number of debris items generated by each burst.
+	private static final int DEBRIS_BURST_SIZE = ((GameSettings.MAX_DEBRIS_ITEMS
+			- GameSettings.MIN_DEBRIS_ITEMS) + 1);
+
+	// The random energies and directions of the debris in a burst.
+	private int[] mBurstHorizontalEnergies = new int[DEBRIS_BURST_SIZE];
+	private int[] mBurstVerticalEnergies = new int[DEBRIS_BURST_SIZE];
+	private boolean[] mBurstDirections = new boolean[DEBRIS_BURST_SIZE];
+
+	/**
+	 * Creates an empty game world.
+	 *
+	 * @param int width - The world width in pixels.
+	 * @param int height - The world height in pixels.
+	 * @param float density - The screen density.
+	 */
+	public GameWorld(int width, int height, float density)
+	{
+		mScreenXMax = width;
+		mScreenYMax = height;
+		mDensity = density;
+
+		mMaxHeightForDamage = (mScreenYMax / 2);
+	}
+
+	/**
+	 * Sets the dimensions of a sprite. Must be called for every sprite
+	 * before the world is started.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @param int width - The sprite width.
+	 * @param int height - The sprite height.
+	 */
+	public void setSpriteSize(int sprite, int width, int height)
+	{
+		mSpriteWidths[sprite] = width;
+		mSpriteHeights[sprite] = height;
+	}
+
+	/**
+	 * Sets the state for a new game, resetting values that change
+	 * during a game session. The game is seeded from the system clock.
+	 *
+	 * @param int maxSheep - The maximum number of sheep in the game.
+	 * @param int highScore - The player's high score for the game mode.
+	 */
+	public void start(int maxSheep, int highScore)
+	{
+		start(maxSheep, highScore, System.nanoTime());
+	}
+
+	/**
+	 * Sets the state for a new game, resetting values that change
+	 * during a game session.
+	 *
+	 * @param int maxSheep - The maximum number of sheep in the game.
+	 * @param int highScore - The player's high score for the game mode.
+	 * @param long seed - The seed for every random choice in the game.
+	 */
+	public void start(int maxSheep, int highScore, long seed)
+	{
+		clear();
+
+		mRandom.setSeed(seed);
+
+		mMaxSheep = maxSheep;
+		mHighScore = highScore;
+		mScore = 0;
+		mSheepUpdateCount = 0;
+
+		// Size the sheep store for a game at this difficulty, so slots
+		// are not reallocated during play.
+		mSheep.ensureCapacity(mMaxSheep + 1);
+
+		mDebris.setSize(mSpriteWidths[Sprites.DEBRIS],
+				mSpriteHeights[Sprites.DEBRIS]);
+
+		mSheep.resetMetrics();
+		mDebris.resetMetrics();
+
+		// Create user-controlled bounce pad item.
+		mBouncePad = createItem(Sprites.BOUNCE_PAD_FRAME_01);
+
+		mGroundY = (mScreenYMax - mBouncePad.getImage().getHeight());
+
+		mBouncePad.getImage().setAnimationFrames(BOUNCE_PAD_ANIMATION_FRAMES);
+		mBouncePad.getImage().setLoopAnimation(false);
+
+		mBouncePad.setY(mGroundY - (mBouncePad.getImage().getHeight() / 2));
+		mBouncePad.setX((mScreenXMax / 2)
+				- (mBouncePad.getImage().getWidth() / 2));
+		mBouncePad.savePosition();
+
+		// Index items in cells about the size of a sheep, so most queries
+		// search only a few cells.
+		int cellSize = Math.max(mSpriteWidths[Sprites.SHEEP_FRAME_01],
+				mSpriteHeights[Sprites.SHEEP_FRAME_01]);
+
+		mSheepGrid = new SpatialGrid(mScreenXMax, mScreenYMax, cellSize);
+		mSheepGrid.ensureCapacity(mMaxSheep + 1);
+
+		mBouncePadGrid = new SpatialGrid(mScreenXMax, mScreenYMax, cellSize);
+		updateBouncePadGrid();
+
+		// Add required sheep item instances.
+		int i;
+		for (i = 0; i <= mMaxSheep; i++)
+		{
+			addSheep();
+		}
+
+		updateSheepGrid();
+	}
+
+	/**
+	 * Removes every sheep and debris item from the world.
+	 */
+	public void clear()
+	{
+		mSheep.clear();
+		mDebris.clear();
+	}
+
+	/**
+	 * Advances the world by a single tick.
+	 *
+	 * @param WorldInput input - The input to apply during this tick.
+	 */
+	public void tick(WorldInput input)
+	{
+		mTime = input.getTime();
+
+		// Before positions are saved, as though exploded between ticks.
+		if (input.isExplode())
+		{
+			explode();
+		}
+
+		savePositions();
+
+		long phaseStart = (mProfiler != null) ? mProfiler.start() : 0;
+
+		if (mUpdateSheep)
+		{
+			updateSheep();
+			phaseStart = markPhase(FrameProfiler.PHASE_UPDATE_SHEEP, phaseStart);
+		}
+
+		if (mUpdateDebris)
+		{
+			updateDebris();
+			phaseStart = markPhase(FrameProfiler.PHASE_UPDATE_DEBRIS, phaseStart);
+		}
+
+		if (mUpdateBouncePad)
+		{
+			updateBouncePad(input.getAccelX());
+			markPhase(FrameProfiler.PHASE_UPDATE_BOUNCE_PAD, phaseStart);
+		}
+	}
+
+	/**
+	 * Records the duration of an update phase when profiling.
+	 *
+	 * @param int phase - The phase. Defined as PHASE_* constants in FrameProfiler.
+	 * @param long start - The phase start time.
+	 * @return long - The start time of the next phase.
+	 */
+	private long markPhase(int phase, long start)
+	{
+		if (mProfiler == null)
+		{
+			return 0;
+		}
+
+		return mProfiler.mark(phase, start);
+	}
+
+	/**
+	 * Stores the position of every item before it is updated, so drawing
+	 * can be interpolated between the previous and current positions.
+	 */
+	private void savePositions()
+	{
+		mSheep.savePositions();
+		mDebris.savePositions();
+
+		mBouncePad.savePosition();
+	}
+
+	/**
+	 * Updates the state of the sheep items in the game.
+	 *
+	 * Inactive sheep are removed by compacting the store in the same pass,
+	 * so every remaining sheep is updated once and keeps its order, and with
+	 * it the order in which sheep are drawn.
+	 *
+	 * Rather than each sheep rolling for exponential jumping on every
+	 * update, it is given the update on which it starts when added, drawn
+	 * from the number of rolls it would take. Only sheep whose update has
+	 * come are changed.
+	 */
+	private void updateSheep()
+	{
+		EntityStore sheep = mSheep;
+
+		mSheepUpdateCount++;
+
+		int count = sheep.size();
+		int kept = 0;
+
+		int width;
+		int height;
+
+		int i;
+		int j;
+		for (j = 0; j <= (count - 1); j++)
+		{
+			if (!sheep.isActive(j))
+			{
+				continue;
+			}
+
+			// Sheep before j which were not removed have been moved down
+			// to close the gap; i is this sheep's index once moved.
+			i = kept;
+
+			if (i != j)
+			{
+				sheep.copy(j, i);
+			}
+
+			kept++;
+
+			width = sheep.getWidth(i);
+			height = sheep.getHeight(i);
+
+			// Update animation.
+			sheep.updateAnimation(i, mTime);
+
+			// Update horizontal position.
+			sheep.setX(i, sheep.getX(i)
+					+ (int) (sheep.getHorizontalSpeed(i) * mDensity));
+
+			if ((sheep.getDirection(i) == JumpingGameItem.DIRECTION_LEFT)
+					&& (sheep.getX(i) <= mScreenXMin)
+					|| (sheep.getDirection(i) == JumpingGameItem.DIRECTION_RIGHT)
+					&& ((sheep.getX(i) + width) >= mScreenXMax))
+			{
+				sheep.reverseDirection(i);
+			}
+
+			// Update vertical position.
+			sheep.setY(i, sheep.getY(i)
+					- (int) (sheep.getVerticalSpeed(i) * mDensity));
+
+			sheep.setVerticalEnergy(i, sheep.getVerticalEnergy(i)
+					- GameSettings.GRAVITY);
+
+			if (sheep.getY(i) > (mGroundY - height))
+			{
+				sheep.setY(i, mGroundY - height);
+
+				// Handle fall damage.
+				if (sheep.getLastHeight(i) >= (mMaxHeightForDamage * mDensity))
+				{
+					// Handle bounce pad impact.
+					if (isBouncePadCollision(sheep.getX(i), sheep.getY(i),
+							width, height))
+					{
+						sheep.setLastHeight(i, 0);
+						sheep.setMaxVerticalEnergy(i,
+								(int) (GameSettings.SHEEP_STARTING_VERTICAL_ENERGY * GameSettings.SHEEP_BOUNCE_ENERGY_MULTIPLIER));
+						sheep.setVerticalEnergy(i, sheep.getMaxVerticalEnergy(i));
+						sheep.setIconSprite(i, Sprites.NONE);
+
+						// Increment score.
+						updateScore(GameSettings.POINTS_PER_SHEEP);
+
+						mBouncePad.getImage().startAnimation();
+
+						// A bounced sheep skips its roll for exponential
+						// jumping, so its start is put back an update.
+						sheep.setJumpTick(i, sheep.getJumpTick(i) + 1);
+
+						if (mListener != null)
+						{
+							mListener.onSheepBounced();
+						}
+
+						continue;
+					} else
+					{
+						sheep.makeInactive(i);
+						generateDebris(sheep.getX(i), sheep.getY(i));
+
+						// Decrement score.
+						updateScore(-GameSettings.POINTS_PER_SHEEP);
+
+						if (mListener != null)
+						{
+							mListener.onSheepPopped();
+						}
+
+						continue;
+					}
+				}
+
+				if (sheep.isJumpExponentially(i))
+				{
+					sheep.setMaxVerticalEnergy(i,
+							(int) (sheep.getMaxVerticalEnergy(i) * GameSettings.SHEEP_JUMP_ENERGY_MULTIPLIER));
+				}
+
+				sheep.setVerticalEnergy(i, sheep.getMaxVerticalEnergy(i));
+			}
+
+			// Update last height reached.
+			if ((mGroundY - sheep.getY(i)) > sheep.getLastHeight(i))
+			{
+				sheep.setLastHeight(i, mGroundY - sheep.getY(i));
+				if ((sheep.getLastHeight(i) >= (mMaxHeightForDamage * mDensity))
+						&& (sheep.getIconSprite(i) == Sprites.NONE))
+				{
+					sheep.setIconSprite(i, Sprites.ICON_DANGER);
+				}
+			}
+
+			// Update exponential jumping.
+			if (!sheep.isJumpExponentially(i)
+					&& (sheep.getJumpTick(i) <= mSheepUpdateCount))
+			{
+				sheep.setJumpExponentially(i, true);
+			}
+		}
+
+		sheep.truncate(kept);
+
+		// Replenish sheep supply.
+		if (sheep.size() < mMaxSheep)
+		{
+			for (i = sheep.size(); i <= mMaxSheep; i++)
+			{
+				addSheep();
+			}
+		}
+
+		updateSheepGrid();
+	}
+
+	/**
+	 * Updates the sheep grid with the position of every sheep. Only sheep
+	 * which have moved to a different cell are relinked, and sheep removed
+	 * from the end of the store are removed from the grid.
+	 */
+	private void updateSheepGrid()
+	{
+		EntityStore sheep = mSheep;
+		SpatialGrid grid = mSheepGrid;
+
+		int count = sheep.size();
+
+		int i;
+		for (i = 0; i <= (count - 1); i++)
+		{
+			grid.update(i, sheep.getX(i), sheep.getY(i), sheep.getWidth(i),
+					sheep.getHeight(i));
+		}
+
+		grid.removeFrom(count);
+	}
+
+	/**
+	 * Updates the bounce pad grid with the position of the bounce pad.
+	 */
+	private void updateBouncePadGrid()
+	{
+		mBouncePadGrid.update(BOUNCE_PAD_ID, mBouncePad.getX(),
+				mBouncePad.getY(), mBouncePad.getImage().getWidth(),
+				mBouncePad.getImage().getHeight());
+	}
+
+	/**
+	 * Updates the state of the debris items in the game.
+	 */
+	private void updateDebris()
+	{
+		mDebris.update(mGroundY, mDensity);
+	}
+
+	/**
+	 * Updates the state of the user-controlled bounce pad item in the game.
+	 *
+	 * @param float accelX - The horizontal acceleration value.
+	 */
+	private void updateBouncePad(float accelX)
+	{
+		mBouncePad.getImage().updateAnimation(mTime);
+
+		if ((accelX > GameSettings.ACCEL_SENSOR_BUFFER)
+				|| (accelX < -GameSettings.ACCEL_SENSOR_BUFFER))
+		{
+			// Restrict movement with screen boundaries.
+			if ((accelX < -GameSettings.ACCEL_SENSOR_BUFFER)
+					&& (mBouncePad.getX() + mBouncePad.getImage().getWidth()) > mScreenXMax)
+			{
+				return;
+			}
+			if ((accelX > GameSettings.ACCEL_SENSOR_BUFFER)
+					&& (mBouncePad.getX() < mScreenXMin))
+			{
+				return;
+			}
+
+			// Update position on screen.
+			int playerMovementDistance = (int) ((accelX * GameSettings.ACCEL_MULTIPLIER) * mDensity);
+
+			if (accelX > GameSettings.MAX_PAD_MOVEMENT_DISTANCE)
+			{
+				playerMovementDistance = GameSettings.MAX_PAD_MOVEMENT_DISTANCE;
+			} else if (accelX < -GameSettings.MAX_PAD_MOVEMENT_DISTANCE)
+			{
+				playerMovementDistance = -GameSettings.MAX_PAD_MOVEMENT_DISTANCE;
+			}
+
+			mBouncePad.setX(mBouncePad.getX() - playerMovementDistance);
+
+			updateBouncePadGrid();
+		}
+	}
+
+	/**
+	 * Updates the player's score.
+	 *
+	 * @param int change - The change in score, either positive or negative.
+	 */
+	private void updateScore(int change)
+	{
+		mScore += change;
+
+		if (mScore > mHighScore)
+		{
+			mHighScore = mScore;
+
+			if (mListener != null)
+			{
+				mListener.onHighScore(mHighScore);
+			}
+		}
+	}
+
+	/**
+	 * Adds a new sheep instance to the game state.
+	 */
+	private void addSheep()
+	{
+		EntityStore sheep = mSheep;
+
+		int newSheep = sheep.acquire(Sprites.SHEEP_FRAME_01,
+				mSpriteWidths[Sprites.SHEEP_FRAME_01],
+				mSpriteHeights[Sprites.SHEEP_FRAME_01]);
+
+		sheep.setMaxHorizontalEnergy(newSheep, GameSettings.SHEEP_STARTING_HORIZONTAL_ENERGY);
+		sheep.setMaxVerticalEnergy(newSheep, GameSettings.SHEEP_STARTING_VERTICAL_ENERGY);
+
+		sheep.setHorizontalEnergy(newSheep, sheep.getMaxHorizontalEnergy(newSheep));
+		sheep.setVerticalEnergy(newSheep, sheep.getMaxVerticalEnergy(newSheep));
+
+		sheep.setHorizontalSpeedRange(newSheep,
+				GameSettings.MIN_SHEEP_HORIZONTAL_SPEED,
+				GameSettings.MAX_SHEEP_HORIZONTAL_SPEED);
+
+		sheep.setVerticalSpeedRange(newSheep,
+				GameSettings.MIN_SHEEP_VERTICAL_SPEED,
+				GameSettings.MAX_SHEEP_VERTICAL_SPEED);
+
+		int x = mRandom.nextIntInRange(mScreenXMin, mScreenXMax);
+
+		if (mRandom.nextBoolean())
+		{
+			sheep.setDirection(newSheep, JumpingGameItem.DIRECTION_RIGHT);
+		}
+
+		int y = (mGroundY - sheep.getHeight(newSheep));
+
+		sheep.setX(newSheep, x);
+		sheep.setY(newSheep, y);
+		sheep.savePosition(newSheep);
+
+		sheep.setAnimationFrames(newSheep, SHEEP_ANIMATION_FRAMES);
+		sheep.startAnimation(newSheep);
+
+		// The sheep first rolls on the next update.
+		sheep.setJumpTick(newSheep, mSheepUpdateCount
+				+ mRandom.nextGeometric(SHEEP_JUMP_PROBABILITY));
+	}
+
+	/**
+	 * Generates debris instances at a given X and Y coordinate.
+	 * Debris moves outward from a central location.
+	 *
+	 * @param int x - The X coordinate to generate debris at.
+	 * @param int y - The Y coordinate to generate debris at.
+	 */
+	private void generateDebris(int x, int y)
+	{
+		// Draw the random values for the whole burst at once.
+		mRandom.fillIntsInRange(mBurstHorizontalEnergies, DEBRIS_BURST_SIZE,
+				GameSettings.MIN_DEBRIS_STARTING_HORIZONTAL_ENERGY,
+				GameSettings.MAX_DEBRIS_STARTING_HORIZONTAL_ENERGY);
+
+		mRandom.fillIntsInRange(mBurstVerticalEnergies, DEBRIS_BURST_SIZE,
+				GameSettings.MIN_DEBRIS_STARTING_VERTICAL_ENERGY,
+				GameSettings.MAX_DEBRIS_STARTING_VERTICAL_ENERGY);
+
+		mRandom.fillBooleans(mBurstDirections, DEBRIS_BURST_SIZE);
+
+		int direction;
+
+		int i;
+		for (i = 0; i <= (DEBRIS_BURST_SIZE - 1); i++)
+		{
+			direction = mBurstDirections[i] ? JumpingGameItem.DIRECTION_RIGHT
+					: JumpingGameItem.DIRECTION_LEFT;
+
+			mDebris.emit(x, y, mBurstHorizontalEnergies[i],
+					mBurstVerticalEnergies[i], direction);
+		}
+	}
+
+	/**
+	 * Causes every active sheep item instance to explode, as though taking
+	 * fall damage. This serves no real function other than testing
+	 * debris generation.
+	 *
+	 * Draws random numbers, so must only be called on the thread updating
+	 * the world. Other threads request it through WorldInput.setExplode().
+	 */
+	public void explode()
+	{
+		EntityStore sheep = mSheep;
+
+		int i;
+		for (i = 0; i <= (sheep.size() - 1); i++)
+		{
+			sheep.makeInactive(i);
+			generateDebris(sheep.getX(i), sheep.getY(i));
+
+			if (mListener != null)
+			{
+				mListener.onSheepPopped();
+			}
+		}
+	}
+
+	/**
+	 * Builds a summary of the sheep and debris pool metrics.
+	 *
+	 * @return String
+	 */
+	public String getPoolSummary()
+	{
+		return "sheep: " + mSheep.getSummary() + "\ndebris: "
+				+ mDebris.getSummary();
+	}
+
+	/**
+	 * Creates a game item displaying a sprite.
+	 *
+	 * @param int sprite - The sprite ID. Defined as constants in Sprites.
+	 * @return GameItem
+	 */
+	private GameItem createItem(int sprite)
+	{
+		return new GameItem(sprite, mSpriteWidths[sprite],
+				mSpriteHeights[sprite]);
+	}
+
+	public void setListener(WorldListener listener)
+	{
+		this.mListener = listener;
+	}
+
+	public void setProfiler(FrameProfiler profiler)
+	{
+		this.mProfiler = profiler;
+	}
+
+	public EntityStore getSheep()
+	{
+		return mSheep;
+	}
+
+	/**
+	 * Replaces the debris particles with an empty set of a given capacity.
+	 * The game uses GameSettings.MAX_DISPLAYED_DEBRIS; larger capacities
+	 * are used to stress test debris updates.
+	 *
+	 * @param int capacity - The number of debris particles to hold.
+	 */
+	public void setDebrisCapacity(int capacity)
+	{
+		mDebris = new DebrisSystem(capacity);
+		mDebris.setSize(mSpriteWidths[Sprites.DEBRIS],
+				mSpriteHeights[Sprites.DEBRIS]);
+	}
+
+	public DebrisSystem getDebris()
+	{
+		return mDebris;
+	}
+
+	/**
+	 * Gets the spatial index of the sheep, holding each sheep by its index
+	 * in the sheep store. Current as of the last sheep update.
+	 *
+	 * @return SpatialGrid
+	 */
+	public SpatialGrid getSheepGrid()
+	{
+		return mSheepGrid;
+	}
+
+	/**
+	 * Finds the sheep colliding with a rectangle, by the same test as
+	 * GameItem.isCollision(). Current as of the last sheep update.
+	 *
+	 * @param int x - The X coordinate of the rectangle.
+	 * @param int y - The Y coordinate of the rectangle.
+	 * @param int width - The rectangle width.
+	 * @param int height - The rectangle height.
+	 * @param int[] results - Receives the store indexes of the sheep found.
+	 * @return int - The number of indexes written, no more than the length
+	 * 	of the results array.
+	 */
+	public int findSheepColliding(int x, int y, int width, int height,
+			int[] results)
+	{
+		return mSheepGrid.queryRect(x, y, width, height, results);
+	}
+
+	/**
+	 * Finds the sheep colliding with another sheep. Current as of the last
+	 * sheep update.
+	 *
+	 * @param int index - The store index of the sheep.
+	 * @param int[] results - Receives the store indexes of the sheep found,
+	 * 	not including the given sheep.
+	 * @return int - The number of indexes written, no more than the length
+	 * 	of the results array.
+	 */
+	public int findSheepCollidingWith(int index, int[] results)
+	{
+		return mSheepGrid.queryOverlaps(index, results);
+	}
+
+	/**
+	 * Finds the sheep whose centers are within a radius of a point.
+	 * Current as of the last sheep update.
+	 *
+	 * @param int centerX - The X coordinate of the point.
+	 * @param int centerY - The Y coordinate of the point.
+	 * @param int radius - The radius.
+	 * @param int[] results - Receives the store indexes of the sheep found.
+	 * @return int - The number of indexes written, no more than the length
+	 * 	of the results array.
+	 */
+	public int findSheepNear(int centerX, int centerY, int radius,
+			int[] results)
+	{
+		return mSheepGrid.queryRadius(centerX, centerY, radius, results);
+	}
+
+	/**
+	 * Determines if a rectangle collides with a bounce pad. The landing
+	 * test for each sheep.
+	 *
+	 * @param int x - The X coordinate of the rectangle.
+	 * @param int y - The Y coordinate of the rectangle.
+	 * @param int width - The rectangle width.
+	 * @param int height - The rectangle height.
+	 * @return boolean - True if a collision is detected.
+	 */
+	public boolean isBouncePadCollision(int x, int y, int width, int height)
+	{
+		return (mBouncePadGrid.queryRect(x, y, width, height,
+				mBouncePadResults) > 0);
+	}
+
+	public SpatialGrid getBouncePadGrid()
+	{
+		return mBouncePadGrid;
+	}
+
+	public GameItem getBouncePad()
+	{
+		return mBouncePad;
+	}
+
+	/**
+	 * Gets the seed the current game was started with.
+	 *
+	 * @return long
+	 */
+	public long getSeed()
+	{
+		return mRandom.getSeed();
+	}
+
+	public int getScore()
+	{
+		return mScore;
+	}
+
+	public int getHighScore()
+	{
+		return mHighScore;
+	}
+
+	public int getGroundY()
+	{
+		return mGroundY;
+	}
+
+	public int getWidth()
+	{
+		return mScreenXMax;
+	}
+
+	public int getHeight()
+	{
+		return mScreenYMax;
+	}
+
+	public void setUpdateSheep(boolean updateSheep)
+	{
+		this.mUpdateSheep = updateSheep;
+	}
+
+	public void setUpdateDebris(boolean updateDebris)
+	{
+		this.mUpdateDebris = updateDebris;
+	}
+
+	public void setUpdateBouncePad(boolean updateBouncePad)
+	{
+		this.mUpdateBouncePad = updateBouncePad;
+	}
+}
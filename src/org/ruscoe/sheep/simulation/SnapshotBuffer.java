@@ -0,0 +1,71 @@
+package org.ruscoe.sheep.simulation;
+
+/**
+ * Passes world snapshots from the thread updating the game world to the
+ * thread drawing it.
+ *
+ * Three snapshots are rotated: one being written, one being drawn and the
+ * latest complete one waiting between them. The writer and reader never share
+ * a snapshot, and only a reference swap is done under the lock, so neither
+ * thread waits on the other's work.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class SnapshotBuffer
+{
+	// The snapshot being filled by the writer.
+	private WorldSnapshot mWriteSnapshot = new WorldSnapshot();
+	// The most recently published snapshot.
+	private WorldSnapshot mReadySnapshot = new WorldSnapshot();
+	// The snapshot being drawn by the reader.
+	private WorldSnapshot mReadSnapshot = new WorldSnapshot();
+
+	// True when the ready snapshot has been published since the reader
+	// last took it.
+	private boolean mReadyIsNew = false;
+
+	/**
+	 * Gets the snapshot the writer should fill before calling publish().
+	 * Only the writing thread may use it.
+	 *
+	 * @return WorldSnapshot
+	 */
+	public WorldSnapshot getWriteSnapshot()
+	{
+		return mWriteSnapshot;
+	}
+
+	/**
+	 * Makes the filled write snapshot available to the reader.
+	 */
+	public synchronized void publish()
+	{
+		WorldSnapshot published = mWriteSnapshot;
+
+		mWriteSnapshot = mReadySnapshot;
+		mReadySnapshot = published;
+		mReadyIsNew = true;
+	}
+
+	/**
+	 * Gets the most recently published snapshot. The snapshot remains the
+	 * reader's until the next call; if nothing has been published since the
+	 * last call, the same snapshot is returned again.
+	 *
+	 * @return WorldSnapshot
+	 */
+	public synchronized WorldSnapshot acquireLatest()
+	{
+		if (mReadyIsNew)
+		{
+			WorldSnapshot latest = mReadySnapshot;
+
+			mReadySnapshot = mReadSnapshot;
+			mReadSnapshot = latest;
+			mReadyIsNew = false;
+		}
+
+		return mReadSnapshot;
+	}
+}
@@ -0,0 +1,453 @@
+package org.ruscoe.sheep.simulation;
+
+import java.util.Arrays;
+
+import org.ruscoe.sheep.models.GameItem;
+
+/**
+ * A uniform grid of square cells indexing the bounds of items by ID, used
+ * to find items near a point or region without testing every item.
+ *
+ * Each item is linked into the cell holding its top left corner. Queries
+ * widen the cells they search by the size of the largest item, so items
+ * reaching into the queried region from neighbouring cells are found, then
+ * test the exact bounds of each candidate. Items outside the grid are held
+ * in the nearest edge cell.
+ *
+ * Updating an item only relinks it when it moves to a different cell, so
+ * the grid can be kept current each tick at little more than the cost of
+ * reading each item's position.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class SpatialGrid
+{
+	// Marks an item ID not held in the grid, or the end of a cell's list.
+	private static final int NONE = -1;
+
+	// The initial number of item IDs the grid can hold.
+	private static final int INITIAL_CAPACITY = 64;
+
+	// Grid dimensions.
+	private int mCellSize;
+	private int mColumns;
+	private int mRows;
+
+	// The first item ID in each cell, or NONE.
+	private int[] mCellHead;
+
+	// The cell of each item ID, or NONE when not held.
+	private int[] mCell;
+	// The next and previous item IDs in the same cell, or NONE.
+	private int[] mNext;
+	private int[] mPrevious;
+
+	// The bounds of each item ID.
+	private int[] mX;
+	private int[] mY;
+	private int[] mWidth;
+	private int[] mHeight;
+
+	// The size of the largest item held since the grid was last cleared.
+	private int mMaxWidth = 0;
+	private int mMaxHeight = 0;
+
+	/**
+	 * @param int width - The width of the area covered by the grid.
+	 * @param int height - The height of the area covered by the grid.
+	 * @param int cellSize - The width and height of each cell.
+	 */
+	public SpatialGrid(int width, int height, int cellSize)
+	{
+		mCellSize = Math.max(1, cellSize);
+		mColumns = Math.max(1, ((width + mCellSize - 1) / mCellSize));
+		mRows = Math.max(1, ((height + mCellSize - 1) / mCellSize));
+
+		mCellHead = new int[mColumns * mRows];
+		Arrays.fill(mCellHead, NONE);
+
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Adds an item to the grid or updates its bounds.
+	 *
+	 * @param int id - The item ID, from 0 upward.
+	 * @param int x - The X coordinate of the item.
+	 * @param int y - The Y coordinate of the item.
+	 * @param int width - The item width.
+	 * @param int height - The item height.
+	 */
+	public void update(int id, int x, int y, int width, int height)
+	{
+		if (id >= mCell.length)
+		{
+			ensureCapacity(Math.max((id + 1), (mCell.length * 2)));
+		}
+
+		mX[id] = x;
+		mY[id] = y;
+		mWidth[id] = width;
+		mHeight[id] = height;
+
+		if (width > mMaxWidth)
+		{
+			mMaxWidth = width;
+		}
+		if (height > mMaxHeight)
+		{
+			mMaxHeight = height;
+		}
+
+		int cell = getCell(x, y);
+
+		if (cell == mCell[id])
+		{
+			return;
+		}
+
+		unlink(id);
+		link(id, cell);
+	}
+
+	/**
+	 * Removes an item from the grid, if held.
+	 *
+	 * @param int id - The item ID.
+	 */
+	public void remove(int id)
+	{
+		if (id < mCell.length)
+		{
+			unlink(id);
+		}
+	}
+
+	/**
+	 * Removes every item with an ID from a given ID onward. Used when items
+	 * are held in a store whose size has shrunk.
+	 *
+	 * @param int id - The first item ID to remove.
+	 */
+	public void removeFrom(int id)
+	{
+		int i;
+		for (i = id; i <= (mCell.length - 1); i++)
+		{
+			if (mCell[i] != NONE)
+			{
+				unlink(i);
+			}
+		}
+	}
+
+	/**
+	 * Removes every item from the grid.
+	 */
+	public void clear()
+	{
+		Arrays.fill(mCellHead, NONE);
+		Arrays.fill(mCell, NONE);
+
+		mMaxWidth = 0;
+		mMaxHeight = 0;
+	}
+
+	/**
+	 * Grows the grid, if needed, to hold item IDs below a given ID without
+	 * reallocating.
+	 *
+	 * @param int capacity - The number of item IDs.
+	 */
+	public void ensureCapacity(int capacity)
+	{
+		if (capacity > mCell.length)
+		{
+			allocate(capacity);
+		}
+	}
+
+	/**
+	 * Finds the items overlapping a rectangle, using the same test as
+	 * GameItem.isCollision().
+	 *
+	 * @param int x - The X coordinate of the rectangle.
+	 * @param int y - The Y coordinate of the rectangle.
+	 * @param int width - The rectangle width.
+	 * @param int height - The rectangle height.
+	 * @param int[] results - Receives the IDs of the items found.
+	 * @return int - The number of IDs written, no more than the length of
+	 * 	the results array.
+	 */
+	public int queryRect(int x, int y, int width, int height, int[] results)
+	{
+		return query(x, y, width, height, NONE, results);
+	}
+
+	/**
+	 * Finds the other items overlapping an item held in the grid.
+	 *
+	 * @param int id - The item ID.
+	 * @param int[] results - Receives the IDs of the items found.
+	 * @return int - The number of IDs written, no more than the length of
+	 * 	the results array.
+	 */
+	public int queryOverlaps(int id, int[] results)
+	{
+		return query(mX[id], mY[id], mWidth[id], mHeight[id], id, results);
+	}
+
+	/**
+	 * Finds the items whose center lies within a distance of a point.
+	 *
+	 * @param int centerX - The X coordinate of the point.
+	 * @param int centerY - The Y coordinate of the point.
+	 * @param int radius - The distance.
+	 * @param int[] results - Receives the IDs of the items found.
+	 * @return int - The number of IDs written, no more than the length of
+	 * 	the results array.
+	 */
+	public int queryRadius(int centerX, int centerY, int radius, int[] results)
+	{
+		// Widen the search so that any item whose center is in range is
+		// found, however large the item.
+		int minColumn = getColumn(centerX - radius - mMaxWidth);
+		int maxColumn = getColumn(centerX + radius);
+		int minRow = getRow(centerY - radius - mMaxHeight);
+		int maxRow = getRow(centerY + radius);
+
+		long radiusSquared = ((long) radius * radius);
+		int count = 0;
+
+		int id;
+		long dx;
+		long dy;
+
+		int row;
+		int column;
+		for (row = minRow; row <= maxRow; row++)
+		{
+			for (column = minColumn; column <= maxColumn; column++)
+			{
+				id = mCellHead[(row * mColumns) + column];
+
+				while (id != NONE)
+				{
+					// Doubled to keep the center in whole units.
+					dx = ((2L * mX[id]) + mWidth[id] - (2L * centerX));
+					dy = ((2L * mY[id]) + mHeight[id] - (2L * centerY));
+
+					if (((dx * dx) + (dy * dy)) <= (radiusSquared * 4))
+					{
+						if (count == results.length)
+						{
+							return count;
+						}
+
+						results[count] = id;
+						count++;
+					}
+
+					id = mNext[id];
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Finds the items overlapping a rectangle.
+	 *
+	 * @param int x - The X coordinate of the rectangle.
+	 * @param int y - The Y coordinate of the rectangle.
+	 * @param int width - The rectangle width.
+	 * @param int height - The rectangle height.
+	 * @param int excludeId - An item ID to leave out of the results, or NONE.
+	 * @param int[] results - Receives the IDs of the items found.
+	 * @return int - The number of IDs written.
+	 */
+	private int query(int x, int y, int width, int height, int excludeId,
+			int[] results)
+	{
+		int minColumn = getColumn(x - mMaxWidth);
+		int maxColumn = getColumn(x + width);
+		int minRow = getRow(y - mMaxHeight);
+		int maxRow = getRow(y + height);
+
+		int count = 0;
+
+		int id;
+
+		int row;
+		int column;
+		for (row = minRow; row <= maxRow; row++)
+		{
+			for (column = minColumn; column <= maxColumn; column++)
+			{
+				id = mCellHead[(row * mColumns) + column];
+
+				while (id != NONE)
+				{
+					if ((id != excludeId)
+							&& GameItem.intersects(x, y, width, height, mX[id], mY[id],
+									mWidth[id], mHeight[id]))
+					{
+						if (count == results.length)
+						{
+							return count;
+						}
+
+						results[count] = id;
+						count++;
+					}
+
+					id = mNext[id];
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Links an item into the head of a cell's list.
+	 *
+	 * @param int id - The item ID.
+	 * @param int cell - The cell index.
+	 */
+	private void link(int id, int cell)
+	{
+		int head = mCellHead[cell];
+
+		mNext[id] = head;
+		mPrevious[id] = NONE;
+
+		if (head != NONE)
+		{
+			mPrevious[head] = id;
+		}
+
+		mCellHead[cell] = id;
+		mCell[id] = cell;
+	}
+
+	/**
+	 * Unlinks an item from its cell's list, if held.
+	 *
+	 * @param int id - The item ID.
+	 */
+	private void unlink(int id)
+	{
+		int cell = mCell[id];
+
+		if (cell == NONE)
+		{
+			return;
+		}
+
+		int next = mNext[id];
+		int previous = mPrevious[id];
+
+		if (previous != NONE)
+		{
+			mNext[previous] = next;
+		} else
+		{
+			mCellHead[cell] = next;
+		}
+
+		if (next != NONE)
+		{
+			mPrevious[next] = previous;
+		}
+
+		mCell[id] = NONE;
+	}
+
+	private int getColumn(int x)
+	{
+		int column = (x / mCellSize);
+
+		if (x < 0)
+		{
+			return 0;
+		}
+
+		return (column >= mColumns) ? (mColumns - 1) : column;
+	}
+
+	private int getRow(int y)
+	{
+		int row = (y / mCellSize);
+
+		if (y < 0)
+		{
+			return 0;
+		}
+
+		return (row >= mRows) ? (mRows - 1) : row;
+	}
+
+	private int getCell(int x, int y)
+	{
+		return ((getRow(y) * mColumns) + getColumn(x));
+	}
+
+	/**
+	 * Reallocates the per item arrays with a larger capacity, keeping their
+	 * contents.
+	 *
+	 * @param int capacity - The new capacity.
+	 */
+	private void allocate(int capacity)
+	{
+		int oldCapacity = (mCell != null) ? mCell.length : 0;
+
+		mCell = copyOf(mCell, capacity);
+		mNext = copyOf(mNext, capacity);
+		mPrevious = copyOf(mPrevious, capacity);
+		mX = copyOf(mX, capacity);
+		mY = copyOf(mY, capacity);
+		mWidth = copyOf(mWidth, capacity);
+		mHeight = copyOf(mHeight, capacity);
+
+		Arrays.fill(mCell, oldCapacity, capacity, NONE);
+	}
+
+	/**
+	 * Copies an array into a new array of a larger capacity. Used in place
+	 * of Arrays.copyOf(), which is not available before API level 9.
+	 *
+	 * @param int[] array - The array to copy, or null.
+	 * @param int capacity - The capacity of the new array.
+	 * @return int[]
+	 */
+	private static int[] copyOf(int[] array, int capacity)
+	{
+		int[] copy = new int[capacity];
+
+		if (array != null)
+		{
+			System.arraycopy(array, 0, copy, 0, array.length);
+		}
+
+		return copy;
+	}
+
+	public int getCellSize()
+	{
+		return mCellSize;
+	}
+
+	public int getColumns()
+	{
+		return mColumns;
+	}
+
+	public int getRows()
+	{
+		return mRows;
+	}
+}
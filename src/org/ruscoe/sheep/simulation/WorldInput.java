@@ -0,0 +1,53 @@
+package org.ruscoe.sheep.simulation;
+
+/**
+ * The input applied to the game world for a single tick.
+ * 
+ * A single instance is reused for every tick, so driving the world does not
+ * allocate.
+ * 
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class WorldInput
+{
+	// The horizontal acceleration rate taken from the device accelerometer.
+	// Used to move the bounce pad item.
+	private float mAccelX = 0;
+
+	// The time of the tick in milliseconds. Used to advance animations.
+	private long mTime = 0;
+
+	// True to explode every sheep at the start of the tick.
+	private boolean mExplode = false;
+
+	public float getAccelX()
+	{
+		return mAccelX;
+	}
+
+	public void setAccelX(float accelX)
+	{
+		this.mAccelX = accelX;
+	}
+
+	public long getTime()
+	{
+		return mTime;
+	}
+
+	public void setTime(long time)
+	{
+		this.mTime = time;
+	}
+
+	public boolean isExplode()
+	{
+		return mExplode;
+	}
+
+	public void setExplode(boolean explode)
+	{
+		this.mExplode = explode;
+	}
+}
@@ -0,0 +1,30 @@
+package org.ruscoe.sheep.simulation;
+
+/**
+ * Receives events raised by the game world while it is updated.
+ * 
+ * Used to attach sound and score persistence to the world without the world
+ * depending on either.
+ * 
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public interface WorldListener
+{
+	/**
+	 * Invoked when a falling sheep lands on the bounce pad.
+	 */
+	public void onSheepBounced();
+
+	/**
+	 * Invoked when a sheep is destroyed and turned into debris.
+	 */
+	public void onSheepPopped();
+
+	/**
+	 * Invoked when the player's score beats the high score.
+	 * 
+	 * @param int highScore - The new high score.
+	 */
+	public void onHighScore(int highScore);
+}
@@ -0,0 +1,283 @@
+package org.ruscoe.sheep.simulation;
+
+import org.ruscoe.sheep.constants.Sprites;
+import org.ruscoe.sheep.models.GameItem;
+import org.ruscoe.sheep.models.JumpingGameItem;
+
+/**
+ * A copy of everything needed to draw the game world at a point in time.
+ *
+ * Item state is copied into primitive arrays, which are reused between
+ * captures and only grow, so a snapshot can be drawn by one thread while the
+ * world is updated by another.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class WorldSnapshot
+{
+	// The initial capacity of the item arrays.
+	private static final int INITIAL_CAPACITY = 64;
+
+	// The time the snapshot was captured, in nanoseconds.
+	private long mTime = 0;
+
+	// Visible sheep item state.
+	private int mSheepCount = 0;
+	private int[] mSheepPreviousX = new int[INITIAL_CAPACITY];
+	private int[] mSheepPreviousY = new int[INITIAL_CAPACITY];
+	private int[] mSheepX = new int[INITIAL_CAPACITY];
+	private int[] mSheepY = new int[INITIAL_CAPACITY];
+	private int[] mSheepWidth = new int[INITIAL_CAPACITY];
+	private int[] mSheepSprite = new int[INITIAL_CAPACITY];
+	private int[] mSheepIconSprite = new int[INITIAL_CAPACITY];
+	private boolean[] mSheepFacingRight = new boolean[INITIAL_CAPACITY];
+
+	// Debris particle state, oldest first. Every particle uses the
+	// debris sprite.
+	private int mDebrisCount = 0;
+	private int[] mDebrisPreviousX = new int[INITIAL_CAPACITY];
+	private int[] mDebrisPreviousY = new int[INITIAL_CAPACITY];
+	private int[] mDebrisX = new int[INITIAL_CAPACITY];
+	private int[] mDebrisY = new int[INITIAL_CAPACITY];
+
+	// Bounce pad item state.
+	private int mBouncePadPreviousX = 0;
+	private int mBouncePadPreviousY = 0;
+	private int mBouncePadX = 0;
+	private int mBouncePadY = 0;
+	private int mBouncePadSprite = Sprites.NONE;
+
+	// The player's score and high score.
+	private int mScore = 0;
+	private int mHighScore = 0;
+
+	/**
+	 * Copies the current state of a game world into this snapshot.
+	 *
+	 * @param GameWorld world - The game world to copy.
+	 * @param long time - The capture time in nanoseconds.
+	 */
+	public void capture(GameWorld world, long time)
+	{
+		mTime = time;
+
+		captureSheep(world.getSheep());
+		captureDebris(world.getDebris());
+
+		GameItem bouncePad = world.getBouncePad();
+
+		mBouncePadPreviousX = bouncePad.getPreviousX();
+		mBouncePadPreviousY = bouncePad.getPreviousY();
+		mBouncePadX = bouncePad.getX();
+		mBouncePadY = bouncePad.getY();
+		mBouncePadSprite = bouncePad.getImage().getSprite();
+
+		mScore = world.getScore();
+		mHighScore = world.getHighScore();
+	}
+
+	/**
+	 * Copies the state of each visible sheep item.
+	 *
+	 * @param EntityStore sheep - The sheep items.
+	 */
+	private void captureSheep(EntityStore sheep)
+	{
+		ensureSheepCapacity(sheep.size());
+
+		int count = 0;
+
+		int i;
+		for (i = 0; i <= (sheep.size() - 1); i++)
+		{
+			if (!sheep.isVisible(i))
+			{
+				continue;
+			}
+
+			mSheepPreviousX[count] = sheep.getPreviousX(i);
+			mSheepPreviousY[count] = sheep.getPreviousY(i);
+			mSheepX[count] = sheep.getX(i);
+			mSheepY[count] = sheep.getY(i);
+			mSheepWidth[count] = sheep.getWidth(i);
+			mSheepSprite[count] = sheep.getSprite(i);
+			mSheepIconSprite[count] = sheep.getIconSprite(i);
+			mSheepFacingRight[count] = (sheep.getDirection(i) == JumpingGameItem.DIRECTION_RIGHT);
+
+			count++;
+		}
+
+		mSheepCount = count;
+	}
+
+	/**
+	 * Copies the position of each debris particle.
+	 *
+	 * @param DebrisSystem debris - The debris particles.
+	 */
+	private void captureDebris(DebrisSystem debris)
+	{
+		ensureDebrisCapacity(debris.size());
+
+		debris.copyPositions(mDebrisPreviousX, mDebrisPreviousY, mDebrisX,
+				mDebrisY);
+
+		mDebrisCount = debris.size();
+	}
+
+	/**
+	 * Grows the sheep arrays to hold at least a given number of items.
+	 * Contents are not copied, as every capture overwrites them.
+	 *
+	 * @param int capacity - The required capacity.
+	 */
+	private void ensureSheepCapacity(int capacity)
+	{
+		if (capacity <= mSheepX.length)
+		{
+			return;
+		}
+
+		int newCapacity = Math.max(capacity, (mSheepX.length * 2));
+
+		mSheepPreviousX = new int[newCapacity];
+		mSheepPreviousY = new int[newCapacity];
+		mSheepX = new int[newCapacity];
+		mSheepY = new int[newCapacity];
+		mSheepWidth = new int[newCapacity];
+		mSheepSprite = new int[newCapacity];
+		mSheepIconSprite = new int[newCapacity];
+		mSheepFacingRight = new boolean[newCapacity];
+	}
+
+	/**
+	 * Grows the debris arrays to hold at least a given number of items.
+	 * Contents are not copied, as every capture overwrites them.
+	 *
+	 * @param int capacity - The required capacity.
+	 */
+	private void ensureDebrisCapacity(int capacity)
+	{
+		if (capacity <= mDebrisX.length)
+		{
+			return;
+		}
+
+		int newCapacity = Math.max(capacity, (mDebrisX.length * 2));
+
+		mDebrisPreviousX = new int[newCapacity];
+		mDebrisPreviousY = new int[newCapacity];
+		mDebrisX = new int[newCapacity];
+		mDebrisY = new int[newCapacity];
+	}
+
+	/**
+	 * Interpolates between a previous and current coordinate.
+	 *
+	 * @param int previous - The coordinate before the last update.
+	 * @param int current - The coordinate after the last update.
+	 * @param float alpha - The fraction of an update elapsed, from 0 to 1.
+	 * @return float
+	 */
+	private static float interpolate(int previous, int current, float alpha)
+	{
+		return (previous + ((current - previous) * alpha));
+	}
+
+	public long getTime()
+	{
+		return mTime;
+	}
+
+	public int getSheepCount()
+	{
+		return mSheepCount;
+	}
+
+	public float getSheepX(int index, float alpha)
+	{
+		return interpolate(mSheepPreviousX[index], mSheepX[index], alpha);
+	}
+
+	public float getSheepY(int index, float alpha)
+	{
+		return interpolate(mSheepPreviousY[index], mSheepY[index], alpha);
+	}
+
+	public int getSheepWidth(int index)
+	{
+		return mSheepWidth[index];
+	}
+
+	public int getSheepSprite(int index)
+	{
+		return mSheepSprite[index];
+	}
+
+	public int getSheepIconSprite(int index)
+	{
+		return mSheepIconSprite[index];
+	}
+
+	public boolean isSheepFacingRight(int index)
+	{
+		return mSheepFacingRight[index];
+	}
+
+	public int getDebrisCount()
+	{
+		return mDebrisCount;
+	}
+
+	/**
+	 * Writes the interpolated position of every debris particle into an
+	 * array as X / Y pairs, so that all debris can be drawn in one pass.
+	 *
+	 * @param float[] positions - Receives the positions. Must hold at least
+	 * 	getDebrisCount() * 2 values.
+	 * @param float alpha - The fraction of an update elapsed, from 0 to 1.
+	 * @return int - The number of positions written.
+	 */
+	public int getDebrisPositions(float[] positions, float alpha)
+	{
+		int i;
+		for (i = 0; i <= (mDebrisCount - 1); i++)
+		{
+			positions[i * 2] = interpolate(mDebrisPreviousX[i], mDebrisX[i], alpha);
+			positions[(i * 2) + 1] = interpolate(mDebrisPreviousY[i], mDebrisY[i], alpha);
+		}
+
+		return mDebrisCount;
+	}
+
+	public int getDebrisSprite()
+	{
+		return Sprites.DEBRIS;
+	}
+
+	public float getBouncePadX(float alpha)
+	{
+		return interpolate(mBouncePadPreviousX, mBouncePadX, alpha);
+	}
+
+	public float getBouncePadY(float alpha)
+	{
+		return interpolate(mBouncePadPreviousY, mBouncePadY, alpha);
+	}
+
+	public int getBouncePadSprite()
+	{
+		return mBouncePadSprite;
+	}
+
+	public int getScore()
+	{
+		return mScore;
+	}
+
+	public int getHighScore()
+	{
+		return mHighScore;
+	}
+}
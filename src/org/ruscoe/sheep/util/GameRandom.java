@@ -0,0 +1,244 @@
+package org.ruscoe.sheep.util;
+
+/**
+ * A fast, seedable pseudo-random number generator for the game rules.
+ *
+ * Numbers are generated with xoroshiro128**, whose 128 bits of state are
+ * filled from the seed with SplitMix64, so every seed, including 0, gives
+ * a well mixed sequence. The same seed always gives the same sequence,
+ * so a game started with a known seed and given the same input plays out
+ * the same way.
+ *
+ * Unlike Math.random() and java.util.Random, a GameRandom is not
+ * synchronized and never allocates. Each instance must be confined to a
+ * single thread.
+ *
+ * Has no dependency on the Android framework.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class GameRandom
+{
+	// The SplitMix64 increment, the golden ratio in 64-bit fixed point.
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private static final long UNSIGNED_INT_MASK = 0xFFFFFFFFL;
+
+	// The generator state. Never both 0.
+	private long mState0;
+	private long mState1;
+
+	// The seed the generator was last seeded with.
+	private long mSeed;
+
+	/**
+	 * @param long seed - The seed.
+	 */
+	public GameRandom(long seed)
+	{
+		setSeed(seed);
+	}
+
+	/**
+	 * Restarts the sequence of numbers for a seed.
+	 *
+	 * @param long seed - The seed.
+	 */
+	public void setSeed(long seed)
+	{
+		mSeed = seed;
+
+		mState0 = mix(seed + GOLDEN_GAMMA);
+		mState1 = mix(seed + (GOLDEN_GAMMA * 2));
+
+		if ((mState0 == 0) && (mState1 == 0))
+		{
+			mState1 = GOLDEN_GAMMA;
+		}
+	}
+
+	/**
+	 * Gets the next 64 random bits.
+	 *
+	 * @return long
+	 */
+	public long nextLong()
+	{
+		long s0 = mState0;
+		long s1 = mState1;
+
+		long result = (Long.rotateLeft((s0 * 5), 7) * 9);
+
+		s1 ^= s0;
+		mState0 = (Long.rotateLeft(s0, 24) ^ s1 ^ (s1 << 16));
+		mState1 = Long.rotateLeft(s1, 37);
+
+		return result;
+	}
+
+	/**
+	 * Gets a random int, every value equally likely.
+	 *
+	 * @return int
+	 */
+	public int nextInt()
+	{
+		return (int) (nextLong() >>> 32);
+	}
+
+	/**
+	 * Gets a random int from 0 up to a bound, every value equally likely.
+	 *
+	 * Scales 32 random bits by the bound with a single multiplication,
+	 * rejecting the few results which would make some values more likely
+	 * than others.
+	 *
+	 * @param int bound - The bound, exclusive. Must be positive.
+	 * @return int
+	 */
+	public int nextInt(int bound)
+	{
+		if (bound <= 0)
+		{
+			throw new IllegalArgumentException("Bound must be positive: " + bound);
+		}
+
+		long product = ((nextLong() >>> 32) * bound);
+
+		if ((product & UNSIGNED_INT_MASK) < bound)
+		{
+			// The number of 32-bit values which map to each result, less
+			// one, is rejected from the low end.
+			long threshold = ((0x100000000L - bound) % bound);
+
+			while ((product & UNSIGNED_INT_MASK) < threshold)
+			{
+				product = ((nextLong() >>> 32) * bound);
+			}
+		}
+
+		return (int) (product >>> 32);
+	}
+
+	/**
+	 * Gets a random int within a range, every value equally likely.
+	 *
+	 * @param int min - The lowest value, inclusive.
+	 * @param int max - The highest value, inclusive. The range must hold
+	 * 	no more than Integer.MAX_VALUE values.
+	 * @return int
+	 */
+	public int nextIntInRange(int min, int max)
+	{
+		return (min + nextInt((max - min) + 1));
+	}
+
+	/**
+	 * Gets a random boolean.
+	 *
+	 * @return boolean
+	 */
+	public boolean nextBoolean()
+	{
+		return (nextLong() < 0);
+	}
+
+	/**
+	 * Gets a random double from 0, inclusive, to 1, exclusive.
+	 *
+	 * @return double
+	 */
+	public double nextDouble()
+	{
+		return ((nextLong() >>> 11) * 0x1.0p-53);
+	}
+
+	/**
+	 * Gets the number of trials up to and including the first success, for
+	 * trials which each succeed with a given probability. Equivalent to
+	 * making the trials one by one, but takes a single random number.
+	 *
+	 * @param double probability - The probability of each trial succeeding,
+	 * 	greater than 0 and no more than 1.
+	 * @return int - The number of trials, at least 1. Limited to
+	 * 	Integer.MAX_VALUE.
+	 */
+	public int nextGeometric(double probability)
+	{
+		// Inverts the distribution's CDF. log1p() keeps precision for
+		// small probabilities, and 1 - nextDouble() is never 0.
+		double trials = (Math.floor(Math.log1p(-nextDouble())
+				/ Math.log1p(-probability)) + 1);
+
+		return (trials >= Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) trials;
+	}
+
+	/**
+	 * Fills an array with random ints within a range, as for
+	 * nextIntInRange().
+	 *
+	 * @param int[] values - The array to fill.
+	 * @param int count - The number of values to fill, from index 0.
+	 * @param int min - The lowest value, inclusive.
+	 * @param int max - The highest value, inclusive.
+	 */
+	public void fillIntsInRange(int[] values, int count, int min, int max)
+	{
+		int bound = ((max - min) + 1);
+
+		int i;
+		for (i = 0; i <= (count - 1); i++)
+		{
+			values[i] = (min + nextInt(bound));
+		}
+	}
+
+	/**
+	 * Fills an array with random booleans, taking 64 from each call to
+	 * nextLong().
+	 *
+	 * @param boolean[] values - The array to fill.
+	 * @param int count - The number of values to fill, from index 0.
+	 */
+	public void fillBooleans(boolean[] values, int count)
+	{
+		long bits = 0;
+
+		int i;
+		for (i = 0; i <= (count - 1); i++)
+		{
+			if ((i & 63) == 0)
+			{
+				bits = nextLong();
+			}
+
+			values[i] = ((bits & 1) != 0);
+			bits >>>= 1;
+		}
+	}
+
+	/**
+	 * Mixes the bits of a value, as a SplitMix64 step.
+	 *
+	 * @param long z - The value.
+	 * @return long
+	 */
+	private static long mix(long z)
+	{
+		z = ((z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L);
+		z = ((z ^ (z >>> 27)) * 0x94D049BB133111EBL);
+
+		return (z ^ (z >>> 31));
+	}
+
+	/**
+	 * Gets the seed the generator was last seeded with.
+	 *
+	 * @return long
+	 */
+	public long getSeed()
+	{
+		return mSeed;
+	}
+}
@@ -0,0 +1,503 @@
+package org.ruscoe.sheep.util;
+
+/**
+ * A reference-counted cache of values keyed by int, holding at most a given
+ * total size of unreferenced values.
+ *
+ * Values are acquired and released. A value is only evicted once every
+ * acquire has been released, least recently released first, when the size
+ * of the cache is over its budget; referenced values are never evicted, so
+ * the cache may exceed its budget while they are held.
+ *
+ * Keys are stored in an open-addressed table of primitive ints, so lookups
+ * do not box keys. Subclasses define the size of a value and how an
+ * evicted value is disposed of.
+ *
+ * Has no dependency on the Android framework. Not thread safe.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class IntLruCache<V>
+{
+	private static final int NONE = -1;
+
+	// The initial number of entries the cache can hold before growing.
+	private static final int INITIAL_CAPACITY = 16;
+
+	// The largest total size of values held, in the units of sizeOf().
+	private long mMaxSize;
+	// The total size of values held.
+	private long mSize = 0;
+
+	// Entry state, indexed by entry slot.
+	private int[] mKeys;
+	private Object[] mValues;
+	private long[] mSizes;
+	private int[] mReferenceCounts;
+	// The next newer and older unreferenced entries. Free slots are
+	// linked by mOlder.
+	private int[] mNewer;
+	private int[] mOlder;
+
+	// The first free entry slot.
+	private int mFreeSlot = NONE;
+	// The number of entry slots ever used.
+	private int mUsedSlots = 0;
+	// The number of entries held.
+	private int mCount = 0;
+
+	// The most and least recently released unreferenced entries.
+	private int mNewest = NONE;
+	private int mOldest = NONE;
+
+	// Maps keys to entry slots. Holds slot + 1, or 0 for an empty bucket.
+	private int[] mTable;
+
+	// Statistics.
+	private long mHitCount = 0;
+	private long mMissCount = 0;
+	private long mEvictionCount = 0;
+
+	/**
+	 * @param long maxSize - The largest total size of values held, in the
+	 * 	units of sizeOf().
+	 */
+	public IntLruCache(long maxSize)
+	{
+		mMaxSize = maxSize;
+
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Gets the size of a value. Returns 1 unless overridden, so the budget
+	 * is a number of values.
+	 *
+	 * @param V value - The value.
+	 * @return long
+	 */
+	protected long sizeOf(V value)
+	{
+		return 1;
+	}
+
+	/**
+	 * Disposes of a value evicted from the cache. Does nothing unless
+	 * overridden.
+	 *
+	 * @param int key - The key of the value.
+	 * @param V value - The evicted value.
+	 */
+	protected void onEvicted(int key, V value)
+	{
+	}
+
+	/**
+	 * Acquires the value for a key, if held. Each acquired value must be
+	 * released with release().
+	 *
+	 * @param int key - The key.
+	 * @return V - The value, or null if not held.
+	 */
+	@SuppressWarnings("unchecked")
+	public V acquire(int key)
+	{
+		int slot = findSlot(key);
+
+		if (slot == NONE)
+		{
+			mMissCount++;
+
+			return null;
+		}
+
+		mHitCount++;
+
+		if (mReferenceCounts[slot] == 0)
+		{
+			unlink(slot);
+		}
+
+		mReferenceCounts[slot]++;
+
+		return (V) mValues[slot];
+	}
+
+	/**
+	 * Adds a value, acquired once, which must be released with release().
+	 * The key must not already be held.
+	 *
+	 * @param int key - The key.
+	 * @param V value - The value. Must not be null.
+	 */
+	public void put(int key, V value)
+	{
+		if (value == null)
+		{
+			throw new IllegalArgumentException("Null value for key: " + key);
+		}
+
+		if (findSlot(key) != NONE)
+		{
+			throw new IllegalStateException("Key already cached: " + key);
+		}
+
+		if (mCount >= (mTable.length / 2))
+		{
+			grow();
+		}
+
+		int slot = mFreeSlot;
+
+		if (slot != NONE)
+		{
+			mFreeSlot = mOlder[slot];
+		}
+		else
+		{
+			slot = mUsedSlots++;
+		}
+
+		mKeys[slot] = key;
+		mValues[slot] = value;
+		mSizes[slot] = sizeOf(value);
+		mReferenceCounts[slot] = 1;
+		mNewer[slot] = NONE;
+		mOlder[slot] = NONE;
+
+		insertKey(key, slot);
+
+		mCount++;
+		mSize += mSizes[slot];
+
+		trimToSize(mMaxSize);
+	}
+
+	/**
+	 * Releases a value acquired by acquire() or put(). Once every acquire
+	 * is released, the value may be evicted.
+	 *
+	 * @param int key - The key.
+	 */
+	public void release(int key)
+	{
+		int slot = findSlot(key);
+
+		if ((slot == NONE) || (mReferenceCounts[slot] == 0))
+		{
+			throw new IllegalStateException("Key not acquired: " + key);
+		}
+
+		mReferenceCounts[slot]--;
+
+		if (mReferenceCounts[slot] == 0)
+		{
+			linkNewest(slot);
+
+			trimToSize(mMaxSize);
+		}
+	}
+
+	/**
+	 * Evicts every unreferenced value.
+	 */
+	public void evictAll()
+	{
+		trimToSize(-1);
+	}
+
+	/**
+	 * Evicts unreferenced values, least recently released first, until the
+	 * total size is within a budget or no unreferenced values remain.
+	 *
+	 * @param long maxSize - The budget.
+	 */
+	@SuppressWarnings("unchecked")
+	private void trimToSize(long maxSize)
+	{
+		int slot;
+		int key;
+		V value;
+
+		while ((mSize > maxSize) && (mOldest != NONE))
+		{
+			slot = mOldest;
+			key = mKeys[slot];
+			value = (V) mValues[slot];
+
+			unlink(slot);
+			removeKey(key);
+
+			mSize -= mSizes[slot];
+			mValues[slot] = null;
+			mCount--;
+
+			mOlder[slot] = mFreeSlot;
+			mFreeSlot = slot;
+
+			mEvictionCount++;
+
+			onEvicted(key, value);
+		}
+	}
+
+	/**
+	 * Adds an entry to the newest end of the unreferenced list.
+	 *
+	 * @param int slot - The entry slot.
+	 */
+	private void linkNewest(int slot)
+	{
+		mNewer[slot] = NONE;
+		mOlder[slot] = mNewest;
+
+		if (mNewest != NONE)
+		{
+			mNewer[mNewest] = slot;
+		}
+		else
+		{
+			mOldest = slot;
+		}
+
+		mNewest = slot;
+	}
+
+	/**
+	 * Removes an entry from the unreferenced list.
+	 *
+	 * @param int slot - The entry slot.
+	 */
+	private void unlink(int slot)
+	{
+		int newer = mNewer[slot];
+		int older = mOlder[slot];
+
+		if (newer != NONE)
+		{
+			mOlder[newer] = older;
+		}
+		else
+		{
+			mNewest = older;
+		}
+
+		if (older != NONE)
+		{
+			mNewer[older] = newer;
+		}
+		else
+		{
+			mOldest = newer;
+		}
+
+		mNewer[slot] = NONE;
+		mOlder[slot] = NONE;
+	}
+
+	/**
+	 * Finds the entry slot holding a key.
+	 *
+	 * @param int key - The key.
+	 * @return int - The slot, or NONE if the key is not held.
+	 */
+	private int findSlot(int key)
+	{
+		int mask = (mTable.length - 1);
+		int bucket = (hash(key) & mask);
+
+		while (mTable[bucket] != 0)
+		{
+			if (mKeys[mTable[bucket] - 1] == key)
+			{
+				return (mTable[bucket] - 1);
+			}
+
+			bucket = ((bucket + 1) & mask);
+		}
+
+		return NONE;
+	}
+
+	/**
+	 * Maps a key to an entry slot in the table.
+	 *
+	 * @param int key - The key.
+	 * @param int slot - The entry slot.
+	 */
+	private void insertKey(int key, int slot)
+	{
+		int mask = (mTable.length - 1);
+		int bucket = (hash(key) & mask);
+
+		while (mTable[bucket] != 0)
+		{
+			bucket = ((bucket + 1) & mask);
+		}
+
+		mTable[bucket] = (slot + 1);
+	}
+
+	/**
+	 * Removes a key from the table, shifting back any keys which probed
+	 * past it so lookups need no deleted markers.
+	 *
+	 * @param int key - The key.
+	 */
+	private void removeKey(int key)
+	{
+		int mask = (mTable.length - 1);
+		int bucket = (hash(key) & mask);
+
+		while (mKeys[mTable[bucket] - 1] != key)
+		{
+			bucket = ((bucket + 1) & mask);
+		}
+
+		int next = ((bucket + 1) & mask);
+		int home;
+
+		while (mTable[next] != 0)
+		{
+			home = (hash(mKeys[mTable[next] - 1]) & mask);
+
+			// Move the key back if the emptied bucket lies on its probe
+			// path, between its home bucket and its bucket.
+			if (((next - home) & mask) >= ((next - bucket) & mask))
+			{
+				mTable[bucket] = mTable[next];
+				bucket = next;
+			}
+
+			next = ((next + 1) & mask);
+		}
+
+		mTable[bucket] = 0;
+	}
+
+	/**
+	 * Spreads the bits of a key, as resource IDs share their high bits.
+	 *
+	 * @param int key - The key.
+	 * @return int
+	 */
+	private static int hash(int key)
+	{
+		int h = (key * 0x9E3779B9);
+
+		return (h ^ (h >>> 16));
+	}
+
+	/**
+	 * Allocates the entry arrays and table.
+	 *
+	 * @param int capacity - The number of entries to hold.
+	 */
+	private void allocate(int capacity)
+	{
+		mKeys = new int[capacity];
+		mValues = new Object[capacity];
+		mSizes = new long[capacity];
+		mReferenceCounts = new int[capacity];
+		mNewer = new int[capacity];
+		mOlder = new int[capacity];
+
+		mTable = new int[capacity * 2];
+	}
+
+	/**
+	 * Doubles the number of entries the cache can hold.
+	 */
+	private void grow()
+	{
+		int[] keys = mKeys;
+		Object[] values = mValues;
+		long[] sizes = mSizes;
+		int[] referenceCounts = mReferenceCounts;
+		int[] newer = mNewer;
+		int[] older = mOlder;
+
+		allocate(keys.length * 2);
+
+		System.arraycopy(keys, 0, mKeys, 0, mUsedSlots);
+		System.arraycopy(values, 0, mValues, 0, mUsedSlots);
+		System.arraycopy(sizes, 0, mSizes, 0, mUsedSlots);
+		System.arraycopy(referenceCounts, 0, mReferenceCounts, 0, mUsedSlots);
+		System.arraycopy(newer, 0, mNewer, 0, mUsedSlots);
+		System.arraycopy(older, 0, mOlder, 0, mUsedSlots);
+
+		// Rehash every held entry. Free slots hold no value.
+		int i;
+		for (i = 0; i <= (mUsedSlots - 1); i++)
+		{
+			if (mValues[i] != null)
+			{
+				insertKey(mKeys[i], i);
+			}
+		}
+	}
+
+	/**
+	 * Builds a summary of the cache statistics.
+	 *
+	 * @return String
+	 */
+	public String getSummary()
+	{
+		long lookups = (mHitCount + mMissCount);
+		long hitPercent = (lookups > 0) ? ((mHitCount * 100) / lookups) : 0;
+
+		return "entries=" + mCount + " size=" + mSize + "/" + mMaxSize
+				+ " hits=" + mHitCount + " misses=" + mMissCount + " ("
+				+ hitPercent + "% hit) evictions=" + mEvictionCount;
+	}
+
+	/**
+	 * Gets the number of references held to the value for a key.
+	 *
+	 * @param int key - The key.
+	 * @return int - The reference count, or 0 if the key is not held.
+	 */
+	public int getReferenceCount(int key)
+	{
+		int slot = findSlot(key);
+
+		return (slot == NONE) ? 0 : mReferenceCounts[slot];
+	}
+
+	public boolean contains(int key)
+	{
+		return (findSlot(key) != NONE);
+	}
+
+	public int getCount()
+	{
+		return mCount;
+	}
+
+	public long getSize()
+	{
+		return mSize;
+	}
+
+	public long getMaxSize()
+	{
+		return mMaxSize;
+	}
+
+	public long getHitCount()
+	{
+		return mHitCount;
+	}
+
+	public long getMissCount()
+	{
+		return mMissCount;
+	}
+
+	public long getEvictionCount()
+	{
+		return mEvictionCount;
+	}
+}
@@ -0,0 +1,211 @@
+package org.ruscoe.sheep.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * A small, fixed number of ints stored in a memory-mapped file.
+ *
+ * The file holds two slots, each with a sequence number, the values and a
+ * CRC32 checksum. Values are read straight from the current slot. A write
+ * fills the other slot with the next sequence number and syncs it to
+ * storage, so the current slot is never touched; if the process or device
+ * stops part way through, the half written slot fails its checksum and the
+ * other is used when the file is next opened.
+ *
+ * Slots start a memory page apart, so they are never written back to
+ * storage as part of the same page or sector, and a write torn by a power
+ * failure cannot damage both. The checksum is what detects a torn slot.
+ *
+ * Has no dependency on the Android framework. Not thread safe.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class MappedIntFile
+{
+	private static final int NONE = -1;
+
+	// The length of a slot, in bytes.
+	private static final int SLOT_SIZE = 512;
+	// The spacing of slots in the file, in bytes. The memory page size, so
+	// each slot starts on a page of its own.
+	private static final int SLOT_SPACING = 4096;
+
+	// The offset of each field within a slot, in bytes.
+	private static final int SEQUENCE_OFFSET = 0;
+	private static final int COUNT_OFFSET = 8;
+	private static final int VALUES_OFFSET = 12;
+
+	// The largest number of values a slot holds, leaving room for the
+	// checksum.
+	public static final int MAX_COUNT = ((SLOT_SIZE - VALUES_OFFSET - 4) / 4);
+
+	// The number of values held.
+	private int mCount;
+
+	private MappedByteBuffer mBuffer;
+
+	// The slot holding the current values, or NONE if neither slot is valid.
+	private int mSlot = NONE;
+	// The sequence number of the current slot.
+	private long mSequence = 0;
+
+	private CRC32 mChecksum = new CRC32();
+
+	/**
+	 * Opens a file, creating it if it does not exist.
+	 *
+	 * @param File file - The file.
+	 * @param int count - The number of values held, up to MAX_COUNT.
+	 * @throws IOException if the file cannot be opened or mapped.
+	 */
+	public MappedIntFile(File file, int count) throws IOException
+	{
+		if ((count < 1) || (count > MAX_COUNT))
+		{
+			throw new IllegalArgumentException("Value count out of range: " + count);
+		}
+
+		mCount = count;
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+
+		try
+		{
+			// The mapping remains valid once the file is closed.
+			mBuffer = randomAccessFile.getChannel().map(
+					FileChannel.MapMode.READ_WRITE, 0, (SLOT_SPACING + SLOT_SIZE));
+		} finally
+		{
+			randomAccessFile.close();
+		}
+
+		int i;
+		for (i = 0; i <= 1; i++)
+		{
+			if (isValid(i) && ((mSlot == NONE)
+					|| (mBuffer.getLong((i * SLOT_SPACING) + SEQUENCE_OFFSET) > mSequence)))
+			{
+				mSlot = i;
+				mSequence = mBuffer.getLong((i * SLOT_SPACING) + SEQUENCE_OFFSET);
+			}
+		}
+	}
+
+	/**
+	 * Determines if the file holds values, which it does once written.
+	 *
+	 * @return boolean
+	 */
+	public boolean hasValues()
+	{
+		return (mSlot != NONE);
+	}
+
+	/**
+	 * Gets a value. The file must hold values.
+	 *
+	 * @param int index - The value index.
+	 * @return int
+	 */
+	public int get(int index)
+	{
+		return mBuffer.getInt((mSlot * SLOT_SPACING) + VALUES_OFFSET + (index * 4));
+	}
+
+	/**
+	 * Writes every value and syncs them to storage. Returns once the
+	 * values are stored.
+	 *
+	 * @param int[] values - The values, by index.
+	 */
+	public void write(int[] values)
+	{
+		int slot = (mSlot == 0) ? 1 : 0;
+		int offset = (slot * SLOT_SPACING);
+
+		long sequence = (mSequence + 1);
+
+		mBuffer.putLong(offset + SEQUENCE_OFFSET, sequence);
+		mBuffer.putInt(offset + COUNT_OFFSET, mCount);
+
+		int i;
+		for (i = 0; i <= (mCount - 1); i++)
+		{
+			mBuffer.putInt(offset + VALUES_OFFSET + (i * 4), values[i]);
+		}
+
+		mBuffer.putInt(getChecksumOffset(slot), getChecksum(slot));
+
+		mBuffer.force();
+
+		mSlot = slot;
+		mSequence = sequence;
+	}
+
+	/**
+	 * Determines if a slot holds a complete write of this file's values.
+	 *
+	 * @param int slot - The slot.
+	 * @return boolean
+	 */
+	private boolean isValid(int slot)
+	{
+		return (mBuffer.getInt((slot * SLOT_SPACING) + COUNT_OFFSET) == mCount)
+				&& (mBuffer.getLong((slot * SLOT_SPACING) + SEQUENCE_OFFSET) > 0)
+				&& (mBuffer.getInt(getChecksumOffset(slot)) == getChecksum(slot));
+	}
+
+	/**
+	 * Gets the checksum of the sequence number, count and values in a slot.
+	 *
+	 * @param int slot - The slot.
+	 * @return int
+	 */
+	private int getChecksum(int slot)
+	{
+		mChecksum.reset();
+
+		int end = getChecksumOffset(slot);
+
+		int i;
+		for (i = (slot * SLOT_SPACING); i <= (end - 1); i++)
+		{
+			mChecksum.update(mBuffer.get(i));
+		}
+
+		return (int) mChecksum.getValue();
+	}
+
+	/**
+	 * Gets the offset of the checksum of a slot.
+	 *
+	 * @param int slot - The slot.
+	 * @return int
+	 */
+	private int getChecksumOffset(int slot)
+	{
+		return ((slot * SLOT_SPACING) + VALUES_OFFSET + (mCount * 4));
+	}
+
+	/**
+	 * Gets the sequence number of the current values, which increases with
+	 * each write.
+	 *
+	 * @return long - The sequence number, or 0 if the file holds no values.
+	 */
+	public long getSequence()
+	{
+		return mSequence;
+	}
+
+	public int getCount()
+	{
+		return mCount;
+	}
+}
@@ -0,0 +1,78 @@
+package org.ruscoe.sheep.util;
+
+/**
+ * Text utility functions which write into a caller-supplied character
+ * buffer, so text drawn every frame can be built without allocating Strings.
+ *
+ * @author Dan Ruscoe (ruscoe.org)
+ * @version 1.0
+ */
+public class TextUtil
+{
+	// The longest text written by formatScore(): two 11 character integers
+	// either side of the separator.
+	public static final int MAX_SCORE_TEXT_LENGTH = 25;
+
+	// The separator between the score and high score.
+	private static final char[] SCORE_SEPARATOR = { ' ', '/', ' ' };
+
+	/**
+	 * Writes the player's score and high score, as "score / highScore".
+	 *
+	 * @param char[] buffer - Receives the text. At least
+	 * 	MAX_SCORE_TEXT_LENGTH characters long.
+	 * @param int score - The player's score.
+	 * @param int highScore - The player's high score.
+	 * @return int - The number of characters written.
+	 */
+	public static int formatScore(char[] buffer, int score, int highScore)
+	{
+		int length = writeInt(buffer, 0, score);
+
+		System.arraycopy(SCORE_SEPARATOR, 0, buffer, length, SCORE_SEPARATOR.length);
+		length += SCORE_SEPARATOR.length;
+
+		return writeInt(buffer, length, highScore);
+	}
+
+	/**
+	 * Writes the decimal representation of an int, as Integer.toString().
+	 *
+	 * @param char[] buffer - Receives the text.
+	 * @param int offset - The index of the first character to write.
+	 * @param int value - The value to write.
+	 * @return int - The index following the last character written.
+	 */
+	public static int writeInt(char[] buffer, int offset, int value)
+	{
+		// Work with the negative value, which can hold Integer.MIN_VALUE.
+		int remaining = (value < 0) ? value : -value;
+
+		// Count the digits.
+		int digits = 1;
+		int i;
+		for (i = remaining; i <= -10; i /= 10)
+		{
+			digits++;
+		}
+
+		int position = offset;
+
+		if (value < 0)
+		{
+			buffer[position] = '-';
+			position++;
+		}
+
+		int end = (position + digits);
+
+		// Write the digits from last to first.
+		for (i = (end - 1); i >= position; i--)
+		{
+			buffer[i] = (char) ('0' - (remaining % 10));
+			remaining /= 10;
+		}
+
+		return end;
+	}
+}